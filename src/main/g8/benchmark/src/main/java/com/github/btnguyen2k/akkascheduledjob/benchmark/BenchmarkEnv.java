@@ -0,0 +1,249 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import akka.actor.Actor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.cluster.Cluster;
+import akka.cluster.pubsub.DistributedPubSub;
+import akka.cluster.pubsub.DistributedPubSubMediator;
+import com.github.ddth.akka.AkkaUtils;
+import com.github.ddth.akka.cluster.MasterActor;
+import com.github.ddth.akka.cluster.scheduling.ClusterTickFanOutActor;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.akka.scheduling.tickfanout.MultiNodePubSubBasedTickFanOutActor;
+import com.github.ddth.akka.scheduling.tickfanout.SingleNodeTickFanOutActor;
+import com.github.ddth.commons.utils.SerializationUtils;
+import com.github.ddth.dlock.impl.inmem.InmemDLockFactory;
+import com.github.ddth.pubsub.impl.universal.idint.UniversalInmemPubSubHub;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.apache.commons.lang3.StringUtils;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process scheduling environment for benchmarks: an actor system, the tick fan-out actor of
+ * the selected mode (backed by in-memory dlock and pub/sub stand-ins) and a set of workers.
+ *
+ * <p>
+ * Ticks are injected at the point where the fan-out actor of each mode hands them over to the
+ * transport, so that a benchmark measures the same path a real tick travels to
+ * {@code BaseWorker.doJob}:
+ * </p>
+ * <ul>
+ * <li>{@code single-node}: published to the local event stream.</li>
+ * <li>{@code multi-node}: serialized and published to the pub/sub channel the
+ * {@link MultiNodePubSubBasedTickFanOutActor} listens on.</li>
+ * <li>{@code cluster}: published via the distributed pub/sub mediator of a single-member
+ * cluster.</li>
+ * </ul>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class BenchmarkEnv {
+    public final static String MODE_SINGLE_NODE = "single-node";
+    public final static String MODE_MULTI_NODE = "multi-node";
+    public final static String MODE_CLUSTER = "cluster";
+
+    /**
+     * Pub/sub channel used in multi-node mode.
+     */
+    public final static String CHANNEL_NAME = "benchmark-ticks";
+
+    /**
+     * Distributed pub/sub topic ticks are published to in cluster mode.
+     */
+    public final static String CLUSTER_TICK_TOPIC = TickMessage.class.getName();
+
+    /**
+     * Build the actor system configuration for a benchmark run.
+     *
+     * @param mode
+     * @param dispatcherThroughput {@code worker-dispatcher.throughput}
+     * @param parallelismFactor    {@code worker-dispatcher.fork-join-executor.parallelism-factor}
+     * @param parallelismMax       {@code worker-dispatcher.fork-join-executor.parallelism-max}
+     * @return
+     */
+    public static Config buildConfig(String mode, int dispatcherThroughput,
+            double parallelismFactor, int parallelismMax) {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("akka.log-dead-letters", 0);
+        settings.put("akka.log-dead-letters-during-shutdown", "off");
+        settings.put("akka.actor.worker-dispatcher.type", "Dispatcher");
+        settings.put("akka.actor.worker-dispatcher.executor", "fork-join-executor");
+        settings.put("akka.actor.worker-dispatcher.throughput", dispatcherThroughput);
+        settings.put("akka.actor.worker-dispatcher.fork-join-executor.parallelism-min", 2);
+        settings.put("akka.actor.worker-dispatcher.fork-join-executor.parallelism-factor",
+                parallelismFactor);
+        settings.put("akka.actor.worker-dispatcher.fork-join-executor.parallelism-max",
+                parallelismMax);
+        if (StringUtils.equalsIgnoreCase(MODE_CLUSTER, mode)) {
+            settings.put("akka.actor.provider", "akka.cluster.ClusterActorRefProvider");
+            settings.put("akka.remote.log-remote-lifecycle-events", "off");
+            settings.put("akka.remote.netty.tcp.hostname", "127.0.0.1");
+            settings.put("akka.remote.netty.tcp.port", 0);
+            settings.put("akka.cluster.roles", Collections.singletonList("master"));
+            settings.put("akka.cluster.metrics.enabled", "off");
+            settings.put("akka.cluster.pub-sub.gossip-interval", "10ms");
+            settings.put("akka.cluster.distributed-data.gossip-interval", "10ms");
+        }
+        return ConfigFactory.parseMap(settings);
+    }
+
+    private final String mode;
+    private final ActorSystem actorSystem;
+    private final List<ActorRef> workers = new ArrayList<>();
+    private InmemDLockFactory dlockFactory;
+    private UniversalInmemPubSubHub pubSubHub;
+    private ActorRef mediator;
+
+    public BenchmarkEnv(String mode, Config config) {
+        this.mode = mode;
+        actorSystem = AkkaUtils.createActorSystem("benchmark", config);
+        if (StringUtils.equalsIgnoreCase(MODE_CLUSTER, mode)) {
+            Cluster cluster = Cluster.get(actorSystem);
+            cluster.join(cluster.selfAddress());
+            ClusterTickFanOutActor.newInstance(actorSystem);
+            MasterActor.newInstance(actorSystem);
+            mediator = DistributedPubSub.get(actorSystem).mediator();
+        } else if (StringUtils.equalsIgnoreCase(MODE_MULTI_NODE, mode)) {
+            dlockFactory = new InmemDLockFactory();
+            dlockFactory.setLockNamePrefix("benchmark").init();
+            pubSubHub = new UniversalInmemPubSubHub().init();
+            MultiNodePubSubBasedTickFanOutActor.newInstance(actorSystem,
+                    dlockFactory.createLock("tick-fan-out"),
+                    MultiNodePubSubBasedTickFanOutActor.DEFAULT_DLOCK_TIME_MS, pubSubHub,
+                    CHANNEL_NAME);
+        } else {
+            SingleNodeTickFanOutActor.newInstance(actorSystem);
+        }
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public ActorSystem getActorSystem() {
+        return actorSystem;
+    }
+
+    /**
+     * Start {@code numWorkers} instances of a worker class.
+     *
+     * @param clazz
+     * @param numWorkers
+     * @return
+     */
+    public BenchmarkEnv startWorkers(Class<? extends Actor> clazz, int numWorkers) {
+        for (int i = 0; i < numWorkers; i++) {
+            workers.add(actorSystem.actorOf(Props.create(clazz),
+                    clazz.getSimpleName() + "-" + workers.size()));
+        }
+        return this;
+    }
+
+    /**
+     * Start {@code numWorkers} instances of a worker class, each constructed with its own dlock
+     * (named after the worker, from an in-memory dlock factory) if {@code withDlock} is
+     * {@code true}.
+     *
+     * @param clazz
+     * @param numWorkers
+     * @param withDlock
+     * @return
+     */
+    public BenchmarkEnv startWorkers(Class<? extends Actor> clazz, int numWorkers,
+            boolean withDlock) {
+        if (!withDlock) {
+            return startWorkers(clazz, numWorkers);
+        }
+        if (dlockFactory == null) {
+            dlockFactory = new InmemDLockFactory();
+            dlockFactory.setLockNamePrefix("benchmark").init();
+        }
+        for (int i = 0; i < numWorkers; i++) {
+            String name = clazz.getSimpleName() + "-" + workers.size();
+            workers.add(actorSystem
+                    .actorOf(Props.create(clazz, dlockFactory.createLock(name)), name));
+        }
+        return this;
+    }
+
+    /**
+     * Number of workers started so far.
+     *
+     * @return
+     */
+    public int getNumWorkers() {
+        return workers.size();
+    }
+
+    /**
+     * Inject a tick into the fan-out path of the current mode.
+     *
+     * @param tick
+     */
+    public void inject(TickMessage tick) {
+        if (mediator != null) {
+            mediator.tell(new DistributedPubSubMediator.Publish(CLUSTER_TICK_TOPIC, tick),
+                    ActorRef.noSender());
+        } else if (pubSubHub != null) {
+            pubSubHub.publish(CHANNEL_NAME,
+                    pubSubHub.createMessage(SerializationUtils.toByteArray(tick)));
+        } else {
+            actorSystem.eventStream().publish(tick);
+        }
+    }
+
+    /**
+     * Inject probe ticks until all {@link ProbeWorker}s have subscribed and received one.
+     *
+     * @param timeoutMs
+     * @throws InterruptedException
+     */
+    public void awaitReady(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            TickMessage tick = new TickMessage();
+            CountDownLatch latch = LatencyProbe.expect(tick, workers.size());
+            try {
+                inject(tick);
+                if (latch.await(100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } finally {
+                LatencyProbe.forget(tick);
+            }
+        }
+        throw new IllegalStateException(
+                "Workers were not ready after " + timeoutMs + "ms in mode [" + mode + "]!");
+    }
+
+    /**
+     * Shutdown the actor system and release the in-memory backends.
+     *
+     * @throws Exception
+     */
+    public void destroy() throws Exception {
+        try {
+            Await.result(actorSystem.terminate(), Duration.create(30, TimeUnit.SECONDS));
+        } finally {
+            if (pubSubHub != null) {
+                pubSubHub.destroy();
+            }
+            if (dlockFactory != null) {
+                dlockFactory.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
+import com.github.ddth.akka.scheduling.BaseWorker;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+import com.github.ddth.akka.scheduling.annotation.Scheduling;
+import com.github.ddth.dlock.IDLock;
+
+/**
+ * Probe workers for {@link LocalCoordinationBenchmark}: the same no-op job behind the library's
+ * dlock-based coordination ({@link BaseWorker} constructed with a dlock) and behind
+ * {@link BaseScheduledWorker}'s local fast path, for {@code TAKE_ALL_TASKS} and
+ * {@code LOCAL_SINGLETON}.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class CoordinationProbeWorkers {
+    @Scheduling(value = "* * *",
+            workerCoordinationPolicy = WorkerCoordinationPolicy.TAKE_ALL_TASKS)
+    public static class DlockTakeAllTasks extends BaseWorker {
+        public DlockTakeAllTasks(IDLock dlock) {
+            super(dlock);
+        }
+
+        @Override
+        protected boolean isTickMatched(TickMessage tick) {
+            return true;
+        }
+
+        @Override
+        protected void doJob(String dlockId, TickMessage tick) {
+            LatencyProbe.arrive(tick);
+        }
+    }
+
+    @Scheduling(value = "* * *",
+            workerCoordinationPolicy = WorkerCoordinationPolicy.LOCAL_SINGLETON)
+    public static class DlockLocalSingleton extends DlockTakeAllTasks {
+        public DlockLocalSingleton(IDLock dlock) {
+            super(dlock);
+        }
+    }
+
+    @Scheduling(value = "* * *",
+            workerCoordinationPolicy = WorkerCoordinationPolicy.TAKE_ALL_TASKS)
+    public static class LocalTakeAllTasks extends BaseScheduledWorker {
+        @Override
+        protected boolean isTickMatched(TickMessage tick) {
+            return true;
+        }
+
+        @Override
+        protected void execute(String dlockId, TickMessage tick) {
+            LatencyProbe.arrive(tick);
+        }
+    }
+
+    @Scheduling(value = "* * *",
+            workerCoordinationPolicy = WorkerCoordinationPolicy.LOCAL_SINGLETON)
+    public static class LocalLocalSingleton extends LocalTakeAllTasks {
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronSchedule;
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one tick with {@code numWorkers} scheduled workers: every worker matching the tick
+ * against its schedule ({@code per-worker} engine) versus popping only due workers from a
+ * {@link CronScheduler} ({@code heap} engine).
+ *
+ * <p>
+ * Workers get a mix of every-few-seconds, every-minute and hourly schedules. Only the scheduling
+ * decision is measured, not message delivery to the workers (which the {@code heap} engine also
+ * saves for workers that are not due).
+ * </p>
+ *
+ * <p>
+ * Run with: {@code sbt "benchmark/jmh:run .*CronSchedulingBenchmark.*"}
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CronSchedulingBenchmark {
+    public final static String ENGINE_PER_WORKER = "per-worker";
+    public final static String ENGINE_HEAP = "heap";
+
+    private final static String[] EXPRESSIONS = { "*/5 * *", "*/10 * *", "*/30 * *", "0 * *",
+            "15 */2 *", "30 */5 *", "0 0 *", "0 30 */2", "45 15 *", "0 0 0" };
+
+    @Param({ ENGINE_PER_WORKER, ENGINE_HEAP })
+    public String engine;
+
+    @Param({ "1000", "10000", "50000" })
+    public int numWorkers;
+
+    private CronSchedule[] schedules;
+    private CronScheduler<Integer> scheduler;
+    private long tickMs;
+
+    @Setup
+    public void setup() {
+        ZoneId zoneId = ZoneId.systemDefault();
+        CronSchedule[] compiled = new CronSchedule[EXPRESSIONS.length];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = CronSchedule.parse(EXPRESSIONS[i], zoneId);
+        }
+        tickMs = System.currentTimeMillis() / 1000 * 1000;
+        schedules = new CronSchedule[numWorkers];
+        scheduler = new CronScheduler<>();
+        for (int i = 0; i < numWorkers; i++) {
+            schedules[i] = compiled[i % compiled.length];
+            scheduler.add(i, schedules[i], tickMs, false);
+        }
+    }
+
+    private int fired;
+
+    /**
+     * Process the next tick (one second after the previous one).
+     */
+    @Benchmark
+    public void tick(Blackhole bh) {
+        tickMs += 1000;
+        fired = 0;
+        if (ENGINE_PER_WORKER.equals(engine)) {
+            for (int i = 0; i < schedules.length; i++) {
+                if (schedules[i].matches(tickMs)) {
+                    fired++;
+                    bh.consume(i);
+                }
+            }
+        } else {
+            scheduler.fire(tickMs, worker -> {
+                fired++;
+                bh.consume(worker);
+            });
+        }
+        bh.consume(fired);
+    }
+}
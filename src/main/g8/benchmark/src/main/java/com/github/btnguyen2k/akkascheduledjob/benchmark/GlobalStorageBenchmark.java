@@ -0,0 +1,90 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import com.github.btnguyen2k.akkascheduledjob.GlobalHandle;
+import com.github.btnguyen2k.akkascheduledjob.GlobalKey;
+import com.github.btnguyen2k.akkascheduledjob.RegistryGlobal;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of reading a component from application's global storage: the string API
+ * ({@code getFromGlobalStorage(key, clazz)}: map lookup and value conversion, or
+ * {@code getFromGlobalStorage(key)} and a cast) versus a {@link GlobalHandle} resolved once.
+ *
+ * <p>
+ * {@code numItems} items are stored, as a populated application would. Run with:
+ * {@code sbt "benchmark/jmh:run .*GlobalStorageBenchmark.*"}
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+public class GlobalStorageBenchmark {
+    private final static String KEY_PREFIX = "benchmark-item-";
+
+    @Param({ "16", "256" })
+    public int numItems;
+
+    private final static GlobalKey<WorkerDirectory> KEY = GlobalKey
+            .of("benchmark-worker-directory", WorkerDirectory.class);
+
+    private GlobalHandle<WorkerDirectory> handle;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < numItems; i++) {
+            RegistryGlobal.putToGlobalStorage(KEY_PREFIX + i, new Object());
+        }
+        RegistryGlobal.putToGlobalStorage(KEY, new WorkerDirectory());
+        handle = RegistryGlobal.getGlobalHandle(KEY);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (int i = 0; i < numItems; i++) {
+            RegistryGlobal.removeFromGlobalStorage(KEY_PREFIX + i);
+        }
+        RegistryGlobal.removeFromGlobalStorage(KEY.getName());
+    }
+
+    @Benchmark
+    public WorkerDirectory stringKeyWithConversion() {
+        return RegistryGlobal.getFromGlobalStorage(KEY.getName(), WorkerDirectory.class);
+    }
+
+    @Benchmark
+    public WorkerDirectory stringKeyWithCast() {
+        return (WorkerDirectory) RegistryGlobal.getFromGlobalStorage(KEY.getName());
+    }
+
+    @Benchmark
+    public WorkerDirectory typedKey() {
+        return RegistryGlobal.getFromGlobalStorage(KEY);
+    }
+
+    @Benchmark
+    public WorkerDirectory handle() {
+        return handle.get();
+    }
+}
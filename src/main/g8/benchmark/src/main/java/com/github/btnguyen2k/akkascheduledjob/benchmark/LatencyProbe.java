@@ -0,0 +1,56 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tracks injected ticks until they have reached {@code doJob} of all expected workers.
+ *
+ * <p>
+ * Ticks not registered via {@link #expect(TickMessage, int)} (e.g. the regular ticks emitted
+ * every second by the tick fan-out actor) are silently ignored.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class LatencyProbe {
+    private final static ConcurrentMap<String, CountDownLatch> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Register a tick that is about to be injected.
+     *
+     * @param tick
+     * @param numWorkers number of workers expected to receive the tick
+     * @return latch that reaches zero when all workers have received the tick
+     */
+    public static CountDownLatch expect(TickMessage tick, int numWorkers) {
+        CountDownLatch latch = new CountDownLatch(numWorkers);
+        pending.put(tick.getId(), latch);
+        return latch;
+    }
+
+    /**
+     * Called by workers when a tick reaches {@code doJob}.
+     *
+     * @param tick
+     */
+    public static void arrive(TickMessage tick) {
+        CountDownLatch latch = pending.get(tick.getId());
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Stop tracking a tick.
+     *
+     * @param tick
+     */
+    public static void forget(TickMessage tick) {
+        pending.remove(tick.getId());
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import akka.actor.Actor;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tick-to-{@code doJob} cost of the library's dlock-based coordination versus
+ * {@code BaseScheduledWorker}'s local fast path, in single-node mode.
+ *
+ * <p>
+ * Add {@code -prof gc} to compare allocations per tick:
+ * {@code sbt "benchmark/jmh:run -prof gc .*LocalCoordinationBenchmark.*"}
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LocalCoordinationBenchmark {
+    public final static String COORDINATION_DLOCK = "dlock";
+    public final static String COORDINATION_LOCAL = "local";
+
+    private final static long TICK_TIMEOUT_MS = 10000;
+
+    @Param({ COORDINATION_DLOCK, COORDINATION_LOCAL })
+    public String coordination;
+
+    @Param({ "TAKE_ALL_TASKS", "LOCAL_SINGLETON" })
+    public WorkerCoordinationPolicy policy;
+
+    @Param({ "1", "128" })
+    public int numWorkers;
+
+    private BenchmarkEnv env;
+
+    private Class<? extends Actor> workerClass(boolean dlock) {
+        if (policy == WorkerCoordinationPolicy.LOCAL_SINGLETON) {
+            return dlock ? CoordinationProbeWorkers.DlockLocalSingleton.class
+                    : CoordinationProbeWorkers.LocalLocalSingleton.class;
+        }
+        return dlock ? CoordinationProbeWorkers.DlockTakeAllTasks.class
+                : CoordinationProbeWorkers.LocalTakeAllTasks.class;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        boolean dlock = COORDINATION_DLOCK.equals(coordination);
+        env = new BenchmarkEnv(BenchmarkEnv.MODE_SINGLE_NODE,
+                BenchmarkEnv.buildConfig(BenchmarkEnv.MODE_SINGLE_NODE, 5, 1.0, 64));
+        env.startWorkers(workerClass(dlock), numWorkers, dlock);
+        env.awaitReady(30000);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        env.destroy();
+    }
+
+    /**
+     * One tick at a time: time from injection until the tick reached {@code doJob} of all
+     * workers.
+     */
+    @Benchmark
+    public void tickToDoJob() throws InterruptedException {
+        TickMessage tick = new TickMessage();
+        CountDownLatch latch = LatencyProbe.expect(tick, numWorkers);
+        try {
+            env.inject(tick);
+            if (!latch.await(TICK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException(
+                        "Tick did not reach all workers within " + TICK_TIMEOUT_MS + "ms!");
+            }
+        } finally {
+            LatencyProbe.forget(tick);
+        }
+    }
+}
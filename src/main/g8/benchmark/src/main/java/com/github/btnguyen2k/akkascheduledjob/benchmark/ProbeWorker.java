@@ -0,0 +1,33 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import com.github.ddth.akka.scheduling.BaseWorker;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+import com.github.ddth.akka.scheduling.annotation.Scheduling;
+
+/**
+ * No-op worker that reports each received tick to {@link LatencyProbe}.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@Scheduling(value = "* * *", workerCoordinationPolicy = WorkerCoordinationPolicy.TAKE_ALL_TASKS)
+public class ProbeWorker extends BaseWorker {
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Injected ticks can arrive many times per second, every one of them must reach
+     * {@link #doJob(String, TickMessage)}.
+     * </p>
+     */
+    @Override
+    protected boolean isTickMatched(TickMessage tick) {
+        return true;
+    }
+
+    @Override
+    protected void doJob(String dlockId, TickMessage tick) {
+        LatencyProbe.arrive(tick);
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.PubSubHelper;
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.TickBatchPublisher;
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.TickBatchSubscriber;
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.TickCodec;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.commons.utils.SerializationUtils;
+import com.github.ddth.pubsub.impl.universal.idint.UniversalInmemPubSubHub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Java-serialized ticks (one pub/sub message per tick, as published by
+ * {@code MultiNodePubSubBasedTickFanOutActor}) versus {@link TickCodec} frames with
+ * {@code batchSize} ticks per message, over the in-memory pub/sub hub.
+ *
+ * <p>
+ * Run with: {@code sbt "benchmark/jmh:run .*TickEncodingBenchmark.*"}
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TickEncodingBenchmark {
+    public final static String ENCODING_JAVA = "java";
+    public final static String ENCODING_BINARY = "binary";
+
+    private final static int TICKS_PER_INVOCATION = 100;
+    private final static String CHANNEL_NAME = "tick-encoding-benchmark";
+    private final static long DELIVERY_TIMEOUT_MS = 10000;
+
+    @Param({ ENCODING_JAVA, ENCODING_BINARY })
+    public String encoding;
+
+    /**
+     * Ticks per pub/sub message ({@code binary} encoding only, ignored otherwise), must divide
+     * {@link #TICKS_PER_INVOCATION}.
+     */
+    @Param({ "1", "10", "100" })
+    public int batchSize;
+
+    private UniversalInmemPubSubHub pubSubHub;
+    private Runnable unsubscriber;
+    private TickBatchPublisher publisher;
+    private TickMessage[] ticks;
+    private byte[] javaPayload, binaryPayload;
+    private final AtomicLong delivered = new AtomicLong();
+    private long expected;
+
+    @Setup
+    public void setup() {
+        pubSubHub = new UniversalInmemPubSubHub().init();
+        unsubscriber = PubSubHelper.subscribe(pubSubHub, CHANNEL_NAME,
+                new TickBatchSubscriber(tick -> delivered.incrementAndGet()));
+        publisher = new TickBatchPublisher(pubSubHub, CHANNEL_NAME,
+                ENCODING_BINARY.equals(encoding) ? batchSize : 1);
+        ticks = new TickMessage[TICKS_PER_INVOCATION];
+        for (int i = 0; i < ticks.length; i++) {
+            ticks[i] = new TickMessage();
+        }
+        javaPayload = SerializationUtils.toByteArray(ticks[0]);
+        TickCodec codec = new TickCodec();
+        for (int i = 0; i < batchSize; i++) {
+            codec.append(ticks[i]);
+        }
+        binaryPayload = codec.finish();
+    }
+
+    @TearDown
+    public void tearDown() {
+        unsubscriber.run();
+        pubSubHub.destroy();
+    }
+
+    private void awaitDelivered() {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MS;
+        while (delivered.get() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Ticks not delivered within "
+                        + DELIVERY_TIMEOUT_MS + "ms!");
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Publish ticks and wait until the subscriber has decoded all of them.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS_PER_INVOCATION)
+    public void publishAndDeliver() {
+        expected += TICKS_PER_INVOCATION;
+        if (ENCODING_JAVA.equals(encoding)) {
+            for (TickMessage tick : ticks) {
+                PubSubHelper.publish(pubSubHub, CHANNEL_NAME, SerializationUtils.toByteArray(tick));
+            }
+        } else {
+            for (TickMessage tick : ticks) {
+                publisher.offer(tick);
+            }
+            publisher.flush();
+        }
+        awaitDelivered();
+    }
+
+    /**
+     * Encoding cost alone, per tick.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS_PER_INVOCATION)
+    public void encode(Blackhole bh) {
+        if (ENCODING_JAVA.equals(encoding)) {
+            for (TickMessage tick : ticks) {
+                bh.consume(SerializationUtils.toByteArray(tick));
+            }
+        } else {
+            TickCodec codec = new TickCodec();
+            for (int i = 0; i < ticks.length; i++) {
+                codec.append(ticks[i]);
+                if (codec.getCount() >= batchSize) {
+                    bh.consume(codec.finish());
+                }
+            }
+        }
+    }
+
+    /**
+     * Decoding cost alone, per tick.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TICKS_PER_INVOCATION)
+    public void decode(Blackhole bh) {
+        if (ENCODING_JAVA.equals(encoding)) {
+            for (int i = 0; i < TICKS_PER_INVOCATION; i++) {
+                bh.consume(SerializationUtils.fromByteArray(javaPayload, TickMessage.class));
+            }
+        } else {
+            for (int i = 0; i < TICKS_PER_INVOCATION; i += batchSize) {
+                TickCodec.decode(binaryPayload, bh::consume);
+            }
+        }
+    }
+}
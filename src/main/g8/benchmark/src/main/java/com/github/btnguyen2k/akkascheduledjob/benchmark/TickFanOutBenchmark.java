@@ -0,0 +1,124 @@
+package com.github.btnguyen2k.akkascheduledjob.benchmark;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tick-to-{@code doJob} latency and throughput of the tick fan-out path.
+ *
+ * <p>
+ * By default, runs the three scheduling modes with 16 workers and the
+ * {@code akka.actor.worker-dispatcher} settings of {@code application.conf} (a few minutes). Sweep
+ * number of workers and dispatcher settings with {@code -p} (the full grid takes hours), e.g.:
+ * {@code sbt "benchmark/jmh:run -p numWorkers=1,16,128 -p dispatcherThroughput=1,5
+ * -p parallelismFactor=1.0,2.0 -p parallelismMax=8,64 .*TickFanOutBenchmark.*"}
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TickFanOutBenchmark {
+    private final static int BURST_SIZE = 100;
+    private final static long TICK_TIMEOUT_MS = 10000;
+
+    @Param({ BenchmarkEnv.MODE_SINGLE_NODE, BenchmarkEnv.MODE_MULTI_NODE,
+            BenchmarkEnv.MODE_CLUSTER })
+    public String mode;
+
+    @Param({ "16" })
+    public int numWorkers;
+
+    @Param({ "1" })
+    public int dispatcherThroughput;
+
+    @Param({ "2.0" })
+    public double parallelismFactor;
+
+    @Param({ "64" })
+    public int parallelismMax;
+
+    private BenchmarkEnv env;
+
+    @Setup
+    public void setup() throws Exception {
+        env = new BenchmarkEnv(mode, BenchmarkEnv
+                .buildConfig(mode, dispatcherThroughput, parallelismFactor, parallelismMax));
+        env.startWorkers(ProbeWorker.class, numWorkers);
+        env.awaitReady(30000);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        env.destroy();
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        if (!latch.await(TICK_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException(
+                    "Tick did not reach all workers within " + TICK_TIMEOUT_MS + "ms!");
+        }
+    }
+
+    /**
+     * One tick at a time: time from injection until the tick reached {@code doJob} of all
+     * workers.
+     */
+    @Benchmark
+    public void tickToDoJob() throws InterruptedException {
+        TickMessage tick = new TickMessage();
+        CountDownLatch latch = LatencyProbe.expect(tick, numWorkers);
+        try {
+            env.inject(tick);
+            await(latch);
+        } finally {
+            LatencyProbe.forget(tick);
+        }
+    }
+
+    /**
+     * Bursts of ticks injected back-to-back, to measure fan-out throughput under backlog.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BURST_SIZE)
+    public void tickBurst() throws InterruptedException {
+        TickMessage[] ticks = new TickMessage[BURST_SIZE];
+        CountDownLatch[] latches = new CountDownLatch[BURST_SIZE];
+        try {
+            for (int i = 0; i < BURST_SIZE; i++) {
+                ticks[i] = new TickMessage();
+                latches[i] = LatencyProbe.expect(ticks[i], numWorkers);
+                env.inject(ticks[i]);
+            }
+            for (CountDownLatch latch : latches) {
+                await(latch);
+            }
+        } finally {
+            for (TickMessage tick : ticks) {
+                if (tick != null) {
+                    LatencyProbe.forget(tick);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.btnguyen2k.akkascheduledjob.cluster;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.cluster.Cluster;
+import akka.cluster.pubsub.DistributedPubSub;
+import akka.cluster.pubsub.DistributedPubSubMediator;
+import com.github.btnguyen2k.akkascheduledjob.placement.ClusterLoadMonitorActor;
+import com.github.btnguyen2k.akkascheduledjob.placement.LoadAwarePlacement;
+
+/**
+ * {@link ClusterSupport} on top of Akka cluster, cluster-metrics and cluster-tools modules.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class AkkaClusterSupport extends ClusterSupport {
+    private final ActorSystem actorSystem;
+
+    public AkkaClusterSupport(ActorSystem actorSystem) {
+        this.actorSystem = actorSystem;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSelfAddress() {
+        return Cluster.get(actorSystem).selfAddress().toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The mediator acknowledges the subscription to {@code subscriber}.
+     * </p>
+     */
+    @Override
+    public void subscribe(String topic, ActorRef subscriber) {
+        DistributedPubSub.get(actorSystem).mediator()
+                .tell(new DistributedPubSubMediator.Subscribe(topic, subscriber), subscriber);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publish(String topic, Object message) {
+        DistributedPubSub.get(actorSystem).mediator()
+                .tell(new DistributedPubSubMediator.Publish(topic, message), ActorRef.noSender());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ActorRef startLoadMonitor(LoadAwarePlacement placement, long reportIntervalMs) {
+        return ClusterLoadMonitorActor.newInstance(actorSystem, placement, reportIntervalMs);
+    }
+}
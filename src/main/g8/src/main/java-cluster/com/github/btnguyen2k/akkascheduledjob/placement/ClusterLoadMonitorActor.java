@@ -0,0 +1,162 @@
+package com.github.btnguyen2k.akkascheduledjob.placement;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import akka.cluster.metrics.ClusterMetricsChanged;
+import akka.cluster.metrics.ClusterMetricsExtension;
+import akka.cluster.metrics.NodeMetrics;
+import akka.cluster.metrics.StandardMetrics;
+import akka.cluster.pubsub.DistributedPubSub;
+import akka.cluster.pubsub.DistributedPubSubMediator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.Duration;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds a {@link LoadAwarePlacement} on every member: CPU and heap usage of all members from
+ * Akka cluster metrics, in-flight jobs exchanged over the distributed pub/sub mediator.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class ClusterLoadMonitorActor extends AbstractActor {
+    /**
+     * Distributed pub/sub topic in-flight reports are published to.
+     */
+    public final static String TOPIC = "akka-scheduled-jobs-load";
+
+    /**
+     * In-flight jobs of a member.
+     */
+    public final static class InFlightReport implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String address;
+        private final int inFlight;
+
+        public InFlightReport(String address, int inFlight) {
+            this.address = address;
+            this.inFlight = inFlight;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+    }
+
+    /**
+     * Create a new {@link ClusterLoadMonitorActor} instance.
+     *
+     * @param actorSystem
+     * @param placement
+     * @param reportIntervalMs how often this member publishes its in-flight jobs
+     * @return
+     */
+    public static ActorRef newInstance(ActorSystem actorSystem, LoadAwarePlacement placement,
+            long reportIntervalMs) {
+        return actorSystem.actorOf(
+                Props.create(ClusterLoadMonitorActor.class, placement, reportIntervalMs),
+                ClusterLoadMonitorActor.class.getSimpleName());
+    }
+
+    private final static Object MSG_REPORT = "report";
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ClusterLoadMonitorActor.class);
+
+    private final LoadAwarePlacement placement;
+    private final long reportIntervalMs;
+    private ActorRef mediator;
+    private Cancellable reportTimer;
+
+    public ClusterLoadMonitorActor(LoadAwarePlacement placement, long reportIntervalMs) {
+        this.placement = placement;
+        this.reportIntervalMs = reportIntervalMs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+        ActorSystem system = getContext().getSystem();
+        ClusterMetricsExtension.get(system).subscribe(getSelf());
+        mediator = DistributedPubSub.get(system).mediator();
+        mediator.tell(new DistributedPubSubMediator.Subscribe(TOPIC, getSelf()), getSelf());
+        reportTimer = system.scheduler().schedule(Duration.create(0, TimeUnit.MILLISECONDS),
+                Duration.create(reportIntervalMs, TimeUnit.MILLISECONDS), getSelf(), MSG_REPORT,
+                getContext().dispatcher(), getSelf());
+        LOGGER.info("Load-aware placement started on member [" + placement.getSelfAddress()
+                + "].");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postStop() throws Exception {
+        if (reportTimer != null) {
+            reportTimer.cancel();
+        }
+        ClusterMetricsExtension.get(getContext().getSystem()).unsubscribe(getSelf());
+        super.postStop();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder().match(ClusterMetricsChanged.class, this::onMetrics)
+                .match(InFlightReport.class, msg -> placement
+                        .updateInFlight(msg.address, msg.inFlight, System.currentTimeMillis()))
+                .matchEquals(MSG_REPORT, msg -> mediator.tell(new DistributedPubSubMediator
+                        .Publish(TOPIC, new InFlightReport(placement.getSelfAddress(),
+                        placement.getLocalInFlight())), getSelf()))
+                .match(DistributedPubSubMediator.SubscribeAck.class, msg -> {
+                }).build();
+    }
+
+    private void onMetrics(ClusterMetricsChanged msg) {
+        Set<String> addresses = new HashSet<>();
+        for (NodeMetrics nodeMetrics : msg.getNodeMetrics()) {
+            String address = nodeMetrics.address().toString();
+            addresses.add(address);
+            double cpu = -1, heap = -1;
+            StandardMetrics.Cpu cpuMetrics = StandardMetrics.extractCpu(nodeMetrics);
+            if (cpuMetrics != null) {
+                if (cpuMetrics.cpuCombined().isDefined()) {
+                    cpu = ((Number) cpuMetrics.cpuCombined().get()).doubleValue();
+                } else if (cpuMetrics.systemLoadAverage().isDefined()) {
+                    cpu = ((Number) cpuMetrics.systemLoadAverage().get()).doubleValue()
+                            / Math.max(1, cpuMetrics.processors());
+                }
+            }
+            StandardMetrics.HeapMemory heapMetrics = StandardMetrics
+                    .extractHeapMemory(nodeMetrics);
+            if (heapMetrics != null) {
+                long max = heapMetrics.max().isDefined()
+                        ? ((Number) heapMetrics.max().get()).longValue()
+                        : heapMetrics.committed();
+                heap = max > 0 ? heapMetrics.used() / (double) max : -1;
+            }
+            placement.updateMetrics(address, cpu, heap);
+        }
+        placement.retainNodes(addresses, System.currentTimeMillis());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Cluster load: " + placement.getNodeLoads());
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.github.btnguyen2k.akkascheduledjob;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.btnguyen2k.akkascheduledjob.simulation.SimulationReport;
+import com.github.ddth.commons.utils.TypesafeConfigUtils;
+
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigResolveOptions;
@@ -66,8 +73,39 @@ public class Bootstrap {
         return config;
     }
 
+    /**
+     * Simulation mode: log the capacity report of the configured workers, simulated on a virtual
+     * clock (see {@link RegistryGlobal#simulate(Config)}), and optionally write it as JSON to
+     * {@code ddth-akka-scheduling.simulation.report-file}.
+     *
+     * @param config
+     * @since template-0.3.0
+     */
+    private static void simulate(Config config) {
+        SimulationReport report = RegistryGlobal.simulate(config);
+        LOGGER.info("Simulation report:\n" + report.format());
+        String reportFile = TypesafeConfigUtils
+                .getStringOptional(config, "ddth-akka-scheduling.simulation.report-file")
+                .orElse("");
+        if (!StringUtils.isBlank(reportFile)) {
+            try {
+                Files.write(Paths.get(reportFile),
+                        report.toJson().getBytes(StandardCharsets.UTF_8));
+                LOGGER.info("Simulation report written to [" + reportFile + "].");
+            } catch (IOException e) {
+                LOGGER.error("Cannot write simulation report to [" + reportFile + "]: "
+                        + e.getMessage(), e);
+            }
+        }
+    }
+
     public static void main(String[] args) {
         Config appConfig = loadConfig();
+        if (Boolean.getBoolean("simulation")) {
+            // -Dsimulation=true: simulate the workers instead of running them
+            simulate(appConfig);
+            return;
+        }
         Runtime.getRuntime().addShutdownHook(new Thread(() -> RegistryGlobal.destroy()));
         RegistryGlobal.init(appConfig);
     }
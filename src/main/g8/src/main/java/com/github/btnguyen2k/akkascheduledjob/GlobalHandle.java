@@ -0,0 +1,59 @@
+package com.github.btnguyen2k.akkascheduledjob;
+
+/**
+ * Resolved reference to an item in application's global storage, obtained once with
+ * {@link RegistryGlobal#getGlobalHandle(GlobalKey)} and kept (e.g. in a field of a worker).
+ *
+ * <p>
+ * {@link #get()} is a single volatile read: no map lookup, no value conversion. The handle follows
+ * the item: putting or removing it in global storage, through either the typed or the string API,
+ * updates the handle.
+ * </p>
+ *
+ * @param <T>
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public final class GlobalHandle<T> {
+    private final GlobalKey<T> key;
+    private volatile T value;
+
+    GlobalHandle(GlobalKey<T> key) {
+        this.key = key;
+    }
+
+    public GlobalKey<T> getKey() {
+        return key;
+    }
+
+    /**
+     * Get the item.
+     *
+     * @return {@code null} if there is no such item in global storage, or if the item is not of
+     * the key's type
+     */
+    public T get() {
+        return value;
+    }
+
+    /**
+     * Called by {@link RegistryGlobal} when the item is put or removed.
+     *
+     * @param value
+     * @return {@code false} if {@code value} is not of the key's type (the handle is then empty)
+     */
+    @SuppressWarnings("unchecked")
+    boolean set(Object value) {
+        boolean valid = value == null || key.getType().isInstance(value);
+        this.value = valid ? (T) value : null;
+        return valid;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "GlobalHandle[" + key + "]";
+    }
+}
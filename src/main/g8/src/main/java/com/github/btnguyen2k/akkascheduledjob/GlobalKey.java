@@ -0,0 +1,79 @@
+package com.github.btnguyen2k.akkascheduledjob;
+
+/**
+ * Typed key of an item in application's global storage (see
+ * {@link RegistryGlobal#getGlobalHandle(GlobalKey)}).
+ *
+ * <p>
+ * Declare keys once, as constants:
+ * </p>
+ *
+ * <pre>
+ * GlobalKey&lt;MyService&gt; KEY_MY_SERVICE = GlobalKey.of("my-service", MyService.class);
+ * GlobalKey&lt;Map&lt;String, DataSource&gt;&gt; KEY_DS = GlobalKey.of("datasources", Map.class);
+ * </pre>
+ *
+ * @param <T>
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public final class GlobalKey<T> {
+    /**
+     * Create a key.
+     *
+     * @param name name of the item in global storage, as used by the string API
+     * @param type type of the item, may be the raw type of a generic type
+     * @param <T>
+     * @return
+     */
+    public static <T> GlobalKey<T> of(String name, Class<? super T> type) {
+        return new GlobalKey<>(name, type);
+    }
+
+    private final String name;
+    private final Class<? super T> type;
+
+    private GlobalKey(String name, Class<? super T> type) {
+        if (name == null || type == null) {
+            throw new IllegalArgumentException("Name and type of a global key must not be null.");
+        }
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<? super T> getType() {
+        return type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof GlobalKey)) {
+            return false;
+        }
+        GlobalKey<?> other = (GlobalKey<?>) obj;
+        return name.equals(other.name) && type == other.type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return name.hashCode() * 31 + type.hashCode();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return name + "[" + type.getName() + "]";
+    }
+}
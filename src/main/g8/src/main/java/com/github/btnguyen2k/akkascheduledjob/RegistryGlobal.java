@@ -1,15 +1,53 @@
 package com.github.btnguyen2k.akkascheduledjob;
 
-import akka.actor.Actor;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
-import akka.actor.Props;
+import akka.dispatch.MessageDispatcher;
+import com.github.btnguyen2k.akkascheduledjob.bootstrap.StartupReport;
+import com.github.btnguyen2k.akkascheduledjob.cache.Caches;
+import com.github.btnguyen2k.akkascheduledjob.cache.ReadThroughCache;
+import com.github.btnguyen2k.akkascheduledjob.chain.JobChainActor;
+import com.github.btnguyen2k.akkascheduledjob.chain.JobChains;
+import com.github.btnguyen2k.akkascheduledjob.chain.JobChainsFactory;
+import com.github.btnguyen2k.akkascheduledjob.checkpoint.CheckpointStore;
+import com.github.btnguyen2k.akkascheduledjob.cluster.ClusterSupport;
+import com.github.btnguyen2k.akkascheduledjob.checkpoint.CheckpointStoreFactory;
+import com.github.btnguyen2k.akkascheduledjob.dispatch.DispatcherTuner;
+import com.github.btnguyen2k.akkascheduledjob.dispatch.TunableDispatcher;
+import com.github.btnguyen2k.akkascheduledjob.dispatch.TunableDispatcherConfigurator;
+import com.github.btnguyen2k.akkascheduledjob.dlock.InmemLockStore;
+import com.github.btnguyen2k.akkascheduledjob.dlock.JedisLockStore;
+import com.github.btnguyen2k.akkascheduledjob.dlock.LockStore;
+import com.github.btnguyen2k.akkascheduledjob.dlock.PipelinedDLockFactory;
+import com.github.btnguyen2k.akkascheduledjob.journal.ExecutionJournal;
+import com.github.btnguyen2k.akkascheduledjob.metrics.MetricsFactory;
+import com.github.btnguyen2k.akkascheduledjob.metrics.MetricsHttpEndpoint;
+import com.github.btnguyen2k.akkascheduledjob.metrics.MetricsRegistry;
+import com.github.btnguyen2k.akkascheduledjob.placement.LoadAwarePlacement;
+import com.github.btnguyen2k.akkascheduledjob.pool.PoolMetrics;
+import com.github.btnguyen2k.akkascheduledjob.pool.PoolWarmer;
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronDispatcherActor;
+import com.github.btnguyen2k.akkascheduledjob.simulation.ScheduleSimulation;
+import com.github.btnguyen2k.akkascheduledjob.simulation.SimulationReport;
+import com.github.btnguyen2k.akkascheduledjob.sink.JdbcSinks;
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.BatchingPubSubTickFanOutActor;
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.ShardedTickFanOutActor;
+import com.github.btnguyen2k.akkascheduledjob.trigger.JobTriggers;
+import com.github.btnguyen2k.akkascheduledjob.trigger.JobTriggersFactory;
+import com.github.btnguyen2k.akkascheduledjob.worker.InFlightJobs;
+import com.github.btnguyen2k.akkascheduledjob.worker.PartitionClaims;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerClass;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerExecutors;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerFactory;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerGroups;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerSpec;
 import com.github.ddth.akka.AkkaUtils;
 import com.github.ddth.akka.cluster.MasterActor;
 import com.github.ddth.akka.cluster.scheduling.ClusterTickFanOutActor;
 import com.github.ddth.akka.scheduling.tickfanout.MultiNodePubSubBasedTickFanOutActor;
 import com.github.ddth.akka.scheduling.tickfanout.SingleNodeTickFanOutActor;
-import com.github.ddth.commons.utils.ReflectionUtils;
+import com.github.ddth.commons.utils.DPathUtils;
 import com.github.ddth.commons.utils.TypesafeConfigUtils;
 import com.github.ddth.commons.utils.ValueUtils;
 import com.github.ddth.dlock.IDLock;
@@ -26,13 +64,25 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Application's global registry.
@@ -58,6 +108,255 @@ public class RegistryGlobal {
 
     private static ConcurrentMap<String, Object> globalStorage = new ConcurrentHashMap<>();
 
+    /**
+     * Handles resolved from global storage, by item name. Writes to global storage and creation of
+     * handles are serialized on this map, so that a handle never misses an update.
+     */
+    private final static ConcurrentMap<String, GlobalHandle<?>> globalHandles
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Data sources built from the {@code datasources} section of the configuration.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<Map<String, DataSource>> KEY_DATASOURCES = GlobalKey
+            .of("datasources", Map.class);
+
+    /**
+     * Factory of the dlock backend.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<IDLockFactory> KEY_DLOCK_FACTORY = GlobalKey
+            .of("dlock-factory", IDLockFactory.class);
+
+    /**
+     * Hub of the pub/sub backend.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<IPubSubHub<?, byte[]>> KEY_PUBSUB_HUB = GlobalKey
+            .of("pubsub-hub", IPubSubHub.class);
+
+    /**
+     * JDBC sinks built from the {@code jdbc-sinks} section of the configuration.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<JdbcSinks> KEY_JDBC_SINKS = GlobalKey
+            .of("jdbc-sinks", JdbcSinks.class);
+
+    /**
+     * Directory of workers running on this node.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<WorkerDirectory> KEY_WORKER_DIRECTORY = GlobalKey
+            .of("worker-directory", WorkerDirectory.class);
+
+    /**
+     * On-demand runs of workers (see {@link #triggerWorker(String)}).
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<JobTriggers> KEY_JOB_TRIGGERS = GlobalKey
+            .of("job-triggers", JobTriggers.class);
+
+    /**
+     * Dependencies between workers, declared with the {@code upstream} worker option.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<JobChains> KEY_JOB_CHAINS = GlobalKey
+            .of("job-chains", JobChains.class);
+
+    /**
+     * Store of worker checkpoints, if enabled.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<CheckpointStore> KEY_CHECKPOINT_STORE = GlobalKey
+            .of("checkpoint-store", CheckpointStore.class);
+
+    /**
+     * Tick fan-out actor of this node.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<ActorRef> KEY_TICK_FAN_OUT = GlobalKey
+            .of("tick-fan-out", ActorRef.class);
+
+    /**
+     * Cron dispatcher of scheduled workers, if the "heap" scheduler engine is enabled.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<ActorRef> KEY_CRON_DISPATCHER = GlobalKey
+            .of("cron-dispatcher", ActorRef.class);
+
+    /**
+     * Registry of worker metrics, if metrics are enabled.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<MetricsRegistry> KEY_METRICS_REGISTRY = GlobalKey
+            .of("metrics-registry", MetricsRegistry.class);
+
+    /**
+     * HTTP endpoint of metrics, if enabled.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<MetricsHttpEndpoint> KEY_METRICS_ENDPOINT = GlobalKey
+            .of("metrics-endpoint", MetricsHttpEndpoint.class);
+
+    /**
+     * Read-through caches built from the {@code caches} section of the configuration.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<Caches> KEY_CACHES = GlobalKey
+            .of("caches", Caches.class);
+
+    /**
+     * Journal of job executions, if enabled.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<ExecutionJournal> KEY_EXECUTION_JOURNAL = GlobalKey
+            .of("execution-journal", ExecutionJournal.class);
+
+    /**
+     * Metrics of the data sources' connection pools, by data source name.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<Map<String, PoolMetrics>> KEY_DATASOURCE_METRICS = GlobalKey
+            .of("datasource-metrics", Map.class);
+
+    /**
+     * Schedule-aware warmer of connection pools, if enabled.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<PoolWarmer> KEY_POOL_WARMER = GlobalKey
+            .of("pool-warmer", PoolWarmer.class);
+
+    /**
+     * Executors blocking workers offload their jobs to.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<WorkerExecutors> KEY_WORKER_EXECUTORS = GlobalKey
+            .of("worker-executors", WorkerExecutors.class);
+
+    /**
+     * Worker groups (bulkheads).
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<WorkerGroups> KEY_WORKER_GROUPS = GlobalKey
+            .of("worker-groups", WorkerGroups.class);
+
+    /**
+     * Auto-tuner of dispatchers, if enabled.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<DispatcherTuner> KEY_DISPATCHER_TUNER = GlobalKey
+            .of("dispatcher-tuner", DispatcherTuner.class);
+
+    /**
+     * Load-aware placement of global-singleton jobs, if enabled (cluster mode).
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<LoadAwarePlacement> KEY_PLACEMENT = GlobalKey
+            .of("placement", LoadAwarePlacement.class);
+
+    /**
+     * Registry of in-flight jobs, drained on shutdown.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<InFlightJobs> KEY_IN_FLIGHT_JOBS = GlobalKey
+            .of("in-flight-jobs", InFlightJobs.class);
+
+    /**
+     * Partition claims of the partitioned workers on this node, by worker name.
+     *
+     * @since template-0.3.0
+     */
+    public final static GlobalKey<Map<String, PartitionClaims>> KEY_PARTITION_CLAIMS = GlobalKey
+            .of("partition-claims", Map.class);
+
+    private static void updateGlobalHandle(String key, Object value) {
+        GlobalHandle<?> handle = globalHandles.get(key);
+        if (handle != null && !handle.set(value)) {
+            LOGGER.warn("Global storage item [" + key + "] of type [" + value.getClass().getName()
+                    + "] does not match handle " + handle + ", the handle is now empty!");
+        }
+    }
+
+    /**
+     * Resolve a handle to an item in application's global storage, for repeated reads (e.g. on
+     * every tick) without map lookup and value conversion. The item does not need to exist yet.
+     *
+     * @param key
+     * @param <T>
+     * @return
+     * @throws IllegalArgumentException if a handle of another type exists for the same name
+     * @since template-0.3.0
+     */
+    public static <T> GlobalHandle<T> getGlobalHandle(GlobalKey<T> key) {
+        GlobalHandle<?> handle = globalHandles.get(key.getName());
+        if (handle == null) {
+            synchronized (globalHandles) {
+                handle = globalHandles.get(key.getName());
+                if (handle == null) {
+                    GlobalHandle<T> newHandle = new GlobalHandle<>(key);
+                    newHandle.set(globalStorage.get(key.getName()));
+                    globalHandles.put(key.getName(), newHandle);
+                    return newHandle;
+                }
+            }
+        }
+        if (!handle.getKey().equals(key)) {
+            throw new IllegalArgumentException("Cannot resolve " + key + ": global storage item "
+                    + "is already resolved as " + handle.getKey() + ".");
+        }
+        @SuppressWarnings("unchecked")
+        GlobalHandle<T> result = (GlobalHandle<T>) handle;
+        return result;
+    }
+
+    /**
+     * Put an item to application's global storage.
+     *
+     * @param key
+     * @param value
+     * @param <T>
+     * @return the previous value associated with {@code key}, or {@code null} if there was no
+     * mapping for {@code key}.
+     * @since template-0.3.0
+     */
+    public static <T> Object putToGlobalStorage(GlobalKey<T> key, T value) {
+        return putToGlobalStorage(key.getName(), value);
+    }
+
+    /**
+     * Get an item from application's global storage.
+     *
+     * @param key
+     * @param <T>
+     * @return
+     * @since template-0.3.0
+     */
+    public static <T> T getFromGlobalStorage(GlobalKey<T> key) {
+        return getGlobalHandle(key).get();
+    }
+
     /**
      * Remove an item from application's global storage.
      *
@@ -66,7 +365,11 @@ public class RegistryGlobal {
      * mapping for {@code key}.
      */
     public static Object removeFromGlobalStorage(String key) {
-        return globalStorage.remove(key);
+        synchronized (globalHandles) {
+            Object previous = globalStorage.remove(key);
+            updateGlobalHandle(key, null);
+            return previous;
+        }
     }
 
     /**
@@ -81,7 +384,11 @@ public class RegistryGlobal {
         if (value == null) {
             return removeFromGlobalStorage(key);
         } else {
-            return globalStorage.put(key, value);
+            synchronized (globalHandles) {
+                Object previous = globalStorage.put(key, value);
+                updateGlobalHandle(key, value);
+                return previous;
+            }
         }
     }
 
@@ -98,6 +405,11 @@ public class RegistryGlobal {
     /**
      * Get an item from application's global storage.
      *
+     * <p>
+     * Looks the item up and converts it on every call: for repeated reads, resolve a
+     * {@link GlobalHandle} once instead (see {@link #getGlobalHandle(GlobalKey)}).
+     * </p>
+     *
      * @param key
      * @param clazz
      * @param <T>
@@ -108,6 +420,49 @@ public class RegistryGlobal {
         return ValueUtils.convertValue(value, clazz);
     }
 
+    /**
+     * Get a named read-through cache (see {@code caches} section in {@code application.conf}).
+     * A cache that is not configured is created with default settings.
+     *
+     * <p>
+     * Unlike the global storage, caches are bounded, expire entries and load missing values
+     * (one load per key at a time), e.g. for reference data read by jobs.
+     * </p>
+     *
+     * @param name
+     * @param <K>
+     * @param <V>
+     * @return
+     * @since template-0.3.0
+     */
+    public static <K, V> ReadThroughCache<K, V> getCache(String name) {
+        Caches caches = getFromGlobalStorage(KEY_CACHES);
+        if (caches == null) {
+            caches = buildCaches(appConfig);
+        }
+        return caches.getOrCreateCache(name);
+    }
+
+    /**
+     * Run a named worker right away, regardless of its schedule, on every node it runs on (once
+     * for a global-singleton worker). Requests are coalesced: requests made while the worker is
+     * running lead to at most one follow-up run. Requires
+     * {@code ddth-akka-scheduling.triggers.enabled = true}.
+     *
+     * @param workerName name of the worker (actor)
+     * @return {@code false} if triggers are disabled or the request could not be published
+     * @since template-0.3.0
+     */
+    public static boolean triggerWorker(String workerName) {
+        JobTriggers jobTriggers = getFromGlobalStorage(KEY_JOB_TRIGGERS);
+        if (jobTriggers == null) {
+            LOGGER.warn("Cannot trigger worker [" + workerName + "]: triggers are disabled, see "
+                    + "[ddth-akka-scheduling.triggers]!");
+            return false;
+        }
+        return jobTriggers.trigger(workerName);
+    }
+
     /*----------------------------------------------------------------------*/
     private static ActorSystem actorSystem;
     private static Config appConfig;
@@ -141,23 +496,32 @@ public class RegistryGlobal {
     private static ActorSystem buildActorSystem(Config config) {
         String actorSystemName = TypesafeConfigUtils
                 .getStringOptional(config, "akka_actor_system_name").orElse("default");
-        ActorSystem actorSystem = AkkaUtils.createActorSystem(actorSystemName, config);
+        // worker groups' dispatchers must be in the configuration the actor system starts with
+        ActorSystem actorSystem = AkkaUtils.createActorSystem(actorSystemName,
+                buildWorkerGroups(config).withDispatchers(config));
         addShutdownHook(() -> actorSystem.terminate());
         LOGGER.info("Actor system: " + actorSystem);
         return actorSystem;
     }
 
     @SuppressWarnings("resource")
-    private static IDLockFactory buildDlockFactory(Config config) {
-        IDLockFactory dlockFactory = getFromGlobalStorage("dlock-factory", IDLockFactory.class);
+    private static synchronized IDLockFactory buildDlockFactory(Config config) {
+        IDLockFactory dlockFactory = getFromGlobalStorage(KEY_DLOCK_FACTORY);
         if (dlockFactory == null) {
             String dlockPrefix = TypesafeConfigUtils
                     .getStringOptional(config, "ddth-akka-scheduling.dlock-backend.lock-prefix")
                     .orElse(TypesafeConfigUtils.getString(config, "app.shortname"));
-            AbstractDLockFactory factory;
             String type = TypesafeConfigUtils
                     .getStringOptional(config, "ddth-akka-scheduling.dlock-backend.type")
                     .orElse(null);
+            if (StringUtils.equalsAnyIgnoreCase(type, "redis-pipelined", "local-pipelined")) {
+                PipelinedDLockFactory factory = buildPipelinedDlockFactory(config, type,
+                        dlockPrefix);
+                addShutdownHook(() -> factory.destroy());
+                putToGlobalStorage(KEY_DLOCK_FACTORY, factory);
+                return factory;
+            }
+            AbstractDLockFactory factory;
             if (StringUtils.equalsAnyIgnoreCase("redis", type)) {
                 String redisHostAndPort = TypesafeConfigUtils.getStringOptional(config,
                         "ddth-akka-scheduling.dlock-backend.redis-host-and-port")
@@ -172,20 +536,75 @@ public class RegistryGlobal {
                 factory = new InmemDLockFactory().setLockNamePrefix(dlockPrefix).init();
             }
             addShutdownHook(() -> factory.destroy());
-            putToGlobalStorage("dlock-factory", factory);
+            putToGlobalStorage(KEY_DLOCK_FACTORY, factory);
             dlockFactory = factory;
         }
         return dlockFactory;
     }
 
+    /**
+     * Build a {@link PipelinedDLockFactory}, backed by Redis ({@code redis-pipelined}) or by an
+     * in-process stand-in ({@code local-pipelined}).
+     *
+     * @param config
+     * @param type
+     * @param dlockPrefix
+     * @return
+     * @since template-0.3.0
+     */
+    private static PipelinedDLockFactory buildPipelinedDlockFactory(Config config, String type,
+            String dlockPrefix) {
+        String prefix = "ddth-akka-scheduling.dlock-backend.";
+        LockStore lockStore;
+        if (StringUtils.equalsIgnoreCase("redis-pipelined", type)) {
+            String redisHostAndPort = TypesafeConfigUtils
+                    .getStringOptional(config, prefix + "redis-host-and-port")
+                    .orElse("localhost:6379");
+            String redisPassword = TypesafeConfigUtils
+                    .getStringOptional(config, prefix + "redis-password").orElse(null);
+            JedisLockStore jedisLockStore = new JedisLockStore()
+                    .setRedisHostAndPort(redisHostAndPort).setRedisPassword(redisPassword);
+            TypesafeConfigUtils.getIntegerOptional(config, prefix + "pipelined.timeout-ms")
+                    .ifPresent(v -> jedisLockStore.setTimeoutMs(v.intValue()));
+            TypesafeConfigUtils.getIntegerOptional(config, prefix + "pipelined.pool-max-total")
+                    .ifPresent(v -> jedisLockStore.setPoolMaxTotal(v.intValue()));
+            TypesafeConfigUtils.getIntegerOptional(config, prefix + "pipelined.pool-max-idle")
+                    .ifPresent(v -> jedisLockStore.setPoolMaxIdle(v.intValue()));
+            TypesafeConfigUtils.getIntegerOptional(config, prefix + "pipelined.pool-min-idle")
+                    .ifPresent(v -> jedisLockStore.setPoolMinIdle(v.intValue()));
+            TypesafeConfigUtils.getLongOptional(config, prefix + "pipelined.pool-max-wait-ms")
+                    .ifPresent(v -> jedisLockStore.setPoolMaxWaitMs(v.longValue()));
+            LOGGER.info("Creating pipelined Redis dlock factory [" + redisHostAndPort + "]...");
+            lockStore = jedisLockStore.init();
+        } else {
+            LOGGER.info("Creating pipelined in-memory dlock factory...");
+            lockStore = new InmemLockStore();
+        }
+        PipelinedDLockFactory factory = new PipelinedDLockFactory().setLockStore(lockStore)
+                .setLockNamePrefix(dlockPrefix);
+        TypesafeConfigUtils.getLongOptional(config, prefix + "pipelined.lease-ms")
+                .ifPresent(v -> factory.setLeaseMs(v.longValue()));
+        TypesafeConfigUtils.getLongOptional(config, prefix + "pipelined.renew-interval-ms")
+                .ifPresent(v -> factory.setRenewIntervalMs(v.longValue()));
+        TypesafeConfigUtils.getLongOptional(config, prefix + "pipelined.command-timeout-ms")
+                .ifPresent(v -> factory.setCommandTimeoutMs(v.longValue()));
+        TypesafeConfigUtils.getIntegerOptional(config, prefix + "pipelined.pipeline-threads")
+                .ifPresent(v -> factory.setPipelineThreads(v.intValue()));
+        TypesafeConfigUtils.getLongOptional(config, prefix + "pipelined.pipeline-window-ms")
+                .ifPresent(v -> factory.setPipelineWindowMs(v.longValue()));
+        TypesafeConfigUtils.getIntegerOptional(config, prefix + "pipelined.max-batch-size")
+                .ifPresent(v -> factory.setMaxBatchSize(v.intValue()));
+        return factory.init();
+    }
+
     /**
      * @param config
      * @return
      * @since 0.1.2
      */
-    @SuppressWarnings({ "resource", "unchecked" })
+    @SuppressWarnings("resource")
     private static IPubSubHub<?, byte[]> buildPubSubHub(Config config) {
-        IPubSubHub<?, byte[]> pubSubHub = getFromGlobalStorage("pubsub-hub", IPubSubHub.class);
+        IPubSubHub<?, byte[]> pubSubHub = getFromGlobalStorage(KEY_PUBSUB_HUB);
         if (pubSubHub == null) {
             String type = TypesafeConfigUtils
                     .getStringOptional(config, "ddth-akka-scheduling.pubsub-backend.type")
@@ -205,12 +624,493 @@ public class RegistryGlobal {
                 hub = new UniversalInmemPubSubHub().init();
             }
             addShutdownHook(() -> hub.destroy());
-            putToGlobalStorage("pubsub-hub", hub);
+            putToGlobalStorage(KEY_PUBSUB_HUB, hub);
             pubSubHub = hub;
         }
         return pubSubHub;
     }
 
+    /**
+     * Build the worker metrics registry (and its JMX/HTTP exposure).
+     *
+     * @param config
+     * @return {@code null} if metrics are disabled
+     * @since template-0.3.0
+     */
+    private static synchronized MetricsRegistry buildMetricsRegistry(Config config) {
+        MetricsRegistry metricsRegistry = getFromGlobalStorage(KEY_METRICS_REGISTRY);
+        if (metricsRegistry == null) {
+            MetricsFactory factory = MetricsFactory.fromConfig(config)
+                    .setJdbcSinks(getGlobalHandle(KEY_JDBC_SINKS)::get)
+                    .setCaches(getGlobalHandle(KEY_CACHES)::get)
+                    .setJournal(getGlobalHandle(KEY_EXECUTION_JOURNAL)::get)
+                    .setPoolMetrics(getGlobalHandle(KEY_DATASOURCE_METRICS)::get)
+                    .setPoolWarmer(getGlobalHandle(KEY_POOL_WARMER)::get)
+                    .setWorkerGroups(getGlobalHandle(KEY_WORKER_GROUPS)::get)
+                    .setDispatcherTuner(getGlobalHandle(KEY_DISPATCHER_TUNER)::get)
+                    .setJobTriggers(getGlobalHandle(KEY_JOB_TRIGGERS)::get)
+                    .setJobChains(getGlobalHandle(KEY_JOB_CHAINS)::get)
+                    .setPartitionClaims(getGlobalHandle(KEY_PARTITION_CLAIMS)::get)
+                    .setCheckpointStore(getGlobalHandle(KEY_CHECKPOINT_STORE)::get)
+                    .setInFlightJobs(getGlobalHandle(KEY_IN_FLIGHT_JOBS)::get);
+            MetricsRegistry registry = factory.createRegistry();
+            if (registry == null) {
+                return null;
+            }
+            addShutdownHook(() -> registry.destroy());
+            try {
+                MetricsHttpEndpoint endpoint = factory.createHttpEndpoint(registry);
+                if (endpoint != null) {
+                    addShutdownHook(() -> endpoint.stop());
+                    putToGlobalStorage(KEY_METRICS_ENDPOINT, endpoint);
+                }
+            } catch (IOException e) {
+                LOGGER.error("Cannot start metrics endpoint at [" + factory.getHttpHost() + ":"
+                        + factory.getHttpPort() + "]: " + e.getMessage(), e);
+            }
+            putToGlobalStorage(KEY_METRICS_REGISTRY, registry);
+            metricsRegistry = registry;
+        }
+        return metricsRegistry;
+    }
+
+    /**
+     * Build named read-through caches from the {@code caches} section of the configuration.
+     *
+     * @param config
+     * @return
+     * @since template-0.3.0
+     */
+    private static synchronized Caches buildCaches(Config config) {
+        Caches caches = getFromGlobalStorage(KEY_CACHES);
+        if (caches == null) {
+            Caches newCaches = new Caches();
+            Map<?, ?> confCaches = config != null && config.hasPath("caches")
+                    ? TypesafeConfigUtils.getObject(config, "caches", Map.class) : null;
+            if (confCaches != null) {
+                // data sources are resolved on load, they are built later by a bootstrapper
+                GlobalHandle<Map<String, DataSource>> dataSources = getGlobalHandle(
+                        KEY_DATASOURCES);
+                confCaches.forEach((cacheName, cacheConf) -> newCaches
+                        .createCache(cacheName.toString(), cacheConf, dsName -> {
+                            Map<String, DataSource> dsMap = dataSources.get();
+                            return dsMap != null ? dsMap.get(dsName) : null;
+                        }));
+            }
+            addShutdownHook(() -> newCaches.destroy());
+            putToGlobalStorage(KEY_CACHES, newCaches);
+            caches = newCaches;
+        }
+        return caches;
+    }
+
+    /**
+     * Build the job execution journal, if enabled.
+     *
+     * @param config
+     * @return {@code null} if the journal is disabled or cannot be opened
+     * @since template-0.3.0
+     */
+    private static ExecutionJournal buildExecutionJournal(Config config) {
+        ExecutionJournal executionJournal = getFromGlobalStorage(KEY_EXECUTION_JOURNAL);
+        if (executionJournal == null) {
+            boolean enabled = TypesafeConfigUtils
+                    .getBooleanOptional(config, "ddth-akka-scheduling.journal.enabled")
+                    .orElse(Boolean.FALSE).booleanValue();
+            if (!enabled) {
+                return null;
+            }
+            String directory = TypesafeConfigUtils
+                    .getStringOptional(config, "ddth-akka-scheduling.journal.directory")
+                    .orElse("./data/journal");
+            String nodeId = TypesafeConfigUtils
+                    .getStringOptional(config, "ddth-akka-scheduling.journal.node-id").orElse("");
+            if (StringUtils.isBlank(nodeId)) {
+                try {
+                    nodeId = InetAddress.getLocalHost().getHostName();
+                } catch (IOException e) {
+                    nodeId = "unknown";
+                }
+            }
+            int segmentSizeMb = TypesafeConfigUtils
+                    .getIntegerOptional(config, "ddth-akka-scheduling.journal.segment-size-mb")
+                    .orElse(64).intValue();
+            int maxSegments = TypesafeConfigUtils
+                    .getIntegerOptional(config, "ddth-akka-scheduling.journal.max-segments")
+                    .orElse(8).intValue();
+            long forceIntervalMs = TypesafeConfigUtils
+                    .getLongOptional(config, "ddth-akka-scheduling.journal.force-interval-ms")
+                    .orElse(0L).longValue();
+            ExecutionJournal journal = new ExecutionJournal(new File(directory)).setNodeId(nodeId)
+                    .setSegmentSize(segmentSizeMb * 1024 * 1024).setMaxSegments(maxSegments)
+                    .setForceIntervalMs(forceIntervalMs);
+            try {
+                journal.init();
+            } catch (IOException e) {
+                LOGGER.error("Cannot open execution journal at [" + directory + "]: "
+                        + e.getMessage(), e);
+                return null;
+            }
+            addShutdownHook(() -> journal.destroy());
+            putToGlobalStorage(KEY_EXECUTION_JOURNAL, journal);
+            executionJournal = journal;
+        }
+        return executionJournal;
+    }
+
+    /**
+     * Build the store of worker checkpoints, if enabled.
+     *
+     * @param config
+     * @return {@code null} if checkpoints are disabled or the store cannot be built
+     * @since template-0.3.0
+     */
+    private static synchronized CheckpointStore buildCheckpointStore(Config config) {
+        CheckpointStore checkpointStore = getFromGlobalStorage(KEY_CHECKPOINT_STORE);
+        if (checkpointStore == null) {
+            CheckpointStore store = CheckpointStoreFactory.fromConfig(config)
+                    .setDataSources(getGlobalHandle(KEY_DATASOURCES)::get).createStore();
+            if (store == null) {
+                return null;
+            }
+            addShutdownHook(() -> store.destroy(5000));
+            putToGlobalStorage(KEY_CHECKPOINT_STORE, store);
+            checkpointStore = store;
+        }
+        return checkpointStore;
+    }
+
+    /**
+     * Build the schedule-aware connection pool warmer, if enabled.
+     *
+     * @param config
+     * @return {@code null} if pool warming is disabled
+     * @since template-0.3.0
+     */
+    private static PoolWarmer buildPoolWarmer(Config config) {
+        PoolWarmer poolWarmer = getFromGlobalStorage(KEY_POOL_WARMER);
+        if (poolWarmer == null) {
+            boolean enabled = TypesafeConfigUtils
+                    .getBooleanOptional(config, "ddth-akka-scheduling.pool-warming.enabled")
+                    .orElse(Boolean.FALSE).booleanValue();
+            if (!enabled) {
+                return null;
+            }
+            Map<String, Integer> warmSizes = new HashMap<>();
+            Map<?, ?> confDataSources = config.hasPath("datasources")
+                    ? TypesafeConfigUtils.getObject(config, "datasources", Map.class) : null;
+            if (confDataSources != null) {
+                confDataSources.forEach((dsName, dsConf) -> DPathUtils
+                        .getValueOptional(dsConf, "warm-size", Integer.class)
+                        .ifPresent(v -> warmSizes.put(dsName.toString(), v)));
+            }
+            GlobalHandle<Map<String, DataSource>> dataSources = getGlobalHandle(KEY_DATASOURCES);
+            PoolWarmer warmer = new PoolWarmer(dsName -> {
+                Map<String, DataSource> dsMap = dataSources.get();
+                return dsMap != null ? dsMap.get(dsName) : null;
+            }, dsName -> {
+                Map<?, ?> metrics = getFromGlobalStorage(KEY_DATASOURCE_METRICS);
+                return metrics != null ? (PoolMetrics) metrics.get(dsName) : null;
+            }).setWarmSizes(warmSizes);
+            TypesafeConfigUtils
+                    .getLongOptional(config, "ddth-akka-scheduling.pool-warming.warm-ahead-ms")
+                    .ifPresent(v -> warmer.setWarmAheadMs(v.longValue()));
+            TypesafeConfigUtils
+                    .getLongOptional(config, "ddth-akka-scheduling.pool-warming.hold-ms")
+                    .ifPresent(v -> warmer.setHoldMs(v.longValue()));
+            TypesafeConfigUtils.getLongOptional(config,
+                    "ddth-akka-scheduling.pool-warming.check-interval-ms")
+                    .ifPresent(v -> warmer.setCheckIntervalMs(v.longValue()));
+            warmer.init();
+            addShutdownHook(() -> warmer.destroy());
+            putToGlobalStorage(KEY_POOL_WARMER, warmer);
+            poolWarmer = warmer;
+        }
+        return poolWarmer;
+    }
+
+    /**
+     * Build the dispatcher tuner, if enabled: it adjusts the listed dispatchers that are
+     * {@link TunableDispatcher}s (other dispatchers are skipped with a warning).
+     *
+     * @param config
+     * @param actorSystem
+     * @return {@code null} if dispatcher tuning is disabled or there is no tunable dispatcher
+     * @since template-0.3.0
+     */
+    private static DispatcherTuner buildDispatcherTuner(Config config, ActorSystem actorSystem) {
+        DispatcherTuner dispatcherTuner = getFromGlobalStorage(KEY_DISPATCHER_TUNER);
+        if (dispatcherTuner == null) {
+            final String PREFIX = "ddth-akka-scheduling.dispatcher-tuning.";
+            boolean enabled = TypesafeConfigUtils.getBooleanOptional(config, PREFIX + "enabled")
+                    .orElse(Boolean.FALSE).booleanValue();
+            if (!enabled) {
+                return null;
+            }
+            DispatcherTuner tuner = new DispatcherTuner();
+            List<String> ids = new ArrayList<>(TypesafeConfigUtils
+                    .getStringListOptional(config, PREFIX + "dispatchers")
+                    .orElse(Collections.emptyList()));
+            // tunable dispatchers of worker groups are tuned too
+            ids.addAll(buildWorkerGroups(config).getTunableDispatcherIds());
+            int numDispatchers = 0;
+            for (String id : ids) {
+                MessageDispatcher dispatcher = actorSystem.dispatchers().hasDispatcher(id)
+                        ? actorSystem.dispatchers().lookup(id) : null;
+                if (dispatcher instanceof TunableDispatcher) {
+                    tuner.addDispatcher((TunableDispatcher) dispatcher);
+                    numDispatchers++;
+                } else {
+                    LOGGER.warn("Dispatcher [" + id + "] is not tunable (type = \""
+                            + TunableDispatcherConfigurator.class.getName() + "\"), skipped.");
+                }
+            }
+            if (numDispatchers == 0) {
+                return null;
+            }
+            TypesafeConfigUtils.getLongOptional(config, PREFIX + "interval-ms")
+                    .ifPresent(v -> tuner.setIntervalMs(v.longValue()));
+            TypesafeConfigUtils.getDoubleOptional(config, PREFIX + "target-queue-wait-ms")
+                    .ifPresent(v -> tuner.setTargetQueueWaitMs(v.doubleValue()));
+            TypesafeConfigUtils.getIntegerOptional(config, PREFIX + "shrink-after-intervals")
+                    .ifPresent(v -> tuner.setShrinkAfterIntervals(v.intValue()));
+            TypesafeConfigUtils.getDoubleOptional(config, PREFIX + "fast-message-us")
+                    .ifPresent(v -> tuner.setFastMessageUs(v.doubleValue()));
+            TypesafeConfigUtils.getDoubleOptional(config, PREFIX + "slow-message-ms")
+                    .ifPresent(v -> tuner.setSlowMessageMs(v.doubleValue()));
+            LOGGER.info("Tuning " + numDispatchers + " dispatcher(s) every "
+                    + tuner.getIntervalMs() + "ms...");
+            tuner.init();
+            addShutdownHook(() -> tuner.destroy());
+            putToGlobalStorage(KEY_DISPATCHER_TUNER, tuner);
+            dispatcherTuner = tuner;
+        }
+        return dispatcherTuner;
+    }
+
+    /**
+     * Build worker groups: those defined at {@code ddth-akka-scheduling.worker-groups} and those
+     * referred to by workers of {@code ddth-akka-scheduling.workers}.
+     *
+     * @param config
+     * @return
+     * @since template-0.3.0
+     */
+    private static synchronized WorkerGroups buildWorkerGroups(Config config) {
+        WorkerGroups workerGroups = getFromGlobalStorage(KEY_WORKER_GROUPS);
+        if (workerGroups == null) {
+            Set<String> groupNames = new LinkedHashSet<>();
+            for (WorkerSpec spec : parseWorkerSpecs(config)) {
+                String group = spec.getOption(WorkerSpec.OPT_GROUP);
+                if (group != null) {
+                    groupNames.add(group);
+                }
+            }
+            Map<?, ?> confGroups = config.hasPath("ddth-akka-scheduling.worker-groups")
+                    ? TypesafeConfigUtils
+                    .getObject(config, "ddth-akka-scheduling.worker-groups", Map.class) : null;
+            workerGroups = new WorkerGroups().init(confGroups, groupNames);
+            putToGlobalStorage(KEY_WORKER_GROUPS, workerGroups);
+        }
+        return workerGroups;
+    }
+
+    /**
+     * Parse the worker list ({@code ddth-akka-scheduling.workers}), with options defaulted from
+     * worker classes, ahead of creating the workers. Workers whose class is not found are left
+     * out (reported when workers are created).
+     *
+     * @param config
+     * @return
+     * @since template-0.3.0
+     */
+    private static List<WorkerSpec> parseWorkerSpecs(Config config) {
+        List<WorkerSpec> specs = new ArrayList<>();
+        for (String cl : TypesafeConfigUtils
+                .getStringListOptional(config, "ddth-akka-scheduling.workers")
+                .orElse(Collections.emptyList())) {
+            WorkerSpec spec = WorkerSpec.parse(cl);
+            try {
+                spec.applyDefaults(WorkerClass.forName(spec.getClassName()).getClazz());
+                specs.add(spec);
+            } catch (ClassNotFoundException e) {
+                // reported when workers are created
+            }
+        }
+        return specs;
+    }
+
+    /**
+     * Build dependencies between workers, declared with the {@code upstream} worker option, and
+     * start the {@link JobChainActor} of this node (see {@link JobChainsFactory}).
+     *
+     * @param config
+     * @param actorSystem
+     * @param workerFactory
+     * @return {@code null} if no worker declares upstream workers
+     * @since template-0.3.0
+     */
+    private static synchronized JobChains buildJobChains(Config config, ActorSystem actorSystem,
+            WorkerFactory workerFactory) {
+        JobChains jobChains = getFromGlobalStorage(KEY_JOB_CHAINS);
+        if (jobChains == null) {
+            JobChains chains = JobChainsFactory.fromConfig(config)
+                    .setWorkerSpecs(parseWorkerSpecs(config)).setWorkerFactory(workerFactory)
+                    .setWorkerDirectory(buildWorkerDirectory())
+                    .setPubSubHub(() -> buildPubSubHub(config)).createJobChains(actorSystem);
+            if (chains == null) {
+                return null;
+            }
+            addShutdownHook(() -> chains.destroy());
+            putToGlobalStorage(KEY_JOB_CHAINS, chains);
+            jobChains = chains;
+        }
+        return jobChains;
+    }
+
+
+    /**
+     * Build the registry of in-flight jobs, drained on shutdown.
+     *
+     * @param config
+     * @return
+     * @since template-0.3.0
+     */
+    private static synchronized InFlightJobs buildInFlightJobs(Config config) {
+        InFlightJobs inFlightJobs = getFromGlobalStorage(KEY_IN_FLIGHT_JOBS);
+        if (inFlightJobs == null) {
+            inFlightJobs = new InFlightJobs().setJournal(buildExecutionJournal(config));
+            putToGlobalStorage(KEY_IN_FLIGHT_JOBS, inFlightJobs);
+        }
+        return inFlightJobs;
+    }
+
+    /**
+     * Register the drain phase of the shutdown: added last, it runs before all other shutdown
+     * hooks (actor system, dlock factory, executors, data sources...). It stops the tick fan-out
+     * (handing the fan-out over to another node), makes workers ignore ticks, waits up to
+     * {@code ddth-akka-scheduling.drain.timeout-ms} for running jobs and releases the dlocks of
+     * jobs cut off.
+     *
+     * @param config
+     * @param actorSystem
+     * @since template-0.3.0
+     */
+    private static void initShutdownDrain(Config config, ActorSystem actorSystem) {
+        InFlightJobs inFlightJobs = buildInFlightJobs(config);
+        long timeoutMs = TypesafeConfigUtils
+                .getLongOptional(config, "ddth-akka-scheduling.drain.timeout-ms").orElse(10000L)
+                .longValue();
+        addShutdownHook(() -> {
+            ActorRef tickFanOut = getFromGlobalStorage(KEY_TICK_FAN_OUT);
+            if (tickFanOut != null) {
+                actorSystem.stop(tickFanOut);
+            }
+            inFlightJobs.drain(timeoutMs);
+        });
+    }
+
+    /**
+     * Build on-demand triggers of workers, if enabled; subscribed to the triggers channel of the
+     * pub/sub backend.
+     *
+     * @param config
+     * @return {@code null} if triggers are disabled
+     * @since template-0.3.0
+     */
+    private static JobTriggers buildJobTriggers(Config config) {
+        JobTriggers jobTriggers = getFromGlobalStorage(KEY_JOB_TRIGGERS);
+        if (jobTriggers == null) {
+            JobTriggers triggers = JobTriggersFactory.fromConfig(config)
+                    .setPubSubHub(() -> buildPubSubHub(config))
+                    .setWorkerDirectory(buildWorkerDirectory()).createJobTriggers();
+            if (triggers == null) {
+                return null;
+            }
+            addShutdownHook(() -> triggers.destroy());
+            putToGlobalStorage(KEY_JOB_TRIGGERS, triggers);
+            jobTriggers = triggers;
+        }
+        return jobTriggers;
+    }
+
+    /**
+     * Build the directory of local workers.
+     *
+     * @return
+     * @since template-0.3.0
+     */
+    private static WorkerDirectory buildWorkerDirectory() {
+        WorkerDirectory workerDirectory = getFromGlobalStorage(KEY_WORKER_DIRECTORY);
+        if (workerDirectory == null) {
+            workerDirectory = new WorkerDirectory();
+            putToGlobalStorage(KEY_WORKER_DIRECTORY, workerDirectory);
+        }
+        return workerDirectory;
+    }
+
+    /**
+     * Build executors blocking workers offload their jobs to.
+     *
+     * @param config
+     * @return
+     * @since template-0.3.0
+     */
+    private static WorkerExecutors buildWorkerExecutors(Config config) {
+        WorkerExecutors workerExecutors = getFromGlobalStorage(KEY_WORKER_EXECUTORS);
+        if (workerExecutors == null) {
+            Map<?, ?> confExecutors = config.hasPath("ddth-akka-scheduling.executors")
+                    ? TypesafeConfigUtils.getObject(config, "ddth-akka-scheduling.executors",
+                    Map.class) : null;
+            long shutdownTimeoutMs = TypesafeConfigUtils.getLongOptional(config,
+                    "ddth-akka-scheduling.executors-shutdown-timeout-ms").orElse(5000L)
+                    .longValue();
+            WorkerExecutors executors = new WorkerExecutors().init(confExecutors);
+            addShutdownHook(() -> executors.destroy(shutdownTimeoutMs));
+            putToGlobalStorage(KEY_WORKER_EXECUTORS, executors);
+            workerExecutors = executors;
+        }
+        return workerExecutors;
+    }
+
+    /**
+     * Build the cron dispatcher if the "heap" scheduler engine is enabled and applicable.
+     *
+     * @param config
+     * @param actorSystem
+     * @return {@code null} if workers match ticks themselves
+     */
+    private static ActorRef buildCronDispatcher(Config config, ActorSystem actorSystem) {
+        GlobalHandle<ActorRef> handle = getGlobalHandle(KEY_CRON_DISPATCHER);
+        ActorRef cronDispatcher = handle.get();
+        if (cronDispatcher == null) {
+            String engine = TypesafeConfigUtils
+                    .getStringOptional(config, "ddth-akka-scheduling.scheduler.engine")
+                    .orElse("per-worker");
+            if (!StringUtils.equalsIgnoreCase("heap", engine)) {
+                return null;
+            }
+            // the dispatcher sits on the event stream: not applicable when ticks are delivered
+            // to workers some other way
+            SchedulingMode mode = SchedulingMode.fromConfig(config);
+            int numShards = TypesafeConfigUtils
+                    .getIntegerOptional(config, "ddth-akka-scheduling.sharding.num-shards")
+                    .orElse(1).intValue();
+            if (mode == SchedulingMode.CLUSTER
+                    || mode == SchedulingMode.MULTI_NODE && numShards > 1) {
+                LOGGER.warn("Scheduler engine [heap] is not supported in mode [" + mode
+                        + "] with " + numShards + " shard(s), using [per-worker].");
+                return null;
+            }
+            LOGGER.info("Creating cron dispatcher...");
+            cronDispatcher = CronDispatcherActor.newInstance(actorSystem);
+            putToGlobalStorage(KEY_CRON_DISPATCHER, cronDispatcher);
+            ActorRef dispatcher = cronDispatcher;
+            addShutdownHook(() -> actorSystem.stop(dispatcher));
+        }
+        return cronDispatcher;
+    }
+
     /**
      * Initialize the tick fan-out actor.
      *
@@ -221,25 +1121,20 @@ public class RegistryGlobal {
         if (!config.hasPath("ddth-akka-scheduling")) {
             throw new RuntimeException("No configuration [ddth-akka-scheduling] found!");
         }
-        String mode = TypesafeConfigUtils.getStringOptional(config, "ddth-akka-scheduling.mode")
-                .orElse("single-node");
+        SchedulingMode mode = SchedulingMode.fromConfig(config);
         ActorRef tickFanOut;
-        if (StringUtils.equalsAnyIgnoreCase("cluster", mode)) {
+        if (mode == SchedulingMode.CLUSTER) {
             // cluster mode
             tickFanOut = ClusterTickFanOutActor.newInstance(actorSystem);
 
             /* remember to create one "master" actor instance */
             MasterActor.newInstance(actorSystem);
-        } else if (StringUtils.equalsAnyIgnoreCase("multi-node", mode) || StringUtils
-                .equalsAnyIgnoreCase("multi-nodes", mode) || StringUtils
-                .equalsAnyIgnoreCase("multiple-nodes", mode)) {
+        } else if (mode == SchedulingMode.MULTI_NODE) {
             // multi-node mode
             IDLockFactory dlockFactory = buildDlockFactory(config);
             String dlockName = TypesafeConfigUtils
                     .getStringOptional(config, "ddth-akka-scheduling.dlock-backend.lock-name")
                     .orElse("akka-scheduled-jobs");
-            LOGGER.info("Creating dlock instance [" + dlockName + "]...");
-            IDLock dlock = dlockFactory.createLock(dlockName);
 
             long dlockTimeMs = TypesafeConfigUtils
                     .getLongOptional(config, "ddth-akka-scheduling.dlock-time-ms")
@@ -250,44 +1145,212 @@ public class RegistryGlobal {
                     .getStringOptional(config, "ddth-akka-scheduling.pubsub-backend.channel-name")
                     .orElse("akka-scheduled-jobs");
 
-            tickFanOut = MultiNodePubSubBasedTickFanOutActor
-                    .newInstance(actorSystem, dlock, dlockTimeMs, pubSubHub, channelName);
+            int numShards = TypesafeConfigUtils
+                    .getIntegerOptional(config, "ddth-akka-scheduling.sharding.num-shards")
+                    .orElse(1).intValue();
+            if (numShards > 1) {
+                LOGGER.info("Creating sharded tick fan-out with " + numShards + " shards...");
+                ShardedTickFanOutActor.Settings settings = new ShardedTickFanOutActor.Settings()
+                        .setDlockFactory(dlockFactory).setLockName(dlockName)
+                        .setDlockTimeMs(dlockTimeMs).setPubSubHub(pubSubHub)
+                        .setChannelName(channelName).setNumShards(numShards)
+                        .setWorkerDirectory(buildWorkerDirectory());
+                TypesafeConfigUtils.getLongOptional(config,
+                        "ddth-akka-scheduling.sharding.heartbeat-interval-ms")
+                        .ifPresent(v -> settings.setHeartbeatIntervalMs(v.longValue()));
+                TypesafeConfigUtils
+                        .getLongOptional(config, "ddth-akka-scheduling.sharding.node-timeout-ms")
+                        .ifPresent(v -> settings.setNodeTimeoutMs(v.longValue()));
+                tickFanOut = ShardedTickFanOutActor.newInstance(actorSystem, settings);
+            } else {
+                LOGGER.info("Creating dlock instance [" + dlockName + "]...");
+                IDLock dlock = dlockFactory.createLock(dlockName);
+                String encoding = TypesafeConfigUtils
+                        .getStringOptional(config, "ddth-akka-scheduling.pubsub-backend.encoding")
+                        .orElse("java");
+                if (StringUtils.equalsIgnoreCase("binary", encoding)) {
+                    BatchingPubSubTickFanOutActor.Settings settings;
+                    settings = new BatchingPubSubTickFanOutActor.Settings().setDlock(dlock)
+                            .setDlockTimeMs(dlockTimeMs).setPubSubHub(pubSubHub)
+                            .setChannelName(channelName);
+                    TypesafeConfigUtils.getLongOptional(config,
+                            "ddth-akka-scheduling.pubsub-backend.tick-interval-ms")
+                            .ifPresent(v -> settings.setTickIntervalMs(v.longValue()));
+                    TypesafeConfigUtils.getLongOptional(config,
+                            "ddth-akka-scheduling.pubsub-backend.batch-window-ms")
+                            .ifPresent(v -> settings.setBatchWindowMs(v.longValue()));
+                    TypesafeConfigUtils.getIntegerOptional(config,
+                            "ddth-akka-scheduling.pubsub-backend.batch-max-ticks")
+                            .ifPresent(v -> settings.setBatchMaxTicks(v.intValue()));
+                    tickFanOut = BatchingPubSubTickFanOutActor.newInstance(actorSystem, settings);
+                } else {
+                    tickFanOut = MultiNodePubSubBasedTickFanOutActor
+                            .newInstance(actorSystem, dlock, dlockTimeMs, pubSubHub, channelName);
+                }
+            }
         } else {
             // single-node mode
             tickFanOut = SingleNodeTickFanOutActor.newInstance(actorSystem);
         }
         LOGGER.info("Tick fan-out: " + tickFanOut);
         addShutdownHook(() -> actorSystem.stop(tickFanOut));
+        putToGlobalStorage(KEY_TICK_FAN_OUT, tickFanOut);
+    }
+
+    /**
+     * Build the load-aware placement of global-singleton jobs (cluster mode only).
+     *
+     * @param config
+     * @param actorSystem
+     * @return {@code null} if the first node to grab the dlock runs a global-singleton job
+     * @since template-0.3.0
+     */
+    private static LoadAwarePlacement buildPlacement(Config config, ActorSystem actorSystem) {
+        LoadAwarePlacement placement = getFromGlobalStorage(KEY_PLACEMENT);
+        if (placement == null) {
+            String strategy = TypesafeConfigUtils
+                    .getStringOptional(config, "ddth-akka-scheduling.placement.strategy")
+                    .orElse("first-come");
+            if (!StringUtils.equalsIgnoreCase("least-loaded", strategy)) {
+                return null;
+            }
+            if (SchedulingMode.fromConfig(config) != SchedulingMode.CLUSTER) {
+                LOGGER.warn("Placement strategy [least-loaded] requires mode [cluster], using "
+                        + "[first-come].");
+                return null;
+            }
+            ClusterSupport cluster = ClusterSupport.load(actorSystem);
+            if (cluster == null) {
+                LOGGER.warn("Placement strategy [least-loaded] requires Akka cluster modules, "
+                        + "using [first-come].");
+                return null;
+            }
+            String prefix = "ddth-akka-scheduling.placement.";
+            LoadAwarePlacement p = new LoadAwarePlacement(cluster.getSelfAddress());
+            TypesafeConfigUtils.getDoubleOptional(config, prefix + "cpu-weight")
+                    .ifPresent(v -> p.setCpuWeight(v.doubleValue()));
+            TypesafeConfigUtils.getDoubleOptional(config, prefix + "heap-weight")
+                    .ifPresent(v -> p.setHeapWeight(v.doubleValue()));
+            TypesafeConfigUtils.getDoubleOptional(config, prefix + "in-flight-weight")
+                    .ifPresent(v -> p.setInFlightWeight(v.doubleValue()));
+            TypesafeConfigUtils.getIntegerOptional(config, prefix + "in-flight-capacity")
+                    .ifPresent(v -> p.setInFlightCapacity(v.intValue()));
+            TypesafeConfigUtils.getLongOptional(config, prefix + "stale-after-ms")
+                    .ifPresent(v -> p.setStaleAfterMs(v.longValue()));
+            long reportIntervalMs = TypesafeConfigUtils
+                    .getLongOptional(config, prefix + "report-interval-ms").orElse(1000L)
+                    .longValue();
+            LOGGER.info("Creating load-aware placement of global-singleton jobs...");
+            ActorRef monitor = cluster.startLoadMonitor(p, reportIntervalMs);
+            addShutdownHook(() -> actorSystem.stop(monitor));
+            putToGlobalStorage(KEY_PLACEMENT, p);
+            placement = p;
+        }
+        return placement;
+    }
+
+    /**
+     * Build the executor used to start bootstrappers and workers in parallel.
+     *
+     * @param config
+     * @return {@code null} if startup is sequential
+     * @since template-0.3.0
+     */
+    private static ExecutorService buildStartupExecutor(Config config) {
+        String mode = TypesafeConfigUtils.getStringOptional(config, "startup.mode")
+                .orElse("sequential");
+        if (!StringUtils.equalsIgnoreCase("parallel", mode)) {
+            return null;
+        }
+        int parallelism = TypesafeConfigUtils.getIntegerOptional(config, "startup.parallelism")
+                .orElse(0).intValue();
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        LOGGER.info("Parallel startup with " + parallelism + " thread(s)...");
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "startup-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Run tasks on the startup executor (or on the caller's thread if there is none) and wait
+     * for all of them to finish.
+     *
+     * @param executor
+     * @param tasks
+     * @throws RuntimeException the first task failure, after all tasks have finished
+     * @since template-0.3.0
+     */
+    private static void runStartupTasks(ExecutorService executor, List<Runnable> tasks) {
+        if (executor == null) {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> futures.add(executor.submit(task)));
+        RuntimeException error = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause() : new RuntimeException(e.getCause());
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
     }
 
     /**
      * Initialize application's bootstrappers.
      *
+     * <p>
+     * In parallel startup mode, bootstrappers are considered independent and run concurrently.
+     * </p>
+     *
      * @param config
+     * @param executor
+     * @param report
      * @since 0.1.1
      */
-    private static void initBootstrappers(Config config) {
+    private static void initBootstrappers(Config config, ExecutorService executor,
+            StartupReport report) {
         List<String> classNames = TypesafeConfigUtils.getStringListOptional(config, "bootstrappers")
                 .orElse(Collections.emptyList());
         if (classNames != null && classNames.size() != 0) {
+            List<Runnable> tasks = new ArrayList<>();
             for (String className : classNames) {
-                try {
-                    Class<?> clazz = Class.forName(className);
-                    if (Runnable.class.isAssignableFrom(clazz)) {
-                        LOGGER.info("Bootstrapping [" + className + "]...");
-                        ((Runnable) clazz.newInstance()).run();
-                    } else {
-                        LOGGER.warn(
-                                "Bootstrapper [" + className + "] must implement [" + Runnable.class
-                                        + "]!");
+                tasks.add(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        Class<?> clazz = Class.forName(className);
+                        if (Runnable.class.isAssignableFrom(clazz)) {
+                            LOGGER.info("Bootstrapping [" + className + "]...");
+                            ((Runnable) clazz.newInstance()).run();
+                            report.recordItem(PHASE_BOOTSTRAPPERS, className, start);
+                        } else {
+                            LOGGER.warn("Bootstrapper [" + className + "] must implement ["
+                                    + Runnable.class + "]!");
+                        }
+                    } catch (ClassNotFoundException cnfe) {
+                        LOGGER.error("Error: Class [" + className + "] not found!", cnfe);
+                    } catch (IllegalAccessException | InstantiationException e) {
+                        LOGGER.error(e.getMessage(), e);
+                        throw new RuntimeException(e);
                     }
-                } catch (ClassNotFoundException cnfe) {
-                    LOGGER.error("Error: Class [" + className + "] not found!", cnfe);
-                } catch (IllegalAccessException | InstantiationException e) {
-                    LOGGER.error(e.getMessage(), e);
-                    throw new RuntimeException(e);
-                }
+                });
             }
+            runStartupTasks(executor, tasks);
         } else {
             LOGGER.info("No bootstrapper defined! Defined list of bootstrappers at config key "
                     + "[bootstrappers]!");
@@ -297,58 +1360,55 @@ public class RegistryGlobal {
     /**
      * Initialize workers.
      *
+     * <p>
+     * In parallel startup mode, workers are created concurrently.
+     * </p>
+     *
      * @param config
      * @param actorSystem
+     * @param executor
+     * @param report
      */
-    @SuppressWarnings("unchecked")
-    private static void initWorkers(Config config, ActorSystem actorSystem) {
+    private static void initWorkers(Config config, ActorSystem actorSystem,
+            ExecutorService executor, StartupReport report) {
         List<String> workerClazzs = TypesafeConfigUtils
                 .getStringListOptional(config, "ddth-akka-scheduling.workers")
                 .orElse(Collections.emptyList());
         if (workerClazzs != null && workerClazzs.size() != 0) {
-            IDLockFactory dlockFactory = buildDlockFactory(config);
+            MetricsRegistry metricsRegistry = buildMetricsRegistry(config);
+            WorkerGroups workerGroups = buildWorkerGroups(config);
+            if (metricsRegistry != null) {
+                workerGroups.getGroups().forEach(g -> metricsRegistry
+                        .registerMBean("WorkerGroupMetrics", g.getName(), g.getMetrics()));
+            }
+            WorkerFactory factory = WorkerFactory.fromConfig(config)
+                    .setDlockFactory(() -> buildDlockFactory(config))
+                    .setMetricsRegistry(metricsRegistry)
+                    .setWorkerExecutors(buildWorkerExecutors(config))
+                    .setWorkerGroups(workerGroups).setWorkerDirectory(buildWorkerDirectory())
+                    .setCronDispatcher(buildCronDispatcher(config, actorSystem))
+                    .setPlacement(buildPlacement(config, actorSystem))
+                    .setJournal(buildExecutionJournal(config))
+                    .setPoolWarmer(buildPoolWarmer(config))
+                    .setInFlightJobs(buildInFlightJobs(config))
+                    .setCheckpointStore(buildCheckpointStore(config));
+            factory.setJobChains(buildJobChains(config, actorSystem, factory));
+            putToGlobalStorage(KEY_PARTITION_CLAIMS, factory.getPartitionClaims());
+            List<Runnable> tasks = new ArrayList<>();
             for (String cl : workerClazzs) {
-                String[] tokens = cl.trim().split("[,; ]+");
-                String clazzName = tokens[0];
-                try {
-                    Class<Actor> clazz = (Class<Actor>) Class.forName(clazzName);
-                    String actorName = tokens.length > 1 ? tokens[1] : clazz.getSimpleName();
-                    String dlockName = tokens.length > 2 ? tokens[2] : clazz.getSimpleName();
-                    LOGGER.info("Creating worker [" + clazzName + "] with name [" + actorName
-                            + "] and dlock-name [" + dlockName + "]...");
-                    IDLock dlock =
-                            dlockFactory != null && !StringUtils.isBlank(dlockName) ? dlockFactory
-                                    .createLock(dlockName) : null;
-                    Props props;
-                    Constructor<?> constructor = ReflectionUtils
-                            .getConstructor(clazz, IDLock.class);
-                    if (constructor != null) {
-                        props = Props.create(clazz, dlock);
-                    } else {
-                        props = Props.create(clazz, () -> {
-                            Actor actor = clazz.newInstance();
-                            Method m = ReflectionUtils.getMethod("setLock", clazz, IDLock.class);
-                            if (m == null) {
-                                m = ReflectionUtils.getMethod("setDlock", clazz, IDLock.class);
-                            }
-                            if (m == null) {
-                                m = ReflectionUtils.getMethod("setDLock", clazz, IDLock.class);
-                            }
-                            if (m != null) {
-                                m.invoke(actor, dlock);
-                            }
-                            return actor;
-                        });
-                    }
-                    if (StringUtils.isBlank(actorName)) {
-                        LOGGER.info("Created worker " + actorSystem.actorOf(props));
-                    } else {
-                        LOGGER.info("Created worker " + actorSystem.actorOf(props, actorName));
+                tasks.add(() -> {
+                    long start = System.nanoTime();
+                    WorkerSpec spec = WorkerSpec.parse(cl);
+                    try {
+                        ActorRef worker = factory.createWorker(actorSystem, spec);
+                        report.recordItem(PHASE_WORKERS, worker.path().name(), start);
+                    } catch (ClassNotFoundException cnfe) {
+                        LOGGER.error("Error: Class [" + spec.getClassName() + "] not found!",
+                                cnfe);
                     }
-                } catch (ClassNotFoundException cnfe) {
-                    LOGGER.error("Error: Class [" + clazzName + "] not found!", cnfe);
-                }
+                });
             }
+            runStartupTasks(executor, tasks);
         } else {
             LOGGER.warn("No worker defined! Defined list of workers at config key "
                     + "[ddth-akka-scheduling.workers]!");
@@ -357,17 +1417,56 @@ public class RegistryGlobal {
 
     /*----------------------------------------------------------------------*/
 
+    private final static String PHASE_ACTOR_SYSTEM = "actor-system";
+    private final static String PHASE_TICK_FAN_OUT = "tick-fan-out";
+    private final static String PHASE_BOOTSTRAPPERS = "bootstrappers";
+    private final static String PHASE_WORKERS = "workers";
+
     /**
      * Initializing method.
      *
+     * <p>
+     * With {@code startup.mode = "parallel"}, bootstrappers run concurrently, then workers are
+     * created concurrently. A per-phase startup timing report is logged at the end.
+     * </p>
+     *
      * @param config
      */
     public static void init(Config config) {
         appConfig = config;
-        actorSystem = buildActorSystem(config);
-        initTickFanOutActor(config, actorSystem);
-        initBootstrappers(config);
-        initWorkers(config, actorSystem);
+        StartupReport report = new StartupReport();
+        ExecutorService executor = buildStartupExecutor(config);
+        try {
+            report.timePhase(PHASE_ACTOR_SYSTEM, () -> actorSystem = buildActorSystem(config));
+            report.timePhase(PHASE_TICK_FAN_OUT,
+                    () -> initTickFanOutActor(config, actorSystem));
+            buildCaches(config);
+            report.timePhase(PHASE_BOOTSTRAPPERS,
+                    () -> initBootstrappers(config, executor, report));
+            report.timePhase(PHASE_WORKERS,
+                    () -> initWorkers(config, actorSystem, executor, report));
+            buildDispatcherTuner(config, actorSystem);
+            buildJobTriggers(config);
+            initShutdownDrain(config, actorSystem);
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+        LOGGER.info(report.toString());
+    }
+
+    /**
+     * Simulate the workers of {@code ddth-akka-scheduling.workers} on a virtual clock (see
+     * {@link ScheduleSimulation}), with settings from {@code ddth-akka-scheduling.simulation}.
+     * Neither the actor system nor the workers are created.
+     *
+     * @param config
+     * @return
+     * @since template-0.3.0
+     */
+    public static SimulationReport simulate(Config config) {
+        return ScheduleSimulation.fromConfig(config).run();
     }
 
     /**
@@ -0,0 +1,96 @@
+package com.github.btnguyen2k.akkascheduledjob;
+
+import com.github.ddth.commons.utils.TypesafeConfigUtils;
+import com.typesafe.config.Config;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mode the application's workers are scheduled in ({@code ddth-akka-scheduling.mode}).
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public enum SchedulingMode {
+    /**
+     * One node: ticks are fanned out locally, workers need no distributed lock.
+     */
+    SINGLE_NODE("single-node"),
+
+    /**
+     * Several nodes sharing a dlock backend and a pub/sub backend.
+     */
+    MULTI_NODE("multi-node", "multi-nodes", "multiple-nodes"),
+
+    /**
+     * Nodes of an Akka cluster.
+     */
+    CLUSTER("cluster");
+
+    private final String[] names;
+
+    SchedulingMode(String... names) {
+        this.names = names;
+    }
+
+    /**
+     * Name of the mode, as used in configuration.
+     *
+     * @return
+     */
+    public String getName() {
+        return names[0];
+    }
+
+    /**
+     * Check if workers run on several nodes (and global-singleton workers need a dlock).
+     *
+     * @return
+     */
+    public boolean isDistributed() {
+        return this != SINGLE_NODE;
+    }
+
+    /**
+     * Parse a mode from its name (case-insensitive).
+     *
+     * <p>
+     * An unknown name falls back to {@link #SINGLE_NODE} (with a warning), as the tick fan-out
+     * always did.
+     * </p>
+     *
+     * @param str
+     * @return
+     */
+    public static SchedulingMode parse(String str) {
+        for (SchedulingMode mode : values()) {
+            if (StringUtils.equalsAnyIgnoreCase(StringUtils.trim(str), mode.names)) {
+                return mode;
+            }
+        }
+        Logger logger = LoggerFactory.getLogger(SchedulingMode.class);
+        logger.warn("Unknown scheduling mode [" + str + "], expected one of [single-node, "
+                + "multi-node, cluster], falling back to [" + SINGLE_NODE + "].");
+        return SINGLE_NODE;
+    }
+
+    /**
+     * Read the mode from application's configuration, {@link #SINGLE_NODE} if not set or unknown.
+     *
+     * @param config
+     * @return
+     */
+    public static SchedulingMode fromConfig(Config config) {
+        return parse(TypesafeConfigUtils.getStringOptional(config, "ddth-akka-scheduling.mode")
+                .orElse(SINGLE_NODE.getName()));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -1,6 +1,8 @@
 package com.github.btnguyen2k.akkascheduledjob.bootstrap;
 
 import com.github.btnguyen2k.akkascheduledjob.RegistryGlobal;
+import com.github.btnguyen2k.akkascheduledjob.pool.PoolMetrics;
+import com.github.btnguyen2k.akkascheduledjob.sink.JdbcSinks;
 import com.github.ddth.commons.utils.DPathUtils;
 import com.github.ddth.commons.utils.TypesafeConfigUtils;
 import com.typesafe.config.Config;
@@ -23,6 +25,23 @@ import java.util.Map;
  * {ds-name:DataSource}
  * </p>
  *
+ * <p>
+ * If {@code startup.lazy-datasources=true}, data sources are registered as
+ * {@link LazyDataSource}s: each connection pool is built on first use instead of at startup.
+ * </p>
+ *
+ * <p>
+ * Batched asynchronous writers on top of the data sources can be defined in {@code jdbc-sinks}
+ * section (see {@link JdbcSinks}); they are registered in {@link RegistryGlobal} as key
+ * {@code jdbc-sinks}.
+ * </p>
+ *
+ * <p>
+ * Each pool reports its connection acquire/usage/creation times to a {@link PoolMetrics}
+ * (registered in {@link RegistryGlobal} as {@link RegistryGlobal#KEY_DATASOURCE_METRICS}, a map
+ * {ds-name:PoolMetrics}).
+ * </p>
+ *
  * <pre>
  * # Section to define data sources
  * datasources {
@@ -40,6 +59,8 @@ import java.util.Map;
  *     leak-detection-threshold = 900000       #optional, max number of milliseconds that a connection can stay outside the pool before being considered a leaked connection, default value = 900000
  *     connection-test-query    = ""           #optional, the SQL query to be executed to test the validity of connection, default value = "" (JDBC4: try without setting test query, as Connection.isValid() is recommended)
  *     connection-init-sql      = ""           #optional, the SQL string that will be executed on all new connections when they are created, default value = ""
+ *     slow-acquire-ms          = 5            #optional, acquiring a connection taking at least this long is counted as a slow acquire, default value = 5
+ *     warm-size                = 4            #optional, connections opened ahead of scheduled bursts (see ddth-akka-scheduling.pool-warming), default value = max-pool-size
  *   }
  * }
  * </pre>
@@ -51,10 +72,11 @@ public class DataSourcesBootstrapper implements Runnable {
 
     private final Logger LOGGER = LoggerFactory.getLogger(DataSourcesBootstrapper.class);
 
-    private DataSource buildDataSource(String dsName, Object dsConf) {
+    private final Map<String, PoolMetrics> poolMetrics = new HashMap<>();
+
+    private HikariDataSource buildDataSource(String dsName, Object dsConf) {
         LOGGER.info("Building DataSource [" + dsName + "]...");
         HikariDataSource ds = new HikariDataSource();
-        RegistryGlobal.addShutdownHook(() -> ds.close());
         String driverClass = DPathUtils.getValue(dsConf, "jdbc-driver", String.class);
         if (!StringUtils.isBlank(driverClass)) {
             ds.setDriverClassName(driverClass);
@@ -98,6 +120,11 @@ public class DataSourcesBootstrapper implements Runnable {
 
         ds.setInitializationFailTimeout(-1);
 
+        PoolMetrics metrics = poolMetrics.get(dsName);
+        if (metrics != null) {
+            ds.setMetricsTrackerFactory(metrics);
+        }
+
         return ds;
     }
 
@@ -109,15 +136,61 @@ public class DataSourcesBootstrapper implements Runnable {
         Config config = RegistryGlobal.getAppConfig();
         Map<?, ?> confDataSources = TypesafeConfigUtils.getObject(config, "datasources", Map.class);
         if (confDataSources != null) {
+            boolean lazy = TypesafeConfigUtils
+                    .getBooleanOptional(config, "startup.lazy-datasources").orElse(Boolean.FALSE)
+                    .booleanValue();
             Map<String, DataSource> dataSources = new HashMap<>();
             confDataSources.entrySet().forEach(entry -> {
                 String dsName = entry.getKey().toString();
                 Object dsConf = entry.getValue();
-                dataSources.put(dsName, buildDataSource(dsName, dsConf));
+                PoolMetrics metrics = new PoolMetrics(dsName);
+                DPathUtils.getValueOptional(dsConf, "slow-acquire-ms", Long.class)
+                        .ifPresent(v -> metrics.setSlowAcquireMs(v.longValue()));
+                poolMetrics.put(dsName, metrics);
+                if (lazy) {
+                    LazyDataSource ds = new LazyDataSource(dsName,
+                            () -> buildDataSource(dsName, dsConf));
+                    RegistryGlobal.addShutdownHook(() -> {
+                        try {
+                            ds.close();
+                        } catch (Exception e) {
+                            LOGGER.warn(e.getMessage(), e);
+                        }
+                    });
+                    dataSources.put(dsName, ds);
+                } else {
+                    HikariDataSource ds = buildDataSource(dsName, dsConf);
+                    RegistryGlobal.addShutdownHook(() -> ds.close());
+                    dataSources.put(dsName, ds);
+                }
             });
-            RegistryGlobal.putToGlobalStorage("datasources", dataSources);
+            RegistryGlobal.putToGlobalStorage(RegistryGlobal.KEY_DATASOURCES, dataSources);
+            RegistryGlobal.putToGlobalStorage(RegistryGlobal.KEY_DATASOURCE_METRICS, poolMetrics);
+            buildJdbcSinks(config, dataSources);
         } else {
             LOGGER.info("No datasource defined! Defined datasources at config key [datasources]!");
         }
     }
+
+    private void buildJdbcSinks(Config config, Map<String, DataSource> dataSources) {
+        Map<?, ?> confSinks = config.hasPath("jdbc-sinks")
+                ? TypesafeConfigUtils.getObject(config, "jdbc-sinks", Map.class) : null;
+        if (confSinks == null || confSinks.isEmpty()) {
+            return;
+        }
+        long shutdownTimeoutMs = TypesafeConfigUtils
+                .getLongOptional(config, "jdbc-sinks-shutdown-timeout-ms").orElse(10000L)
+                .longValue();
+        JdbcSinks jdbcSinks = new JdbcSinks();
+        // registered after the data sources' hooks: sinks are flushed before pools are closed
+        RegistryGlobal.addShutdownHook(() -> jdbcSinks.destroy(shutdownTimeoutMs));
+        confSinks.forEach((sinkName, sinkConf) -> {
+            try {
+                jdbcSinks.createSink(sinkName.toString(), sinkConf, dataSources);
+            } catch (IllegalArgumentException e) {
+                LOGGER.error(e.getMessage(), e);
+            }
+        });
+        RegistryGlobal.putToGlobalStorage(RegistryGlobal.KEY_JDBC_SINKS, jdbcSinks);
+    }
 }
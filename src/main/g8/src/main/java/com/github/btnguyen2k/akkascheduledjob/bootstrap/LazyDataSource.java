@@ -0,0 +1,161 @@
+package com.github.btnguyen2k.akkascheduledjob.bootstrap;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * {@link DataSource} that builds its target data source on first use.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class LazyDataSource implements DataSource, AutoCloseable {
+    private final String name;
+    private final Supplier<? extends DataSource> factory;
+    private volatile DataSource target;
+    private volatile boolean closed = false;
+
+    /**
+     * @param name    name of the data source
+     * @param factory builds the target data source, called at most once
+     */
+    public LazyDataSource(String name, Supplier<? extends DataSource> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Check if the target data source has been built.
+     *
+     * @return
+     */
+    public boolean isInitialized() {
+        return target != null;
+    }
+
+    /**
+     * Get the target data source, building it if needed.
+     *
+     * @return
+     * @throws IllegalStateException if this data source has been closed
+     */
+    public DataSource getTarget() {
+        DataSource ds = target;
+        if (ds == null) {
+            synchronized (this) {
+                ds = target;
+                if (ds == null) {
+                    if (closed) {
+                        throw new IllegalStateException("DataSource [" + name + "] is closed!");
+                    }
+                    ds = factory.get();
+                    target = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    /**
+     * Close the target data source if it has been built.
+     */
+    @Override
+    public synchronized void close() throws Exception {
+        closed = true;
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getTarget().getConnection();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getTarget().getConnection(username, password);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return getTarget().getLogWriter();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        getTarget().setLogWriter(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        getTarget().setLoginTimeout(seconds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return getTarget().getLoginTimeout();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return getTarget().getParentLogger();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return getTarget().unwrap(iface);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || getTarget().isWrapperFor(iface);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "LazyDataSource[" + name + (isInitialized() ? "]" : ", not initialized]");
+    }
+}
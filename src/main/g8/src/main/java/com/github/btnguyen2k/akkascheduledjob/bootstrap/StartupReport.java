@@ -0,0 +1,116 @@
+package com.github.btnguyen2k.akkascheduledjob.bootstrap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects startup timings: wall-clock time of each phase, and time of each item (bootstrapper,
+ * worker...) within a phase. Items may be recorded concurrently.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class StartupReport {
+    /**
+     * Max number of items listed per phase (slowest first).
+     */
+    public final static int MAX_ITEMS_LISTED = 5;
+
+    private final static class Item {
+        private final String name;
+        private final long durationNs;
+
+        private Item(String name, long durationNs) {
+            this.name = name;
+            this.durationNs = durationNs;
+        }
+    }
+
+    private final static class Phase {
+        private long durationNs = -1;
+        private final List<Item> items = new ArrayList<>();
+    }
+
+    private final long startNs = System.nanoTime();
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+
+    private Phase phase(String name) {
+        return phases.computeIfAbsent(name, k -> new Phase());
+    }
+
+    /**
+     * Run a phase and record its wall-clock time.
+     *
+     * @param phase
+     * @param r
+     */
+    public void timePhase(String phase, Runnable r) {
+        long start = System.nanoTime();
+        try {
+            r.run();
+        } finally {
+            long duration = System.nanoTime() - start;
+            synchronized (this) {
+                phase(phase).durationNs = duration;
+            }
+        }
+    }
+
+    /**
+     * Record the time an item of a phase took.
+     *
+     * @param phase
+     * @param item
+     * @param startNs value of {@link System#nanoTime()} when the item started
+     */
+    public void recordItem(String phase, String item, long startNs) {
+        long duration = System.nanoTime() - startNs;
+        synchronized (this) {
+            phase(phase).items.add(new Item(item, duration));
+        }
+    }
+
+    private static String ms(long ns) {
+        return String.format("%.1fms", ns / 1E6);
+    }
+
+    /**
+     * Total time since this report was created.
+     *
+     * @return
+     */
+    public long getElapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs);
+    }
+
+    /**
+     * Multi-line report: per phase, its wall-clock time, number of items, sum of item times and
+     * the slowest items.
+     *
+     * @return
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder("Startup timing report (total ")
+                .append(getElapsedMs()).append("ms):");
+        phases.forEach((name, phase) -> {
+            sb.append("\n  ").append(name).append(": ")
+                    .append(phase.durationNs >= 0 ? ms(phase.durationNs) : "n/a");
+            if (!phase.items.isEmpty()) {
+                long sum = phase.items.stream().mapToLong(item -> item.durationNs).sum();
+                sb.append(" (").append(phase.items.size()).append(" item(s), sum ")
+                        .append(ms(sum)).append(")");
+                phase.items.stream().sorted(
+                        Comparator.comparingLong((Item item) -> item.durationNs).reversed())
+                        .limit(MAX_ITEMS_LISTED).forEach(
+                        item -> sb.append("\n    ").append(item.name).append(": ")
+                                .append(ms(item.durationNs)));
+            }
+        });
+        return sb.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.btnguyen2k.akkascheduledjob.cache;
+
+/**
+ * Thrown when a {@link CacheLoader} fails; the cause is the loader's exception.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class CacheLoadException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CacheLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.btnguyen2k.akkascheduledjob.cache;
+
+/**
+ * Loads a value of a {@link ReadThroughCache} on cache miss.
+ *
+ * @param <K>
+ * @param <V>
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@FunctionalInterface
+public interface CacheLoader<K, V> {
+    /**
+     * Load the value of a key.
+     *
+     * @param key
+     * @return {@code null} if there is no value for the key (nothing is cached)
+     * @throws Exception
+     */
+    V load(K key) throws Exception;
+}
@@ -0,0 +1,120 @@
+package com.github.btnguyen2k.akkascheduledjob.cache;
+
+import com.github.ddth.commons.utils.DPathUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Named {@link ReadThroughCache}s, built from the {@code caches} section of
+ * {@code application.conf} and registered in {@code RegistryGlobal} as key {@code caches}.
+ *
+ * <pre>
+ * caches {
+ *   # Name of the cache
+ *   countries {
+ *     max-size              = 1000     #optional, max number of entries (0 = unbounded), default value = 1000
+ *     expire-after-write-ms = 300000   #optional, time-to-live of entries (0 = forever), default value = 0
+ *     # optional read-through loader: rows of the query, cache key bound to "?" if any
+ *     datasource            = "default"
+ *     sql                   = "SELECT * FROM countries WHERE code=?"
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class Caches {
+    private final Logger LOGGER = LoggerFactory.getLogger(Caches.class);
+
+    private final ConcurrentMap<String, ReadThroughCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Build a cache from its configuration.
+     *
+     * @param cacheName
+     * @param cacheConf
+     * @param dataSourceResolver resolves a data source by name, used by the JDBC loader
+     * @return
+     */
+    public ReadThroughCache<?, ?> createCache(String cacheName, Object cacheConf,
+            Function<String, DataSource> dataSourceResolver) {
+        LOGGER.info("Building cache [" + cacheName + "]...");
+        ReadThroughCache<Object, Object> cache = new ReadThroughCache<>(cacheName);
+        DPathUtils.getValueOptional(cacheConf, "max-size", Integer.class)
+                .ifPresent(v -> cache.setMaxSize(v.intValue()));
+        DPathUtils.getValueOptional(cacheConf, "expire-after-write-ms", Long.class)
+                .ifPresent(v -> cache.setExpireAfterWriteMs(v.longValue()));
+        String dsName = DPathUtils.getValue(cacheConf, "datasource", String.class);
+        String sql = DPathUtils.getValue(cacheConf, "sql", String.class);
+        if (dsName != null && sql != null) {
+            cache.setLoader(new JdbcCacheLoader(() -> dataSourceResolver.apply(dsName), sql));
+        }
+        caches.put(cacheName, cache);
+        return cache;
+    }
+
+    /**
+     * Get a cache by name.
+     *
+     * @param cacheName
+     * @param <K>
+     * @param <V>
+     * @return {@code null} if not found
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> ReadThroughCache<K, V> getCache(String cacheName) {
+        return (ReadThroughCache<K, V>) caches.get(cacheName);
+    }
+
+    /**
+     * Get a cache by name, creating it with default settings if it is not configured.
+     *
+     * @param cacheName
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> ReadThroughCache<K, V> getOrCreateCache(String cacheName) {
+        return (ReadThroughCache<K, V>) caches.computeIfAbsent(cacheName, k -> {
+            LOGGER.info("Cache [" + k + "] is not configured, created with default settings.");
+            return new ReadThroughCache<>(k);
+        });
+    }
+
+    public Collection<ReadThroughCache<?, ?>> getAllCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    /**
+     * Render stats of all caches as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"timestamp\":").append(System.currentTimeMillis())
+                .append(",\"caches\":[");
+        boolean first = true;
+        for (ReadThroughCache<?, ?> cache : caches.values()) {
+            sb.append(first ? "" : ",").append(cache.toJson());
+            first = false;
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * Clear all caches.
+     */
+    public void destroy() {
+        caches.values().forEach(ReadThroughCache::invalidateAll);
+        caches.clear();
+    }
+}
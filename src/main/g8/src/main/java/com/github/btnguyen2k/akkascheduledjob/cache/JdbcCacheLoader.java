@@ -0,0 +1,75 @@
+package com.github.btnguyen2k.akkascheduledjob.cache;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@link CacheLoader} that runs a query and returns all rows as a list of {column-label:value}
+ * maps.
+ *
+ * <p>
+ * If the query has a parameter ({@code ?}), the cache key is bound to it; otherwise the key is
+ * ignored, which suits caching a whole (small) reference table under a single key.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JdbcCacheLoader implements CacheLoader<Object, List<Map<String, Object>>> {
+    private final Supplier<DataSource> dataSourceSupplier;
+    private final String sql;
+    private final boolean bindKey;
+
+    /**
+     * @param dataSourceSupplier resolved on each load, so the data source may be registered
+     *                           after the cache is built
+     * @param sql
+     */
+    public JdbcCacheLoader(Supplier<DataSource> dataSourceSupplier, String sql) {
+        this.dataSourceSupplier = dataSourceSupplier;
+        this.sql = sql;
+        this.bindKey = sql.indexOf('?') >= 0;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<Map<String, Object>> load(Object key) throws Exception {
+        DataSource ds = dataSourceSupplier.get();
+        if (ds == null) {
+            throw new IllegalStateException("Data source is not available!");
+        }
+        try (Connection conn = ds.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (bindKey) {
+                stmt.setObject(1, key);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData md = rs.getMetaData();
+                int numCols = md.getColumnCount();
+                List<Map<String, Object>> rows = new ArrayList<>();
+                while (rs.next()) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (int i = 1; i <= numCols; i++) {
+                        row.put(md.getColumnLabel(i), rs.getObject(i));
+                    }
+                    rows.add(row);
+                }
+                return rows;
+            }
+        }
+    }
+}
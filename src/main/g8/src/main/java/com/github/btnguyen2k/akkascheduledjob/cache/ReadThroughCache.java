@@ -0,0 +1,405 @@
+package com.github.btnguyen2k.akkascheduledjob.cache;
+
+import com.github.btnguyen2k.akkascheduledjob.metrics.Histogram;
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent, bounded read-through cache.
+ *
+ * <ul>
+ * <li>Read-through: on miss the value is loaded by the cache's {@link CacheLoader} (or the one
+ * passed to {@link #get(Object, CacheLoader)}) and cached.</li>
+ * <li>Single-flight: concurrent misses of the same key wait for one load instead of each hitting
+ * the backend.</li>
+ * <li>Eviction: entries expire {@code expireAfterWriteMs} after being loaded; when there are more
+ * than {@code maxSize} entries, least recently accessed entries are evicted (in batches of ~10%,
+ * so the cost is amortized over many loads).</li>
+ * </ul>
+ *
+ * <p>
+ * {@code null} values and failed loads are not cached.
+ * </p>
+ *
+ * @param <K>
+ * @param <V>
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class ReadThroughCache<K, V> {
+    private final static class Entry<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile long loadedAtMs = -1;
+        private volatile long accessedAtNs = System.nanoTime();
+    }
+
+    private final String name;
+    private int maxSize = 1000;
+    private long expireAfterWriteMs = 0;
+    private CacheLoader<? super K, ? extends V> loader;
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private volatile long lastCleanUpMs = System.currentTimeMillis();
+
+    private final LongAdder numHits = new LongAdder(), numMisses = new LongAdder();
+    private final LongAdder numCoalesced = new LongAdder(), numLoadFailures = new LongAdder();
+    private final LongAdder numEvictions = new LongAdder(), numExpirations = new LongAdder();
+    private final Histogram loadTime = new Histogram();
+
+    public ReadThroughCache(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Max number of entries, {@code 0} = unbounded.
+     *
+     * @param maxSize
+     * @return
+     */
+    public ReadThroughCache<K, V> setMaxSize(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        return this;
+    }
+
+    public long getExpireAfterWriteMs() {
+        return expireAfterWriteMs;
+    }
+
+    /**
+     * Time-to-live of entries since they were loaded, {@code 0} = never expire.
+     *
+     * @param expireAfterWriteMs
+     * @return
+     */
+    public ReadThroughCache<K, V> setExpireAfterWriteMs(long expireAfterWriteMs) {
+        this.expireAfterWriteMs = Math.max(0, expireAfterWriteMs);
+        return this;
+    }
+
+    public CacheLoader<? super K, ? extends V> getLoader() {
+        return loader;
+    }
+
+    /**
+     * Default loader, used by {@link #get(Object)}.
+     *
+     * @param loader
+     * @return
+     */
+    public ReadThroughCache<K, V> setLoader(CacheLoader<? super K, ? extends V> loader) {
+        this.loader = loader;
+        return this;
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    private boolean isExpired(Entry<V> entry, long nowMs) {
+        long loadedAt = entry.loadedAtMs;
+        return expireAfterWriteMs > 0 && loadedAt >= 0 && nowMs - loadedAt >= expireAfterWriteMs;
+    }
+
+    /**
+     * Get a value, loading it with the default loader on miss.
+     *
+     * @param key
+     * @return
+     * @throws IllegalStateException if no default loader is set
+     * @throws CacheLoadException    if the loader fails
+     */
+    public V get(K key) {
+        if (loader == null) {
+            throw new IllegalStateException("Cache [" + name + "] has no default loader!");
+        }
+        return get(key, loader);
+    }
+
+    /**
+     * Get a value, loading it with the supplied loader on miss.
+     *
+     * @param key
+     * @param loader
+     * @return
+     * @throws CacheLoadException if the loader fails
+     */
+    public V get(K key, CacheLoader<? super K, ? extends V> loader) {
+        long now = System.currentTimeMillis();
+        while (true) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && isExpired(entry, now)) {
+                if (entries.remove(key, entry)) {
+                    numExpirations.increment();
+                }
+                entry = null;
+            }
+            if (entry != null) {
+                entry.accessedAtNs = System.nanoTime();
+                if (entry.future.isDone()) {
+                    numHits.increment();
+                } else {
+                    numCoalesced.increment();
+                }
+                return await(key, entry);
+            }
+            Entry<V> newEntry = new Entry<>();
+            if (entries.putIfAbsent(key, newEntry) == null) {
+                numMisses.increment();
+                return load(key, newEntry, loader);
+            }
+            // another thread started loading the key, wait for it
+        }
+    }
+
+    /**
+     * Get a cached value without loading it.
+     *
+     * @param key
+     * @return {@code null} if the key is not cached, expired or still being loaded
+     */
+    public V getIfPresent(K key) {
+        long now = System.currentTimeMillis();
+        Entry<V> entry = entries.get(key);
+        if (entry == null || !entry.future.isDone() || entry.future.isCompletedExceptionally()) {
+            numMisses.increment();
+            return null;
+        }
+        if (isExpired(entry, now)) {
+            if (entries.remove(key, entry)) {
+                numExpirations.increment();
+            }
+            numMisses.increment();
+            return null;
+        }
+        entry.accessedAtNs = System.nanoTime();
+        numHits.increment();
+        return entry.future.join();
+    }
+
+    /**
+     * Put a value into the cache, replacing any cached or being-loaded value.
+     *
+     * @param key
+     * @param value {@code null} to invalidate the key
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            invalidate(key);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Entry<V> entry = new Entry<>();
+        entry.loadedAtMs = now;
+        entry.future.complete(value);
+        entries.put(key, entry);
+        evictIfNeeded(now);
+    }
+
+    /**
+     * Remove a key from the cache. A load in progress still completes for its waiters, but its
+     * value is not cached.
+     *
+     * @param key
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove all keys from the cache.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Number of entries, including ones being loaded.
+     *
+     * @return
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private V load(K key, Entry<V> entry, CacheLoader<? super K, ? extends V> loader) {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.load(key);
+        } catch (Exception e) {
+            numLoadFailures.increment();
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw new CacheLoadException(
+                    "Cache [" + name + "]: error loading key [" + key + "]: " + e.getMessage(), e);
+        } finally {
+            loadTime.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+        long now = System.currentTimeMillis();
+        if (value == null) {
+            entries.remove(key, entry);
+        } else {
+            entry.loadedAtMs = now;
+        }
+        entry.future.complete(value);
+        evictIfNeeded(now);
+        return value;
+    }
+
+    private V await(K key, Entry<V> entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new CacheLoadException("Cache [" + name + "]: error loading key [" + key + "]: "
+                    + cause.getMessage(), cause);
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    private void evictIfNeeded(long nowMs) {
+        boolean overSize = maxSize > 0 && entries.size() > maxSize;
+        boolean cleanUpDue = expireAfterWriteMs > 0 && nowMs - lastCleanUpMs >= expireAfterWriteMs;
+        if (overSize || cleanUpDue) {
+            cleanUp(nowMs);
+        }
+    }
+
+    /**
+     * Remove expired entries, then least recently accessed entries if the cache is still over
+     * its max size. Called automatically on loads, may also be called periodically.
+     */
+    public void cleanUp() {
+        cleanUp(System.currentTimeMillis());
+    }
+
+    private void cleanUp(long nowMs) {
+        synchronized (evictionLock) {
+            lastCleanUpMs = nowMs;
+            if (expireAfterWriteMs > 0) {
+                entries.entrySet().removeIf(e -> {
+                    boolean expired = isExpired(e.getValue(), nowMs);
+                    if (expired) {
+                        numExpirations.increment();
+                    }
+                    return expired;
+                });
+            }
+            int size = entries.size();
+            if (maxSize <= 0 || size <= maxSize) {
+                return;
+            }
+            // evict down to 90% of max size, so eviction does not run on every load
+            int toEvict = size - (maxSize - maxSize / 10);
+            List<Map.Entry<K, Entry<V>>> candidates = new ArrayList<>(size);
+            entries.entrySet().forEach(e -> {
+                if (e.getValue().future.isDone()) {
+                    candidates.add(e);
+                }
+            });
+            candidates.sort(Comparator.comparingLong(e -> e.getValue().accessedAtNs));
+            for (int i = 0, n = Math.min(toEvict, candidates.size()); i < n; i++) {
+                Map.Entry<K, Entry<V>> e = candidates.get(i);
+                if (entries.remove(e.getKey(), e.getValue())) {
+                    numEvictions.increment();
+                }
+            }
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    public long getHitCount() {
+        return numHits.sum();
+    }
+
+    public long getMissCount() {
+        return numMisses.sum();
+    }
+
+    /**
+     * Number of requests that waited for a load started by another request (single-flight).
+     *
+     * @return
+     */
+    public long getCoalescedCount() {
+        return numCoalesced.sum();
+    }
+
+    public long getLoadFailureCount() {
+        return numLoadFailures.sum();
+    }
+
+    public long getEvictionCount() {
+        return numEvictions.sum();
+    }
+
+    public long getExpirationCount() {
+        return numExpirations.sum();
+    }
+
+    /**
+     * Ratio of requests served without a load of their own.
+     *
+     * @return {@code 0} if there was no request
+     */
+    public double getHitRatio() {
+        long hits = getHitCount() + getCoalescedCount();
+        long total = hits + getMissCount();
+        return total > 0 ? hits / (double) total : 0;
+    }
+
+    /**
+     * Time taken by loaders, in microseconds.
+     *
+     * @return
+     */
+    public Histogram getLoadTimeHistogram() {
+        return loadTime;
+    }
+
+    /**
+     * Render stats of this cache as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        return "{\"name\":" + JsonUtils.quote(name)
+                + ",\"size\":" + size() + ",\"maxSize\":" + maxSize + ",\"expireAfterWriteMs\":"
+                + expireAfterWriteMs + ",\"hits\":" + getHitCount() + ",\"misses\":"
+                + getMissCount() + ",\"coalesced\":" + getCoalescedCount() + ",\"hitRatio\":"
+                + String.format(Locale.US, "%.4f", getHitRatio()) + ",\"loadFailures\":"
+                + getLoadFailureCount() + ",\"evictions\":" + getEvictionCount()
+                + ",\"expirations\":" + getExpirationCount() + ",\"loadTimeMs\":{\"count\":"
+                + loadTime.getCount() + ",\"mean\":" + JsonUtils.formatMs(loadTime.getMean())
+                + ",\"p99\":" + JsonUtils.formatMs(loadTime.getValueAtPercentile(99))
+                + ",\"max\":" + JsonUtils.formatMs(loadTime.getMax()) + "}}";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
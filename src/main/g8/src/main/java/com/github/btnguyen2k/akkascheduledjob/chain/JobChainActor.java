@@ -0,0 +1,194 @@
+package com.github.btnguyen2k.akkascheduledjob.chain;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.Duration;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Joins completions of upstream workers per downstream worker and logical tick, and fires the
+ * local downstream worker once all its upstream workers have completed (see {@link JobChains}).
+ *
+ * <p>
+ * Completions of a tick already fired (e.g. an upstream worker that runs on all nodes) are
+ * ignored; ticks still incomplete after {@link JobChains#getPendingTimeoutMs()} are dropped.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JobChainActor extends AbstractActor {
+    /**
+     * Distributed pub/sub topic completions are published to, in cluster mode.
+     */
+    public final static String TOPIC = "akka-scheduled-jobs-chains";
+
+    /**
+     * Number of recently fired ticks remembered per downstream worker.
+     */
+    public final static int MAX_FIRED_TICKS = 1024;
+
+    /**
+     * Create a new {@link JobChainActor} instance.
+     *
+     * @param actorSystem
+     * @param jobChains
+     * @param workerDirectory
+     * @return
+     */
+    public static ActorRef newInstance(ActorSystem actorSystem, JobChains jobChains,
+            WorkerDirectory workerDirectory) {
+        return actorSystem.actorOf(
+                Props.create(JobChainActor.class, jobChains, workerDirectory),
+                JobChainActor.class.getSimpleName());
+    }
+
+    private final static Object MSG_SWEEP = "sweep";
+
+    private final Logger LOGGER = LoggerFactory.getLogger(JobChainActor.class);
+
+    /**
+     * Completed upstream workers of a logical tick.
+     */
+    private static class PendingTick {
+        private final long firstSeenMs = System.currentTimeMillis();
+        private final Set<String> completed = new HashSet<>();
+    }
+
+    private final JobChains jobChains;
+    private final WorkerDirectory workerDirectory;
+    private final Map<String, Map<String, PendingTick>> pendingTicks = new HashMap<>();
+    private final Map<String, Map<String, Boolean>> firedTicks = new HashMap<>();
+    private Cancellable sweepTimer;
+
+    public JobChainActor(JobChains jobChains, WorkerDirectory workerDirectory) {
+        this.jobChains = jobChains;
+        this.workerDirectory = workerDirectory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+        ActorSystem system = getContext().getSystem();
+        long sweepIntervalMs = Math.min(60000, jobChains.getPendingTimeoutMs() / 4);
+        sweepTimer = system.scheduler().schedule(
+                Duration.create(sweepIntervalMs, TimeUnit.MILLISECONDS),
+                Duration.create(sweepIntervalMs, TimeUnit.MILLISECONDS), getSelf(), MSG_SWEEP,
+                getContext().dispatcher(), getSelf());
+        LOGGER.info("Job chains started: " + jobChains.getDependencies());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postStop() throws Exception {
+        if (sweepTimer != null) {
+            sweepTimer.cancel();
+        }
+        super.postStop();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder().match(JobChains.Completion.class, this::onCompletion)
+                .matchEquals(MSG_SWEEP, msg -> sweep()).build();
+    }
+
+    private Map<String, Boolean> firedTicksOf(String downstream) {
+        return firedTicks.computeIfAbsent(downstream, k -> new LinkedHashMap<String, Boolean>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > MAX_FIRED_TICKS;
+            }
+        });
+    }
+
+    private void onCompletion(JobChains.Completion completion) {
+        jobChains.recordReceived();
+        for (Map.Entry<String, Set<String>> entry : jobChains.getDependencies().entrySet()) {
+            String downstream = entry.getKey();
+            Set<String> upstreams = entry.getValue();
+            if (!upstreams.contains(completion.getWorker())) {
+                continue;
+            }
+            WorkerDirectory.Entry worker = workerDirectory.get(downstream);
+            if (worker == null) {
+                // the downstream worker may run on other nodes only
+                continue;
+            }
+            String tickId = completion.getTickId();
+            if (firedTicksOf(downstream).containsKey(tickId)) {
+                continue;
+            }
+            Map<String, PendingTick> pending = pendingTicks
+                    .computeIfAbsent(downstream, k -> new HashMap<>());
+            PendingTick pendingTick = pending.computeIfAbsent(tickId, k -> new PendingTick());
+            pendingTick.completed.add(completion.getWorker());
+            if (pendingTick.completed.containsAll(upstreams)) {
+                pending.remove(tickId);
+                firedTicksOf(downstream).put(tickId, Boolean.TRUE);
+                jobChains.recordFired(downstream);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Upstreams " + upstreams + " completed tick [" + tickId
+                            + "], firing worker [" + downstream + "].");
+                }
+                worker.getActorRef().tell(new BaseScheduledWorker.UpstreamsCompleted(tickId),
+                        getSelf());
+            }
+        }
+        updatePending();
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (Map.Entry<String, Map<String, PendingTick>> entry : pendingTicks.entrySet()) {
+            Iterator<Map.Entry<String, PendingTick>> it = entry.getValue().entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, PendingTick> pending = it.next();
+                if (now - pending.getValue().firstSeenMs > jobChains.getPendingTimeoutMs()) {
+                    LOGGER.warn("Worker [" + entry.getKey() + "]: tick [" + pending.getKey()
+                            + "] expired, only " + pending.getValue().completed + " of "
+                            + jobChains.getUpstreams(entry.getKey()) + " completed.");
+                    it.remove();
+                    count++;
+                }
+            }
+        }
+        if (count > 0) {
+            jobChains.recordExpired(count);
+            updatePending();
+        }
+    }
+
+    private void updatePending() {
+        int count = 0;
+        for (Map<String, PendingTick> pending : pendingTicks.values()) {
+            count += pending.size();
+        }
+        jobChains.setPending(count);
+    }
+}
@@ -0,0 +1,286 @@
+package com.github.btnguyen2k.akkascheduledjob.chain;
+
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import com.github.ddth.akka.scheduling.TickMessage;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Dependencies between workers (a DAG): a downstream worker runs as soon as all its upstream
+ * workers have completed successfully for the same logical tick, instead of on its own schedule.
+ *
+ * <p>
+ * Upstream workers report their successful runs with {@link #completed(String, TickMessage)}; the
+ * {@link Completion} is published to all nodes (over the pub/sub backend, or the distributed
+ * pub/sub mediator in cluster mode), where a {@link JobChainActor} joins completions per
+ * downstream worker and logical tick (the tick id) and fires the downstream worker. A downstream
+ * worker runs with the same tick id, so that its own completion fires the next step of the
+ * pipeline.
+ * </p>
+ *
+ * <p>
+ * All nodes must declare the same dependencies.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JobChains {
+    /**
+     * A successful run of an upstream worker.
+     */
+    public final static class Completion implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String worker, tickId;
+
+        public Completion(String worker, String tickId) {
+            this.worker = worker;
+            this.tickId = tickId;
+        }
+
+        public String getWorker() {
+            return worker;
+        }
+
+        public String getTickId() {
+            return tickId;
+        }
+
+        /**
+         * Encode as UTF-8 text {@code <worker>\t<tick-id>}.
+         *
+         * @return
+         */
+        public byte[] encode() {
+            return (worker + "\t" + tickId).getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Decode a payload.
+         *
+         * @param data
+         * @return {@code null} if the payload is invalid
+         */
+        public static Completion decode(byte[] data) {
+            String[] tokens = data != null
+                    ? new String(data, StandardCharsets.UTF_8).split("\t", 2) : null;
+            return tokens != null && tokens.length == 2 && !tokens[0].isEmpty()
+                    ? new Completion(tokens[0], tokens[1]) : null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return worker + "[tick=" + tickId + "]";
+        }
+    }
+
+    /**
+     * Find workers that are part of a dependency cycle.
+     *
+     * @param dependencies {downstream:upstreams}
+     * @return
+     */
+    public static Set<String> findCycles(Map<String, Set<String>> dependencies) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String worker : dependencies.keySet()) {
+            // a worker is in a cycle if it can reach itself through its upstreams
+            Set<String> visited = new HashSet<>();
+            LinkedHashSet<String> toVisit = new LinkedHashSet<>(
+                    dependencies.getOrDefault(worker, Collections.emptySet()));
+            while (!toVisit.isEmpty()) {
+                String next = toVisit.iterator().next();
+                toVisit.remove(next);
+                if (next.equals(worker)) {
+                    result.add(worker);
+                    break;
+                }
+                if (visited.add(next)) {
+                    toVisit.addAll(dependencies.getOrDefault(next, Collections.emptySet()));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Name a partition of a partitioned upstream worker reports its completions with: a
+     * downstream worker of a partitioned worker waits for all its partitions.
+     *
+     * @param worker
+     * @param partition
+     * @return
+     */
+    public static String partitionName(String worker, int partition) {
+        return worker + "#p" + partition;
+    }
+
+    private final Map<String, Set<String>> upstreamsOf = new LinkedHashMap<>();
+    private final Set<String> upstreamWorkers = new HashSet<>();
+    private long pendingTimeoutMs = 3600000;
+    private Consumer<Completion> publisher;
+    private Runnable unsubscriber;
+
+    private final AtomicLong published = new AtomicLong(), received = new AtomicLong();
+    private final AtomicLong fired = new AtomicLong(), expired = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Map<String, Long> lastFired = new HashMap<>();
+
+    /**
+     * Declare the upstream workers of a downstream worker.
+     *
+     * @param downstream
+     * @param upstreams
+     * @return
+     */
+    public JobChains addDependencies(String downstream, Collection<String> upstreams) {
+        upstreamsOf.computeIfAbsent(downstream, k -> new LinkedHashSet<>()).addAll(upstreams);
+        upstreamWorkers.addAll(upstreams);
+        return this;
+    }
+
+    /**
+     * Upstream workers of a worker.
+     *
+     * @param downstream
+     * @return empty if the worker is not a downstream worker
+     */
+    public Set<String> getUpstreams(String downstream) {
+        Set<String> upstreams = upstreamsOf.get(downstream);
+        return upstreams != null ? Collections.unmodifiableSet(upstreams)
+                : Collections.emptySet();
+    }
+
+    /**
+     * Downstream workers and their upstream workers.
+     *
+     * @return
+     */
+    public Map<String, Set<String>> getDependencies() {
+        return Collections.unmodifiableMap(upstreamsOf);
+    }
+
+    public long getPendingTimeoutMs() {
+        return pendingTimeoutMs;
+    }
+
+    /**
+     * Logical ticks still waiting for upstream completions after this long are dropped (an
+     * upstream run failed or was skipped).
+     *
+     * @param pendingTimeoutMs
+     * @return
+     */
+    public JobChains setPendingTimeoutMs(long pendingTimeoutMs) {
+        this.pendingTimeoutMs = Math.max(1000, pendingTimeoutMs);
+        return this;
+    }
+
+    /**
+     * Sends completions to the {@link JobChainActor} of every node.
+     *
+     * @param publisher
+     * @return
+     */
+    public JobChains setPublisher(Consumer<Completion> publisher) {
+        this.publisher = publisher;
+        return this;
+    }
+
+    /**
+     * Stops receiving completions from the pub/sub backend, called by {@link #destroy()}.
+     *
+     * @param unsubscriber
+     * @return
+     */
+    JobChains setUnsubscriber(Runnable unsubscriber) {
+        this.unsubscriber = unsubscriber;
+        return this;
+    }
+
+    /**
+     * Stop receiving completions from other nodes.
+     */
+    public void destroy() {
+        if (unsubscriber != null) {
+            unsubscriber.run();
+            unsubscriber = null;
+        }
+    }
+
+    /**
+     * Report a successful run of a worker; ignored if the worker is nobody's upstream.
+     *
+     * @param worker
+     * @param tick
+     */
+    public void completed(String worker, TickMessage tick) {
+        if (publisher != null && upstreamWorkers.contains(worker)) {
+            publisher.accept(new Completion(worker, tick.getId()));
+            published.incrementAndGet();
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    void recordReceived() {
+        received.incrementAndGet();
+    }
+
+    void recordFired(String downstream) {
+        fired.incrementAndGet();
+        synchronized (lastFired) {
+            lastFired.put(downstream, System.currentTimeMillis());
+        }
+    }
+
+    void recordExpired(int count) {
+        expired.addAndGet(count);
+    }
+
+    void setPending(int count) {
+        pending.set(count);
+    }
+
+    /**
+     * Render dependencies and counters as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"published\":").append(published.get())
+                .append(",\"received\":").append(received.get()).append(",\"fired\":")
+                .append(fired.get()).append(",\"expired\":").append(expired.get())
+                .append(",\"pending\":").append(pending.get()).append(",\"workers\":[");
+        int i = 0;
+        for (Map.Entry<String, Set<String>> entry : upstreamsOf.entrySet()) {
+            Long last;
+            synchronized (lastFired) {
+                last = lastFired.get(entry.getKey());
+            }
+            sb.append(i++ > 0 ? "," : "").append("{\"name\":")
+                    .append(JsonUtils.quote(entry.getKey())).append(",\"upstreams\":[");
+            int j = 0;
+            for (String upstream : entry.getValue()) {
+                sb.append(j++ > 0 ? "," : "").append(JsonUtils.quote(upstream));
+            }
+            sb.append("],\"lastFired\":").append(last != null ? last : 0).append("}");
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,251 @@
+package com.github.btnguyen2k.akkascheduledjob.chain;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import com.github.btnguyen2k.akkascheduledjob.SchedulingMode;
+import com.github.btnguyen2k.akkascheduledjob.cluster.ClusterSupport;
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.PubSubHelper;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerClass;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerFactory;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerSpec;
+import com.github.ddth.commons.utils.TypesafeConfigUtils;
+import com.github.ddth.pubsub.IPubSubHub;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Builds {@link JobChains} from the {@code upstream} option of the worker list, and starts the
+ * {@link JobChainActor} of this node.
+ *
+ * <p>
+ * Completions of upstream workers are exchanged over the distributed pub/sub mediator in cluster
+ * mode (see {@link ClusterSupport}), over the channel
+ * {@code ddth-akka-scheduling.chains.channel-name} of the pub/sub backend otherwise. Workers in a
+ * dependency cycle, and workers not extending {@code BaseScheduledWorker}, run on their schedule
+ * instead.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JobChainsFactory {
+    private final static Logger LOGGER = LoggerFactory.getLogger(JobChainsFactory.class);
+
+    /**
+     * Create a factory with settings from application's configuration: scheduling mode and
+     * {@code ddth-akka-scheduling.chains.*}. Worker list and services are set separately.
+     *
+     * @param config
+     * @return
+     */
+    public static JobChainsFactory fromConfig(Config config) {
+        final String PREFIX = "ddth-akka-scheduling.chains.";
+        JobChainsFactory factory = new JobChainsFactory()
+                .setClusterMode(SchedulingMode.fromConfig(config) == SchedulingMode.CLUSTER);
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "pending-timeout-ms")
+                .ifPresent(v -> factory.setPendingTimeoutMs(v.longValue()));
+        TypesafeConfigUtils.getStringOptional(config, PREFIX + "channel-name")
+                .ifPresent(factory::setChannelName);
+        return factory;
+    }
+
+    private boolean clusterMode = false;
+    private long pendingTimeoutMs = -1;
+    private String channelName = "akka-scheduled-jobs-chains";
+
+    private List<WorkerSpec> workerSpecs = Collections.emptyList();
+    private WorkerFactory workerFactory;
+    private WorkerDirectory workerDirectory;
+    private Supplier<IPubSubHub<?, byte[]>> pubSubHub;
+
+    public boolean isClusterMode() {
+        return clusterMode;
+    }
+
+    public JobChainsFactory setClusterMode(boolean clusterMode) {
+        this.clusterMode = clusterMode;
+        return this;
+    }
+
+    /**
+     * See {@link JobChains#setPendingTimeoutMs(long)}, negative for the default.
+     *
+     * @return
+     */
+    public long getPendingTimeoutMs() {
+        return pendingTimeoutMs;
+    }
+
+    public JobChainsFactory setPendingTimeoutMs(long pendingTimeoutMs) {
+        this.pendingTimeoutMs = pendingTimeoutMs;
+        return this;
+    }
+
+    public String getChannelName() {
+        return channelName;
+    }
+
+    public JobChainsFactory setChannelName(String channelName) {
+        this.channelName = channelName;
+        return this;
+    }
+
+    /**
+     * Set the worker list of this node.
+     *
+     * @param workerSpecs
+     * @return
+     */
+    public JobChainsFactory setWorkerSpecs(List<WorkerSpec> workerSpecs) {
+        this.workerSpecs = workerSpecs != null ? workerSpecs : Collections.emptyList();
+        return this;
+    }
+
+    /**
+     * Set the factory workers are created with, to resolve the partitions of partitioned
+     * upstream workers.
+     *
+     * @param workerFactory
+     * @return
+     */
+    public JobChainsFactory setWorkerFactory(WorkerFactory workerFactory) {
+        this.workerFactory = workerFactory;
+        return this;
+    }
+
+    public JobChainsFactory setWorkerDirectory(WorkerDirectory workerDirectory) {
+        this.workerDirectory = workerDirectory;
+        return this;
+    }
+
+    /**
+     * Set the pub/sub backend, only obtained when completions are not exchanged over the
+     * distributed pub/sub mediator.
+     *
+     * @param pubSubHub
+     * @return
+     */
+    public JobChainsFactory setPubSubHub(Supplier<IPubSubHub<?, byte[]>> pubSubHub) {
+        this.pubSubHub = pubSubHub;
+        return this;
+    }
+
+    /**
+     * Build dependencies between workers of the worker list.
+     *
+     * @return downstream workers and their upstream workers, partitioned upstream workers
+     * expanded to their partitions
+     */
+    public Map<String, Set<String>> buildDependencies() {
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        Set<String> workerNames = new HashSet<>();
+        Map<String, Integer> partitionedWorkers = new HashMap<>();
+        for (WorkerSpec spec : workerSpecs) {
+            workerNames.add(spec.getActorName());
+            WorkerClass workerClass;
+            try {
+                workerClass = WorkerClass.forName(spec.getClassName());
+            } catch (ClassNotFoundException e) {
+                // reported when workers are created
+                continue;
+            }
+            if (workerClass.isPartitionedWorker() && workerFactory != null) {
+                partitionedWorkers.put(spec.getActorName(), workerFactory.getNumPartitions(spec));
+            }
+            Set<String> upstreams = spec.getUpstreams();
+            if (upstreams.isEmpty()) {
+                continue;
+            }
+            if (!workerClass.isScheduledWorker()) {
+                LOGGER.warn("Worker [" + spec.getClassName() + "] does not support upstream "
+                        + "workers, runs on its schedule!");
+                continue;
+            }
+            dependencies.put(spec.getActorName(), upstreams);
+        }
+        for (String worker : JobChains.findCycles(dependencies)) {
+            LOGGER.error("Worker [" + worker + "] is part of a dependency cycle " + dependencies
+                    + ", runs on its schedule!");
+            dependencies.remove(worker);
+        }
+        Map<String, Set<String>> result = new LinkedHashMap<>();
+        dependencies.forEach((worker, upstreams) -> {
+            upstreams.stream().filter(name -> !workerNames.contains(name))
+                    .forEach(name -> LOGGER.warn("Upstream worker [" + name + "] of worker ["
+                            + worker + "] is not in the worker list of this node, it must run "
+                            + "on other nodes!"));
+            // a partitioned upstream worker completes a tick once all its partitions have
+            Set<String> expanded = new LinkedHashSet<>();
+            for (String upstream : upstreams) {
+                Integer numPartitions = partitionedWorkers.get(upstream);
+                for (int i = 0; numPartitions != null && i < numPartitions; i++) {
+                    expanded.add(JobChains.partitionName(upstream, i));
+                }
+                if (numPartitions == null) {
+                    expanded.add(upstream);
+                }
+            }
+            result.put(worker, expanded);
+        });
+        return result;
+    }
+
+    /**
+     * Build the job chains and start the {@link JobChainActor} of this node.
+     *
+     * <p>
+     * Call {@link JobChains#destroy()} to stop receiving completions from the pub/sub backend.
+     * </p>
+     *
+     * @param actorSystem
+     * @return {@code null} if no worker declares upstream workers
+     */
+    public JobChains createJobChains(ActorSystem actorSystem) {
+        Map<String, Set<String>> dependencies = buildDependencies();
+        if (dependencies.isEmpty()) {
+            return null;
+        }
+        JobChains chains = new JobChains();
+        dependencies.forEach(chains::addDependencies);
+        if (pendingTimeoutMs >= 0) {
+            chains.setPendingTimeoutMs(pendingTimeoutMs);
+        }
+        ActorRef chainActor = JobChainActor.newInstance(actorSystem, chains, workerDirectory);
+        ClusterSupport cluster = clusterMode ? ClusterSupport.load(actorSystem) : null;
+        if (cluster != null) {
+            cluster.subscribe(JobChainActor.TOPIC, chainActor);
+            chains.setPublisher(c -> cluster.publish(JobChainActor.TOPIC, c));
+            LOGGER.info("Exchanging job completions on topic [" + JobChainActor.TOPIC + "].");
+        } else {
+            IPubSubHub<?, byte[]> hub = pubSubHub.get();
+            chains.setPublisher(c -> {
+                if (!PubSubHelper.publish(hub, channelName, c.encode())) {
+                    LOGGER.warn("Cannot publish completion " + c + " to channel [" + channelName
+                            + "]!");
+                }
+            });
+            chains.setUnsubscriber(PubSubHelper.subscribe(hub, channelName, data -> {
+                JobChains.Completion c = JobChains.Completion.decode(data);
+                if (c != null) {
+                    chainActor.tell(c, ActorRef.noSender());
+                } else {
+                    LOGGER.warn("Invalid completion payload on channel [" + channelName + "].");
+                }
+            }));
+            LOGGER.info("Exchanging job completions on channel [" + channelName + "].");
+        }
+        return chains;
+    }
+}
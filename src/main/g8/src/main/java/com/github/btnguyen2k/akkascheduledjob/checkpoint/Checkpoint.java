@@ -0,0 +1,101 @@
+package com.github.btnguyen2k.akkascheduledjob.checkpoint;
+
+/**
+ * Where a worker is: the last tick it ran, whether that run completed, and the worker's own
+ * progress marker (e.g. the id of the last record processed).
+ *
+ * <p>
+ * While a run is in progress, its checkpoint is refreshed every heartbeat (see
+ * {@link CheckpointStore#setHeartbeatIntervalMs(long)}) and records the id the run took the
+ * worker's dlock with, so that other nodes can tell a run that is gone and break its dlock.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class Checkpoint {
+    private final String key;
+    private final String tickId;
+    private final long tickTimestampMs;
+    private final long updatedAtMs;
+    private final boolean completed;
+    private final String progress;
+    private final String nodeId;
+    private final String dlockId;
+
+    /**
+     * @param key             checkpoint key: name of the worker, suffixed with {@code @<node-id>}
+     *                        for workers that run on every node
+     * @param tickId          id of the tick
+     * @param tickTimestampMs timestamp of the tick
+     * @param updatedAtMs     time the checkpoint was taken
+     * @param completed       {@code true} if the tick's run completed successfully
+     * @param progress        worker's progress marker, may be {@code null}
+     * @param nodeId          node that took the checkpoint
+     * @param dlockId         id the run took the worker's dlock with, {@code null} if none
+     */
+    public Checkpoint(String key, String tickId, long tickTimestampMs, long updatedAtMs,
+            boolean completed, String progress, String nodeId, String dlockId) {
+        this.key = key;
+        this.tickId = tickId;
+        this.tickTimestampMs = tickTimestampMs;
+        this.updatedAtMs = updatedAtMs;
+        this.completed = completed;
+        this.progress = progress;
+        this.nodeId = nodeId;
+        this.dlockId = dlockId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getTickId() {
+        return tickId;
+    }
+
+    public long getTickTimestampMs() {
+        return tickTimestampMs;
+    }
+
+    public long getUpdatedAtMs() {
+        return updatedAtMs;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public String getProgress() {
+        return progress;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getDlockId() {
+        return dlockId;
+    }
+
+    /**
+     * Copy of this checkpoint, taken at another time by a node.
+     *
+     * @param updatedAtMs
+     * @param nodeId
+     * @return
+     */
+    public Checkpoint updated(long updatedAtMs, String nodeId) {
+        return new Checkpoint(key, tickId, tickTimestampMs, updatedAtMs, completed, progress,
+                nodeId, dlockId);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return key + "[tick=" + tickId + ", completed=" + completed + ", progress=" + progress
+                + ", node=" + nodeId + "]";
+    }
+}
@@ -0,0 +1,411 @@
+package com.github.btnguyen2k.akkascheduledjob.checkpoint;
+
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable store of worker {@link Checkpoint}s, with write-behind.
+ *
+ * <p>
+ * {@link #save(Checkpoint)} never blocks on I/O: checkpoints are kept in a pending map, where a
+ * newer checkpoint of the same key replaces the older one, and a single writer thread writes the
+ * pending checkpoints every {@code flushIntervalMs} as one batch. A failed batch is kept pending
+ * (unless superseded) and retried on the next flush. {@link #get(String)} sees pending
+ * checkpoints of this node first, then reads the backend; {@link #read(String)} reads the backend
+ * only, to see what other nodes see.
+ * </p>
+ *
+ * <p>
+ * Checkpoints other nodes act upon bypass the write-behind: {@link #saveNow(Checkpoint)} writes
+ * right away, and {@link #compareAndSet(Checkpoint, Checkpoint)} replaces a checkpoint only if
+ * no other node has updated it since it was read. While a run is in progress (see
+ * {@link #startHeartbeat(Checkpoint)}), the writer refreshes the update time of its checkpoint
+ * every {@code heartbeatIntervalMs}: a run not refreshed for {@link #getStaleAfterMs()} is gone.
+ * </p>
+ *
+ * <p>
+ * Implementations: {@link FileCheckpointStore} (local files, survives restarts of this node) and
+ * {@link JdbcCheckpointStore} (a table shared by all nodes, survives failovers).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public abstract class CheckpointStore {
+    private final Logger LOGGER = LoggerFactory.getLogger(CheckpointStore.class);
+
+    private String nodeId = "";
+    private long flushIntervalMs = 200;
+    private long heartbeatIntervalMs = 10000;
+    private boolean resumeOnStart = true;
+
+    private final Map<String, Checkpoint> pending = new LinkedHashMap<>();
+    /**
+     * Checkpoints of runs in progress on this node, guarded by {@code pending}.
+     */
+    private final Map<String, Checkpoint> heartbeats = new HashMap<>();
+    private Thread writer;
+    private volatile boolean running = false;
+
+    private final AtomicLong numSaved = new AtomicLong(), numCoalesced = new AtomicLong();
+    private final AtomicLong numWritten = new AtomicLong(), numBatches = new AtomicLong();
+    private final AtomicLong numWriteErrors = new AtomicLong(), numReadErrors = new AtomicLong();
+    private final AtomicLong numClaimed = new AtomicLong(), numClaimsLost = new AtomicLong();
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Id of this node, recorded in checkpoints and used to key checkpoints of workers that run on
+     * every node.
+     *
+     * @param nodeId
+     * @return
+     */
+    public CheckpointStore setNodeId(String nodeId) {
+        this.nodeId = nodeId != null ? nodeId : "";
+        return this;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    /**
+     * How long a checkpoint may stay pending before it is written.
+     *
+     * @param flushIntervalMs
+     * @return
+     */
+    public CheckpointStore setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        return this;
+    }
+
+    public long getHeartbeatIntervalMs() {
+        return heartbeatIntervalMs;
+    }
+
+    /**
+     * How often checkpoints of runs in progress are refreshed.
+     *
+     * @param heartbeatIntervalMs
+     * @return
+     */
+    public CheckpointStore setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+        this.heartbeatIntervalMs = Math.max(1, heartbeatIntervalMs);
+        return this;
+    }
+
+    /**
+     * A run whose checkpoint has not been refreshed for this long is gone (e.g. its node
+     * crashed): three heartbeats (plus a flush), so that a heartbeat may be late twice.
+     *
+     * @return
+     */
+    public long getStaleAfterMs() {
+        return 3 * heartbeatIntervalMs + flushIntervalMs;
+    }
+
+    public boolean isResumeOnStart() {
+        return resumeOnStart;
+    }
+
+    /**
+     * If {@code true}, a worker whose last checkpoint is not completed (its run was interrupted)
+     * runs that tick again right after it starts.
+     *
+     * @param resumeOnStart
+     * @return
+     */
+    public CheckpointStore setResumeOnStart(boolean resumeOnStart) {
+        this.resumeOnStart = resumeOnStart;
+        return this;
+    }
+
+    public CheckpointStore init() {
+        running = true;
+        writer = new Thread(this::writeLoop, "checkpoint-writer");
+        writer.setDaemon(true);
+        writer.start();
+        return this;
+    }
+
+    /**
+     * Stop the writer, writing pending checkpoints.
+     *
+     * @param timeoutMs max time to wait for pending checkpoints to be written
+     */
+    public void destroy(long timeoutMs) {
+        running = false;
+        if (writer != null) {
+            synchronized (pending) {
+                pending.notifyAll();
+            }
+            try {
+                writer.join(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                writer.interrupt();
+                LOGGER.warn("Checkpoint store: " + getPendingCount()
+                        + " checkpoint(s) not written within " + timeoutMs + "ms!");
+            }
+            writer = null;
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Queue a checkpoint for writing, replacing the pending one of the same key.
+     *
+     * @param checkpoint
+     */
+    public void save(Checkpoint checkpoint) {
+        synchronized (pending) {
+            if (pending.put(checkpoint.getKey(), checkpoint) != null) {
+                numCoalesced.incrementAndGet();
+            }
+            heartbeats.computeIfPresent(checkpoint.getKey(), (k, v) -> checkpoint);
+        }
+        numSaved.incrementAndGet();
+    }
+
+    /**
+     * Write a checkpoint right away, replacing the pending one of the same key; queued for
+     * writing if the backend fails.
+     *
+     * @param checkpoint
+     * @return {@code true} if the checkpoint was written
+     */
+    public boolean saveNow(Checkpoint checkpoint) {
+        synchronized (pending) {
+            pending.remove(checkpoint.getKey());
+            heartbeats.computeIfPresent(checkpoint.getKey(), (k, v) -> checkpoint);
+        }
+        numSaved.incrementAndGet();
+        try {
+            write(Collections.singletonList(checkpoint));
+            numBatches.incrementAndGet();
+            numWritten.incrementAndGet();
+            return true;
+        } catch (Exception e) {
+            numWriteErrors.incrementAndGet();
+            LOGGER.warn("Cannot write checkpoint " + checkpoint + " to " + describe()
+                    + ", retrying: " + e.getMessage(), e);
+            synchronized (pending) {
+                pending.putIfAbsent(checkpoint.getKey(), checkpoint);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Replace a checkpoint in the backend, only if it is still the one read (same tick, update
+     * time and node): of several nodes claiming the same checkpoint, only one succeeds.
+     *
+     * @param expected checkpoint read from the backend
+     * @param update
+     * @return {@code false} if another node updated the checkpoint meanwhile, or the backend
+     * failed
+     */
+    public boolean compareAndSet(Checkpoint expected, Checkpoint update) {
+        boolean claimed;
+        try {
+            claimed = replace(expected, update);
+        } catch (Exception e) {
+            numWriteErrors.incrementAndGet();
+            LOGGER.warn("Cannot claim checkpoint " + expected + " in " + describe() + ": "
+                    + e.getMessage(), e);
+            return false;
+        }
+        (claimed ? numClaimed : numClaimsLost).incrementAndGet();
+        if (claimed) {
+            synchronized (pending) {
+                // older than the claim
+                pending.remove(update.getKey());
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Refresh the checkpoint of a run in progress every heartbeat, until
+     * {@link #stopHeartbeat(String)}; newer checkpoints of the key saved meanwhile are refreshed
+     * instead.
+     *
+     * @param checkpoint
+     */
+    public void startHeartbeat(Checkpoint checkpoint) {
+        synchronized (pending) {
+            heartbeats.put(checkpoint.getKey(), checkpoint);
+        }
+    }
+
+    /**
+     * The run of a checkpoint key ended.
+     *
+     * @param key
+     */
+    public void stopHeartbeat(String key) {
+        synchronized (pending) {
+            heartbeats.remove(key);
+        }
+    }
+
+    /**
+     * Queue refreshed checkpoints of runs in progress not saved for a heartbeat; called with
+     * {@code pending} held.
+     */
+    private void refreshHeartbeats(long now) {
+        for (Map.Entry<String, Checkpoint> entry : heartbeats.entrySet()) {
+            Checkpoint checkpoint = entry.getValue();
+            if (!checkpoint.isCompleted()
+                    && now - checkpoint.getUpdatedAtMs() >= heartbeatIntervalMs) {
+                checkpoint = checkpoint.updated(now, checkpoint.getNodeId());
+                entry.setValue(checkpoint);
+                pending.putIfAbsent(entry.getKey(), checkpoint);
+            }
+        }
+    }
+
+    /**
+     * Get the latest checkpoint of a key.
+     *
+     * @param key
+     * @return {@code null} if there is none, or it could not be read
+     */
+    public Checkpoint get(String key) {
+        synchronized (pending) {
+            Checkpoint checkpoint = pending.get(key);
+            if (checkpoint != null) {
+                return checkpoint;
+            }
+        }
+        return read(key);
+    }
+
+    /**
+     * Read the checkpoint of a key from the backend, ignoring pending checkpoints of this node.
+     *
+     * @param key
+     * @return {@code null} if there is none, or it could not be read
+     */
+    public Checkpoint read(String key) {
+        try {
+            return load(key);
+        } catch (Exception e) {
+            numReadErrors.incrementAndGet();
+            LOGGER.warn("Cannot read checkpoint [" + key + "]: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Read a checkpoint from the backend.
+     *
+     * @param key
+     * @return {@code null} if not found
+     * @throws Exception
+     */
+    protected abstract Checkpoint load(String key) throws Exception;
+
+    /**
+     * Write a batch of checkpoints (one per key) to the backend.
+     *
+     * @param batch
+     * @throws Exception
+     */
+    protected abstract void write(List<Checkpoint> batch) throws Exception;
+
+    /**
+     * Atomically replace a checkpoint in the backend if it matches {@code expected}: same tick,
+     * update time and node, not completed.
+     *
+     * @param expected
+     * @param update
+     * @return {@code false} if it does not match
+     * @throws Exception
+     */
+    protected abstract boolean replace(Checkpoint expected, Checkpoint update) throws Exception;
+
+    /**
+     * Name of the backend, for logging.
+     *
+     * @return
+     */
+    protected abstract String describe();
+
+    private void writeLoop() {
+        while (running || getPendingCount() > 0) {
+            List<Checkpoint> batch;
+            synchronized (pending) {
+                if (running) {
+                    try {
+                        pending.wait(flushIntervalMs);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    refreshHeartbeats(System.currentTimeMillis());
+                }
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                write(batch);
+                numBatches.incrementAndGet();
+                numWritten.addAndGet(batch.size());
+            } catch (Exception e) {
+                numWriteErrors.incrementAndGet();
+                LOGGER.warn("Cannot write " + batch.size() + " checkpoint(s) to " + describe()
+                        + ", retrying: " + e.getMessage(), e);
+                synchronized (pending) {
+                    // keep newer checkpoints saved meanwhile
+                    batch.forEach(c -> pending.putIfAbsent(c.getKey(), c));
+                }
+                if (!running) {
+                    try {
+                        Thread.sleep(flushIntervalMs);
+                    } catch (InterruptedException ie) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Render counters as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        return "{\"backend\":" + JsonUtils.quote(describe()) + ",\"pending\":" + getPendingCount()
+                + ",\"saved\":" + numSaved.get()
+                + ",\"coalesced\":" + numCoalesced.get() + ",\"written\":" + numWritten.get()
+                + ",\"batches\":" + numBatches.get() + ",\"writeErrors\":" + numWriteErrors.get()
+                + ",\"readErrors\":" + numReadErrors.get() + ",\"claimed\":" + numClaimed.get()
+                + ",\"claimsLost\":" + numClaimsLost.get() + "}";
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.btnguyen2k.akkascheduledjob.checkpoint;
+
+import com.github.ddth.commons.utils.TypesafeConfigUtils;
+import com.typesafe.config.Config;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Builds the {@link CheckpointStore} configured in {@code ddth-akka-scheduling.checkpoints}.
+ *
+ * <p>
+ * Store {@code type}: {@code none} (default, checkpoints disabled), {@code file} (a
+ * {@link FileCheckpointStore} in {@code file.directory}) or {@code jdbc} (a
+ * {@link JdbcCheckpointStore} on table {@code jdbc.table} of data source
+ * {@code jdbc.datasource}).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class CheckpointStoreFactory {
+    private final static Logger LOGGER = LoggerFactory.getLogger(CheckpointStoreFactory.class);
+
+    /**
+     * Create a factory with settings from application's configuration. The data sources of
+     * {@code jdbc} stores are set separately.
+     *
+     * @param config
+     * @return
+     */
+    public static CheckpointStoreFactory fromConfig(Config config) {
+        final String PREFIX = "ddth-akka-scheduling.checkpoints.";
+        CheckpointStoreFactory factory = new CheckpointStoreFactory();
+        TypesafeConfigUtils.getStringOptional(config, PREFIX + "type")
+                .ifPresent(factory::setType);
+        TypesafeConfigUtils.getStringOptional(config, PREFIX + "file.directory")
+                .ifPresent(factory::setDirectory);
+        TypesafeConfigUtils.getStringOptional(config, PREFIX + "jdbc.datasource")
+                .ifPresent(factory::setDataSourceName);
+        TypesafeConfigUtils.getStringOptional(config, PREFIX + "jdbc.table")
+                .ifPresent(factory::setTableName);
+        TypesafeConfigUtils.getStringOptional(config, PREFIX + "node-id")
+                .filter(StringUtils::isNotBlank).ifPresent(factory::setNodeId);
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "flush-interval-ms")
+                .ifPresent(v -> factory.setFlushIntervalMs(v.longValue()));
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "heartbeat-interval-ms")
+                .ifPresent(v -> factory.setHeartbeatIntervalMs(v.longValue()));
+        TypesafeConfigUtils.getBooleanOptional(config, PREFIX + "resume-on-start")
+                .ifPresent(v -> factory.setResumeOnStart(v.booleanValue()));
+        return factory;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private String type = "none";
+    private String directory = "./data/checkpoints";
+    private String dataSourceName = "default";
+    private String tableName = "worker_checkpoints";
+    // must be stable across restarts: checkpoints of workers running on every node are keyed by
+    // node id
+    private String nodeId = hostName();
+    private long flushIntervalMs = 200;
+    private long heartbeatIntervalMs = 10000;
+    private boolean resumeOnStart = true;
+    private Supplier<Map<String, DataSource>> dataSources = () -> null;
+
+    public String getType() {
+        return type;
+    }
+
+    public CheckpointStoreFactory setType(String type) {
+        this.type = type;
+        return this;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public CheckpointStoreFactory setDirectory(String directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    public String getDataSourceName() {
+        return dataSourceName;
+    }
+
+    public CheckpointStoreFactory setDataSourceName(String dataSourceName) {
+        this.dataSourceName = dataSourceName;
+        return this;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public CheckpointStoreFactory setTableName(String tableName) {
+        this.tableName = tableName;
+        return this;
+    }
+
+    /**
+     * Id of this node, default: host name.
+     *
+     * @return
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public CheckpointStoreFactory setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+        return this;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public CheckpointStoreFactory setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+        return this;
+    }
+
+    public long getHeartbeatIntervalMs() {
+        return heartbeatIntervalMs;
+    }
+
+    public CheckpointStoreFactory setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        return this;
+    }
+
+    public boolean isResumeOnStart() {
+        return resumeOnStart;
+    }
+
+    public CheckpointStoreFactory setResumeOnStart(boolean resumeOnStart) {
+        this.resumeOnStart = resumeOnStart;
+        return this;
+    }
+
+    /**
+     * Set the data sources, by name, {@code jdbc} stores are built on; only obtained when the
+     * store is created.
+     *
+     * @param dataSources
+     * @return
+     */
+    public CheckpointStoreFactory setDataSources(Supplier<Map<String, DataSource>> dataSources) {
+        this.dataSources = dataSources;
+        return this;
+    }
+
+    /**
+     * Create and initialize the checkpoint store.
+     *
+     * @return {@code null} if checkpoints are disabled or the store cannot be built
+     */
+    public CheckpointStore createStore() {
+        CheckpointStore store;
+        if (StringUtils.equalsIgnoreCase("file", type)) {
+            store = new FileCheckpointStore(new File(directory));
+        } else if (StringUtils.equalsIgnoreCase("jdbc", type)) {
+            Map<String, DataSource> dsMap = dataSources.get();
+            DataSource ds = dsMap != null ? dsMap.get(dataSourceName) : null;
+            if (ds == null) {
+                LOGGER.error("Data source [" + dataSourceName + "] for checkpoints not found, "
+                        + "checkpoints are disabled!");
+                return null;
+            }
+            store = new JdbcCheckpointStore(ds, tableName);
+        } else {
+            if (!StringUtils.equalsIgnoreCase("none", type)) {
+                LOGGER.warn("Unknown checkpoint store type [" + type
+                        + "], checkpoints are disabled!");
+            }
+            return null;
+        }
+        store.setNodeId(nodeId).setFlushIntervalMs(flushIntervalMs)
+                .setHeartbeatIntervalMs(heartbeatIntervalMs).setResumeOnStart(resumeOnStart);
+        try {
+            return store.init();
+        } catch (RuntimeException e) {
+            LOGGER.error("Cannot open checkpoint store [" + type + "]: " + e.getMessage(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.github.btnguyen2k.akkascheduledjob.checkpoint;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * {@link CheckpointStore} on local files: one properties file per checkpoint key, replaced
+ * atomically (written to a temporary file, then renamed).
+ *
+ * <p>
+ * Checkpoints survive restarts of this node; they are not shared with other nodes (unless the
+ * directory is on a shared file system, where {@link #compareAndSet(Checkpoint, Checkpoint)} is
+ * only atomic within a node).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class FileCheckpointStore extends CheckpointStore {
+    private final File directory;
+
+    public FileCheckpointStore(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FileCheckpointStore init() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException(
+                    "Cannot create checkpoint directory [" + directory.getAbsolutePath() + "]!");
+        }
+        super.init();
+        return this;
+    }
+
+    private File fileOf(String key) throws UnsupportedEncodingException {
+        return new File(directory, URLEncoder.encode(key, "UTF-8") + ".checkpoint");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Checkpoint load(String key) throws IOException {
+        File file = fileOf(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            props.load(is);
+        }
+        return new Checkpoint(key, props.getProperty("tick-id"),
+                Long.parseLong(props.getProperty("tick-time", "0")),
+                Long.parseLong(props.getProperty("updated-at", "0")),
+                Boolean.parseBoolean(props.getProperty("completed")),
+                props.getProperty("progress"), props.getProperty("node-id"),
+                props.getProperty("dlock-id"));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected synchronized void write(List<Checkpoint> batch) throws IOException {
+        for (Checkpoint checkpoint : batch) {
+            Properties props = new Properties();
+            props.setProperty("tick-id", checkpoint.getTickId());
+            props.setProperty("tick-time", String.valueOf(checkpoint.getTickTimestampMs()));
+            props.setProperty("updated-at", String.valueOf(checkpoint.getUpdatedAtMs()));
+            props.setProperty("completed", String.valueOf(checkpoint.isCompleted()));
+            if (checkpoint.getProgress() != null) {
+                props.setProperty("progress", checkpoint.getProgress());
+            }
+            props.setProperty("node-id", checkpoint.getNodeId());
+            if (checkpoint.getDlockId() != null) {
+                props.setProperty("dlock-id", checkpoint.getDlockId());
+            }
+            Path target = fileOf(checkpoint.getKey()).toPath();
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileOutputStream os = new FileOutputStream(tmp.toFile())) {
+                props.store(os, null);
+                os.getFD().sync();
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected synchronized boolean replace(Checkpoint expected, Checkpoint update)
+            throws IOException {
+        Checkpoint current = load(expected.getKey());
+        if (current == null || current.isCompleted()
+                || !StringUtils.equals(current.getTickId(), expected.getTickId())
+                || current.getUpdatedAtMs() != expected.getUpdatedAtMs()
+                || !StringUtils.equals(current.getNodeId(), expected.getNodeId())) {
+            return false;
+        }
+        write(Collections.singletonList(update));
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        return "file:" + directory.getAbsolutePath();
+    }
+}
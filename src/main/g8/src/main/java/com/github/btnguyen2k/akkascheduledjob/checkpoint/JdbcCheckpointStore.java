@@ -0,0 +1,184 @@
+package com.github.btnguyen2k.akkascheduledjob.checkpoint;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CheckpointStore} on a database table, shared by all nodes.
+ *
+ * <p>
+ * Each batch is written in one transaction: a JDBC batch of {@code UPDATE}s, then a JDBC batch
+ * of {@code INSERT}s for the keys not in the table yet (portable, no dialect-specific upsert). If
+ * the driver does not report update counts ({@link Statement#SUCCESS_NO_INFO}), keys are checked
+ * one by one within the transaction. If two nodes insert the same new key at the same time, one
+ * batch fails and is retried as an update on the next flush.
+ * </p>
+ *
+ * <p>
+ * {@link #compareAndSet(Checkpoint, Checkpoint)} is a single {@code UPDATE} conditioned on the
+ * row read (tick, update time and node), atomic across nodes.
+ * </p>
+ *
+ * <pre>
+ * CREATE TABLE worker_checkpoints (
+ *     ckey       VARCHAR(255) NOT NULL PRIMARY KEY,
+ *     tick_id    VARCHAR(255),
+ *     tick_time  BIGINT,
+ *     updated_at BIGINT,
+ *     completed  INT,
+ *     progress   VARCHAR(4000),
+ *     node_id    VARCHAR(255),
+ *     dlock_id   VARCHAR(255)
+ * );
+ * </pre>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JdbcCheckpointStore extends CheckpointStore {
+    private final DataSource dataSource;
+    private final String tableName;
+    private final String sqlSelect, sqlExists, sqlUpdate, sqlInsert, sqlReplace;
+
+    /**
+     * @param dataSource
+     * @param tableName name of the checkpoint table
+     */
+    public JdbcCheckpointStore(DataSource dataSource, String tableName) {
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+        sqlSelect = "SELECT tick_id, tick_time, updated_at, completed, progress, node_id, "
+                + "dlock_id FROM " + tableName + " WHERE ckey=?";
+        sqlExists = "SELECT 1 FROM " + tableName + " WHERE ckey=?";
+        sqlUpdate = "UPDATE " + tableName + " SET tick_id=?, tick_time=?, updated_at=?, "
+                + "completed=?, progress=?, node_id=?, dlock_id=? WHERE ckey=?";
+        sqlInsert = "INSERT INTO " + tableName + " (tick_id, tick_time, updated_at, completed, "
+                + "progress, node_id, dlock_id, ckey) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        sqlReplace = sqlUpdate + " AND tick_id=? AND updated_at=? AND node_id=? AND completed=0";
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Checkpoint load(String key) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sqlSelect)) {
+            stmt.setString(1, key);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? new Checkpoint(key, rs.getString(1), rs.getLong(2),
+                        rs.getLong(3), rs.getInt(4) != 0, rs.getString(5), rs.getString(6),
+                        rs.getString(7)) : null;
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, Checkpoint checkpoint)
+            throws SQLException {
+        stmt.setString(1, checkpoint.getTickId());
+        stmt.setLong(2, checkpoint.getTickTimestampMs());
+        stmt.setLong(3, checkpoint.getUpdatedAtMs());
+        stmt.setInt(4, checkpoint.isCompleted() ? 1 : 0);
+        stmt.setString(5, checkpoint.getProgress());
+        stmt.setString(6, checkpoint.getNodeId());
+        stmt.setString(7, checkpoint.getDlockId());
+        stmt.setString(8, checkpoint.getKey());
+    }
+
+    /**
+     * Check if a key is in the table, for drivers that do not report update counts.
+     *
+     * @param stmt
+     * @param key
+     * @return
+     * @throws SQLException
+     */
+    private static boolean exists(PreparedStatement stmt, String key) throws SQLException {
+        stmt.setString(1, key);
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void write(List<Checkpoint> batch) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                int[] updated;
+                try (PreparedStatement stmt = conn.prepareStatement(sqlUpdate)) {
+                    for (Checkpoint checkpoint : batch) {
+                        bind(stmt, checkpoint);
+                        stmt.addBatch();
+                    }
+                    updated = stmt.executeBatch();
+                }
+                List<Checkpoint> toInsert = new ArrayList<>();
+                try (PreparedStatement exists = conn.prepareStatement(sqlExists)) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        Checkpoint checkpoint = batch.get(i);
+                        boolean missing = i < updated.length
+                                && updated[i] != Statement.SUCCESS_NO_INFO ? updated[i] == 0
+                                // the driver does not tell if the row was updated
+                                : !exists(exists, checkpoint.getKey());
+                        if (missing) {
+                            toInsert.add(checkpoint);
+                        }
+                    }
+                }
+                if (!toInsert.isEmpty()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(sqlInsert)) {
+                        for (Checkpoint checkpoint : toInsert) {
+                            bind(stmt, checkpoint);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected boolean replace(Checkpoint expected, Checkpoint update) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sqlReplace)) {
+            bind(stmt, update);
+            stmt.setString(9, expected.getTickId());
+            stmt.setLong(10, expected.getUpdatedAtMs());
+            stmt.setString(11, expected.getNodeId());
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected String describe() {
+        return "jdbc:" + tableName;
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.btnguyen2k.akkascheduledjob.checkpoint;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+
+/**
+ * Checkpoints of one worker in a {@link CheckpointStore}: tracks the worker's last checkpoint
+ * and checkpoints the start, progress and completion of its runs.
+ *
+ * <p>
+ * A worker running on every node keeps one checkpoint per node (key
+ * {@code <worker-name>@<node-id>}); other workers share one checkpoint (key
+ * {@code <worker-name>}) across nodes. Decisions taken upon the shared checkpoint read it from
+ * the store, not from this node's pending checkpoints: whether a tick is already completed (whose
+ * completion is written right away), whether the run holding the worker's dlock is gone (see
+ * {@link #findStaleRun()}), and who resumes an interrupted run (see
+ * {@link #claimInterrupted()}).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerCheckpoints {
+    private final CheckpointStore store;
+    private final String key;
+    private final boolean perNode;
+    private volatile Checkpoint last;
+    private volatile Checkpoint interrupted;
+    private volatile boolean running = false;
+
+    /**
+     * @param store
+     * @param workerName
+     * @param perNode    {@code true} if the worker runs on every node
+     */
+    public WorkerCheckpoints(CheckpointStore store, String workerName, boolean perNode) {
+        this.store = store;
+        this.key = perNode ? workerName + "@" + store.getNodeId() : workerName;
+        this.perNode = perNode;
+    }
+
+    public CheckpointStore getStore() {
+        return store;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Last checkpoint of the worker: during a run, the checkpoint of the current tick with the
+     * progress saved so far (or the progress of the previous run).
+     *
+     * @return {@code null} if there is none
+     */
+    public Checkpoint getLast() {
+        return last;
+    }
+
+    /**
+     * Load the worker's checkpoint from the store.
+     *
+     * @return the checkpoint of a run interrupted before it completed, if it is to be resumed
+     * (see {@link #claimInterrupted()}); {@code null} otherwise
+     */
+    public Checkpoint load() {
+        Checkpoint checkpoint = last = store.get(key);
+        interrupted = store.isResumeOnStart() && checkpoint != null && !checkpoint.isCompleted()
+                ? checkpoint : null;
+        return interrupted;
+    }
+
+    /**
+     * Check if the run of a checkpoint is gone: it did not complete, and it either ran on this
+     * node before a restart (and is not running now), or has not been refreshed for
+     * {@link CheckpointStore#getStaleAfterMs()}.
+     *
+     * @param checkpoint
+     * @return
+     */
+    public boolean isStale(Checkpoint checkpoint) {
+        if (checkpoint.isCompleted()) {
+            return false;
+        }
+        return store.getNodeId().equals(checkpoint.getNodeId()) ? !running
+                : System.currentTimeMillis() - checkpoint.getUpdatedAtMs() > store
+                        .getStaleAfterMs();
+    }
+
+    /**
+     * Find the run holding the worker's dlock, if it is gone (see {@link #isStale(Checkpoint)}).
+     *
+     * @return the checkpoint of the run, with the id it took the dlock with; {@code null} if the
+     * run holding the dlock is alive or unknown
+     */
+    public Checkpoint findStaleRun() {
+        Checkpoint checkpoint = store.read(key);
+        return checkpoint != null && checkpoint.getDlockId() != null && isStale(checkpoint)
+                ? checkpoint : null;
+    }
+
+    /**
+     * Check if the interrupted run found by {@link #load()} is still to be resumed (e.g. it was
+     * still running on another node when last checked).
+     *
+     * @return
+     */
+    public boolean isResumePending() {
+        return interrupted != null;
+    }
+
+    /**
+     * Claim the interrupted run found by {@link #load()}, to resume it on this node: the run must
+     * be gone, and the checkpoint is taken over with a compare-and-set, so that one node only
+     * resumes it.
+     *
+     * @return the claimed checkpoint; {@code null} if the run is not to be resumed here (already
+     * completed, superseded or claimed by another node), or is still running on another node
+     * (then {@link #isResumePending()})
+     */
+    public Checkpoint claimInterrupted() {
+        Checkpoint expected = interrupted;
+        if (expected == null) {
+            return null;
+        }
+        Checkpoint current = store.read(key);
+        if (current != null && !current.isCompleted()
+                && expected.getTickId().equals(current.getTickId()) && !isStale(current)) {
+            // still running elsewhere
+            return null;
+        }
+        interrupted = null;
+        if (current == null || current.isCompleted()
+                || !expected.getTickId().equals(current.getTickId())) {
+            if (current != null) {
+                last = current;
+            }
+            return null;
+        }
+        // the dlock may still be held with the interrupted run's dlock id
+        Checkpoint claimed = current.updated(System.currentTimeMillis(), store.getNodeId());
+        if (!store.compareAndSet(current, claimed)) {
+            return null;
+        }
+        last = claimed;
+        return claimed;
+    }
+
+    /**
+     * Checkpoint the start of a run, refreshed every heartbeat until the run ends.
+     *
+     * @param tick
+     * @param dlockId id the run took the worker's dlock with, {@code null} if none
+     * @return {@code false} if the tick was already completed (e.g. by another node before a
+     * failover)
+     */
+    public boolean start(TickMessage tick, String dlockId) {
+        if (!perNode) {
+            // another node may have run the worker since the last run on this node: completions
+            // are written right away, pending checkpoints of this node are not looked at
+            Checkpoint latest = store.read(key);
+            Checkpoint previous = last;
+            if (latest != null && (previous == null
+                    || latest.getUpdatedAtMs() > previous.getUpdatedAtMs()
+                    || latest.isCompleted() && tick.getId().equals(latest.getTickId()))) {
+                last = latest;
+            }
+        }
+        Checkpoint checkpoint = last;
+        if (checkpoint != null && checkpoint.isCompleted()
+                && tick.getId().equals(checkpoint.getTickId())) {
+            return false;
+        }
+        running = true;
+        store.startHeartbeat(
+                save(tick, checkpoint != null ? checkpoint.getProgress() : null, dlockId));
+        return true;
+    }
+
+    /**
+     * Save the progress of the current run.
+     *
+     * @param tick
+     * @param progress
+     */
+    public void saveProgress(TickMessage tick, String progress) {
+        Checkpoint checkpoint = last;
+        save(tick, progress, checkpoint != null ? checkpoint.getDlockId() : null);
+    }
+
+    /**
+     * Checkpoint the successful completion of a run, with the progress saved so far; written
+     * right away if the checkpoint is shared with other nodes.
+     *
+     * @param tick
+     */
+    public void completed(TickMessage tick) {
+        Checkpoint checkpoint = last;
+        Checkpoint completed = new Checkpoint(key, tick.getId(), tick.getTimestamp().getTime(),
+                System.currentTimeMillis(), true,
+                checkpoint != null ? checkpoint.getProgress() : null, store.getNodeId(),
+                checkpoint != null ? checkpoint.getDlockId() : null);
+        last = completed;
+        if (perNode) {
+            store.save(completed);
+        } else {
+            store.saveNow(completed);
+        }
+        ended();
+    }
+
+    /**
+     * The run ended (completed or not): stop refreshing its checkpoint.
+     */
+    public void ended() {
+        running = false;
+        store.stopHeartbeat(key);
+    }
+
+    private Checkpoint save(TickMessage tick, String progress, String dlockId) {
+        Checkpoint checkpoint = new Checkpoint(key, tick.getId(), tick.getTimestamp().getTime(),
+                System.currentTimeMillis(), false, progress, store.getNodeId(), dlockId);
+        last = checkpoint;
+        store.save(checkpoint);
+        return checkpoint;
+    }
+}
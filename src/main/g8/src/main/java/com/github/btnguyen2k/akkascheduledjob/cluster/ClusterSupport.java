@@ -0,0 +1,80 @@
+package com.github.btnguyen2k.akkascheduledjob.cluster;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import com.github.btnguyen2k.akkascheduledjob.placement.LoadAwarePlacement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Akka cluster features used in cluster mode: member address, distributed pub/sub and the load
+ * monitor of {@link LoadAwarePlacement}.
+ *
+ * <p>
+ * Akka cluster modules are opt-in dependencies (see {@code build.sbt}): the implementation
+ * ({@value #IMPL_CLASS_NAME}, in {@code src/main/java-cluster}) is only compiled when they are
+ * enabled, and loaded via reflection by {@link #load(ActorSystem)}.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public abstract class ClusterSupport {
+    /**
+     * Class name of the implementation.
+     */
+    public final static String IMPL_CLASS_NAME = "com.github.btnguyen2k.akkascheduledjob.cluster"
+            + ".AkkaClusterSupport";
+
+    /**
+     * Load the implementation for an actor system running in cluster mode.
+     *
+     * @param actorSystem
+     * @return {@code null} if Akka cluster modules are not enabled
+     */
+    public static ClusterSupport load(ActorSystem actorSystem) {
+        Logger logger = LoggerFactory.getLogger(ClusterSupport.class);
+        try {
+            return (ClusterSupport) Class.forName(IMPL_CLASS_NAME)
+                    .getConstructor(ActorSystem.class).newInstance(actorSystem);
+        } catch (ClassNotFoundException | NoClassDefFoundError e) {
+            logger.warn("Akka cluster modules are not enabled (see build.sbt): " + e.getMessage());
+            return null;
+        } catch (ReflectiveOperationException e) {
+            logger.error("Cannot load [" + IMPL_CLASS_NAME + "]: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Address of this member.
+     *
+     * @return
+     */
+    public abstract String getSelfAddress();
+
+    /**
+     * Subscribe an actor to a topic of the distributed pub/sub mediator.
+     *
+     * @param topic
+     * @param subscriber
+     */
+    public abstract void subscribe(String topic, ActorRef subscriber);
+
+    /**
+     * Publish a message to all subscribers of a topic, on all members.
+     *
+     * @param topic
+     * @param message
+     */
+    public abstract void publish(String topic, Object message);
+
+    /**
+     * Start feeding a {@link LoadAwarePlacement} with the load of all members.
+     *
+     * @param placement
+     * @param reportIntervalMs how often this member publishes its in-flight jobs
+     * @return the monitor actor
+     */
+    public abstract ActorRef startLoadMonitor(LoadAwarePlacement placement, long reportIntervalMs);
+}
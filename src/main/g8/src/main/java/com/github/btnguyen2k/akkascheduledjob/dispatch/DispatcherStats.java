@@ -0,0 +1,159 @@
+package com.github.btnguyen2k.akkascheduledjob.dispatch;
+
+import com.github.btnguyen2k.akkascheduledjob.metrics.Histogram;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load signals of a {@link TunableDispatcher}: how long mailboxes wait in the executor's queue
+ * for a thread, how long threads are busy running them, how many messages are dispatched and how
+ * deep actors' mailboxes get.
+ *
+ * <p>
+ * Counters are cumulative; {@link #snapshot()} returns what happened since the previous snapshot
+ * (meant for a single reader, the {@link DispatcherTuner}).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class DispatcherStats {
+    /**
+     * Load signals over an interval.
+     */
+    public final static class Snapshot {
+        private final long tasks, messages, queueWaitNs, maxQueueWaitNs, busyNs;
+        private final int maxMailboxDepth;
+
+        private Snapshot(long tasks, long messages, long queueWaitNs, long maxQueueWaitNs,
+                long busyNs, int maxMailboxDepth) {
+            this.tasks = tasks;
+            this.messages = messages;
+            this.queueWaitNs = queueWaitNs;
+            this.maxQueueWaitNs = maxQueueWaitNs;
+            this.busyNs = busyNs;
+            this.maxMailboxDepth = maxMailboxDepth;
+        }
+
+        /**
+         * Number of mailbox runs (each processes up to {@code throughput} messages).
+         *
+         * @return
+         */
+        public long getTasks() {
+            return tasks;
+        }
+
+        /**
+         * Number of messages dispatched.
+         *
+         * @return
+         */
+        public long getMessages() {
+            return messages;
+        }
+
+        public double getMeanQueueWaitMs() {
+            return tasks > 0 ? queueWaitNs / 1E6 / tasks : 0;
+        }
+
+        public double getMaxQueueWaitMs() {
+            return maxQueueWaitNs / 1E6;
+        }
+
+        /**
+         * Total time threads spent running mailboxes.
+         *
+         * @return
+         */
+        public long getBusyNs() {
+            return busyNs;
+        }
+
+        /**
+         * Mean time to process a message.
+         *
+         * @return
+         */
+        public double getMeanMessageTimeUs() {
+            return messages > 0 ? busyNs / 1E3 / messages : 0;
+        }
+
+        /**
+         * Deepest mailbox seen (sampled).
+         *
+         * @return
+         */
+        public int getMaxMailboxDepth() {
+            return maxMailboxDepth;
+        }
+    }
+
+    /**
+     * Every n-th dispatched message samples the depth of the receiver's mailbox.
+     */
+    final static int MAILBOX_SAMPLE_RATE = 32;
+
+    private final LongAdder tasks = new LongAdder(), messages = new LongAdder();
+    private final LongAdder queueWaitNs = new LongAdder(), busyNs = new LongAdder();
+    private final AtomicLong maxQueueWaitNs = new AtomicLong();
+    private final AtomicInteger maxMailboxDepth = new AtomicInteger();
+    private final Histogram queueWait = new Histogram();
+    private long lastTasks, lastMessages, lastQueueWaitNs, lastBusyNs;
+
+    void recordTask(long waitNs, long runNs) {
+        tasks.increment();
+        queueWaitNs.add(waitNs);
+        busyNs.add(runNs);
+        queueWait.record(waitNs / 1000);
+        long max = maxQueueWaitNs.get();
+        while (waitNs > max && !maxQueueWaitNs.compareAndSet(max, waitNs)) {
+            max = maxQueueWaitNs.get();
+        }
+    }
+
+    /**
+     * Count a dispatched message.
+     *
+     * @return {@code true} if the receiver's mailbox depth should be sampled
+     */
+    boolean recordMessage() {
+        messages.increment();
+        return ThreadLocalRandom.current().nextInt(MAILBOX_SAMPLE_RATE) == 0;
+    }
+
+    void recordMailboxDepth(int depth) {
+        int max = maxMailboxDepth.get();
+        while (depth > max && !maxMailboxDepth.compareAndSet(max, depth)) {
+            max = maxMailboxDepth.get();
+        }
+    }
+
+    /**
+     * Queue wait of mailboxes, in microseconds (cumulative).
+     *
+     * @return
+     */
+    public Histogram getQueueWaitHistogram() {
+        return queueWait;
+    }
+
+    /**
+     * Load signals since the previous call.
+     *
+     * @return
+     */
+    public synchronized Snapshot snapshot() {
+        long t = tasks.sum(), m = messages.sum(), w = queueWaitNs.sum(), b = busyNs.sum();
+        Snapshot snapshot = new Snapshot(t - lastTasks, m - lastMessages, w - lastQueueWaitNs,
+                maxQueueWaitNs.getAndSet(0), b - lastBusyNs, maxMailboxDepth.getAndSet(0));
+        lastTasks = t;
+        lastMessages = m;
+        lastQueueWaitNs = w;
+        lastBusyNs = b;
+        return snapshot;
+    }
+}
@@ -0,0 +1,287 @@
+package com.github.btnguyen2k.akkascheduledjob.dispatch;
+
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically adjusts the parallelism and throughput of {@link TunableDispatcher}s, within
+ * their bounds, from their load signals ({@link DispatcherStats}):
+ *
+ * <ul>
+ * <li>Parallelism grows (by a quarter) when mailboxes wait for a thread longer than
+ * {@code targetQueueWaitMs} (or more mailboxes are queued than there are threads) while threads
+ * are busy; blocking jobs keep threads busy without using CPU, so this is what lets the
+ * dispatcher absorb them. It shrinks (by an eighth) after {@code shrinkAfterIntervals}
+ * consecutive intervals of short waits and low utilization.</li>
+ * <li>Throughput doubles when actors have a backlog of messages ({@code mailbox depth > 1}) that
+ * are fast to process (under {@code fastMessageUs}), saving a thread hand-off per message. It
+ * halves when messages are slow (over {@code slowMessageMs}), so that one actor does not hold a
+ * thread for many slow messages while other actors wait.</li>
+ * </ul>
+ *
+ * <p>
+ * At most one change per dispatcher and per interval. Decisions are logged and kept (the last
+ * {@link #MAX_DECISIONS}) for {@link #toJson()}.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class DispatcherTuner {
+    private final Logger LOGGER = LoggerFactory.getLogger(DispatcherTuner.class);
+
+    /**
+     * Max number of decisions kept per dispatcher.
+     */
+    public final static int MAX_DECISIONS = 20;
+
+    /**
+     * Utilization (busy thread time over available thread time) above which a dispatcher with
+     * waiting mailboxes is considered saturated.
+     */
+    private final static double HIGH_UTILIZATION = 0.7;
+
+    /**
+     * Utilization below which a dispatcher is considered oversized.
+     */
+    private final static double LOW_UTILIZATION = 0.3;
+
+    private final static class Target {
+        private final TunableDispatcher dispatcher;
+        private final LinkedList<String> decisions = new LinkedList<>();
+        private int idleIntervals;
+        private long lastCheckNs = System.nanoTime();
+        private String lastSignals = "";
+
+        private Target(TunableDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+        }
+    }
+
+    private long intervalMs = 5000;
+    private double targetQueueWaitMs = 2;
+    private int shrinkAfterIntervals = 6;
+    private double fastMessageUs = 100, slowMessageMs = 10;
+
+    private final List<Target> targets = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public DispatcherTuner setIntervalMs(long intervalMs) {
+        this.intervalMs = Math.max(100, intervalMs);
+        return this;
+    }
+
+    public double getTargetQueueWaitMs() {
+        return targetQueueWaitMs;
+    }
+
+    /**
+     * Mean time mailboxes may wait for a thread before the dispatcher needs more threads.
+     *
+     * @param targetQueueWaitMs
+     * @return
+     */
+    public DispatcherTuner setTargetQueueWaitMs(double targetQueueWaitMs) {
+        this.targetQueueWaitMs = Math.max(0, targetQueueWaitMs);
+        return this;
+    }
+
+    public int getShrinkAfterIntervals() {
+        return shrinkAfterIntervals;
+    }
+
+    public DispatcherTuner setShrinkAfterIntervals(int shrinkAfterIntervals) {
+        this.shrinkAfterIntervals = Math.max(1, shrinkAfterIntervals);
+        return this;
+    }
+
+    public double getFastMessageUs() {
+        return fastMessageUs;
+    }
+
+    /**
+     * Messages processed faster than this are cheap enough to batch (higher throughput).
+     *
+     * @param fastMessageUs
+     * @return
+     */
+    public DispatcherTuner setFastMessageUs(double fastMessageUs) {
+        this.fastMessageUs = Math.max(0, fastMessageUs);
+        return this;
+    }
+
+    public double getSlowMessageMs() {
+        return slowMessageMs;
+    }
+
+    /**
+     * Messages taking longer than this call for fairness (lower throughput).
+     *
+     * @param slowMessageMs
+     * @return
+     */
+    public DispatcherTuner setSlowMessageMs(double slowMessageMs) {
+        this.slowMessageMs = Math.max(0, slowMessageMs);
+        return this;
+    }
+
+    /**
+     * Add a dispatcher to tune.
+     *
+     * @param dispatcher
+     * @return
+     */
+    public DispatcherTuner addDispatcher(TunableDispatcher dispatcher) {
+        targets.add(new Target(dispatcher));
+        return this;
+    }
+
+    public DispatcherTuner init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dispatcher-tuner");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                check();
+            } catch (Exception e) {
+                LOGGER.warn("Error tuning dispatchers: " + e.getMessage(), e);
+            }
+        }, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    private static String format(double value) {
+        return String.format(Locale.US, "%.2f", value);
+    }
+
+    /**
+     * Evaluate all dispatchers once.
+     */
+    public void check() {
+        for (Target target : targets) {
+            check(target);
+        }
+    }
+
+    private void check(Target target) {
+        TunableDispatcher dispatcher = target.dispatcher;
+        long now = System.nanoTime();
+        long elapsedNs = Math.max(1, now - target.lastCheckNs);
+        target.lastCheckNs = now;
+        DispatcherStats.Snapshot stats = dispatcher.getStats().snapshot();
+        int parallelism = dispatcher.getParallelism();
+        int throughput = dispatcher.throughput();
+        int queued = dispatcher.getQueueSize();
+        // a long-running task is only counted as busy time once it finishes: take threads
+        // that are busy right now into account too
+        double utilization = Math.max(stats.getBusyNs() / ((double) elapsedNs * parallelism),
+                dispatcher.getActiveThreads() / (double) parallelism);
+        double queueWaitMs = stats.getMeanQueueWaitMs();
+        double messageUs = stats.getMeanMessageTimeUs();
+        String signals = "queue wait " + format(queueWaitMs) + "ms (max "
+                + format(stats.getMaxQueueWaitMs()) + "ms), queued " + queued + ", utilization "
+                + format(utilization) + ", " + stats.getMessages() + " msg at "
+                + format(messageUs) + "us, max mailbox depth " + stats.getMaxMailboxDepth();
+        target.lastSignals = signals;
+
+        boolean waiting = queueWaitMs > targetQueueWaitMs || queued > parallelism;
+        if (waiting && utilization >= HIGH_UTILIZATION) {
+            target.idleIntervals = 0;
+            if (parallelism < dispatcher.getMaxParallelism()) {
+                int value = dispatcher.setParallelism(parallelism + Math.max(1, parallelism / 4));
+                decide(target, "parallelism " + parallelism + " -> " + value + ": " + signals);
+                return;
+            }
+        } else if (queueWaitMs < targetQueueWaitMs / 4 && utilization < LOW_UTILIZATION) {
+            if (++target.idleIntervals >= shrinkAfterIntervals
+                    && parallelism > dispatcher.getMinParallelism()) {
+                target.idleIntervals = 0;
+                int value = dispatcher.setParallelism(parallelism - Math.max(1, parallelism / 8));
+                decide(target, "parallelism " + parallelism + " -> " + value + ": " + signals);
+                return;
+            }
+        } else {
+            target.idleIntervals = 0;
+        }
+
+        if (stats.getMessages() == 0) {
+            return;
+        }
+        if (messageUs > slowMessageMs * 1000 && throughput > dispatcher.getMinThroughput()) {
+            int value = dispatcher.setThroughput(throughput / 2);
+            decide(target, "throughput " + throughput + " -> " + value + ": " + signals);
+        } else if (messageUs < fastMessageUs && stats.getMaxMailboxDepth() > 1
+                && throughput < dispatcher.getMaxThroughput()) {
+            int value = dispatcher.setThroughput(throughput * 2);
+            decide(target, "throughput " + throughput + " -> " + value + ": " + signals);
+        }
+    }
+
+    private void decide(Target target, String decision) {
+        LOGGER.info("Dispatcher [" + target.dispatcher.id() + "]: " + decision);
+        synchronized (target.decisions) {
+            target.decisions.addFirst(Instant.now() + " " + decision);
+            while (target.decisions.size() > MAX_DECISIONS) {
+                target.decisions.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Render dispatchers' settings, load signals and recent decisions as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        List<String> items = new ArrayList<>();
+        for (Target target : targets) {
+            TunableDispatcher d = target.dispatcher;
+            List<String> decisions;
+            synchronized (target.decisions) {
+                decisions = new ArrayList<>(target.decisions);
+            }
+            StringBuilder sb = new StringBuilder("{\"id\":\"").append(JsonUtils.escape(d.id()))
+                    .append("\",\"parallelism\":").append(d.getParallelism())
+                    .append(",\"parallelismRange\":[").append(d.getMinParallelism()).append(",")
+                    .append(d.getMaxParallelism()).append("],\"throughput\":")
+                    .append(d.throughput()).append(",\"throughputRange\":[")
+                    .append(d.getMinThroughput()).append(",").append(d.getMaxThroughput())
+                    .append("],\"queued\":").append(d.getQueueSize()).append(",\"active\":")
+                    .append(d.getActiveThreads()).append(",\"queueWaitP99Us\":")
+                    .append(d.getStats().getQueueWaitHistogram().getValueAtPercentile(99))
+                    .append(",\"lastSignals\":\"").append(JsonUtils.escape(target.lastSignals))
+                    .append("\",\"decisions\":[");
+            for (int i = 0; i < decisions.size(); i++) {
+                sb.append(i > 0 ? "," : "").append("\"").append(JsonUtils.escape(decisions.get(i)))
+                        .append("\"");
+            }
+            items.add(sb.append("]}").toString());
+        }
+        return "[" + String.join(",", items) + "]";
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.btnguyen2k.akkascheduledjob.dispatch;
+
+import akka.actor.ActorCell;
+import akka.dispatch.Dispatcher;
+import akka.dispatch.Envelope;
+import akka.dispatch.ExecutorServiceFactory;
+import akka.dispatch.ExecutorServiceFactoryProvider;
+import akka.dispatch.MessageDispatcherConfigurator;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Akka {@link Dispatcher} whose parallelism (thread pool size) and throughput (messages an actor
+ * processes before its thread moves on to the next actor) can be changed at runtime, within
+ * bounds, by a {@link DispatcherTuner}. Created by {@link TunableDispatcherConfigurator}.
+ *
+ * <p>
+ * Feeds the dispatcher's {@link DispatcherStats}: queue wait and run time of mailboxes on the
+ * {@link TunableThreadPool}, number of dispatched messages and sampled mailbox depth.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TunableDispatcher extends Dispatcher {
+    /**
+     * Creates the dispatcher's thread pool: Akka shuts an idle dispatcher's executor down and
+     * creates a new one on demand, which must start with the current parallelism.
+     */
+    private final static class PoolProvider implements ExecutorServiceFactoryProvider {
+        private final DispatcherStats stats = new DispatcherStats();
+        private int parallelism;
+        private volatile TunableThreadPool pool;
+
+        private PoolProvider(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        public ExecutorServiceFactory createExecutorServiceFactory(String id,
+                ThreadFactory threadFactory) {
+            return () -> {
+                synchronized (this) {
+                    TunableThreadPool newPool = new TunableThreadPool(parallelism, threadFactory,
+                            stats);
+                    pool = newPool;
+                    return newPool;
+                }
+            };
+        }
+
+        private synchronized void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+            if (pool != null) {
+                pool.setParallelism(parallelism);
+            }
+        }
+    }
+
+    private final PoolProvider poolProvider;
+    private final int minParallelism, maxParallelism, minThroughput, maxThroughput;
+    private volatile int throughput;
+
+    /**
+     * @param configurator
+     * @param id
+     * @param throughputDeadlineTime
+     * @param shutdownTimeout
+     * @param parallelism            initial parallelism
+     * @param minParallelism
+     * @param maxParallelism
+     * @param throughput             initial throughput
+     * @param minThroughput
+     * @param maxThroughput
+     */
+    public TunableDispatcher(MessageDispatcherConfigurator configurator, String id,
+            Duration throughputDeadlineTime, FiniteDuration shutdownTimeout, int parallelism,
+            int minParallelism, int maxParallelism, int throughput, int minThroughput,
+            int maxThroughput) {
+        this(configurator, id, throughputDeadlineTime, shutdownTimeout,
+                new PoolProvider(clamp(parallelism, minParallelism, maxParallelism)),
+                minParallelism, maxParallelism, throughput, minThroughput, maxThroughput);
+    }
+
+    private TunableDispatcher(MessageDispatcherConfigurator configurator, String id,
+            Duration throughputDeadlineTime, FiniteDuration shutdownTimeout,
+            PoolProvider poolProvider, int minParallelism, int maxParallelism, int throughput,
+            int minThroughput, int maxThroughput) {
+        super(configurator, id, clamp(throughput, minThroughput, maxThroughput),
+                throughputDeadlineTime, poolProvider, shutdownTimeout);
+        this.poolProvider = poolProvider;
+        this.minParallelism = minParallelism;
+        this.maxParallelism = maxParallelism;
+        this.minThroughput = minThroughput;
+        this.maxThroughput = maxThroughput;
+        this.throughput = clamp(throughput, minThroughput, maxThroughput);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Read by mailboxes on every run, so changes apply right away.
+     * </p>
+     */
+    @Override
+    public int throughput() {
+        return throughput;
+    }
+
+    /**
+     * Change the throughput, clamped to {@code [minThroughput, maxThroughput]}.
+     *
+     * @param throughput
+     * @return the new throughput
+     */
+    public int setThroughput(int throughput) {
+        this.throughput = clamp(throughput, minThroughput, maxThroughput);
+        return this.throughput;
+    }
+
+    public int getParallelism() {
+        return poolProvider.parallelism;
+    }
+
+    /**
+     * Change the parallelism, clamped to {@code [minParallelism, maxParallelism]}.
+     *
+     * @param parallelism
+     * @return the new parallelism
+     */
+    public int setParallelism(int parallelism) {
+        int value = clamp(parallelism, minParallelism, maxParallelism);
+        poolProvider.setParallelism(value);
+        return value;
+    }
+
+    public int getMinParallelism() {
+        return minParallelism;
+    }
+
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    public int getMinThroughput() {
+        return minThroughput;
+    }
+
+    public int getMaxThroughput() {
+        return maxThroughput;
+    }
+
+    public DispatcherStats getStats() {
+        return poolProvider.stats;
+    }
+
+    /**
+     * Number of mailboxes waiting for a thread.
+     *
+     * @return
+     */
+    public int getQueueSize() {
+        TunableThreadPool pool = poolProvider.pool;
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    /**
+     * Number of threads running mailboxes.
+     *
+     * @return
+     */
+    public int getActiveThreads() {
+        TunableThreadPool pool = poolProvider.pool;
+        return pool != null ? pool.getActiveCount() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Counts the message, and every {@link DispatcherStats#MAILBOX_SAMPLE_RATE}-th message (on
+     * average) samples the depth of the receiver's mailbox.
+     * </p>
+     */
+    @Override
+    public void dispatch(ActorCell receiver, Envelope invocation) {
+        super.dispatch(receiver, invocation);
+        if (poolProvider.stats.recordMessage()) {
+            poolProvider.stats.recordMailboxDepth(receiver.mailbox().numberOfMessages());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.btnguyen2k.akkascheduledjob.dispatch;
+
+import akka.dispatch.DispatcherPrerequisites;
+import akka.dispatch.MessageDispatcher;
+import akka.dispatch.MessageDispatcherConfigurator;
+import com.typesafe.config.Config;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a {@link TunableDispatcher} from an Akka dispatcher configuration:
+ *
+ * <pre>
+ * my-dispatcher {
+ *   type       = "com.github.btnguyen2k.akkascheduledjob.dispatch.TunableDispatcherConfigurator"
+ *   throughput = 1                  #initial throughput
+ *   tunable {
+ *     parallelism-min    = 2        #optional, default value = 2
+ *     parallelism-max    = 64       #optional, default value = 64
+ *     parallelism-factor = 2.0      #optional, initial = ceil(cores * factor), default value = 2.0
+ *     parallelism        = 8        #optional, initial parallelism, overrides parallelism-factor
+ *     throughput-min     = 1        #optional, default value = 1
+ *     throughput-max     = 32       #optional, default value = 32
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>
+ * The {@code executor} setting is ignored: the dispatcher always runs on a
+ * {@link TunableThreadPool}.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TunableDispatcherConfigurator extends MessageDispatcherConfigurator {
+    private final TunableDispatcher instance;
+
+    public TunableDispatcherConfigurator(Config config, DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+        int minParallelism = Math.max(1, getInt(config, "tunable.parallelism-min", 2));
+        int maxParallelism = Math
+                .max(minParallelism, getInt(config, "tunable.parallelism-max", 64));
+        double factor = config.hasPath("tunable.parallelism-factor")
+                ? config.getDouble("tunable.parallelism-factor") : 2.0;
+        int parallelism = getInt(config, "tunable.parallelism", (int) Math
+                .ceil(Runtime.getRuntime().availableProcessors() * Math.max(0, factor)));
+        int minThroughput = Math.max(1, getInt(config, "tunable.throughput-min", 1));
+        int maxThroughput = Math.max(minThroughput, getInt(config, "tunable.throughput-max", 32));
+        instance = new TunableDispatcher(this, config.getString("id"),
+                Duration.create(config.getDuration("throughput-deadline-time",
+                        TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS),
+                Duration.create(config.getDuration("shutdown-timeout", TimeUnit.MILLISECONDS),
+                        TimeUnit.MILLISECONDS), parallelism, minParallelism, maxParallelism,
+                getInt(config, "throughput", 1), minThroughput, maxThroughput);
+    }
+
+    private static int getInt(Config config, String path, int defaultValue) {
+        return config.hasPath(path) ? config.getInt(path) : defaultValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MessageDispatcher dispatcher() {
+        return instance;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.btnguyen2k.akkascheduledjob.dispatch;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-size thread pool of a {@link TunableDispatcher} whose size can be changed at runtime
+ * (a fork-join pool's parallelism cannot). Records queue wait and run time of every task into
+ * the dispatcher's {@link DispatcherStats}.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TunableThreadPool extends ThreadPoolExecutor {
+    /**
+     * A task with the time it was queued.
+     */
+    private final static class TimedTask implements Runnable {
+        private final Runnable task;
+        private final long queuedAtNs = System.nanoTime();
+        private final DispatcherStats stats;
+
+        private TimedTask(Runnable task, DispatcherStats stats) {
+            this.task = task;
+            this.stats = stats;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                stats.recordTask(start - queuedAtNs, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private final DispatcherStats stats;
+
+    public TunableThreadPool(int parallelism, ThreadFactory threadFactory, DispatcherStats stats) {
+        super(parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                threadFactory);
+        this.stats = stats;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedTask(command, stats));
+    }
+
+    public int getParallelism() {
+        return getCorePoolSize();
+    }
+
+    /**
+     * Resize the pool. Extra threads exit once idle.
+     *
+     * @param parallelism
+     */
+    public synchronized void setParallelism(int parallelism) {
+        // keep core <= max at every step
+        if (parallelism > getMaximumPoolSize()) {
+            setMaximumPoolSize(parallelism);
+            setCorePoolSize(parallelism);
+        } else {
+            setCorePoolSize(parallelism);
+            setMaximumPoolSize(parallelism);
+        }
+    }
+}
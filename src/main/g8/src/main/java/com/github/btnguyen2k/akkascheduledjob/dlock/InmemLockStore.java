@@ -0,0 +1,113 @@
+package com.github.btnguyen2k.akkascheduledjob.dlock;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for Redis, implementing the same lock semantics as
+ * {@link JedisLockStore}'s scripts. Use it to run {@link PipelinedDLockFactory} without a Redis
+ * server (single-process deployments, tests); several factories sharing one instance behave
+ * like nodes sharing one Redis.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class InmemLockStore implements LockStore {
+    private final static class Entry {
+        private final String owner;
+        private final long expiry;
+
+        private Entry(String owner, long expiry) {
+            this.owner = owner;
+            this.expiry = expiry;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong numBatches = new AtomicLong(), numCommands = new AtomicLong();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean[] execute(List<LockCommand> commands) {
+        numBatches.incrementAndGet();
+        numCommands.addAndGet(commands.size());
+        boolean[] result = new boolean[commands.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = execute(commands.get(i), System.currentTimeMillis());
+        }
+        return result;
+    }
+
+    private boolean execute(LockCommand cmd, long now) {
+        boolean[] ok = { false };
+        entries.compute(cmd.getKey(), (k, v) -> {
+            Entry current = v != null && v.expiry > now ? v : null;
+            boolean owned = current != null && current.owner.equals(cmd.getClientId());
+            switch (cmd.getType()) {
+            case ACQUIRE:
+                if (current == null || owned) {
+                    ok[0] = true;
+                    return new Entry(cmd.getClientId(), now + cmd.getTtlMs());
+                }
+                return current;
+            case RENEW:
+                if (owned) {
+                    ok[0] = true;
+                    return new Entry(current.owner, now + cmd.getTtlMs());
+                }
+                return current;
+            case RELEASE:
+                ok[0] = owned;
+                return owned ? null : current;
+            default:
+                return current;
+            }
+        });
+        return ok[0];
+    }
+
+    /**
+     * Current owner of a key.
+     *
+     * @param key
+     * @return {@code null} if the key is not locked
+     */
+    public String getOwner(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.expiry > System.currentTimeMillis() ? entry.owner : null;
+    }
+
+    /**
+     * Number of batches (round trips) executed so far.
+     *
+     * @return
+     */
+    public long getNumBatches() {
+        return numBatches.get();
+    }
+
+    /**
+     * Number of commands executed so far.
+     *
+     * @return
+     */
+    public long getNumCommands() {
+        return numCommands.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Locks are kept, as a Redis server outlives its clients: other factories sharing this store
+     * still see them (locks held by the closing factory are released by the factory itself).
+     * </p>
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.btnguyen2k.akkascheduledjob.dlock;
+
+import org.apache.commons.lang3.StringUtils;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Redis-backed {@link LockStore}: each batch is sent as one pipeline of Lua scripts over a pooled
+ * connection.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JedisLockStore implements LockStore {
+    private final static String SCRIPT_ACQUIRE = "local v = redis.call('get', KEYS[1]) "
+            + "if v == false or v == ARGV[1] then "
+            + "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 end return 0";
+    private final static String SCRIPT_RENEW = "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('pexpire', KEYS[1], ARGV[2]) end return 0";
+    private final static String SCRIPT_RELEASE = "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('del', KEYS[1]) end return 0";
+
+    private String redisHostAndPort = "localhost:6379";
+    private String redisPassword;
+    private int timeoutMs = 2000;
+    private int poolMaxTotal = 16;
+    private int poolMaxIdle = 8;
+    private int poolMinIdle = 1;
+    private long poolMaxWaitMs = 1000;
+
+    private JedisPool jedisPool;
+
+    public String getRedisHostAndPort() {
+        return redisHostAndPort;
+    }
+
+    public JedisLockStore setRedisHostAndPort(String redisHostAndPort) {
+        this.redisHostAndPort = redisHostAndPort;
+        return this;
+    }
+
+    public String getRedisPassword() {
+        return redisPassword;
+    }
+
+    public JedisLockStore setRedisPassword(String redisPassword) {
+        this.redisPassword = redisPassword;
+        return this;
+    }
+
+    public int getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    /**
+     * Connect/read timeout.
+     *
+     * @param timeoutMs
+     * @return
+     */
+    public JedisLockStore setTimeoutMs(int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        return this;
+    }
+
+    public int getPoolMaxTotal() {
+        return poolMaxTotal;
+    }
+
+    public JedisLockStore setPoolMaxTotal(int poolMaxTotal) {
+        this.poolMaxTotal = poolMaxTotal;
+        return this;
+    }
+
+    public int getPoolMaxIdle() {
+        return poolMaxIdle;
+    }
+
+    public JedisLockStore setPoolMaxIdle(int poolMaxIdle) {
+        this.poolMaxIdle = poolMaxIdle;
+        return this;
+    }
+
+    public int getPoolMinIdle() {
+        return poolMinIdle;
+    }
+
+    public JedisLockStore setPoolMinIdle(int poolMinIdle) {
+        this.poolMinIdle = poolMinIdle;
+        return this;
+    }
+
+    public long getPoolMaxWaitMs() {
+        return poolMaxWaitMs;
+    }
+
+    /**
+     * Max time to wait for a free connection when the pool is exhausted.
+     *
+     * @param poolMaxWaitMs
+     * @return
+     */
+    public JedisLockStore setPoolMaxWaitMs(long poolMaxWaitMs) {
+        this.poolMaxWaitMs = poolMaxWaitMs;
+        return this;
+    }
+
+    public JedisLockStore init() {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(poolMaxTotal);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        poolConfig.setMaxWaitMillis(poolMaxWaitMs);
+        poolConfig.setBlockWhenExhausted(true);
+        String[] tokens = redisHostAndPort.split(":");
+        String host = tokens[0];
+        int port = tokens.length > 1 ? Integer.parseInt(tokens[1]) : 6379;
+        jedisPool = new JedisPool(poolConfig, host, port, timeoutMs,
+                StringUtils.isBlank(redisPassword) ? null : redisPassword);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (jedisPool != null) {
+            jedisPool.close();
+            jedisPool = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean[] execute(List<LockCommand> commands) {
+        List<Response<Object>> responses = new ArrayList<>(commands.size());
+        try (Jedis jedis = jedisPool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            for (LockCommand cmd : commands) {
+                String script = cmd.getType() == LockCommand.Type.ACQUIRE ? SCRIPT_ACQUIRE
+                        : cmd.getType() == LockCommand.Type.RENEW ? SCRIPT_RENEW : SCRIPT_RELEASE;
+                List<String> args = new ArrayList<>(2);
+                args.add(cmd.getClientId());
+                args.add(String.valueOf(Math.max(1, cmd.getTtlMs())));
+                responses.add(
+                        pipeline.eval(script, Collections.singletonList(cmd.getKey()), args));
+            }
+            pipeline.sync();
+        }
+        boolean[] result = new boolean[commands.size()];
+        for (int i = 0; i < result.length; i++) {
+            Object value = responses.get(i).get();
+            result[i] = value instanceof Number && ((Number) value).longValue() > 0;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.btnguyen2k.akkascheduledjob.dlock;
+
+/**
+ * A lock operation sent to a {@link LockStore}, as part of a batch.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class LockCommand {
+    public enum Type {
+        /**
+         * Set {@code key=clientId} with TTL if the key does not exist or is already owned by
+         * {@code clientId}.
+         */
+        ACQUIRE,
+        /**
+         * Reset the TTL of the key if it is owned by {@code clientId}.
+         */
+        RENEW,
+        /**
+         * Delete the key if it is owned by {@code clientId}.
+         */
+        RELEASE
+    }
+
+    private final Type type;
+    private final String key;
+    private final String clientId;
+    private final long ttlMs;
+
+    public LockCommand(Type type, String key, String clientId, long ttlMs) {
+        this.type = type;
+        this.key = key;
+        this.clientId = clientId;
+        this.ttlMs = ttlMs;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return type + "(" + key + ", " + clientId + ", " + ttlMs + "ms)";
+    }
+}
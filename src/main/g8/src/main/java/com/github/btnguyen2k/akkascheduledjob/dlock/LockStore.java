@@ -0,0 +1,32 @@
+package com.github.btnguyen2k.akkascheduledjob.dlock;
+
+import java.util.List;
+
+/**
+ * Storage of {@link PipelinedDLockFactory}'s locks: executes a batch of {@link LockCommand}s in
+ * one round trip.
+ *
+ * <p>
+ * Implementations: {@link JedisLockStore} (Redis, pipelined) and {@link InmemLockStore}
+ * (in-process stand-in with the same semantics, for local runs and tests).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public interface LockStore extends AutoCloseable {
+    /**
+     * Execute a batch of commands.
+     *
+     * @param commands
+     * @return for each command, {@code true} if it succeeded
+     * @throws Exception if the batch could not be executed (all commands are considered failed)
+     */
+    boolean[] execute(List<LockCommand> commands) throws Exception;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,210 @@
+package com.github.btnguyen2k.akkascheduledjob.dlock;
+
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.LockResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lock created by {@link PipelinedDLockFactory}.
+ *
+ * <p>
+ * {@link #isLocked()}, {@link #getClientId()} and {@link #getTimestampExpiry()} reflect the lease
+ * held by this process only. {@code waitWeight} is ignored and {@code tryLock} behaves like
+ * {@code lock}: a single attempt, no waiting.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class PipelinedDLock implements IDLock {
+    /**
+     * A lease held by this process.
+     */
+    private final static class Lease {
+        private final String clientId;
+        /**
+         * Until when the client asked to hold the lock.
+         */
+        private volatile long holdUntil;
+        /**
+         * Until when the lock is known to be held in the store (measured from before the command
+         * was sent, so that it never over-estimates).
+         */
+        private volatile long confirmedUntil;
+
+        private Lease(String clientId, long holdUntil, long confirmedUntil) {
+            this.clientId = clientId;
+            this.holdUntil = holdUntil;
+            this.confirmedUntil = confirmedUntil;
+        }
+    }
+
+    private final PipelinedDLockFactory factory;
+    private final String name;
+    private final String key;
+    private volatile Lease lease;
+
+    PipelinedDLock(PipelinedDLockFactory factory, String name, String key) {
+        this.factory = factory;
+        this.name = name;
+        this.key = key;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    private Lease aliveLease() {
+        Lease l = lease;
+        return l != null && l.confirmedUntil > System.currentTimeMillis() ? l : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getClientId() {
+        Lease l = aliveLease();
+        return l != null ? l.clientId : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimestampExpiry() {
+        Lease l = aliveLease();
+        return l != null ? l.holdUntil : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLocked() {
+        return aliveLease() != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult lock(String clientId, long lockDurationMs) {
+        return acquire(clientId, lockDurationMs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult lock(int waitWeight, String clientId, long lockDurationMs) {
+        return acquire(clientId, lockDurationMs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult tryLock(String clientId, long lockDurationMs) {
+        return acquire(clientId, lockDurationMs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult tryLock(int waitWeight, String clientId, long lockDurationMs) {
+        return acquire(clientId, lockDurationMs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult unlock(String clientId) {
+        Lease l = lease;
+        if (l != null && l.clientId.equals(clientId)) {
+            lease = null;
+        }
+        return await(factory.submit(new LockCommand(LockCommand.Type.RELEASE, key, clientId, 0)));
+    }
+
+    private LockResult acquire(String clientId, long lockDurationMs) {
+        long now = System.currentTimeMillis();
+        long leaseMs = factory.getLeaseMs();
+        Lease l = lease;
+        if (l != null && l.clientId.equals(clientId) && l.confirmedUntil - leaseMs / 10 > now) {
+            // still holding a live lease: extend it locally, the renewer keeps it alive
+            l.holdUntil = Math.max(l.holdUntil, now + lockDurationMs);
+            return LockResult.SUCCESSFUL;
+        }
+        long ttl = Math.min(lockDurationMs, leaseMs);
+        LockResult result = await(
+                factory.submit(new LockCommand(LockCommand.Type.ACQUIRE, key, clientId, ttl)));
+        if (result == LockResult.SUCCESSFUL) {
+            lease = new Lease(clientId, now + lockDurationMs, now + ttl);
+        }
+        return result;
+    }
+
+    private LockResult await(CompletableFuture<Boolean> result) {
+        try {
+            return result.get(factory.getCommandTimeoutMs(), TimeUnit.MILLISECONDS).booleanValue()
+                    ? LockResult.SUCCESSFUL : LockResult.HOLD_BY_ANOTHER_CLIENT;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return LockResult.ERROR;
+        } catch (Exception e) {
+            return LockResult.ERROR;
+        }
+    }
+
+    /**
+     * Renew the lease held by this process, if needed.
+     *
+     * @param now
+     * @return {@code null} if no renewal was needed
+     */
+    CompletableFuture<Boolean> renewLease(long now) {
+        Lease l = lease;
+        if (l == null) {
+            return null;
+        }
+        if (l.holdUntil <= now) {
+            // lock duration is over, the key expires by itself in the store
+            if (lease == l) {
+                lease = null;
+            }
+            return null;
+        }
+        if (l.confirmedUntil >= l.holdUntil) {
+            return null;
+        }
+        long ttl = Math.min(factory.getLeaseMs(), l.holdUntil - now);
+        return factory.submit(new LockCommand(LockCommand.Type.RENEW, key, l.clientId, ttl))
+                .whenComplete((ok, error) -> {
+                    if (ok != null && ok.booleanValue()) {
+                        l.confirmedUntil = now + ttl;
+                    } else if (error == null && lease == l) {
+                        // lost the lock (e.g. lease expired during a network hiccup)
+                        lease = null;
+                    }
+                });
+    }
+
+    /**
+     * Release the lease held by this process, if any.
+     */
+    void releaseLease() {
+        Lease l = lease;
+        if (l != null) {
+            unlock(l.clientId);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.github.btnguyen2k.akkascheduledjob.dlock;
+
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.IDLockFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link IDLockFactory} whose locks share pipelined round trips to a {@link LockStore} and keep
+ * their leases alive in the background.
+ *
+ * <ul>
+ * <li><strong>Pipelining</strong>: lock/unlock calls are queued; {@code pipelineThreads} threads
+ * each drain the queue (up to {@code maxBatchSize} commands, after waiting
+ * {@code pipelineWindowMs} for more commands to arrive) and execute the batch in one round trip.
+ * Hundreds of global-singleton workers locking on the same tick thus cost a handful of round
+ * trips instead of one each.</li>
+ * <li><strong>Leases</strong>: a lock is stored with TTL {@code min(lockDurationMs, leaseMs)} and
+ * renewed in the background, every {@code renewIntervalMs}, until the requested lock duration is
+ * over or the lock is released. A crashed holder's lock frees up within {@code leaseMs}. Calling
+ * {@code lock(...)} again with the same client id while the lease is alive is answered locally,
+ * without a round trip.</li>
+ * </ul>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class PipelinedDLockFactory implements IDLockFactory, AutoCloseable {
+    private final Logger LOGGER = LoggerFactory.getLogger(PipelinedDLockFactory.class);
+
+    private final static class Pending {
+        private final LockCommand command;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private Pending(LockCommand command) {
+            this.command = command;
+        }
+    }
+
+    private LockStore lockStore;
+    private String lockNamePrefix = "";
+    private long leaseMs = 5000;
+    private long renewIntervalMs = 0;
+    private long commandTimeoutMs = 2000;
+    private int pipelineThreads = 2;
+    private long pipelineWindowMs = 0;
+    private int maxBatchSize = 512;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentMap<String, PipelinedDLock> locks = new ConcurrentHashMap<>();
+    private final List<Thread> pipelineWorkers = new ArrayList<>();
+    private ScheduledExecutorService renewer;
+    private volatile boolean running = false;
+    private final AtomicLong numBatches = new AtomicLong(), numCommands = new AtomicLong();
+
+    public LockStore getLockStore() {
+        return lockStore;
+    }
+
+    public PipelinedDLockFactory setLockStore(LockStore lockStore) {
+        this.lockStore = lockStore;
+        return this;
+    }
+
+    public String getLockNamePrefix() {
+        return lockNamePrefix;
+    }
+
+    public PipelinedDLockFactory setLockNamePrefix(String lockNamePrefix) {
+        this.lockNamePrefix = lockNamePrefix != null ? lockNamePrefix : "";
+        return this;
+    }
+
+    public long getLeaseMs() {
+        return leaseMs;
+    }
+
+    /**
+     * TTL of a lock in the store, renewed in the background while the lock is held.
+     *
+     * @param leaseMs
+     * @return
+     */
+    public PipelinedDLockFactory setLeaseMs(long leaseMs) {
+        this.leaseMs = Math.max(1, leaseMs);
+        return this;
+    }
+
+    public long getRenewIntervalMs() {
+        return renewIntervalMs > 0 ? renewIntervalMs : Math.max(1, leaseMs / 3);
+    }
+
+    /**
+     * How often held leases are renewed, {@code 0} = {@code leaseMs/3}.
+     *
+     * @param renewIntervalMs
+     * @return
+     */
+    public PipelinedDLockFactory setRenewIntervalMs(long renewIntervalMs) {
+        this.renewIntervalMs = renewIntervalMs;
+        return this;
+    }
+
+    public long getCommandTimeoutMs() {
+        return commandTimeoutMs;
+    }
+
+    /**
+     * Max time a lock/unlock call waits for its batch to complete; on timeout the call returns
+     * {@code LockResult.ERROR}.
+     *
+     * @param commandTimeoutMs
+     * @return
+     */
+    public PipelinedDLockFactory setCommandTimeoutMs(long commandTimeoutMs) {
+        this.commandTimeoutMs = commandTimeoutMs;
+        return this;
+    }
+
+    public int getPipelineThreads() {
+        return pipelineThreads;
+    }
+
+    /**
+     * Number of batches that can be in flight at the same time (each uses its own connection).
+     *
+     * @param pipelineThreads
+     * @return
+     */
+    public PipelinedDLockFactory setPipelineThreads(int pipelineThreads) {
+        this.pipelineThreads = Math.max(1, pipelineThreads);
+        return this;
+    }
+
+    public long getPipelineWindowMs() {
+        return pipelineWindowMs;
+    }
+
+    /**
+     * Time to wait for more commands before sending a batch, {@code 0} = send what is queued
+     * right away (commands queued while a batch is in flight still form the next batch).
+     *
+     * @param pipelineWindowMs
+     * @return
+     */
+    public PipelinedDLockFactory setPipelineWindowMs(long pipelineWindowMs) {
+        this.pipelineWindowMs = Math.max(0, pipelineWindowMs);
+        return this;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public PipelinedDLockFactory setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        return this;
+    }
+
+    /**
+     * Number of batches (round trips) sent so far.
+     *
+     * @return
+     */
+    public long getNumBatches() {
+        return numBatches.get();
+    }
+
+    /**
+     * Number of commands sent so far.
+     *
+     * @return
+     */
+    public long getNumCommands() {
+        return numCommands.get();
+    }
+
+    public PipelinedDLockFactory init() {
+        if (lockStore == null) {
+            throw new IllegalStateException("No lock store specified!");
+        }
+        running = true;
+        for (int i = 0; i < pipelineThreads; i++) {
+            Thread t = new Thread(this::pipelineLoop, "dlock-pipeline-" + i);
+            t.setDaemon(true);
+            t.start();
+            pipelineWorkers.add(t);
+        }
+        renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "dlock-lease-renewer");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = getRenewIntervalMs();
+        renewer.scheduleWithFixedDelay(this::renewLeases, interval, interval,
+                TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Release held locks, stop background threads and close the lock store.
+     */
+    public void destroy() {
+        running = false;
+        if (renewer != null) {
+            renewer.shutdownNow();
+            renewer = null;
+        }
+        // release held locks (now executed on this thread) so that other nodes can take over
+        // right away
+        locks.values().forEach(PipelinedDLock::releaseLease);
+        pipelineWorkers.forEach(Thread::interrupt);
+        for (Thread t : pipelineWorkers) {
+            try {
+                t.join(commandTimeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        pipelineWorkers.clear();
+        List<Pending> leftOver = new ArrayList<>();
+        queue.drainTo(leftOver);
+        executeBatch(leftOver);
+        locks.clear();
+        lockStore.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        destroy();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDLock createLock(String name) {
+        return locks.computeIfAbsent(name, n -> new PipelinedDLock(this, n, lockNamePrefix + n));
+    }
+
+    /**
+     * Queue a command for the next batch.
+     *
+     * @param command
+     * @return completed with the command's result, or exceptionally if the batch failed
+     */
+    CompletableFuture<Boolean> submit(LockCommand command) {
+        Pending pending = new Pending(command);
+        if (!running) {
+            // not initialized or shutting down: execute on the caller's thread
+            List<Pending> batch = new ArrayList<>(1);
+            batch.add(pending);
+            executeBatch(batch);
+        } else {
+            queue.add(pending);
+        }
+        return pending.result;
+    }
+
+    private void pipelineLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (pipelineWindowMs > 0) {
+                    Thread.sleep(pipelineWindowMs);
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+                executeBatch(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void executeBatch(List<Pending> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<LockCommand> commands = new ArrayList<>(batch.size());
+        batch.forEach(p -> commands.add(p.command));
+        try {
+            boolean[] result = lockStore.execute(commands);
+            numBatches.incrementAndGet();
+            numCommands.addAndGet(commands.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(result[i]);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Error executing batch of " + commands.size() + " dlock commands: "
+                    + e.getMessage(), e);
+            batch.forEach(p -> p.result.completeExceptionally(e));
+        }
+    }
+
+    private void renewLeases() {
+        try {
+            long now = System.currentTimeMillis();
+            List<CompletableFuture<Boolean>> renewals = new ArrayList<>();
+            for (PipelinedDLock lock : locks.values()) {
+                CompletableFuture<Boolean> renewal = lock.renewLease(now);
+                if (renewal != null) {
+                    renewals.add(renewal);
+                }
+            }
+            for (CompletableFuture<Boolean> renewal : renewals) {
+                try {
+                    renewal.get(commandTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    // lock already handled the failure
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Error renewing dlock leases: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.github.btnguyen2k.akkascheduledjob.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal of job executions, written to memory-mapped segment files.
+ *
+ * <p>
+ * Each execution is one fixed-size {@link ExecutionRecord} copied into the mapped segment: no
+ * system call and no encoding beyond a few bytes on the worker's path, the OS writes pages back
+ * in the background (and on process crash). When a segment is full, writing moves on to the next
+ * one, which is created and pre-faulted in advance by a background thread; only the newest
+ * {@code maxSegments} segments are kept.
+ * </p>
+ *
+ * <p>
+ * Segment files are named {@code <index>.journal} (20 digits, zero-padded) in the journal
+ * directory. On start, the journal continues after the last complete record of the newest
+ * segment. Segments can be read with {@link JournalReader}, also while the journal is being
+ * written.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class ExecutionJournal {
+    private final Logger LOGGER = LoggerFactory.getLogger(ExecutionJournal.class);
+
+    /**
+     * File name suffix of segment files.
+     */
+    public final static String SEGMENT_SUFFIX = ".journal";
+
+    private final static int PAGE_SIZE = 4096;
+
+    private final static class Segment {
+        private final long index;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private int position;
+
+        private Segment(long index, File file, MappedByteBuffer buffer) {
+            this.index = index;
+            this.file = file;
+            this.buffer = buffer;
+            this.capacity = buffer.capacity() / ExecutionRecord.SIZE;
+        }
+
+        /**
+         * Open (or create with {@code size} bytes) a segment, read-write.
+         */
+        private static Segment open(File directory, long index, int size) throws IOException {
+            File file = segmentFile(directory, index);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                if (raf.length() < ExecutionRecord.SIZE) {
+                    raf.setLength(size);
+                }
+                MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0,
+                        raf.length() - raf.length() % ExecutionRecord.SIZE);
+                // the mapping stays valid after the file is closed
+                return new Segment(index, file, buffer);
+            }
+        }
+
+        /**
+         * Touch every page of an empty segment so that appends do not take page faults.
+         */
+        private void preTouch() {
+            for (int offset = 0; offset < buffer.capacity(); offset += PAGE_SIZE) {
+                buffer.put(offset, (byte) 0);
+            }
+        }
+    }
+
+    private static File segmentFile(File directory, long index) {
+        return new File(directory, String.format("%020d", index) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * List segment files of a journal directory, oldest first.
+     *
+     * @param directory
+     * @return
+     */
+    static List<File> listSegments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX)
+                && name.length() == 20 + SEGMENT_SUFFIX.length());
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        Arrays.sort(files, (a, b) -> a.getName().compareTo(b.getName()));
+        return Arrays.asList(files);
+    }
+
+    private static long segmentIndex(File file) {
+        return Long.parseLong(file.getName().substring(0, 20));
+    }
+
+    private final File directory;
+    private String nodeId = "";
+    private int segmentSize = 64 * 1024 * 1024;
+    private int maxSegments = 8;
+    private long forceIntervalMs = 0;
+
+    private Segment current, next;
+    private boolean preparing = false, closed = false;
+    private long nextSeq;
+    private byte[] encodedNodeId;
+    private final ConcurrentMap<String, byte[]> encodedWorkers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService background;
+
+    private final AtomicLong numAppended = new AtomicLong(), numErrors = new AtomicLong();
+    private final AtomicLong numSyncRotations = new AtomicLong();
+
+    /**
+     * @param directory where segment files are stored
+     */
+    public ExecutionJournal(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Id of this node, stored in every record (truncated to 23 bytes).
+     *
+     * @param nodeId
+     * @return
+     */
+    public ExecutionJournal setNodeId(String nodeId) {
+        this.nodeId = nodeId != null ? nodeId : "";
+        return this;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Size of a segment file in bytes, default 64MB.
+     *
+     * @param segmentSize
+     * @return
+     */
+    public ExecutionJournal setSegmentSize(int segmentSize) {
+        this.segmentSize = Math.max(PAGE_SIZE, segmentSize - segmentSize % PAGE_SIZE);
+        return this;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Number of segments to keep, older segments are deleted.
+     *
+     * @param maxSegments
+     * @return
+     */
+    public ExecutionJournal setMaxSegments(int maxSegments) {
+        this.maxSegments = Math.max(2, maxSegments);
+        return this;
+    }
+
+    public long getForceIntervalMs() {
+        return forceIntervalMs;
+    }
+
+    /**
+     * How often the current segment is forced to disk, {@code 0} = leave it to the OS (records
+     * survive a process crash, not necessarily an OS crash).
+     *
+     * @param forceIntervalMs
+     * @return
+     */
+    public ExecutionJournal setForceIntervalMs(long forceIntervalMs) {
+        this.forceIntervalMs = Math.max(0, forceIntervalMs);
+        return this;
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Open the journal, continuing after the last record of the newest segment.
+     *
+     * @return
+     * @throws IOException
+     */
+    public ExecutionJournal init() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create journal directory [" + directory + "]!");
+        }
+        encodedNodeId = ExecutionRecord.encodeNode(nodeId);
+        List<File> segments = listSegments(directory);
+        long lastIndex = segments.isEmpty() ? 0 : segmentIndex(segments.get(segments.size() - 1));
+        current = Segment.open(directory, lastIndex, segmentSize);
+        current.position = JournalReader.countRecords(current.buffer);
+        nextSeq = 0;
+        if (current.position > 0) {
+            nextSeq = ExecutionRecord
+                    .read(current.buffer, (current.position - 1) * ExecutionRecord.SIZE)
+                    .getSeq() + 1;
+        } else {
+            // newest segment is empty (pre-allocated), continue numbering of the previous one
+            for (int i = segments.size() - 2; i >= 0 && nextSeq == 0; i--) {
+                ExecutionRecord last = JournalReader.readLast(segments.get(i));
+                if (last != null) {
+                    nextSeq = last.getSeq() + 1;
+                }
+            }
+        }
+        background = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "execution-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        if (forceIntervalMs > 0) {
+            background.scheduleWithFixedDelay(this::force, forceIntervalMs, forceIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+        background.execute(() -> {
+            deleteOldSegments();
+            prepareNextSegment();
+        });
+        LOGGER.info("Execution journal opened at [" + directory + "], segment #" + current.index
+                + ", next sequence number " + nextSeq + ".");
+        return this;
+    }
+
+    /**
+     * Close the journal, forcing the current segment to disk.
+     */
+    public void destroy() {
+        Segment toClose, unused;
+        synchronized (this) {
+            closed = true;
+            toClose = current;
+            unused = next;
+            current = next = null;
+            notifyAll();
+        }
+        if (background != null) {
+            background.shutdown();
+            try {
+                background.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (toClose != null) {
+            close(toClose);
+        }
+        if (unused != null) {
+            close(unused);
+            if (!unused.file.delete()) {
+                LOGGER.warn("Cannot delete unused segment [" + unused.file + "].");
+            }
+        }
+    }
+
+    private void close(Segment segment) {
+        try {
+            segment.buffer.force();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Error closing segment [" + segment.file + "]: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Force the current segment to disk.
+     */
+    public void force() {
+        Segment segment;
+        synchronized (this) {
+            segment = current;
+        }
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    private void prepareNextSegment() {
+        long index;
+        synchronized (this) {
+            if (closed || next != null || preparing) {
+                return;
+            }
+            preparing = true;
+            index = current.index + 1;
+        }
+        Segment segment = null;
+        try {
+            segment = Segment.open(directory, index, segmentSize);
+            segment.preTouch();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Cannot pre-allocate journal segment #" + index + ": " + e.getMessage(),
+                    e);
+        } finally {
+            synchronized (this) {
+                preparing = false;
+                if (!closed) {
+                    next = segment;
+                    segment = null;
+                }
+                notifyAll();
+            }
+            if (segment != null) {
+                close(segment);
+            }
+        }
+    }
+
+    private void deleteOldSegments() {
+        List<File> segments = listSegments(directory);
+        long currentIndex;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            currentIndex = current.index;
+        }
+        for (File file : segments) {
+            long index = segmentIndex(file);
+            if (index <= currentIndex - maxSegments) {
+                if (file.delete()) {
+                    LOGGER.info("Deleted old journal segment [" + file + "].");
+                } else {
+                    LOGGER.warn("Cannot delete old journal segment [" + file + "].");
+                }
+            }
+        }
+    }
+
+    /**
+     * Switch to the next segment. Called with the lock held.
+     */
+    private void rotate() throws IOException {
+        Segment old = current;
+        while (next == null && preparing && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (closed) {
+            return;
+        }
+        Segment segment = next;
+        next = null;
+        if (segment == null) {
+            // pre-allocation is not ready (or failed), create the segment on the caller's thread
+            numSyncRotations.incrementAndGet();
+            segment = Segment.open(directory, old.index + 1, segmentSize);
+        }
+        current = segment;
+        background.execute(() -> {
+            close(old);
+            deleteOldSegments();
+            prepareNextSegment();
+        });
+    }
+
+    /**
+     * Append an execution to the journal. Never throws: errors are logged and counted.
+     *
+     * @param worker
+     * @param tickId
+     * @param tickTimeMs
+     * @param startMs
+     * @param endMs
+     * @param outcome
+     */
+    public void append(String worker, String tickId, long tickTimeMs, long startMs, long endMs,
+            ExecutionRecord.Outcome outcome) {
+        try {
+            byte[] encodedWorker = encodedWorkers
+                    .computeIfAbsent(worker != null ? worker : "", ExecutionRecord::encodeWorker);
+            byte[] encodedTickId = ExecutionRecord.encodeTickId(tickId);
+            synchronized (this) {
+                if (current == null) {
+                    return;
+                }
+                if (current.position >= current.capacity) {
+                    rotate();
+                    if (current == null) {
+                        return;
+                    }
+                }
+                ExecutionRecord.write(current.buffer, current.position * ExecutionRecord.SIZE,
+                        nextSeq++, encodedWorker, encodedTickId, encodedNodeId, tickTimeMs,
+                        startMs, endMs, outcome);
+                current.position++;
+            }
+            numAppended.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            if (numErrors.incrementAndGet() == 1) {
+                LOGGER.error("Error writing execution journal: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    public long getAppendedCount() {
+        return numAppended.get();
+    }
+
+    public long getErrorCount() {
+        return numErrors.get();
+    }
+
+    /**
+     * Number of rotations that had to create the next segment on the appending thread because
+     * pre-allocation was not ready.
+     *
+     * @return
+     */
+    public long getSyncRotationCount() {
+        return numSyncRotations.get();
+    }
+
+    /**
+     * Read the most recent records of this journal.
+     *
+     * @param limit
+     * @return newest first
+     * @throws IOException
+     */
+    public List<ExecutionRecord> readRecent(int limit) throws IOException {
+        return new JournalReader(directory).readRecent(limit, null);
+    }
+
+    /**
+     * Render the most recent records as JSON.
+     *
+     * @param limit
+     * @return
+     */
+    public String toJson(int limit) {
+        StringBuilder sb = new StringBuilder("{\"appended\":").append(getAppendedCount())
+                .append(",\"errors\":").append(getErrorCount()).append(",\"syncRotations\":")
+                .append(getSyncRotationCount()).append(",\"records\":[");
+        try {
+            List<ExecutionRecord> records = readRecent(limit);
+            List<String> json = new ArrayList<>(records.size());
+            records.forEach(r -> json.add(r.toJson()));
+            sb.append(String.join(",", json));
+        } catch (IOException e) {
+            LOGGER.warn("Error reading execution journal: " + e.getMessage(), e);
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,257 @@
+package com.github.btnguyen2k.akkascheduledjob.journal;
+
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * One job execution in the {@link ExecutionJournal}, stored as a fixed-size binary record.
+ *
+ * <pre>
+ * offset size field
+ *      0    4 magic (written last: a record without magic is incomplete/unused)
+ *      4    1 format version
+ *      5    1 outcome
+ *      6    2 reserved
+ *      8    8 sequence number
+ *     16    8 tick timestamp (epoch ms)
+ *     24    8 start time (epoch ms)
+ *     32    8 end time (epoch ms)
+ *     40   40 worker name (1 byte length + UTF-8 bytes, truncated)
+ *     80   24 tick id (idem)
+ *    104   24 node id (idem)
+ * </pre>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class ExecutionRecord {
+    /**
+     * Outcome of an execution.
+     */
+    public enum Outcome {
+        /**
+         * The job finished normally.
+         */
+        SUCCESS(1),
+        /**
+         * The job threw an exception.
+         */
+        FAILED(2),
+        /**
+         * The tick was missed because the worker was busy.
+         */
+        BUSY(3),
+        /**
+         * The job was still running when the node's shutdown drain timed out (end time is the
+         * time it was cut off).
+         */
+        CUT_OFF(4);
+
+        private final byte code;
+
+        Outcome(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte getCode() {
+            return code;
+        }
+
+        public static Outcome fromCode(byte code) {
+            for (Outcome outcome : values()) {
+                if (outcome.code == code) {
+                    return outcome;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Size of a record in bytes.
+     */
+    public final static int SIZE = 128;
+
+    final static int MAGIC = 0x4A524E4C; // "JRNL"
+    private final static byte VERSION = 1;
+    private final static int OFFSET_WORKER = 40, LENGTH_WORKER = 40;
+    private final static int OFFSET_TICK_ID = 80, LENGTH_TICK_ID = 24;
+    private final static int OFFSET_NODE = 104, LENGTH_NODE = 24;
+
+    private final long seq;
+    private final String worker, tickId, node;
+    private final long tickTimeMs, startMs, endMs;
+    private final Outcome outcome;
+
+    public ExecutionRecord(long seq, String worker, String tickId, String node, long tickTimeMs,
+            long startMs, long endMs, Outcome outcome) {
+        this.seq = seq;
+        this.worker = worker;
+        this.tickId = tickId;
+        this.node = node;
+        this.tickTimeMs = tickTimeMs;
+        this.startMs = startMs;
+        this.endMs = endMs;
+        this.outcome = outcome;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public String getWorker() {
+        return worker;
+    }
+
+    public String getTickId() {
+        return tickId;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public long getTickTimeMs() {
+        return tickTimeMs;
+    }
+
+    public long getStartMs() {
+        return startMs;
+    }
+
+    public long getEndMs() {
+        return endMs;
+    }
+
+    public long getDurationMs() {
+        return endMs - startMs;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Encode a string field: UTF-8, truncated at a character boundary to fit {@code maxLength}
+     * bytes.
+     *
+     * @param value
+     * @param maxLength
+     * @return
+     */
+    static byte[] encodeField(String value, int maxLength) {
+        byte[] data = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (data.length <= maxLength) {
+            return data;
+        }
+        int length = maxLength;
+        while (length > 0 && (data[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        byte[] result = new byte[length];
+        System.arraycopy(data, 0, result, 0, length);
+        return result;
+    }
+
+    static byte[] encodeWorker(String worker) {
+        return encodeField(worker, LENGTH_WORKER - 1);
+    }
+
+    static byte[] encodeTickId(String tickId) {
+        return encodeField(tickId, LENGTH_TICK_ID - 1);
+    }
+
+    static byte[] encodeNode(String node) {
+        return encodeField(node, LENGTH_NODE - 1);
+    }
+
+    private static void putField(ByteBuffer buf, int offset, byte[] data) {
+        buf.put(offset, (byte) data.length);
+        for (int i = 0; i < data.length; i++) {
+            buf.put(offset + 1 + i, data[i]);
+        }
+    }
+
+    private static String getField(ByteBuffer buf, int offset) {
+        int length = buf.get(offset) & 0xFF;
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = buf.get(offset + 1 + i);
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write a record at {@code offset} (absolute, the buffer's position is not changed). String
+     * fields are pre-encoded, see {@link #encodeField(String, int)}. The magic is written last.
+     */
+    static void write(ByteBuffer buf, int offset, long seq, byte[] worker, byte[] tickId,
+            byte[] node, long tickTimeMs, long startMs, long endMs, Outcome outcome) {
+        buf.put(offset + 4, VERSION);
+        buf.put(offset + 5, outcome.code);
+        buf.putShort(offset + 6, (short) 0);
+        buf.putLong(offset + 8, seq);
+        buf.putLong(offset + 16, tickTimeMs);
+        buf.putLong(offset + 24, startMs);
+        buf.putLong(offset + 32, endMs);
+        putField(buf, offset + OFFSET_WORKER, worker);
+        putField(buf, offset + OFFSET_TICK_ID, tickId);
+        putField(buf, offset + OFFSET_NODE, node);
+        buf.putInt(offset, MAGIC);
+    }
+
+    /**
+     * Check if there is a complete record at {@code offset}.
+     *
+     * @param buf
+     * @param offset
+     * @return
+     */
+    static boolean exists(ByteBuffer buf, int offset) {
+        return buf.getInt(offset) == MAGIC;
+    }
+
+    /**
+     * Read the record at {@code offset}.
+     *
+     * @param buf
+     * @param offset
+     * @return {@code null} if there is no complete record at {@code offset}
+     */
+    static ExecutionRecord read(ByteBuffer buf, int offset) {
+        if (!exists(buf, offset)) {
+            return null;
+        }
+        return new ExecutionRecord(buf.getLong(offset + 8), getField(buf, offset + OFFSET_WORKER),
+                getField(buf, offset + OFFSET_TICK_ID), getField(buf, offset + OFFSET_NODE),
+                buf.getLong(offset + 16), buf.getLong(offset + 24), buf.getLong(offset + 32),
+                Outcome.fromCode(buf.get(offset + 5)));
+    }
+
+    /**
+     * Render this record as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        return "{\"seq\":" + seq + ",\"worker\":" + JsonUtils.quote(worker) + ",\"tickId\":"
+                + JsonUtils.quote(tickId) + ",\"node\":" + JsonUtils.quote(node) + ",\"tickTime\":"
+                + tickTimeMs + ",\"start\":" + startMs + ",\"end\":" + endMs + ",\"outcome\":\""
+                + outcome + "\"}";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "#" + seq + " " + Instant.ofEpochMilli(startMs) + " " + worker + " tick=" + tickId
+                + " (" + Instant.ofEpochMilli(tickTimeMs) + ") node=" + node + " " + outcome + " "
+                + getDurationMs() + "ms";
+    }
+}
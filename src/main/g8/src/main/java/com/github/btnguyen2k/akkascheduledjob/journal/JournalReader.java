@@ -0,0 +1,155 @@
+package com.github.btnguyen2k.akkascheduledjob.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Reads an {@link ExecutionJournal}'s segment files, newest records first. Safe to use while the
+ * journal is being written (incomplete records are skipped).
+ *
+ * <p>
+ * Also a command-line query tool:
+ * </p>
+ *
+ * <pre>
+ * java -cp "lib/*" com.github.btnguyen2k.akkascheduledjob.journal.JournalReader &lt;journal-dir&gt;
+ *     [-n &lt;limit, default 20&gt;] [-w &lt;worker&gt;] [-o &lt;SUCCESS|FAILED|BUSY|CUT_OFF&gt;]
+ *     [-s &lt;since, epoch ms&gt;] [--json]
+ * </pre>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JournalReader {
+    private final File directory;
+
+    public JournalReader(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            long length = raf.length() - raf.length() % ExecutionRecord.SIZE;
+            return raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+    }
+
+    /**
+     * Number of records in a segment (records are written in order, the first slot without a
+     * complete record ends the segment).
+     */
+    static int countRecords(MappedByteBuffer buf) {
+        int capacity = buf.capacity() / ExecutionRecord.SIZE;
+        // binary search the first empty slot
+        int low = 0, high = capacity;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ExecutionRecord.exists(buf, mid * ExecutionRecord.SIZE)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Read the last record of a segment file.
+     *
+     * @param segmentFile
+     * @return {@code null} if the segment is empty
+     * @throws IOException
+     */
+    static ExecutionRecord readLast(File segmentFile) throws IOException {
+        MappedByteBuffer buf = map(segmentFile);
+        int count = countRecords(buf);
+        return count > 0 ? ExecutionRecord.read(buf, (count - 1) * ExecutionRecord.SIZE) : null;
+    }
+
+    /**
+     * Read the most recent records matching a filter.
+     *
+     * @param limit  max number of records to return
+     * @param filter {@code null} to match all records
+     * @return newest first
+     * @throws IOException
+     */
+    public List<ExecutionRecord> readRecent(int limit, Predicate<ExecutionRecord> filter)
+            throws IOException {
+        List<ExecutionRecord> result = new ArrayList<>();
+        List<File> segments = ExecutionJournal.listSegments(directory);
+        for (int i = segments.size() - 1; i >= 0 && result.size() < limit; i--) {
+            MappedByteBuffer buf;
+            try {
+                buf = map(segments.get(i));
+            } catch (IOException e) {
+                if (segments.get(i).exists()) {
+                    throw e;
+                }
+                // deleted by retention in the meantime
+                break;
+            }
+            for (int slot = countRecords(buf) - 1; slot >= 0 && result.size() < limit; slot--) {
+                ExecutionRecord record = ExecutionRecord.read(buf, slot * ExecutionRecord.SIZE);
+                if (record != null && (filter == null || filter.test(record))) {
+                    result.add(record);
+                }
+            }
+        }
+        return result;
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    private static void usage() {
+        System.err.println("Usage: JournalReader <journal-dir> [-n <limit>] [-w <worker>]"
+                + " [-o <SUCCESS|FAILED|BUSY|CUT_OFF>] [-s <since-epoch-ms>] [--json]");
+        System.exit(1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            usage();
+        }
+        File directory = new File(args[0]);
+        int limit = 20;
+        String worker = null;
+        ExecutionRecord.Outcome outcome = null;
+        long since = 0;
+        boolean json = false;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if ("--json".equals(arg)) {
+                json = true;
+            } else if (i + 1 < args.length && "-n".equals(arg)) {
+                limit = Integer.parseInt(args[++i]);
+            } else if (i + 1 < args.length && "-w".equals(arg)) {
+                worker = args[++i];
+            } else if (i + 1 < args.length && "-o".equals(arg)) {
+                outcome = ExecutionRecord.Outcome.valueOf(args[++i].toUpperCase());
+            } else if (i + 1 < args.length && "-s".equals(arg)) {
+                since = Long.parseLong(args[++i]);
+            } else {
+                usage();
+            }
+        }
+        String w = worker;
+        ExecutionRecord.Outcome o = outcome;
+        long s = since;
+        Predicate<ExecutionRecord> filter = r -> (w == null || w.equals(r.getWorker()))
+                && (o == null || o == r.getOutcome()) && r.getStartMs() >= s;
+        for (ExecutionRecord record : new JournalReader(directory).readRecent(limit, filter)) {
+            System.out.println(json ? record.toJson() : record.toString());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.btnguyen2k.akkascheduledjob.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent, fixed-footprint histogram with HDR-style log-linear buckets.
+ *
+ * <p>
+ * Values are grouped into power-of-two magnitudes, each split into {@code 2^SUB_BUCKET_BITS}
+ * linear sub-buckets, giving a relative error below {@code 1/2^SUB_BUCKET_BITS} (~3%).
+ * Recording a value is a couple of bit operations plus one atomic increment, no allocation.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class Histogram {
+    private final static int SUB_BUCKET_BITS = 5;
+    private final static int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private final static int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+
+    /**
+     * Values above {@code 2^MAX_MAGNITUDE - 1} are clamped.
+     */
+    private final static int MAX_MAGNITUDE = 40;
+    private final static long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(
+            SUB_BUCKET_COUNT + (MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSum = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & SUB_BUCKET_MASK;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Highest value that falls into bucket {@code index}.
+     */
+    private static long highestValueOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Record a value. Negative values are recorded as {@code 0}.
+     *
+     * @param value
+     */
+    public void record(long value) {
+        long v = value < 0 ? 0 : Math.min(value, MAX_VALUE);
+        counts.incrementAndGet(indexOf(v));
+        totalCount.incrementAndGet();
+        totalSum.addAndGet(v);
+        long max = maxValue.get();
+        while (v > max && !maxValue.compareAndSet(max, v)) {
+            max = maxValue.get();
+        }
+    }
+
+    /**
+     * Number of recorded values.
+     *
+     * @return
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Max recorded value.
+     *
+     * @return
+     */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /**
+     * Mean of recorded values.
+     *
+     * @return
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count > 0 ? (double) totalSum.get() / count : 0;
+    }
+
+    /**
+     * Value at a given percentile (0-100).
+     *
+     * @param percentile
+     * @return highest value of the bucket the percentile falls into, capped at max recorded
+     * value
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0, n = counts.length(); i < n; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueOf(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+    /**
+     * Clear all recorded values.
+     *
+     * <p>
+     * Values recorded concurrently with a reset may be partially lost.
+     * </p>
+     */
+    public void reset() {
+        for (int i = 0, n = counts.length(); i < n; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalSum.set(0);
+        maxValue.set(0);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.btnguyen2k.akkascheduledjob.metrics;
+
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.LockResult;
+
+/**
+ * {@link IDLock} decorator that records lock acquire time into a {@link WorkerMetrics}.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class MeteredDLock implements IDLock {
+    private final IDLock target;
+    private final WorkerMetrics metrics;
+
+    public MeteredDLock(IDLock target, WorkerMetrics metrics) {
+        this.target = target;
+        this.metrics = metrics;
+    }
+
+    /**
+     * The decorated lock.
+     *
+     * @return
+     */
+    public IDLock getTarget() {
+        return target;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getClientId() {
+        return target.getClientId();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTimestampExpiry() {
+        return target.getTimestampExpiry();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isLocked() {
+        return target.isLocked();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult lock(String clientId, long lockDurationMs) {
+        long start = System.nanoTime();
+        try {
+            return target.lock(clientId, lockDurationMs);
+        } finally {
+            metrics.recordDlockAcquire(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult lock(int waitWeight, String clientId, long lockDurationMs) {
+        long start = System.nanoTime();
+        try {
+            return target.lock(waitWeight, clientId, lockDurationMs);
+        } finally {
+            metrics.recordDlockAcquire(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult tryLock(String clientId, long lockDurationMs) {
+        long start = System.nanoTime();
+        try {
+            return target.tryLock(clientId, lockDurationMs);
+        } finally {
+            metrics.recordDlockAcquire(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult tryLock(int waitWeight, String clientId, long lockDurationMs) {
+        long start = System.nanoTime();
+        try {
+            return target.tryLock(waitWeight, clientId, lockDurationMs);
+        } finally {
+            metrics.recordDlockAcquire(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LockResult unlock(String clientId) {
+        return target.unlock(clientId);
+    }
+}
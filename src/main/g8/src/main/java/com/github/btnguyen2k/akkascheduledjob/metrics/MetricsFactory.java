@@ -0,0 +1,257 @@
+package com.github.btnguyen2k.akkascheduledjob.metrics;
+
+import com.github.btnguyen2k.akkascheduledjob.cache.Caches;
+import com.github.btnguyen2k.akkascheduledjob.chain.JobChains;
+import com.github.btnguyen2k.akkascheduledjob.checkpoint.CheckpointStore;
+import com.github.btnguyen2k.akkascheduledjob.dispatch.DispatcherTuner;
+import com.github.btnguyen2k.akkascheduledjob.journal.ExecutionJournal;
+import com.github.btnguyen2k.akkascheduledjob.pool.PoolMetrics;
+import com.github.btnguyen2k.akkascheduledjob.pool.PoolWarmer;
+import com.github.btnguyen2k.akkascheduledjob.sink.JdbcSinks;
+import com.github.btnguyen2k.akkascheduledjob.trigger.JobTriggers;
+import com.github.btnguyen2k.akkascheduledjob.worker.InFlightJobs;
+import com.github.btnguyen2k.akkascheduledjob.worker.PartitionClaims;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerGroups;
+import com.github.ddth.commons.utils.TypesafeConfigUtils;
+import com.typesafe.config.Config;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Builds the {@link MetricsRegistry} and the {@link MetricsHttpEndpoint} serving it, with
+ * settings from {@code ddth-akka-scheduling.metrics}.
+ *
+ * <p>
+ * Besides {@code /metrics}, the endpoint serves the state of the application's services (JDBC
+ * sinks, caches, journal, data sources, worker groups, dispatchers, triggers, chains,
+ * partitions, checkpoints, in-flight jobs). Services are set as suppliers, resolved on each
+ * request: most of them are built after the endpoint starts. Services not set (or not built)
+ * are served as empty documents.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class MetricsFactory {
+    /**
+     * Create a factory with settings from application's configuration.
+     *
+     * @param config
+     * @return
+     */
+    public static MetricsFactory fromConfig(Config config) {
+        final String PREFIX = "ddth-akka-scheduling.metrics.";
+        MetricsFactory factory = new MetricsFactory();
+        TypesafeConfigUtils.getBooleanOptional(config, PREFIX + "enabled")
+                .ifPresent(v -> factory.setEnabled(v.booleanValue()));
+        boolean jmxEnabled = TypesafeConfigUtils.getBooleanOptional(config, PREFIX + "jmx-enabled")
+                .orElse(Boolean.TRUE).booleanValue();
+        factory.setJmxDomain(!jmxEnabled ? null
+                : TypesafeConfigUtils.getStringOptional(config, PREFIX + "jmx-domain")
+                        .orElse(TypesafeConfigUtils.getString(config, "app.shortname")
+                                + ".scheduling"));
+        TypesafeConfigUtils.getStringOptional(config, PREFIX + "http-host")
+                .ifPresent(factory::setHttpHost);
+        TypesafeConfigUtils.getIntegerOptional(config, PREFIX + "http-port")
+                .ifPresent(v -> factory.setHttpPort(v.intValue()));
+        return factory;
+    }
+
+    private boolean enabled = true;
+    private String jmxDomain;
+    private String httpHost = "127.0.0.1";
+    private int httpPort = 0;
+
+    private Supplier<JdbcSinks> jdbcSinks = () -> null;
+    private Supplier<Caches> caches = () -> null;
+    private Supplier<ExecutionJournal> journal = () -> null;
+    private Supplier<Map<String, PoolMetrics>> poolMetrics = () -> null;
+    private Supplier<PoolWarmer> poolWarmer = () -> null;
+    private Supplier<WorkerGroups> workerGroups = () -> null;
+    private Supplier<DispatcherTuner> dispatcherTuner = () -> null;
+    private Supplier<JobTriggers> jobTriggers = () -> null;
+    private Supplier<JobChains> jobChains = () -> null;
+    private Supplier<Map<String, PartitionClaims>> partitionClaims = () -> null;
+    private Supplier<CheckpointStore> checkpointStore = () -> null;
+    private Supplier<InFlightJobs> inFlightJobs = () -> null;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public MetricsFactory setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    /**
+     * JMX domain MBeans are registered under, {@code null} if JMX is disabled.
+     *
+     * @return
+     */
+    public String getJmxDomain() {
+        return jmxDomain;
+    }
+
+    public MetricsFactory setJmxDomain(String jmxDomain) {
+        this.jmxDomain = jmxDomain;
+        return this;
+    }
+
+    public String getHttpHost() {
+        return httpHost;
+    }
+
+    public MetricsFactory setHttpHost(String httpHost) {
+        this.httpHost = httpHost;
+        return this;
+    }
+
+    /**
+     * Port of the HTTP endpoint, {@code 0} if the endpoint is disabled.
+     *
+     * @return
+     */
+    public int getHttpPort() {
+        return httpPort;
+    }
+
+    public MetricsFactory setHttpPort(int httpPort) {
+        this.httpPort = httpPort;
+        return this;
+    }
+
+    public MetricsFactory setJdbcSinks(Supplier<JdbcSinks> jdbcSinks) {
+        this.jdbcSinks = jdbcSinks;
+        return this;
+    }
+
+    public MetricsFactory setCaches(Supplier<Caches> caches) {
+        this.caches = caches;
+        return this;
+    }
+
+    public MetricsFactory setJournal(Supplier<ExecutionJournal> journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    public MetricsFactory setPoolMetrics(Supplier<Map<String, PoolMetrics>> poolMetrics) {
+        this.poolMetrics = poolMetrics;
+        return this;
+    }
+
+    public MetricsFactory setPoolWarmer(Supplier<PoolWarmer> poolWarmer) {
+        this.poolWarmer = poolWarmer;
+        return this;
+    }
+
+    public MetricsFactory setWorkerGroups(Supplier<WorkerGroups> workerGroups) {
+        this.workerGroups = workerGroups;
+        return this;
+    }
+
+    public MetricsFactory setDispatcherTuner(Supplier<DispatcherTuner> dispatcherTuner) {
+        this.dispatcherTuner = dispatcherTuner;
+        return this;
+    }
+
+    public MetricsFactory setJobTriggers(Supplier<JobTriggers> jobTriggers) {
+        this.jobTriggers = jobTriggers;
+        return this;
+    }
+
+    public MetricsFactory setJobChains(Supplier<JobChains> jobChains) {
+        this.jobChains = jobChains;
+        return this;
+    }
+
+    public MetricsFactory setPartitionClaims(
+            Supplier<Map<String, PartitionClaims>> partitionClaims) {
+        this.partitionClaims = partitionClaims;
+        return this;
+    }
+
+    public MetricsFactory setCheckpointStore(Supplier<CheckpointStore> checkpointStore) {
+        this.checkpointStore = checkpointStore;
+        return this;
+    }
+
+    public MetricsFactory setInFlightJobs(Supplier<InFlightJobs> inFlightJobs) {
+        this.inFlightJobs = inFlightJobs;
+        return this;
+    }
+
+    /**
+     * Create the metrics registry.
+     *
+     * @return {@code null} if metrics are disabled
+     */
+    public MetricsRegistry createRegistry() {
+        return enabled ? new MetricsRegistry().setJmxDomain(jmxDomain) : null;
+    }
+
+    /**
+     * Create and start the HTTP endpoint serving {@code registry} and the services' state.
+     *
+     * @param registry
+     * @return {@code null} if the endpoint is disabled
+     * @throws IOException if the endpoint cannot be started
+     */
+    public MetricsHttpEndpoint createHttpEndpoint(MetricsRegistry registry) throws IOException {
+        if (httpPort <= 0) {
+            return null;
+        }
+        MetricsHttpEndpoint endpoint = new MetricsHttpEndpoint(httpHost, httpPort, registry);
+        return endpoint.addHandler("/jdbc-sinks", () -> {
+            JdbcSinks sinks = jdbcSinks.get();
+            return sinks != null ? sinks.toJson() : "{\"sinks\":[]}";
+        }).addHandler("/caches", () -> {
+            Caches c = caches.get();
+            return c != null ? c.toJson() : "{\"caches\":[]}";
+        }).addHandler("/journal", () -> {
+            ExecutionJournal j = journal.get();
+            return j != null ? j.toJson(100) : "{\"records\":[]}";
+        }).addHandler("/datasources", () -> {
+            Map<String, PoolMetrics> metrics = poolMetrics.get();
+            PoolWarmer warmer = poolWarmer.get();
+            StringBuilder sb = new StringBuilder("{\"pools\":[");
+            if (metrics != null) {
+                sb.append(StringUtils.join(metrics.values(), ","));
+            }
+            return sb.append("],\"warming\":").append(warmer != null ? warmer.toJson() : "[]")
+                    .append("}").toString();
+        }).addHandler("/groups", () -> {
+            WorkerGroups groups = workerGroups.get();
+            return groups != null ? groups.toJson() : "{\"groups\":[]}";
+        }).addHandler("/dispatchers", () -> {
+            DispatcherTuner tuner = dispatcherTuner.get();
+            return "{\"dispatchers\":" + (tuner != null ? tuner.toJson() : "[]") + "}";
+        }).addHandler("/triggers", () -> {
+            JobTriggers triggers = jobTriggers.get();
+            return triggers != null ? triggers.toJson() : "{}";
+        }).addHandler("/chains", () -> {
+            JobChains chains = jobChains.get();
+            return chains != null ? chains.toJson() : "{\"workers\":[]}";
+        }).addHandler("/partitions", () -> {
+            Map<String, PartitionClaims> claimsMap = partitionClaims.get();
+            StringBuilder sb = new StringBuilder("{\"workers\":[");
+            int i = 0;
+            for (PartitionClaims claims : claimsMap != null ? claimsMap.values()
+                    : Collections.<PartitionClaims>emptyList()) {
+                sb.append(i++ > 0 ? "," : "").append(claims.toJson());
+            }
+            return sb.append("]}").toString();
+        }).addHandler("/checkpoints", () -> {
+            CheckpointStore store = checkpointStore.get();
+            return store != null ? store.toJson() : "{}";
+        }).addHandler("/in-flight", () -> {
+            InFlightJobs jobs = inFlightJobs.get();
+            return jobs != null ? jobs.toJson() : "{\"draining\":false,\"jobs\":[]}";
+        }).start();
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.btnguyen2k.akkascheduledjob.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Minimal HTTP endpoint to pull metrics as JSON, built on the JDK's built-in HTTP server.
+ *
+ * <ul>
+ * <li>{@code GET /metrics}: metrics of all workers (see {@link MetricsRegistry#toJson()}).</li>
+ * <li>Other paths can be added via {@link #addHandler(String, Supplier)}.</li>
+ * </ul>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class MetricsHttpEndpoint {
+    private final Logger LOGGER = LoggerFactory.getLogger(MetricsHttpEndpoint.class);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public MetricsHttpEndpoint(String host, int port, MetricsRegistry registry)
+            throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-http-endpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        addHandler("/metrics", registry::toJson);
+    }
+
+    /**
+     * Serve a JSON document at {@code path}.
+     *
+     * @param path
+     * @param jsonSupplier
+     * @return
+     */
+    public MetricsHttpEndpoint addHandler(String path, Supplier<String> jsonSupplier) {
+        server.createContext(path, exchange -> {
+            try {
+                if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                    respond(exchange, 405, "{\"error\":\"method not allowed\"}");
+                } else {
+                    respond(exchange, 200, jsonSupplier.get());
+                }
+            } catch (Exception e) {
+                LOGGER.warn(e.getMessage(), e);
+                respond(exchange, 500, "{\"error\":\"internal error\"}");
+            } finally {
+                exchange.close();
+            }
+        });
+        return this;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] data = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, data.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(data);
+        }
+    }
+
+    public MetricsHttpEndpoint start() {
+        server.start();
+        LOGGER.info("Metrics endpoint listening on " + server.getAddress());
+        return this;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
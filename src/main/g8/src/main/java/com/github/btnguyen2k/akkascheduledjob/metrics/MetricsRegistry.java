@@ -0,0 +1,185 @@
+package com.github.btnguyen2k.akkascheduledjob.metrics;
+
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of {@link WorkerMetrics}, optionally exposed via JMX.
+ *
+ * <p>
+ * Built by {@link MetricsFactory} and registered in global storage as key
+ * {@code metrics-registry}.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class MetricsRegistry {
+    private final Logger LOGGER = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    private final ConcurrentMap<String, WorkerMetrics> workerMetrics = new ConcurrentHashMap<>();
+    private final List<ObjectName> registeredMBeans = Collections
+            .synchronizedList(new ArrayList<>());
+    private String jmxDomain;
+
+    /**
+     * JMX domain to register MBeans under; {@code null} disables JMX.
+     *
+     * @param jmxDomain
+     * @return
+     */
+    public MetricsRegistry setJmxDomain(String jmxDomain) {
+        this.jmxDomain = jmxDomain;
+        return this;
+    }
+
+    public String getJmxDomain() {
+        return jmxDomain;
+    }
+
+    /**
+     * Register an MBean under {@code <jmx-domain>:type=<type>,name=<name>}. No-op if JMX is
+     * disabled.
+     *
+     * @param type
+     * @param name
+     * @param mbean
+     */
+    public void registerMBean(String type, String name, Object mbean) {
+        if (jmxDomain == null) {
+            return;
+        }
+        try {
+            MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objName = new ObjectName(
+                    jmxDomain + ":type=" + type + ",name=" + ObjectName.quote(name));
+            if (!mbs.isRegistered(objName)) {
+                mbs.registerMBean(mbean, objName);
+                registeredMBeans.add(objName);
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Cannot register MBean [" + type + "/" + name + "]: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get metrics of a worker, create one if not exist.
+     *
+     * @param workerName
+     * @return
+     */
+    public WorkerMetrics getOrCreateWorkerMetrics(String workerName) {
+        WorkerMetrics metrics = workerMetrics.get(workerName);
+        if (metrics == null) {
+            WorkerMetrics newMetrics = new WorkerMetrics(workerName);
+            metrics = workerMetrics.putIfAbsent(workerName, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+                registerMBean("WorkerMetrics", workerName, metrics);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Get metrics of a worker.
+     *
+     * @param workerName
+     * @return {@code null} if no such worker
+     */
+    public WorkerMetrics getWorkerMetrics(String workerName) {
+        return workerMetrics.get(workerName);
+    }
+
+    /**
+     * Get metrics of all workers.
+     *
+     * @return
+     */
+    public Collection<WorkerMetrics> getAllWorkerMetrics() {
+        return Collections.unmodifiableCollection(workerMetrics.values());
+    }
+
+    /**
+     * Render metrics of all workers as JSON, workers with the highest 99th-percentile tick lag
+     * first.
+     *
+     * @return
+     */
+    public String toJson() {
+        List<WorkerMetrics> all = new ArrayList<>(workerMetrics.values());
+        all.sort((a, b) -> Double.compare(b.getTickLagP99(), a.getTickLagP99()));
+        StringBuilder sb = new StringBuilder(256 + all.size() * 512);
+        sb.append("{\"timestamp\":").append(System.currentTimeMillis()).append(",\"workers\":[");
+        for (int i = 0; i < all.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('{');
+            appendJsonFields(sb, all.get(i));
+            sb.append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * Append the fields (without enclosing braces) of a JSON rendering of worker metrics.
+     *
+     * @param sb
+     * @param m
+     * @since template-0.3.0
+     */
+    public static void appendJsonFields(StringBuilder sb, WorkerMetrics m) {
+        sb.append("\"name\":").append(JsonUtils.quote(m.getWorkerName()));
+        sb.append(",\"executed\":").append(m.getExecutedCount());
+        sb.append(",\"failed\":").append(m.getFailedCount());
+        sb.append(",\"busy\":").append(m.getBusyCount());
+        sb.append(",\"skipped\":").append(m.getSkippedCount());
+        sb.append(",\"misfireReplayed\":").append(m.getMisfireReplayedCount());
+        sb.append(",\"misfireDiscarded\":").append(m.getMisfireDiscardedCount());
+        sb.append(",\"triggered\":").append(m.getTriggeredCount());
+        sb.append(",\"triggerCoalesced\":").append(m.getTriggerCoalescedCount());
+        sb.append(",\"inFlight\":").append(m.getInFlightCount());
+        sb.append(",\"lastRun\":").append(m.getLastRunTimestamp());
+        appendHistogram(sb, "tickLagMs", m.getTickLagHistogram());
+        appendHistogram(sb, "runTimeMs", m.getRunTimeHistogram());
+        appendHistogram(sb, "dlockAcquireMs", m.getDlockAcquireHistogram());
+    }
+
+    private static void appendHistogram(StringBuilder sb, String name, Histogram h) {
+        sb.append(",\"").append(name).append("\":{\"count\":").append(h.getCount())
+                .append(",\"mean\":").append(JsonUtils.formatMs(h.getMean()))
+                .append(",\"p50\":").append(JsonUtils.formatMs(h.getValueAtPercentile(50)))
+                .append(",\"p90\":").append(JsonUtils.formatMs(h.getValueAtPercentile(90)))
+                .append(",\"p99\":").append(JsonUtils.formatMs(h.getValueAtPercentile(99)))
+                .append(",\"max\":").append(JsonUtils.formatMs(h.getMax())).append('}');
+    }
+
+    /**
+     * Unregister all MBeans registered by this registry.
+     */
+    public void destroy() {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        synchronized (registeredMBeans) {
+            for (ObjectName objName : registeredMBeans) {
+                try {
+                    mbs.unregisterMBean(objName);
+                } catch (Exception e) {
+                    LOGGER.warn(e.getMessage(), e);
+                }
+            }
+            registeredMBeans.clear();
+        }
+    }
+}
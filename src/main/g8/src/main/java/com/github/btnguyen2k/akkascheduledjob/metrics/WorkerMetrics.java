@@ -0,0 +1,303 @@
+package com.github.btnguyen2k.akkascheduledjob.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution metrics of one worker.
+ *
+ * <ul>
+ * <li>Tick lag: time from a tick's timestamp until the tick reaches {@code doJob}.</li>
+ * <li>Run time: {@code doJob} duration.</li>
+ * <li>Dlock acquire time: duration of the dlock call made before a global-singleton run.</li>
+ * <li>Busy count: ticks dropped because the worker was busy on this node; skipped count: ticks
+ * dropped because another node holds the worker's dlock.</li>
+ * <li>Misfires: missed ticks replayed later, or discarded because the worker's misfire backlog
+ * was full.</li>
+ * </ul>
+ *
+ * <p>
+ * Histograms record microseconds; getters report milliseconds.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerMetrics implements WorkerMetricsMBean {
+    private final String workerName;
+    private final Histogram tickLag = new Histogram();
+    private final Histogram runTime = new Histogram();
+    private final Histogram dlockAcquire = new Histogram();
+    private final AtomicLong executed = new AtomicLong(), failed = new AtomicLong();
+    private final AtomicLong busy = new AtomicLong(), skipped = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong(), lastRunTimestamp = new AtomicLong();
+    private final AtomicLong misfireReplayed = new AtomicLong();
+    private final AtomicLong misfireDiscarded = new AtomicLong();
+    private final AtomicLong triggered = new AtomicLong(), triggerCoalesced = new AtomicLong();
+
+    public WorkerMetrics(String workerName) {
+        this.workerName = workerName;
+    }
+
+    private static double toMs(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Record the start of a {@code doJob} run.
+     *
+     * @param tickTimestampMs timestamp of the tick being executed
+     * @return start time (from {@link System#nanoTime()}) to be passed to
+     * {@link #recordRunEnd(long, boolean)}
+     */
+    public long recordRunStart(long tickTimestampMs) {
+        long now = System.currentTimeMillis();
+        tickLag.record((now - tickTimestampMs) * 1000);
+        inFlight.incrementAndGet();
+        lastRunTimestamp.set(now);
+        return System.nanoTime();
+    }
+
+    /**
+     * Record the end of a {@code doJob} run.
+     *
+     * @param startNanos value returned by {@link #recordRunStart(long)}
+     * @param successful
+     */
+    public void recordRunEnd(long startNanos, boolean successful) {
+        runTime.record((System.nanoTime() - startNanos) / 1000);
+        inFlight.decrementAndGet();
+        (successful ? executed : failed).incrementAndGet();
+    }
+
+    /**
+     * Record a dropped tick.
+     *
+     * @param isGlobal {@code true} if the tick was dropped because another node holds the
+     *                 worker's dlock
+     */
+    public void recordBusy(boolean isGlobal) {
+        (isGlobal ? skipped : busy).incrementAndGet();
+    }
+
+    /**
+     * Record a missed tick being replayed.
+     */
+    public void recordMisfireReplayed() {
+        misfireReplayed.incrementAndGet();
+    }
+
+    /**
+     * Record a missed tick discarded because the misfire backlog was full.
+     */
+    public void recordMisfireDiscarded() {
+        misfireDiscarded.incrementAndGet();
+    }
+
+    /**
+     * Record an on-demand run request.
+     *
+     * @param coalesced {@code true} if the request was merged into another run
+     */
+    public void recordTrigger(boolean coalesced) {
+        (coalesced ? triggerCoalesced : triggered).incrementAndGet();
+    }
+
+    /**
+     * Record duration of a dlock acquire call.
+     *
+     * @param durationNanos
+     */
+    public void recordDlockAcquire(long durationNanos) {
+        dlockAcquire.record(durationNanos / 1000);
+    }
+
+    public Histogram getTickLagHistogram() {
+        return tickLag;
+    }
+
+    public Histogram getRunTimeHistogram() {
+        return runTime;
+    }
+
+    public Histogram getDlockAcquireHistogram() {
+        return dlockAcquire;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getWorkerName() {
+        return workerName;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBusyCount() {
+        return busy.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMisfireReplayedCount() {
+        return misfireReplayed.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMisfireDiscardedCount() {
+        return misfireDiscarded.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTriggeredCount() {
+        return triggered.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTriggerCoalescedCount() {
+        return triggerCoalesced.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLastRunTimestamp() {
+        return lastRunTimestamp.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTickLagP50() {
+        return toMs(tickLag.getValueAtPercentile(50));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTickLagP99() {
+        return toMs(tickLag.getValueAtPercentile(99));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getTickLagMax() {
+        return toMs(tickLag.getMax());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getRunTimeP50() {
+        return toMs(runTime.getValueAtPercentile(50));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getRunTimeP99() {
+        return toMs(runTime.getValueAtPercentile(99));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getRunTimeMax() {
+        return toMs(runTime.getMax());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDlockAcquireP50() {
+        return toMs(dlockAcquire.getValueAtPercentile(50));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDlockAcquireP99() {
+        return toMs(dlockAcquire.getValueAtPercentile(99));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDlockAcquireMax() {
+        return toMs(dlockAcquire.getMax());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void resetStatistics() {
+        tickLag.reset();
+        runTime.reset();
+        dlockAcquire.reset();
+        executed.set(0);
+        failed.set(0);
+        busy.set(0);
+        skipped.set(0);
+        misfireReplayed.set(0);
+        misfireDiscarded.set(0);
+        triggered.set(0);
+        triggerCoalesced.set(0);
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.btnguyen2k.akkascheduledjob.metrics;
+
+/**
+ * JMX view of {@link WorkerMetrics}. Durations are in milliseconds.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public interface WorkerMetricsMBean {
+    String getWorkerName();
+
+    long getExecutedCount();
+
+    long getFailedCount();
+
+    long getBusyCount();
+
+    long getSkippedCount();
+
+    long getMisfireReplayedCount();
+
+    long getMisfireDiscardedCount();
+
+    long getTriggeredCount();
+
+    long getTriggerCoalescedCount();
+
+    long getInFlightCount();
+
+    long getLastRunTimestamp();
+
+    double getTickLagP50();
+
+    double getTickLagP99();
+
+    double getTickLagMax();
+
+    double getRunTimeP50();
+
+    double getRunTimeP99();
+
+    double getRunTimeMax();
+
+    double getDlockAcquireP50();
+
+    double getDlockAcquireP99();
+
+    double getDlockAcquireMax();
+
+    void resetStatistics();
+}
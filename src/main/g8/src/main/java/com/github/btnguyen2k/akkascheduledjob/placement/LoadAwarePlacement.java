@@ -0,0 +1,300 @@
+package com.github.btnguyen2k.akkascheduledjob.placement;
+
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.ConsistentHashRing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load table of cluster members and placement of global-singleton jobs on lightly loaded
+ * members.
+ *
+ * <p>
+ * Each member's load is a weighted mix of CPU usage, heap usage and in-flight jobs, in
+ * {@code [0, 1]}. A job (identified by its worker name) is placed by weighted rendezvous hashing
+ * with weight {@code 1 - load}: the least-loaded member gets the largest share of jobs, but jobs
+ * due on the same tick do not all pile onto one member, and a job stays on the same member as
+ * long as loads do not change much.
+ * </p>
+ *
+ * <p>
+ * Only members that reported their in-flight jobs within {@code staleAfterMs} are eligible. Every
+ * member computes the same placement from the same (gossiped) table; while tables are
+ * converging two members may both consider themselves preferred, the job's dlock still lets only
+ * one of them run it. If no member is eligible, {@link #isPreferred(String, long)} returns
+ * {@code true} everywhere (first-come behavior).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class LoadAwarePlacement {
+    /**
+     * Load of a member.
+     */
+    public final static class NodeLoad {
+        private final String address;
+        private volatile double cpu = -1, heap = -1;
+        private volatile int inFlight;
+        private volatile long inFlightReportedAt = -1;
+
+        private NodeLoad(String address) {
+            this.address = address;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        /**
+         * CPU usage in {@code [0, 1]}, {@code -1} if unknown.
+         *
+         * @return
+         */
+        public double getCpu() {
+            return cpu;
+        }
+
+        /**
+         * Heap usage in {@code [0, 1]}, {@code -1} if unknown.
+         *
+         * @return
+         */
+        public double getHeap() {
+            return heap;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        public long getInFlightReportedAt() {
+            return inFlightReportedAt;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return address + "{cpu=" + String.format("%.2f", cpu) + ", heap="
+                    + String.format("%.2f", heap) + ", in-flight=" + inFlight + "}";
+        }
+    }
+
+    private final static double MIN_WEIGHT = 0.05;
+
+    private final String selfAddress;
+    private double cpuWeight = 1.0, heapWeight = 0.5, inFlightWeight = 1.0;
+    private int inFlightCapacity = 16;
+    private long staleAfterMs = 10000;
+
+    private final ConcurrentMap<String, NodeLoad> nodes = new ConcurrentHashMap<>();
+    private final AtomicInteger localInFlight = new AtomicInteger();
+
+    /**
+     * @param selfAddress address of this member
+     */
+    public LoadAwarePlacement(String selfAddress) {
+        this.selfAddress = selfAddress;
+    }
+
+    public String getSelfAddress() {
+        return selfAddress;
+    }
+
+    public double getCpuWeight() {
+        return cpuWeight;
+    }
+
+    public LoadAwarePlacement setCpuWeight(double cpuWeight) {
+        this.cpuWeight = Math.max(0, cpuWeight);
+        return this;
+    }
+
+    public double getHeapWeight() {
+        return heapWeight;
+    }
+
+    public LoadAwarePlacement setHeapWeight(double heapWeight) {
+        this.heapWeight = Math.max(0, heapWeight);
+        return this;
+    }
+
+    public double getInFlightWeight() {
+        return inFlightWeight;
+    }
+
+    public LoadAwarePlacement setInFlightWeight(double inFlightWeight) {
+        this.inFlightWeight = Math.max(0, inFlightWeight);
+        return this;
+    }
+
+    public int getInFlightCapacity() {
+        return inFlightCapacity;
+    }
+
+    /**
+     * Number of in-flight jobs at which a member's in-flight load is {@code 1}.
+     *
+     * @param inFlightCapacity
+     * @return
+     */
+    public LoadAwarePlacement setInFlightCapacity(int inFlightCapacity) {
+        this.inFlightCapacity = Math.max(1, inFlightCapacity);
+        return this;
+    }
+
+    public long getStaleAfterMs() {
+        return staleAfterMs;
+    }
+
+    public LoadAwarePlacement setStaleAfterMs(long staleAfterMs) {
+        this.staleAfterMs = staleAfterMs;
+        return this;
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Called when a job starts running on this member.
+     */
+    public void jobStarted() {
+        localInFlight.incrementAndGet();
+    }
+
+    /**
+     * Called when a job finishes running on this member.
+     */
+    public void jobFinished() {
+        localInFlight.decrementAndGet();
+    }
+
+    /**
+     * Number of jobs currently running on this member.
+     *
+     * @return
+     */
+    public int getLocalInFlight() {
+        return localInFlight.get();
+    }
+
+    private NodeLoad node(String address) {
+        return nodes.computeIfAbsent(address, NodeLoad::new);
+    }
+
+    /**
+     * Update CPU and heap usage of a member (from cluster metrics).
+     *
+     * @param address
+     * @param cpu     in {@code [0, 1]}, negative if unknown
+     * @param heap    in {@code [0, 1]}, negative if unknown
+     */
+    public void updateMetrics(String address, double cpu, double heap) {
+        NodeLoad node = node(address);
+        node.cpu = cpu < 0 ? -1 : Math.min(1, cpu);
+        node.heap = heap < 0 ? -1 : Math.min(1, heap);
+    }
+
+    /**
+     * Update in-flight jobs of a member.
+     *
+     * @param address
+     * @param inFlight
+     * @param nowMs
+     */
+    public void updateInFlight(String address, int inFlight, long nowMs) {
+        NodeLoad node = node(address);
+        node.inFlight = Math.max(0, inFlight);
+        node.inFlightReportedAt = nowMs;
+    }
+
+    /**
+     * Forget members that are no longer part of the cluster metrics and stopped reporting their
+     * in-flight jobs.
+     *
+     * @param addresses members with metrics
+     * @param nowMs
+     */
+    public void retainNodes(Set<String> addresses, long nowMs) {
+        nodes.values().removeIf(node -> !addresses.contains(node.address) && !isFresh(node, nowMs));
+    }
+
+    private boolean isFresh(NodeLoad node, long nowMs) {
+        return node.inFlightReportedAt >= 0 && nowMs - node.inFlightReportedAt <= staleAfterMs;
+    }
+
+    /**
+     * Snapshot of the load table.
+     *
+     * @return
+     */
+    public List<NodeLoad> getNodeLoads() {
+        return Collections.unmodifiableList(new ArrayList<>(nodes.values()));
+    }
+
+    /**
+     * Load of a member, in {@code [0, 1]}.
+     *
+     * @param node
+     * @return
+     */
+    public double load(NodeLoad node) {
+        double sum = 0, weights = 0;
+        if (node.cpu >= 0) {
+            sum += cpuWeight * node.cpu;
+            weights += cpuWeight;
+        }
+        if (node.heap >= 0) {
+            sum += heapWeight * node.heap;
+            weights += heapWeight;
+        }
+        sum += inFlightWeight * Math.min(1.0, node.inFlight / (double) inFlightCapacity);
+        weights += inFlightWeight;
+        return weights > 0 ? sum / weights : 0;
+    }
+
+    /**
+     * Member a job should run on.
+     *
+     * @param key   job key, e.g. worker name
+     * @param nowMs
+     * @return {@code null} if no member is eligible
+     */
+    public String choose(String key, long nowMs) {
+        String best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (NodeLoad node : nodes.values()) {
+            if (!isFresh(node, nowMs)) {
+                continue;
+            }
+            double weight = Math.max(MIN_WEIGHT, 1.0 - load(node));
+            // hash mapped to (0, 1)
+            double h = ((ConsistentHashRing.hash(node.address + "#" + key) >>> 11) + 0.5)
+                    / (1L << 53);
+            double score = -weight / Math.log(h);
+            if (score > bestScore || score == bestScore && node.address.compareTo(best) < 0) {
+                best = node.address;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Check if a job should run on this member.
+     *
+     * @param key   job key, e.g. worker name
+     * @param nowMs
+     * @return {@code true} if this member is the chosen one, or if no member is eligible
+     */
+    public boolean isPreferred(String key, long nowMs) {
+        String chosen = choose(key, nowMs);
+        return chosen == null || chosen.equals(selfAddress);
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.btnguyen2k.akkascheduledjob.pool;
+
+import com.github.btnguyen2k.akkascheduledjob.metrics.Histogram;
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connection pool metrics of a data source, fed by HikariCP (install with
+ * {@code HikariDataSource.setMetricsTrackerFactory(...)} before the pool starts).
+ *
+ * <p>
+ * Records how long callers wait to acquire a connection, how long connections are used and
+ * created, acquire timeouts, and the peak number of connections in use, which drive the
+ * decisions of {@link PoolWarmer}.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class PoolMetrics implements MetricsTrackerFactory {
+    private final String name;
+    private long slowAcquireMs = 5;
+    private volatile PoolStats poolStats;
+
+    private final Histogram acquireTime = new Histogram();
+    private final Histogram usageTime = new Histogram();
+    private final Histogram creationTime = new Histogram();
+    private final AtomicLong numTimeouts = new AtomicLong(), numSlowAcquires = new AtomicLong();
+    private final AtomicInteger inUse = new AtomicInteger(), peakInUse = new AtomicInteger();
+
+    public PoolMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSlowAcquireMs() {
+        return slowAcquireMs;
+    }
+
+    /**
+     * Acquiring a connection taking at least this long counts as a slow acquire (the caller had
+     * to wait for a connection to be created or released).
+     *
+     * @param slowAcquireMs
+     * @return
+     */
+    public PoolMetrics setSlowAcquireMs(long slowAcquireMs) {
+        this.slowAcquireMs = Math.max(0, slowAcquireMs);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolStats = poolStats;
+        long slowAcquireNs = TimeUnit.MILLISECONDS.toNanos(slowAcquireMs);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                creationTime.record(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireTime.record(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos));
+                if (elapsedAcquiredNanos >= slowAcquireNs) {
+                    numSlowAcquires.incrementAndGet();
+                }
+                int n = inUse.incrementAndGet();
+                int peak = peakInUse.get();
+                while (n > peak && !peakInUse.compareAndSet(peak, n)) {
+                    peak = peakInUse.get();
+                }
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageTime.record(elapsedBorrowedMillis);
+                inUse.decrementAndGet();
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                numTimeouts.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Time to acquire a connection, in microseconds.
+     *
+     * @return
+     */
+    public Histogram getAcquireTimeHistogram() {
+        return acquireTime;
+    }
+
+    /**
+     * Time connections are borrowed, in milliseconds.
+     *
+     * @return
+     */
+    public Histogram getUsageTimeHistogram() {
+        return usageTime;
+    }
+
+    /**
+     * Time to create a connection, in milliseconds.
+     *
+     * @return
+     */
+    public Histogram getCreationTimeHistogram() {
+        return creationTime;
+    }
+
+    public long getTimeoutCount() {
+        return numTimeouts.get();
+    }
+
+    public long getSlowAcquireCount() {
+        return numSlowAcquires.get();
+    }
+
+    public int getInUse() {
+        return inUse.get();
+    }
+
+    /**
+     * Peak number of connections in use since the last call to {@link #resetPeakInUse()}.
+     *
+     * @return
+     */
+    public int getPeakInUse() {
+        return peakInUse.get();
+    }
+
+    /**
+     * Reset the peak number of connections in use to the current number.
+     *
+     * @return the peak before reset
+     */
+    public int resetPeakInUse() {
+        return peakInUse.getAndSet(inUse.get());
+    }
+
+    /**
+     * Number of threads waiting for a connection, {@code -1} if the pool has not started.
+     *
+     * @return
+     */
+    public int getPendingThreads() {
+        PoolStats stats = poolStats;
+        return stats != null ? stats.getPendingThreads() : -1;
+    }
+
+    /**
+     * Render these metrics as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        PoolStats stats = poolStats;
+        String pool = stats == null ? "null"
+                : "{\"total\":" + stats.getTotalConnections() + ",\"active\":"
+                + stats.getActiveConnections() + ",\"idle\":" + stats.getIdleConnections()
+                + ",\"pending\":" + stats.getPendingThreads() + ",\"min\":"
+                + stats.getMinConnections() + ",\"max\":" + stats.getMaxConnections() + "}";
+        return "{\"name\":" + JsonUtils.quote(name) + ",\"pool\":" + pool + ",\"inUse\":"
+                + getInUse() + ",\"peakInUse\":" + getPeakInUse() + ",\"timeouts\":"
+                + getTimeoutCount() + ",\"slowAcquires\":" + getSlowAcquireCount()
+                + ",\"acquireWaitMs\":{\"count\":" + acquireTime.getCount()
+                + ",\"mean\":" + JsonUtils.formatMs(acquireTime.getMean()) + ",\"p99\":"
+                + JsonUtils.formatMs(acquireTime.getValueAtPercentile(99)) + ",\"max\":"
+                + JsonUtils.formatMs(acquireTime.getMax()) + "},\"usageMs\":{\"mean\":"
+                + JsonUtils.format(usageTime.getMean()) + ",\"p99\":"
+                + usageTime.getValueAtPercentile(99) + "},\"creationMs\":{\"mean\":"
+                + JsonUtils.format(creationTime.getMean()) + ",\"p99\":"
+                + creationTime.getValueAtPercentile(99) + "}}";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
@@ -0,0 +1,386 @@
+package com.github.btnguyen2k.akkascheduledjob.pool;
+
+import com.github.btnguyen2k.akkascheduledjob.bootstrap.LazyDataSource;
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronSchedule;
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Schedule-aware sizing of HikariCP connection pools.
+ *
+ * <p>
+ * Workers declare the data source their jobs use (worker option {@code datasource}); from their
+ * cron schedules the warmer knows when the next burst of jobs hits each data source:
+ * </p>
+ *
+ * <ul>
+ * <li>{@code warmAheadMs} before the burst, the pool's {@code minimumIdle} is raised to the
+ * data source's warm size and the connections are opened right away, so jobs do not pay for
+ * connection setup.</li>
+ * <li>{@code holdMs} after the last fire time of the burst (and if no burst is coming within
+ * {@code warmAheadMs}), {@code minimumIdle} is set back to its configured value and idle
+ * connections are evicted, so the pool does not sit oversized until the next burst.</li>
+ * <li>The warm size adapts to what the last burst needed: it grows if callers had to wait for a
+ * connection (slow acquires, timeouts), shrinks towards the peak number of connections in use
+ * otherwise; it stays within {@code [minimumIdle, maximumPoolSize]}.</li>
+ * </ul>
+ *
+ * <p>
+ * Decisions are logged and kept (the last {@link #MAX_DECISIONS}) for {@link #toJson()}.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class PoolWarmer {
+    private final Logger LOGGER = LoggerFactory.getLogger(PoolWarmer.class);
+
+    /**
+     * Max number of decisions kept per data source.
+     */
+    public final static int MAX_DECISIONS = 20;
+
+    private final static class Target {
+        private final String name;
+        private final List<CronSchedule> schedules = new CopyOnWriteArrayList<>();
+        private final LinkedList<String> decisions = new LinkedList<>();
+        private boolean warm = false;
+        private int baseMinIdle = -1, warmSize = -1;
+        private long burstAtMs = -1, burstUntilMs = -1;
+        // written by the connecting thread once the pool is warm
+        private volatile long slowAcquiresAtWarm, timeoutsAtWarm;
+
+        private Target(String name) {
+            this.name = name;
+        }
+    }
+
+    private final Function<String, DataSource> dataSourceResolver;
+    private final Function<String, PoolMetrics> metricsResolver;
+    private long warmAheadMs = 30000, holdMs = 60000, checkIntervalMs = 1000;
+    private Map<String, Integer> warmSizes = Collections.emptyMap();
+
+    private final ConcurrentMap<String, Target> targets = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService warmExecutor;
+
+    /**
+     * @param dataSourceResolver resolves a data source by name
+     * @param metricsResolver    resolves pool metrics of a data source by name
+     */
+    public PoolWarmer(Function<String, DataSource> dataSourceResolver,
+            Function<String, PoolMetrics> metricsResolver) {
+        this.dataSourceResolver = dataSourceResolver;
+        this.metricsResolver = metricsResolver;
+    }
+
+    public long getWarmAheadMs() {
+        return warmAheadMs;
+    }
+
+    /**
+     * How long before a burst the pool is warmed.
+     *
+     * @param warmAheadMs
+     * @return
+     */
+    public PoolWarmer setWarmAheadMs(long warmAheadMs) {
+        this.warmAheadMs = Math.max(0, warmAheadMs);
+        return this;
+    }
+
+    public long getHoldMs() {
+        return holdMs;
+    }
+
+    /**
+     * How long after the last fire time of a burst the pool stays warm.
+     *
+     * @param holdMs
+     * @return
+     */
+    public PoolWarmer setHoldMs(long holdMs) {
+        this.holdMs = Math.max(0, holdMs);
+        return this;
+    }
+
+    public long getCheckIntervalMs() {
+        return checkIntervalMs;
+    }
+
+    public PoolWarmer setCheckIntervalMs(long checkIntervalMs) {
+        this.checkIntervalMs = Math.max(100, checkIntervalMs);
+        return this;
+    }
+
+    /**
+     * Initial warm size per data source name, default is the pool's {@code maximumPoolSize}.
+     *
+     * @param warmSizes
+     * @return
+     */
+    public PoolWarmer setWarmSizes(Map<String, Integer> warmSizes) {
+        this.warmSizes = warmSizes != null ? warmSizes : Collections.emptyMap();
+        return this;
+    }
+
+    /**
+     * Declare that jobs scheduled by {@code schedule} use data source {@code dataSourceName}.
+     *
+     * @param dataSourceName
+     * @param schedule
+     * @return
+     */
+    public PoolWarmer addSchedule(String dataSourceName, CronSchedule schedule) {
+        targets.computeIfAbsent(dataSourceName, Target::new).schedules.add(schedule);
+        return this;
+    }
+
+    public PoolWarmer init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-warmer");
+            t.setDaemon(true);
+            return t;
+        });
+        warmExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "pool-warmer-connect");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                check(System.currentTimeMillis());
+            } catch (Exception e) {
+                LOGGER.warn("Error checking connection pools: " + e.getMessage(), e);
+            }
+        }, checkIntervalMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (warmExecutor != null) {
+            warmExecutor.shutdownNow();
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Resolve the HikariCP pool of a data source.
+     *
+     * @param name
+     * @param initialize build a lazy data source's pool if not built yet
+     * @return {@code null} if the data source is unknown, not a HikariCP pool, or lazy and not
+     * built (and {@code initialize} is {@code false})
+     */
+    private HikariDataSource resolvePool(String name, boolean initialize) {
+        DataSource ds = dataSourceResolver.apply(name);
+        if (ds instanceof LazyDataSource) {
+            LazyDataSource lazy = (LazyDataSource) ds;
+            ds = initialize || lazy.isInitialized() ? lazy.getTarget() : null;
+        }
+        return ds instanceof HikariDataSource ? (HikariDataSource) ds : null;
+    }
+
+    private static long nextFireTime(Target target, long nowMs) {
+        long next = CronSchedule.NEVER;
+        for (CronSchedule schedule : target.schedules) {
+            next = Math.min(next, schedule.nextFireTime(nowMs));
+        }
+        return next;
+    }
+
+    private void decide(Target target, String decision) {
+        LOGGER.info("Pool [" + target.name + "]: " + decision);
+        synchronized (target.decisions) {
+            target.decisions.addFirst(Instant.now() + " " + decision);
+            while (target.decisions.size() > MAX_DECISIONS) {
+                target.decisions.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Check all data sources, warming or shrinking their pools as needed.
+     *
+     * @param nowMs
+     */
+    public void check(long nowMs) {
+        targets.values().forEach(target -> check(target, nowMs));
+    }
+
+    private void check(Target target, long nowMs) {
+        if (target.warm && target.burstAtMs >= 0 && nowMs >= target.burstAtMs) {
+            // the predicted burst has started: stay warm until holdMs after it
+            target.burstUntilMs = Math.max(target.burstUntilMs, target.burstAtMs + holdMs);
+            target.burstAtMs = -1;
+        }
+        long next = nextFireTime(target, nowMs);
+        boolean burstComing = next != CronSchedule.NEVER && next - nowMs <= warmAheadMs;
+        if (burstComing) {
+            if (!target.warm) {
+                warm(target, next);
+            }
+            if (target.warm && target.burstAtMs < 0) {
+                target.burstAtMs = next;
+            }
+        } else if (target.warm && target.burstAtMs < 0 && nowMs >= target.burstUntilMs) {
+            shrink(target);
+        }
+    }
+
+    private void warm(Target target, long burstAtMs) {
+        HikariDataSource ds = resolvePool(target.name, true);
+        if (ds == null) {
+            return;
+        }
+        HikariConfigMXBean config = ds.getHikariConfigMXBean();
+        int maxPoolSize = config.getMaximumPoolSize();
+        if (target.baseMinIdle < 0) {
+            target.baseMinIdle = config.getMinimumIdle();
+            Integer warmSize = warmSizes.get(target.name);
+            target.warmSize = warmSize != null ? warmSize.intValue() : maxPoolSize;
+        }
+        int warmSize = Math.max(target.baseMinIdle, Math.min(maxPoolSize, target.warmSize));
+        target.warmSize = warmSize;
+        target.warm = true;
+        target.burstUntilMs = -1;
+        config.setMinimumIdle(warmSize);
+        decide(target, "warming to " + warmSize + " connection(s) ahead of burst at "
+                + Instant.ofEpochMilli(burstAtMs));
+        warmExecutor.execute(() -> openConnections(target, ds, warmSize));
+    }
+
+    /**
+     * Open connections now instead of waiting for the pool's housekeeping to reach the new
+     * minimum idle: borrow them all at once, then return them to the pool.
+     */
+    private void openConnections(Target target, HikariDataSource ds, int count) {
+        String name = target.name;
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        int toBorrow = count - (pool != null ? pool.getActiveConnections() : 0);
+        List<Connection> borrowed = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < toBorrow; i++) {
+                Connection conn = ds.getConnection();
+                if (conn != null) {
+                    borrowed.add(conn);
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Pool [" + name + "]: error opening connections: " + e.getMessage());
+        } finally {
+            for (Connection conn : borrowed) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    LOGGER.warn(e.getMessage(), e);
+                }
+            }
+        }
+        LOGGER.info("Pool [" + name + "]: " + borrowed.size() + " connection(s) ready in "
+                + (System.currentTimeMillis() - start) + "ms.");
+        // start measuring the burst now, so that warming itself does not count
+        PoolMetrics metrics = metricsResolver.apply(name);
+        if (metrics != null) {
+            metrics.resetPeakInUse();
+            target.slowAcquiresAtWarm = metrics.getSlowAcquireCount();
+            target.timeoutsAtWarm = metrics.getTimeoutCount();
+        }
+    }
+
+    private void shrink(Target target) {
+        target.warm = false;
+        HikariDataSource ds = resolvePool(target.name, false);
+        if (ds == null) {
+            return;
+        }
+        HikariConfigMXBean config = ds.getHikariConfigMXBean();
+        int maxPoolSize = config.getMaximumPoolSize();
+        PoolMetrics metrics = metricsResolver.apply(target.name);
+        String adaptation = "";
+        if (metrics != null) {
+            int peak = metrics.resetPeakInUse();
+            long slowAcquires = metrics.getSlowAcquireCount() - target.slowAcquiresAtWarm;
+            long timeouts = metrics.getTimeoutCount() - target.timeoutsAtWarm;
+            int oldWarmSize = target.warmSize;
+            if (slowAcquires > 0 || timeouts > 0) {
+                target.warmSize = Math.min(maxPoolSize,
+                        Math.max(oldWarmSize, peak) + Math.max(1, oldWarmSize / 4));
+            } else {
+                target.warmSize = Math.max(target.baseMinIdle, Math.min(oldWarmSize, peak + 1));
+            }
+            adaptation = "; last burst: peak in use " + peak + ", slow acquires " + slowAcquires
+                    + ", timeouts " + timeouts + ", warm size " + oldWarmSize + " -> "
+                    + target.warmSize;
+            if ((slowAcquires > 0 || timeouts > 0) && oldWarmSize >= maxPoolSize) {
+                adaptation += " (pool is at max-pool-size, consider raising it)";
+            }
+        }
+        config.setMinimumIdle(target.baseMinIdle);
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        if (pool != null && pool.getIdleConnections() > target.baseMinIdle) {
+            // idle connections are closed, the pool refills up to minimumIdle
+            pool.softEvictConnections();
+        }
+        decide(target, "shrinking to min-idle " + target.baseMinIdle + adaptation);
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Render state and recent decisions of each data source as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        long now = System.currentTimeMillis();
+        StringBuilder sb = new StringBuilder("[");
+        boolean first = true;
+        for (Target target : targets.values()) {
+            long next = nextFireTime(target, now);
+            sb.append(first ? "" : ",").append("{\"name\":").append(JsonUtils.quote(target.name))
+                    .append(",\"warm\":").append(target.warm).append(",\"warmSize\":")
+                    .append(target.warmSize).append(",\"baseMinIdle\":")
+                    .append(target.baseMinIdle).append(",\"schedules\":")
+                    .append(target.schedules.size()).append(",\"nextBurst\":")
+                    .append(next != CronSchedule.NEVER ? next : -1).append(",\"decisions\":[");
+            synchronized (target.decisions) {
+                boolean firstDecision = true;
+                for (String decision : target.decisions) {
+                    sb.append(firstDecision ? "" : ",").append(JsonUtils.quote(decision));
+                    firstDecision = false;
+                }
+            }
+            sb.append("]}");
+            first = false;
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -3,13 +3,14 @@ package com.github.btnguyen2k.akkascheduledjob.samples;
 import java.util.Date;
 import java.util.Random;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.ddth.akka.scheduling.BaseWorker;
+import com.github.btnguyen2k.akkascheduledjob.metrics.WorkerMetrics;
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerOptions;
 import com.github.ddth.akka.scheduling.TickMessage;
 import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
 import com.github.ddth.akka.scheduling.annotation.Scheduling;
@@ -24,7 +25,8 @@ import com.github.ddth.akka.scheduling.annotation.Scheduling;
  */
 
 @Scheduling(value = "*/5 * *", workerCoordinationPolicy = WorkerCoordinationPolicy.GLOBAL_SINGLETON)
-public class GlobalSingletonWorker extends BaseWorker {
+@WorkerOptions(executor = "blocking")
+public class GlobalSingletonWorker extends BaseScheduledWorker {
     private final Logger LOGGER = LoggerFactory.getLogger(GlobalSingletonWorker.class);
     private final Random RAND = new Random(System.currentTimeMillis());
 
@@ -36,25 +38,30 @@ public class GlobalSingletonWorker extends BaseWorker {
         return UUID.randomUUID().toString();
     }
 
-    private AtomicLong COUNTER_EXEC = new AtomicLong(0), COUNTER_BUSY = new AtomicLong(0);
-
     /**
      * {@inheritDoc}
+     *
+     * <p>
+     * Busy ticks are already counted in worker's metrics, no need to log them.
+     * </p>
      */
     @Override
-    protected void logBusy(TickMessage tick, boolean isGlobal) {
-        COUNTER_BUSY.incrementAndGet();
+    protected void onBusy(TickMessage tick, boolean isGlobal) {
     }
 
     @Override
-    protected void doJob(String dlockId, TickMessage tick) throws InterruptedException {
+    protected void execute(String dlockId, TickMessage tick) throws InterruptedException {
         Date now = new Date();
         try {
-            long numExec = COUNTER_EXEC.incrementAndGet();
-            long numBusy = COUNTER_BUSY.get();
-            long numTotal = numBusy + numExec;
-            LOGGER.info("{" + getActorPath().name() + "} " + numExec + " / " + numBusy + " / "
-                    + Math.round(numExec * 100.0 / numTotal));
+            WorkerMetrics metrics = getMetrics();
+            if (metrics != null) {
+                // executed (including this run) / busy-or-skipped / % executed
+                long numExec = metrics.getExecutedCount() + 1;
+                long numBusy = metrics.getBusyCount() + metrics.getSkippedCount();
+                long numTotal = numBusy + numExec;
+                LOGGER.info("{" + getActorPath().name() + "} " + numExec + " / " + numBusy + " / "
+                        + Math.round(numExec * 100.0 / numTotal));
+            }
 
             int sleepMs = 1400 + RAND.nextInt(1000);
             Thread.sleep(sleepMs);
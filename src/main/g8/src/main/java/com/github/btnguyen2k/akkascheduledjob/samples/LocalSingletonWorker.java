@@ -6,7 +6,8 @@ import java.util.Random;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.ddth.akka.scheduling.BaseWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerOptions;
 import com.github.ddth.akka.scheduling.TickMessage;
 import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
 import com.github.ddth.akka.scheduling.annotation.Scheduling;
@@ -22,12 +23,13 @@ import com.github.ddth.commons.utils.DateFormatUtils;
  */
 
 @Scheduling(value = "*/3 * *", workerCoordinationPolicy = WorkerCoordinationPolicy.LOCAL_SINGLETON)
-public class LocalSingletonWorker extends BaseWorker {
+@WorkerOptions(executor = "blocking")
+public class LocalSingletonWorker extends BaseScheduledWorker {
     private final Logger LOGGER = LoggerFactory.getLogger(LocalSingletonWorker.class);
     private Random RAND = new Random(System.currentTimeMillis());
 
     @Override
-    protected void doJob(String dlockId, TickMessage tick) throws InterruptedException {
+    protected void execute(String dlockId, TickMessage tick) throws InterruptedException {
         /*
          * local-singleton worker does not lock globally, hence "dlockId" is
          * ignored!
@@ -5,7 +5,7 @@ import java.util.Date;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.github.ddth.akka.scheduling.BaseWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
 import com.github.ddth.akka.scheduling.TickMessage;
 import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
 import com.github.ddth.akka.scheduling.annotation.Scheduling;
@@ -19,11 +19,11 @@ import com.github.ddth.commons.utils.DateFormatUtils;
  */
 
 @Scheduling(value = "*/5 * *", workerCoordinationPolicy = WorkerCoordinationPolicy.TAKE_ALL_TASKS)
-public class TakeAllTasksWorker extends BaseWorker {
+public class TakeAllTasksWorker extends BaseScheduledWorker {
     private final Logger LOGGER = LoggerFactory.getLogger(TakeAllTasksWorker.class);
 
     @Override
-    protected void doJob(String lockId, TickMessage tick) {
+    protected void execute(String lockId, TickMessage tick) {
         /*
          * take-all-tasks worker does not lock, hence "lockId" is ignored!
          */
@@ -0,0 +1,118 @@
+package com.github.btnguyen2k.akkascheduledjob.scheduler;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.Terminated;
+import com.github.ddth.akka.scheduling.TickMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Receives ticks from the actor system's event stream and forwards each tick only to the workers
+ * whose schedule is due, using a {@link CronScheduler}.
+ *
+ * <p>
+ * Workers registered with this actor must not subscribe to ticks themselves, and must not
+ * re-check their schedule (see {@code BaseScheduledWorker#setCronScheduled(boolean)}).
+ * Terminated workers are unregistered automatically.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class CronDispatcherActor extends AbstractActor {
+    /**
+     * Register a worker with its schedule.
+     */
+    public final static class Register {
+        private final ActorRef worker;
+        private final CronSchedule schedule;
+        private final boolean fireOnFirstTick;
+
+        /**
+         * @param worker
+         * @param schedule
+         * @param fireOnFirstTick fire on the first tick regardless of the schedule
+         */
+        public Register(ActorRef worker, CronSchedule schedule, boolean fireOnFirstTick) {
+            this.worker = worker;
+            this.schedule = schedule;
+            this.fireOnFirstTick = fireOnFirstTick;
+        }
+    }
+
+    /**
+     * Create a new {@link CronDispatcherActor} instance.
+     *
+     * @param actorSystem
+     * @return
+     */
+    public static ActorRef newInstance(ActorSystem actorSystem) {
+        return actorSystem.actorOf(Props.create(CronDispatcherActor.class),
+                CronDispatcherActor.class.getSimpleName());
+    }
+
+    private final Logger LOGGER = LoggerFactory.getLogger(CronDispatcherActor.class);
+
+    private final CronScheduler<ActorRef> scheduler = new CronScheduler<>();
+    private final Map<ActorRef, CronScheduler.Entry<ActorRef>> entries = new HashMap<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+        getContext().getSystem().eventStream().subscribe(getSelf(), TickMessage.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postStop() throws Exception {
+        getContext().getSystem().eventStream().unsubscribe(getSelf());
+        super.postStop();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder().match(TickMessage.class, this::onTick)
+                .match(Register.class, this::onRegister)
+                .match(Terminated.class, msg -> onTerminated(msg.getActor())).build();
+    }
+
+    private void onRegister(Register msg) {
+        CronScheduler.Entry<ActorRef> old = entries.remove(msg.worker);
+        if (old != null) {
+            scheduler.remove(old);
+        }
+        entries.put(msg.worker, scheduler
+                .add(msg.worker, msg.schedule, System.currentTimeMillis(), msg.fireOnFirstTick));
+        getContext().watch(msg.worker);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Registered worker " + msg.worker + " with schedule [" + msg.schedule
+                    + "], " + scheduler.size() + " worker(s) scheduled.");
+        }
+    }
+
+    private void onTerminated(ActorRef worker) {
+        CronScheduler.Entry<ActorRef> entry = entries.remove(worker);
+        if (entry != null) {
+            scheduler.remove(entry);
+        }
+    }
+
+    private void onTick(TickMessage tick) {
+        scheduler.fire(tick.getTimestamp().getTime(),
+                worker -> worker.tell(tick, ActorRef.noSender()));
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.btnguyen2k.akkascheduledjob.scheduler;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+
+/**
+ * Compiled {@code @Scheduling} cron expression that can compute its next fire time.
+ *
+ * <p>
+ * Format: {@code <second> <minute> <hour> [<day-of-month> [<month> [<day-of-week>]]]}, missing
+ * fields mean {@code *}. Each field is a comma-separated list of {@code *}, {@code n},
+ * {@code a-b}, optionally followed by {@code /step} (e.g. {@code *}{@code /5}, {@code 0-30/10}).
+ * Day-of-week is {@code 1} (Monday) to {@code 7} (Sunday), {@code 0} is also accepted for Sunday.
+ * All fields must match (day-of-month and day-of-week are AND-ed).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class CronSchedule {
+    /**
+     * Returned by {@link #nextFireTime(long)} when the schedule never fires again (within
+     * {@link #MAX_SEARCH_YEARS} years).
+     */
+    public final static long NEVER = Long.MAX_VALUE;
+
+    private final static int MAX_SEARCH_YEARS = 5;
+
+    /**
+     * Compile a cron expression.
+     *
+     * @param expression
+     * @param zoneId     time zone the expression is evaluated in
+     * @return
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public static CronSchedule parse(String expression, ZoneId zoneId) {
+        if (StringUtils.isBlank(expression)) {
+            throw new IllegalArgumentException("Empty cron expression!");
+        }
+        String[] tokens = expression.trim().split("\\s+");
+        if (tokens.length < 3 || tokens.length > 6) {
+            throw new IllegalArgumentException("Invalid cron expression: " + expression);
+        }
+        long seconds = parseField(tokens[0], 0, 59, expression);
+        long minutes = parseField(tokens[1], 0, 59, expression);
+        long hours = parseField(tokens[2], 0, 23, expression);
+        long days = parseField(tokens.length > 3 ? tokens[3] : "*", 1, 31, expression);
+        long months = parseField(tokens.length > 4 ? tokens[4] : "*", 1, 12, expression);
+        long dows = parseField(tokens.length > 5 ? tokens[5] : "*", 0, 7, expression);
+        if ((dows & 1L) != 0) {
+            // 0 = Sunday = 7
+            dows |= 1L << 7;
+        }
+        return new CronSchedule(expression, zoneId, seconds, minutes, hours, days, months, dows);
+    }
+
+    private static long parseField(String field, int min, int max, String expression) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            String range = part;
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                range = part.substring(0, slash);
+                step = parseInt(part.substring(slash + 1), expression);
+                if (step < 1) {
+                    throw new IllegalArgumentException("Invalid step in: " + expression);
+                }
+            }
+            int from, to;
+            if ("*".equals(range)) {
+                from = min;
+                to = max;
+            } else if (range.indexOf('-') > 0) {
+                String[] ends = range.split("-", 2);
+                from = parseInt(ends[0], expression);
+                to = parseInt(ends[1], expression);
+            } else {
+                from = parseInt(range, expression);
+                to = slash >= 0 ? max : from;
+            }
+            if (from < min || to > max || from > to) {
+                throw new IllegalArgumentException(
+                        "Value out of range [" + min + "-" + max + "] in: " + expression);
+            }
+            for (int v = from; v <= to; v += step) {
+                bits |= 1L << v;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseInt(String str, String expression) {
+        try {
+            return Integer.parseInt(str.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number [" + str + "] in: " + expression);
+        }
+    }
+
+    private final String expression;
+    private final ZoneId zoneId;
+    private final long seconds, minutes, hours, days, months, dows;
+
+    private CronSchedule(String expression, ZoneId zoneId, long seconds, long minutes, long hours,
+            long days, long months, long dows) {
+        this.expression = expression;
+        this.zoneId = zoneId;
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.days = days;
+        this.months = months;
+        this.dows = dows;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    private static boolean has(long bits, int v) {
+        return (bits & (1L << v)) != 0;
+    }
+
+    private boolean matchesDate(LocalDateTime t) {
+        return has(months, t.getMonthValue()) && has(days, t.getDayOfMonth())
+                && has(dows, t.getDayOfWeek().getValue());
+    }
+
+    /**
+     * Check if the schedule fires at the second of {@code timestampMs}.
+     *
+     * @param timestampMs
+     * @return
+     */
+    public boolean matches(long timestampMs) {
+        LocalDateTime t = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMs), zoneId);
+        return has(seconds, t.getSecond()) && has(minutes, t.getMinute())
+                && has(hours, t.getHour()) && matchesDate(t);
+    }
+
+    /**
+     * First fire time strictly after the second of {@code afterMs}.
+     *
+     * <p>
+     * Local times skipped by a DST transition never fire; local times repeated by a DST
+     * transition fire once (the first occurrence).
+     * </p>
+     *
+     * @param afterMs
+     * @return epoch milliseconds (a whole second), or {@link #NEVER}
+     */
+    public long nextFireTime(long afterMs) {
+        LocalDateTime t = LocalDateTime
+                .ofInstant(Instant.ofEpochMilli(afterMs - Math.floorMod(afterMs, 1000L)), zoneId)
+                .plusSeconds(1);
+        int maxYear = t.getYear() + MAX_SEARCH_YEARS;
+        while (t.getYear() <= maxYear) {
+            if (!matchesDate(t)) {
+                t = t.toLocalDate().plusDays(1).atStartOfDay();
+            } else if (!has(hours, t.getHour())) {
+                t = t.withMinute(0).withSecond(0).plusHours(1);
+            } else if (!has(minutes, t.getMinute())) {
+                t = t.withSecond(0).plusMinutes(1);
+            } else if (!has(seconds, t.getSecond())) {
+                t = t.plusSeconds(1);
+            } else {
+                ZoneOffsetTransition transition = zoneId.getRules().getTransition(t);
+                if (transition != null && transition.isGap()) {
+                    // local time skipped by a DST transition
+                    t = transition.getDateTimeAfter();
+                } else {
+                    // a local time repeated by a DST transition resolves to its first occurrence
+                    long fireMs = t.atZone(zoneId).toInstant().toEpochMilli();
+                    if (fireMs > afterMs) {
+                        return fireMs;
+                    }
+                    // afterMs is in the second occurrence: the repeated local times already fired
+                    t = transition != null ? transition.getDateTimeBefore() : t.plusSeconds(1);
+                }
+            }
+        }
+        return NEVER;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
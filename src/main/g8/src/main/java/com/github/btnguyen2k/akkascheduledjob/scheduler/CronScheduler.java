@@ -0,0 +1,179 @@
+package com.github.btnguyen2k.akkascheduledjob.scheduler;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Min-heap of scheduled targets keyed by their precomputed next fire time.
+ *
+ * <p>
+ * {@link #fire(long, Consumer)} only pops targets that are due, so the cost of a tick is
+ * {@code O(due * log(n))} instead of evaluating every cron expression on every tick. A target
+ * fires at most once per second, and only if its schedule matches the tick's second: after a gap
+ * in ticks, missed fire times are skipped, not fired late.
+ * </p>
+ *
+ * <p>
+ * Not thread-safe: owned by one actor.
+ * </p>
+ *
+ * @param <T> type of scheduled targets
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class CronScheduler<T> {
+    /**
+     * A scheduled target.
+     */
+    public final static class Entry<T> {
+        private final T target;
+        private final CronSchedule schedule;
+        private long nextFireTime;
+        private boolean fireOnFirstTick;
+        private int index = -1;
+
+        private Entry(T target, CronSchedule schedule, long nextFireTime,
+                boolean fireOnFirstTick) {
+            this.target = target;
+            this.schedule = schedule;
+            this.nextFireTime = nextFireTime;
+            this.fireOnFirstTick = fireOnFirstTick;
+        }
+
+        public T getTarget() {
+            return target;
+        }
+
+        public CronSchedule getSchedule() {
+            return schedule;
+        }
+
+        public long getNextFireTime() {
+            return nextFireTime;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<T>[] heap = new Entry[64];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Next fire time of the earliest target.
+     *
+     * @return {@link CronSchedule#NEVER} if there is no target
+     */
+    public long peekNextFireTime() {
+        return size > 0 ? heap[0].nextFireTime : CronSchedule.NEVER;
+    }
+
+    /**
+     * Schedule a target.
+     *
+     * @param target
+     * @param schedule
+     * @param nowMs           the target first fires at the first matching second after
+     *                        {@code nowMs - 1s}, i.e. possibly in the current second
+     * @param fireOnFirstTick fire on the first tick regardless of the schedule
+     * @return handle to {@link #remove(Entry)} the target
+     */
+    public Entry<T> add(T target, CronSchedule schedule, long nowMs, boolean fireOnFirstTick) {
+        long next = fireOnFirstTick ? Long.MIN_VALUE : schedule.nextFireTime(nowMs - 1000);
+        Entry<T> entry = new Entry<>(target, schedule, next, fireOnFirstTick);
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        entry.index = size;
+        heap[size++] = entry;
+        siftUp(entry.index);
+        return entry;
+    }
+
+    /**
+     * Unschedule a target.
+     *
+     * @param entry
+     * @return {@code false} if the target was not scheduled
+     */
+    public boolean remove(Entry<T> entry) {
+        int i = entry.index;
+        if (i < 0 || i >= size || heap[i] != entry) {
+            return false;
+        }
+        Entry<T> last = heap[--size];
+        heap[size] = null;
+        entry.index = -1;
+        if (i < size) {
+            heap[i] = last;
+            last.index = i;
+            siftDown(i);
+            siftUp(last.index);
+        }
+        return true;
+    }
+
+    /**
+     * Fire targets due at the second of {@code tickMs}.
+     *
+     * @param tickMs   tick timestamp
+     * @param consumer receives the targets to fire
+     * @return number of fired targets
+     */
+    public int fire(long tickMs, Consumer<T> consumer) {
+        long tickSecond = tickMs - Math.floorMod(tickMs, 1000L);
+        int fired = 0;
+        while (size > 0 && heap[0].nextFireTime <= tickMs) {
+            Entry<T> entry = heap[0];
+            boolean due = entry.fireOnFirstTick || entry.nextFireTime == tickSecond
+                    || entry.schedule.matches(tickMs);
+            entry.fireOnFirstTick = false;
+            // next fire time strictly after this tick's second
+            entry.nextFireTime = entry.schedule.nextFireTime(tickMs);
+            siftDown(0);
+            if (due) {
+                consumer.accept(entry.target);
+                fired++;
+            }
+        }
+        return fired;
+    }
+
+    private void swap(int i, int j) {
+        Entry<T> e = heap[i];
+        heap[i] = heap[j];
+        heap[j] = e;
+        heap[i].index = i;
+        heap[j].index = j;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent].nextFireTime <= heap[i].nextFireTime) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1, smallest = i;
+            if (left < size && heap[left].nextFireTime < heap[smallest].nextFireTime) {
+                smallest = left;
+            }
+            if (left + 1 < size && heap[left + 1].nextFireTime < heap[smallest].nextFireTime) {
+                smallest = left + 1;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.btnguyen2k.akkascheduledjob.scheduler;
+
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.ConsistentHashRing;
+
+/**
+ * Deterministic spreading of workers that share the same fire time.
+ *
+ * <p>
+ * Each worker gets a fixed offset in {@code [0, window)}, derived from a stable hash of its name,
+ * and runs its matched ticks that long after the tick instead of all at once. Offsets do not
+ * depend on the JVM, the node or the start order: all nodes of a deployment compute the same
+ * offset for a worker, restarts keep it.
+ * </p>
+ *
+ * <p>
+ * The window is capped by the worker's shortest interval between two fire times (so that a
+ * delayed run does not overlap the next one) and by {@link #MAX_WINDOW_MS}.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TickJitter {
+    /**
+     * Max jitter window: ticks are delayed by less than this, so that they are still fresh when
+     * matched.
+     */
+    public final static long MAX_WINDOW_MS = 30000;
+
+    /**
+     * Number of upcoming fire times sampled to find a schedule's shortest interval.
+     */
+    private final static int INTERVAL_SAMPLES = 64;
+
+    /**
+     * Offset of a worker in a jitter window.
+     *
+     * @param workerName
+     * @param windowMs
+     * @return {@code 0} if {@code windowMs <= 1}
+     */
+    public static long offsetMs(String workerName, long windowMs) {
+        return windowMs > 1 ? Math.floorMod(ConsistentHashRing.hash(workerName), windowMs) : 0;
+    }
+
+    /**
+     * Shortest interval between the next {@link #INTERVAL_SAMPLES} fire times of a schedule.
+     *
+     * @param schedule
+     * @param nowMs
+     * @return {@link CronSchedule#NEVER} if the schedule fires less than twice
+     */
+    public static long minIntervalMs(CronSchedule schedule, long nowMs) {
+        long minInterval = CronSchedule.NEVER;
+        long prev = schedule.nextFireTime(nowMs);
+        for (int i = 0; i < INTERVAL_SAMPLES && prev != CronSchedule.NEVER; i++) {
+            long next = schedule.nextFireTime(prev);
+            if (next == CronSchedule.NEVER) {
+                break;
+            }
+            minInterval = Math.min(minInterval, next - prev);
+            if (minInterval <= 1000) {
+                // fires every second, cannot get shorter
+                break;
+            }
+            prev = next;
+        }
+        return minInterval;
+    }
+
+    /**
+     * Cap a configured jitter window by the schedule's shortest interval and
+     * {@link #MAX_WINDOW_MS}.
+     *
+     * @param windowMs
+     * @param schedule {@code null} to cap by {@link #MAX_WINDOW_MS} only
+     * @param nowMs
+     * @return
+     */
+    public static long effectiveWindowMs(long windowMs, CronSchedule schedule, long nowMs) {
+        long window = Math.min(windowMs, MAX_WINDOW_MS);
+        if (schedule != null && window > 0) {
+            window = Math.min(window, minIntervalMs(schedule, nowMs));
+        }
+        return Math.max(0, window);
+    }
+
+    /**
+     * Offset of a worker: {@link #offsetMs(String, long)} in the
+     * {@link #effectiveWindowMs(long, CronSchedule, long)}.
+     *
+     * @param workerName
+     * @param windowMs
+     * @param schedule
+     * @param nowMs
+     * @return
+     */
+    public static long offsetMs(String workerName, long windowMs, CronSchedule schedule,
+            long nowMs) {
+        return offsetMs(workerName, effectiveWindowMs(windowMs, schedule, nowMs));
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.btnguyen2k.akkascheduledjob.simulation;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Random;
+
+/**
+ * Distribution of simulated job durations.
+ *
+ * <p>
+ * Format: {@code <type>:<param>[:<param>]}, durations in milliseconds:
+ * </p>
+ * <ul>
+ * <li>{@code fixed:<ms>}: always {@code ms}.</li>
+ * <li>{@code uniform:<min>:<max>}: uniform in {@code [min, max]}.</li>
+ * <li>{@code exp:<mean>}: exponential with mean {@code mean}.</li>
+ * <li>{@code lognormal:<median>:<sigma>}: log-normal with median {@code median} and shape
+ * {@code sigma} (e.g. {@code 0.5}; p99 is about {@code median * e^(2.33 * sigma)}), the usual
+ * shape of job run times.</li>
+ * </ul>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class DurationModel {
+    public enum Type {
+        FIXED, UNIFORM, EXP, LOGNORMAL
+    }
+
+    /**
+     * Parse a distribution from its string form.
+     *
+     * @param str
+     * @return
+     * @throws IllegalArgumentException if {@code str} is not a valid distribution
+     */
+    public static DurationModel parse(String str) {
+        if (StringUtils.isBlank(str)) {
+            throw new IllegalArgumentException("Empty duration distribution!");
+        }
+        String[] tokens = str.trim().split("\\s*:\\s*");
+        Type type;
+        try {
+            type = Type.valueOf(tokens[0].toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid duration distribution: " + str);
+        }
+        int numParams = type == Type.UNIFORM || type == Type.LOGNORMAL ? 2 : 1;
+        if (tokens.length != numParams + 1) {
+            throw new IllegalArgumentException("Invalid duration distribution: " + str);
+        }
+        double a, b;
+        try {
+            a = Double.parseDouble(tokens[1]);
+            b = numParams > 1 ? Double.parseDouble(tokens[2]) : 0;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration distribution: " + str);
+        }
+        if (a < 0 || b < 0 || type == Type.UNIFORM && b < a) {
+            throw new IllegalArgumentException("Invalid duration distribution: " + str);
+        }
+        return new DurationModel(str.trim(), type, a, b);
+    }
+
+    private final String expression;
+    private final Type type;
+    private final double a, b;
+
+    private DurationModel(String expression, Type type, double a, double b) {
+        this.expression = expression;
+        this.type = type;
+        this.a = a;
+        this.b = b;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Draw a duration.
+     *
+     * @param random
+     * @return duration in milliseconds, at least {@code 1}
+     */
+    public long sample(Random random) {
+        double value;
+        switch (type) {
+        case UNIFORM:
+            value = a + random.nextDouble() * (b - a);
+            break;
+        case EXP:
+            value = -a * Math.log(1.0 - random.nextDouble());
+            break;
+        case LOGNORMAL:
+            value = a * Math.exp(b * random.nextGaussian());
+            break;
+        default:
+            value = a;
+        }
+        return Math.max(1, Math.round(value));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,851 @@
+package com.github.btnguyen2k.akkascheduledjob.simulation;
+
+import com.github.btnguyen2k.akkascheduledjob.chain.JobChains;
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronSchedule;
+import com.github.btnguyen2k.akkascheduledjob.worker.BasePartitionedWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.MisfirePolicy;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerFactory;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerPlan;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerSpec;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+import com.github.ddth.commons.utils.DPathUtils;
+import com.github.ddth.commons.utils.TypesafeConfigUtils;
+import com.typesafe.config.Config;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic simulation of a set of workers on a virtual clock, to size a deployment without
+ * running it: a whole day of scheduling takes seconds.
+ *
+ * <p>
+ * Nothing runs for real (no actor system, dlock backend or job): time is a queue of events,
+ * processed in time order. Every fire time of a worker's schedule is a tick, delivered to every
+ * node after a random skew (the tick fan-out latency) and the worker's jitter offset, then goes
+ * through the same steps as in {@link BaseScheduledWorker}:
+ * </p>
+ * <ul>
+ * <li>a global-singleton worker takes its dlock ({@code lockLatencyMs} per call), held until the
+ * run ends, or expiring after {@code lockTimeMs} without lease renewal; a tick whose lock is
+ * held by another node is a lock miss, a tick whose lock is held by the node's own run is
+ * busy.</li>
+ * <li>a tick arriving while a local/global-singleton worker runs on the node, while its group is
+ * at its concurrency limit, or rejected by its full executor is missed (a busy tick), and kept
+ * for replay per the worker's {@link MisfirePolicy}; runs of a take-all-tasks worker
+ * overlap.</li>
+ * <li>the run waits for a thread of the worker's pool (its dispatcher or executor), then lasts a
+ * duration drawn from the worker's {@link DurationModel}.</li>
+ * <li>a partitioned worker claims partitions on every node until none is left, up to its
+ * parallelism at a time: the run's thread and helpers on the free threads of its pool, as
+ * {@link BasePartitionedWorker} does; a chained worker runs once all its upstream workers have
+ * completed the tick.</li>
+ * </ul>
+ *
+ * <p>
+ * Given the same workers, settings and seed, a simulation always produces the same report.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class ScheduleSimulation {
+    private final static Logger LOGGER = LoggerFactory.getLogger(ScheduleSimulation.class);
+
+    /**
+     * Pool of workers that are not in a group and do not use an executor.
+     */
+    public final static String DEFAULT_POOL = "default-dispatcher";
+
+    /**
+     * Max ticks of a worker whose partitions or upstream completions are tracked.
+     */
+    private final static int MAX_TRACKED_TICKS = 1024;
+
+    /**
+     * Build a simulation of the workers of {@code ddth-akka-scheduling.workers}, with settings
+     * from {@code ddth-akka-scheduling.simulation}: each worker is planned by
+     * {@link WorkerFactory#plan(WorkerSpec, long)}, as at startup, so its schedule, coordination,
+     * jitter, misfire policy, partitions and upstream workers are the ones it would run with;
+     * pools are sized from the dispatcher, executors and worker groups settings.
+     *
+     * @param config
+     * @return
+     */
+    public static ScheduleSimulation fromConfig(Config config) {
+        final String PREFIX = "ddth-akka-scheduling.simulation.";
+        WorkerFactory factory = WorkerFactory.fromConfig(config);
+        ZoneId zoneId = factory.getZoneId();
+        ScheduleSimulation simulation = new ScheduleSimulation();
+        String start = TypesafeConfigUtils.getStringOptional(config, PREFIX + "start")
+                .orElse("");
+        simulation.setStartMs((StringUtils.isBlank(start) ? LocalDate.now(zoneId).atStartOfDay()
+                : LocalDateTime.parse(start.trim())).atZone(zoneId).toInstant().toEpochMilli());
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "duration-ms")
+                .ifPresent(v -> simulation.setDurationMs(v.longValue()));
+        int numNodes = TypesafeConfigUtils.getIntegerOptional(config, PREFIX + "nodes").orElse(1)
+                .intValue();
+        if (!factory.getMode().isDistributed() && numNodes > 1) {
+            LOGGER.warn("Simulating " + numNodes + " nodes in single-node mode, using 1!");
+            numNodes = 1;
+        }
+        simulation.setNumNodes(numNodes);
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "seed")
+                .ifPresent(v -> simulation.setSeed(v.longValue()));
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "tick-skew-ms")
+                .ifPresent(v -> simulation.setTickSkewMs(v.longValue()));
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "lock-latency-ms")
+                .ifPresent(v -> simulation.setLockLatencyMs(v.longValue()));
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "lock-time-ms")
+                .ifPresent(v -> simulation.setLockTimeMs(v.longValue()));
+        simulation.setLockRenewal(StringUtils.endsWithIgnoreCase(TypesafeConfigUtils
+                .getStringOptional(config, "ddth-akka-scheduling.dlock-backend.type")
+                .orElse("local"), "-pipelined"));
+
+        // pools are sized for a machine of "cores" cores, not the one running the simulation
+        int cores = Math.max(1, TypesafeConfigUtils.getIntegerOptional(config, PREFIX + "cores")
+                .orElse(8).intValue());
+        final String FJ = "akka.actor.default-dispatcher.fork-join-executor.";
+        int parallelismMin = TypesafeConfigUtils.getIntegerOptional(config, FJ + "parallelism-min")
+                .orElse(8).intValue();
+        int parallelismMax = TypesafeConfigUtils.getIntegerOptional(config, FJ + "parallelism-max")
+                .orElse(64).intValue();
+        double parallelismFactor = TypesafeConfigUtils
+                .getDoubleOptional(config, FJ + "parallelism-factor").orElse(3.0).doubleValue();
+        int dispatcherThreads = Math.min(parallelismMax,
+                Math.max(parallelismMin, (int) Math.ceil(cores * parallelismFactor)));
+        simulation.addPool(DEFAULT_POOL, dispatcherThreads, dispatcherThreads, Integer.MAX_VALUE);
+        Map<?, ?> confExecutors = config.hasPath("ddth-akka-scheduling.executors")
+                ? TypesafeConfigUtils.getObject(config, "ddth-akka-scheduling.executors",
+                Map.class) : Collections.emptyMap();
+        confExecutors.forEach((name, conf) -> {
+            String type = DPathUtils.getValueOptional(conf, "type", String.class)
+                    .orElse("thread-pool");
+            if (StringUtils.equalsIgnoreCase("virtual", type)) {
+                simulation.addPool("executor:" + name, Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+                return;
+            }
+            int corePoolSize = DPathUtils.getValueOptional(conf, "core-pool-size", Integer.class)
+                    .orElse(cores);
+            simulation.addPool("executor:" + name, corePoolSize,
+                    DPathUtils.getValueOptional(conf, "max-pool-size", Integer.class)
+                            .orElse(corePoolSize),
+                    Math.max(1, DPathUtils.getValueOptional(conf, "queue-size", Integer.class)
+                            .orElse(1024)));
+        });
+        Map<?, ?> confGroups = config.hasPath("ddth-akka-scheduling.worker-groups")
+                ? TypesafeConfigUtils.getObject(config, "ddth-akka-scheduling.worker-groups",
+                Map.class) : Collections.emptyMap();
+
+        Map<?, ?> confDurations = config.hasPath(PREFIX + "durations")
+                ? TypesafeConfigUtils.getObject(config, PREFIX + "durations", Map.class)
+                : Collections.emptyMap();
+        Map<String, DurationModel> durations = new HashMap<>();
+        confDurations.forEach((name, value) -> {
+            try {
+                durations.put(name.toString(), DurationModel.parse(String.valueOf(value)));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn(e.getMessage() + ", worker [" + name + "] uses the default "
+                        + "duration!");
+            }
+        });
+        if (durations.containsKey("default")) {
+            simulation.setDefaultDuration(durations.get("default"));
+        }
+
+        Set<String> groupNames = new HashSet<>();
+        for (String cl : TypesafeConfigUtils
+                .getStringListOptional(config, "ddth-akka-scheduling.workers")
+                .orElse(Collections.emptyList())) {
+            WorkerSpec spec = WorkerSpec.parse(cl);
+            WorkerPlan plan;
+            try {
+                plan = factory.plan(spec, simulation.getStartMs());
+            } catch (ClassNotFoundException e) {
+                LOGGER.warn("Worker class [" + spec.getClassName() + "] not found, skipped!");
+                continue;
+            }
+            String name = plan.getName();
+            boolean scheduledWorker = plan.getWorkerClass().isScheduledWorker();
+            SimulatedWorker worker = new SimulatedWorker(name).setDlockName(spec.getDlockName())
+                    .setCoordinationPolicy(plan.getCoordinationPolicy())
+                    .setDlocked(plan.isDlocked()).setSchedule(plan.getSchedule())
+                    .setTickOffsetMs(plan.getTickOffsetMs())
+                    .setNumPartitions(plan.getNumPartitions()).addUpstreams(plan.getUpstreams())
+                    .setDuration(durations.get(name));
+            if (scheduledWorker) {
+                worker.setMisfirePolicy(plan.getMisfirePolicy());
+            }
+            String groupName = plan.getGroupName();
+            if (groupName != null) {
+                groupNames.add(groupName);
+                worker.setPool("group:" + groupName);
+                if (scheduledWorker) {
+                    worker.setGroup(groupName);
+                }
+            }
+            String executorName = plan.getExecutorName();
+            if (scheduledWorker && executorName != null && confExecutors
+                    .containsKey(executorName)) {
+                worker.setPool("executor:" + executorName);
+            }
+            simulation.addWorker(worker);
+        }
+        for (String groupName : groupNames) {
+            Object conf = confGroups.get(groupName);
+            int concurrency = Math.max(1, DPathUtils
+                    .getValueOptional(conf, "concurrency", Integer.class).orElse(cores));
+            int parallelism = Math.max(1, DPathUtils
+                    .getValueOptional(conf, "parallelism", Integer.class).orElse(concurrency));
+            simulation.addGroup(groupName, concurrency)
+                    .addPool("group:" + groupName, parallelism, parallelism, Integer.MAX_VALUE);
+        }
+        return simulation;
+    }
+
+    private long startMs = 0;
+    private long durationMs = 24 * 3600 * 1000L;
+    private int numNodes = 1;
+    private long seed = 1;
+    private long tickSkewMs = 20;
+    private long lockLatencyMs = 1;
+    private long lockTimeMs = 5000;
+    private boolean lockRenewal = false;
+    private DurationModel defaultDuration = DurationModel.parse("fixed:100");
+
+    private final Map<String, SimulatedWorker> workers = new LinkedHashMap<>();
+    private final Map<String, int[]> poolSizes = new LinkedHashMap<>();
+    private final Map<String, Integer> groupLimits = new LinkedHashMap<>();
+
+    public long getStartMs() {
+        return startMs;
+    }
+
+    /**
+     * Virtual time the simulation starts at.
+     *
+     * @param startMs
+     * @return
+     */
+    public ScheduleSimulation setStartMs(long startMs) {
+        this.startMs = startMs;
+        return this;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public ScheduleSimulation setDurationMs(long durationMs) {
+        this.durationMs = Math.max(1000, durationMs);
+        return this;
+    }
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    public ScheduleSimulation setNumNodes(int numNodes) {
+        this.numNodes = Math.max(1, numNodes);
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Seed of all random draws (tick skews, job durations).
+     *
+     * @param seed
+     * @return
+     */
+    public ScheduleSimulation setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public long getTickSkewMs() {
+        return tickSkewMs;
+    }
+
+    /**
+     * Max delay of a tick reaching a node, drawn per node and tick.
+     *
+     * @param tickSkewMs
+     * @return
+     */
+    public ScheduleSimulation setTickSkewMs(long tickSkewMs) {
+        this.tickSkewMs = Math.max(0, Math.min(tickSkewMs, Integer.MAX_VALUE - 1));
+        return this;
+    }
+
+    public long getLockLatencyMs() {
+        return lockLatencyMs;
+    }
+
+    /**
+     * Time a dlock call (or partition claim) takes.
+     *
+     * @param lockLatencyMs
+     * @return
+     */
+    public ScheduleSimulation setLockLatencyMs(long lockLatencyMs) {
+        this.lockLatencyMs = Math.max(0, lockLatencyMs);
+        return this;
+    }
+
+    public long getLockTimeMs() {
+        return lockTimeMs;
+    }
+
+    /**
+     * Time a dlock of a worker is taken for.
+     *
+     * @param lockTimeMs
+     * @return
+     */
+    public ScheduleSimulation setLockTimeMs(long lockTimeMs) {
+        this.lockTimeMs = Math.max(1, lockTimeMs);
+        return this;
+    }
+
+    public boolean isLockRenewal() {
+        return lockRenewal;
+    }
+
+    /**
+     * If {@code true}, held dlocks are renewed until released (pipelined dlock backends), instead
+     * of expiring after {@code lockTimeMs}.
+     *
+     * @param lockRenewal
+     * @return
+     */
+    public ScheduleSimulation setLockRenewal(boolean lockRenewal) {
+        this.lockRenewal = lockRenewal;
+        return this;
+    }
+
+    public DurationModel getDefaultDuration() {
+        return defaultDuration;
+    }
+
+    /**
+     * Duration of jobs of workers without their own distribution.
+     *
+     * @param defaultDuration
+     * @return
+     */
+    public ScheduleSimulation setDefaultDuration(DurationModel defaultDuration) {
+        this.defaultDuration = defaultDuration;
+        return this;
+    }
+
+    /**
+     * Add a thread pool, present on every node.
+     *
+     * @param name
+     * @param threads       threads always available
+     * @param maxThreads    threads started when the queue is full
+     * @param queueCapacity max jobs waiting for a thread, jobs are rejected beyond that
+     * @return
+     */
+    public ScheduleSimulation addPool(String name, int threads, int maxThreads,
+            int queueCapacity) {
+        int min = Math.max(1, threads);
+        poolSizes.put(name,
+                new int[] { min, Math.max(min, maxThreads), Math.max(0, queueCapacity) });
+        return this;
+    }
+
+    /**
+     * Add a worker group, limiting the jobs of its workers running at the same time on a node.
+     *
+     * @param name
+     * @param concurrency
+     * @return
+     */
+    public ScheduleSimulation addGroup(String name, int concurrency) {
+        groupLimits.put(name, Math.max(1, concurrency));
+        return this;
+    }
+
+    public ScheduleSimulation addWorker(SimulatedWorker worker) {
+        workers.put(worker.getName(), worker);
+        return this;
+    }
+
+    public List<SimulatedWorker> getWorkers() {
+        return Collections.unmodifiableList(new ArrayList<>(workers.values()));
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    private final static class Event implements Comparable<Event> {
+        private final long timeMs, seq;
+        private final Runnable action;
+
+        private Event(long timeMs, long seq, Runnable action) {
+            this.timeMs = timeMs;
+            this.seq = seq;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int result = Long.compare(timeMs, other.timeMs);
+            return result != 0 ? result : Long.compare(seq, other.seq);
+        }
+    }
+
+    private final static class Tick {
+        private final long id, dueMs;
+
+        private Tick(long id, long dueMs) {
+            this.id = id;
+            this.dueMs = dueMs;
+        }
+    }
+
+    private final static class Lock {
+        private int holder = -1;
+        private long expiresMs, token;
+    }
+
+    private final class Pool {
+        private final SimulationReport.PoolStats stats;
+        private final int threads, maxThreads, queueCapacity;
+        private final Deque<Run> queue = new ArrayDeque<>();
+        private int busy;
+        private long lastMs = startMs;
+
+        private Pool(SimulationReport.PoolStats stats, int[] sizes) {
+            this.stats = stats;
+            this.threads = sizes[0];
+            this.maxThreads = sizes[1];
+            this.queueCapacity = sizes[2];
+        }
+
+        /**
+         * Account for the time since the last change of the pool.
+         */
+        private void advance() {
+            long elapsed = nowMs - lastMs;
+            if (elapsed > 0) {
+                stats.busyThreadMs += busy * elapsed;
+                if (!queue.isEmpty()) {
+                    stats.saturatedMs += elapsed;
+                }
+                lastMs = nowMs;
+            }
+        }
+    }
+
+    private final static class WorkerState {
+        private final SimulatedWorker worker;
+        private final SimulationReport.WorkerStats stats;
+        private final CronSchedule schedule;
+        private final Set<String> upstreams;
+        private final DurationModel duration;
+        private final Random random;
+        private final int[] running;
+        private final List<Deque<Tick>> backlogs = new ArrayList<>();
+        private final List<Pool> pools = new ArrayList<>();
+        private final int[] groupRunning;
+        private final int groupLimit;
+        private final List<WorkerState> downstreams = new ArrayList<>();
+        private final Map<Long, int[]> partitionTicks = newTickMap();
+        private final Map<Long, Set<String>> pendingTicks = newTickMap();
+        private final Map<Long, Boolean> firedTicks = newTickMap();
+
+        private WorkerState(SimulatedWorker worker, Set<String> upstreams, DurationModel duration,
+                long seed, int numNodes, int[] groupRunning, int groupLimit) {
+            this.worker = worker;
+            this.stats = new SimulationReport.WorkerStats(worker.getName(),
+                    worker.getCoordinationPolicy().name());
+            this.upstreams = upstreams;
+            // chained: runs after its upstream workers, not on schedule
+            this.schedule = upstreams.isEmpty() ? worker.getSchedule() : null;
+            this.duration = duration;
+            // String.hashCode is stable across JVMs
+            this.random = new Random(seed * 31 + worker.getName().hashCode());
+            this.running = new int[numNodes];
+            for (int i = 0; i < numNodes; i++) {
+                backlogs.add(new ArrayDeque<>());
+            }
+            this.groupRunning = groupRunning;
+            this.groupLimit = groupLimit;
+        }
+    }
+
+    private final static class Run {
+        private final WorkerState worker;
+        private final int node;
+        private final Tick tick;
+        private final long lockToken, acceptedMs;
+        private final Pool pool;
+        private long startMs;
+        // partitions claimed in parallel: the run's thread and its helpers
+        private int lanes;
+
+        private Run(WorkerState worker, int node, Tick tick, long lockToken, long acceptedMs,
+                Pool pool) {
+            this.worker = worker;
+            this.node = node;
+            this.tick = tick;
+            this.lockToken = lockToken;
+            this.acceptedMs = acceptedMs;
+            this.pool = pool;
+        }
+    }
+
+    private static <V> Map<Long, V> newTickMap() {
+        return new LinkedHashMap<Long, V>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+                return size() > MAX_TRACKED_TICKS;
+            }
+        };
+    }
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final Map<String, Lock> locks = new HashMap<>();
+    private Random random;
+    private long nowMs, endMs, seq, lockTokens, numEvents;
+    private int executing, peakConcurrency;
+    private long peakConcurrencyAtMs;
+
+    private void scheduleAt(long timeMs, Runnable action) {
+        events.add(new Event(timeMs, seq++, action));
+    }
+
+    /**
+     * Run the simulation.
+     *
+     * @return
+     */
+    public synchronized SimulationReport run() {
+        long wallStart = System.currentTimeMillis();
+        nowMs = startMs;
+        endMs = startMs + durationMs;
+        events.clear();
+        locks.clear();
+        random = new Random(seed);
+        seq = lockTokens = numEvents = 0;
+        executing = peakConcurrency = 0;
+        peakConcurrencyAtMs = startMs;
+        SimulationReport report = new SimulationReport(startMs, durationMs, numNodes, seed);
+
+        Map<String, int[]> sizes = new LinkedHashMap<>();
+        // same default as a fork-join dispatcher on an 8-core machine
+        sizes.put(DEFAULT_POOL, new int[] { 8, 8, Integer.MAX_VALUE });
+        sizes.putAll(poolSizes);
+        Map<String, List<Pool>> pools = new HashMap<>();
+        sizes.forEach((name, s) -> {
+            SimulationReport.PoolStats stats = new SimulationReport.PoolStats(name, s[0], s[1]);
+            report.addPool(stats);
+            List<Pool> nodePools = new ArrayList<>();
+            for (int i = 0; i < numNodes; i++) {
+                nodePools.add(new Pool(stats, s));
+            }
+            pools.put(name, nodePools);
+        });
+
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        workers.values().stream().filter(w -> !w.getUpstreams().isEmpty())
+                .forEach(w -> dependencies.put(w.getName(), w.getUpstreams()));
+        Set<String> cycles = JobChains.findCycles(dependencies);
+        cycles.forEach(name -> LOGGER.warn("Worker [" + name + "] is part of a dependency cycle,"
+                + " runs on its schedule!"));
+        Map<String, WorkerState> states = new LinkedHashMap<>();
+        for (SimulatedWorker worker : workers.values()) {
+            String group = worker.getGroup();
+            Integer groupLimit = group != null ? groupLimits.get(group) : null;
+            WorkerState state = new WorkerState(worker, cycles.contains(worker.getName())
+                    ? Collections.emptySet() : new LinkedHashSet<>(worker.getUpstreams()),
+                    worker.getDuration() != null ? worker.getDuration() : defaultDuration, seed,
+                    numNodes, groupLimit != null ? new int[numNodes] : null,
+                    groupLimit != null ? groupLimit.intValue() : 0);
+            List<Pool> nodePools = pools.get(worker.getPool());
+            if (nodePools == null) {
+                LOGGER.warn("Pool [" + worker.getPool() + "] of worker [" + worker.getName()
+                        + "] not found, simulated on [" + DEFAULT_POOL + "]!");
+                nodePools = pools.get(DEFAULT_POOL);
+            }
+            state.pools.addAll(nodePools);
+            states.put(worker.getName(), state);
+            report.addWorker(state.stats);
+        }
+        for (WorkerState state : states.values()) {
+            for (String upstream : state.upstreams) {
+                WorkerState upstreamState = states.get(upstream);
+                if (upstreamState != null) {
+                    upstreamState.downstreams.add(state);
+                } else {
+                    LOGGER.warn("Upstream worker [" + upstream + "] of worker ["
+                            + state.worker.getName() + "] is not simulated, the worker never "
+                            + "runs!");
+                }
+            }
+            if (state.schedule != null) {
+                long first = state.schedule.nextFireTime(startMs - 1);
+                if (first < endMs) {
+                    scheduleAt(first, () -> fire(state, first));
+                }
+            }
+        }
+
+        LOGGER.info("Simulating " + states.size() + " worker(s) on " + numNodes + " node(s) for "
+                + durationMs + "ms...");
+        Event event;
+        while ((event = events.poll()) != null && event.timeMs < endMs) {
+            nowMs = event.timeMs;
+            numEvents++;
+            event.action.run();
+        }
+        nowMs = endMs;
+        pools.values().forEach(nodePools -> nodePools.forEach(Pool::advance));
+        events.clear();
+        report.setPeakConcurrency(peakConcurrency, peakConcurrencyAtMs);
+        report.setRun(numEvents, System.currentTimeMillis() - wallStart);
+        return report;
+    }
+
+    private void fire(WorkerState state, long fireMs) {
+        state.stats.ticks++;
+        deliver(state, new Tick(fireMs, fireMs + state.worker.getTickOffsetMs()));
+        long next = state.schedule.nextFireTime(fireMs);
+        if (next < endMs) {
+            scheduleAt(next, () -> fire(state, next));
+        }
+    }
+
+    /**
+     * Deliver a tick to every node.
+     */
+    private void deliver(WorkerState state, Tick tick) {
+        for (int i = 0; i < numNodes; i++) {
+            int node = i;
+            long skewMs = tickSkewMs > 0 ? random.nextInt((int) tickSkewMs + 1) : 0;
+            scheduleAt(Math.max(nowMs + skewMs, tick.dueMs), () -> onTick(state, node, tick));
+        }
+    }
+
+    private void onTick(WorkerState state, int node, Tick tick) {
+        if (!state.worker.isDlocked()) {
+            accept(state, node, tick, 0);
+            return;
+        }
+        state.stats.lockAttempts++;
+        state.stats.lockWaitMs.record(lockLatencyMs);
+        scheduleAt(nowMs + lockLatencyMs, () -> {
+            Lock lock = locks.computeIfAbsent(state.worker.getDlockName(), k -> new Lock());
+            if (lock.holder >= 0 && (lockRenewal || lock.expiresMs > nowMs)) {
+                if (lock.holder == node) {
+                    // held by the node's own run: a local misfire
+                    missed(state, node, tick, 0);
+                } else {
+                    // busy on another node: the tick is not missed, nor replayed
+                    state.stats.lockMisses++;
+                }
+                return;
+            }
+            lock.holder = node;
+            lock.expiresMs = nowMs + lockTimeMs;
+            lock.token = ++lockTokens;
+            accept(state, node, tick, lock.token);
+        });
+    }
+
+    private void unlock(WorkerState state, long lockToken) {
+        Lock lock = lockToken != 0 ? locks.get(state.worker.getDlockName()) : null;
+        if (lock != null && lock.token == lockToken) {
+            lock.holder = -1;
+        }
+    }
+
+    private void accept(WorkerState state, int node, Tick tick, long lockToken) {
+        if (state.running[node] > 0 && !state.worker.isOverlapping()) {
+            missed(state, node, tick, lockToken);
+            return;
+        }
+        if (state.groupRunning != null && state.groupRunning[node] >= state.groupLimit) {
+            missed(state, node, tick, lockToken);
+            return;
+        }
+        Pool pool = state.pools.get(node);
+        pool.advance();
+        boolean queueFull = pool.queue.size() >= pool.queueCapacity;
+        boolean startNow = pool.busy < pool.threads || queueFull && pool.busy < pool.maxThreads;
+        if (!startNow && queueFull) {
+            pool.stats.rejected++;
+            missed(state, node, tick, lockToken);
+            return;
+        }
+        if (state.groupRunning != null) {
+            state.groupRunning[node]++;
+        }
+        state.running[node]++;
+        Run run = new Run(state, node, tick, lockToken, nowMs, pool);
+        if (startNow) {
+            start(run);
+        } else {
+            pool.queue.add(run);
+            pool.stats.peakQueued = Math.max(pool.stats.peakQueued, pool.queue.size());
+        }
+    }
+
+    private void missed(WorkerState state, int node, Tick tick, long lockToken) {
+        state.stats.missed++;
+        unlock(state, lockToken);
+        MisfirePolicy misfirePolicy = state.worker.getMisfirePolicy();
+        if (misfirePolicy.getType() != MisfirePolicy.Type.DROP) {
+            Deque<Tick> backlog = state.backlogs.get(node);
+            if (backlog.size() >= misfirePolicy.getMaxBacklog()) {
+                backlog.poll();
+                state.stats.discarded++;
+            }
+            backlog.add(tick);
+        }
+    }
+
+    private void start(Run run) {
+        WorkerState state = run.worker;
+        Pool pool = run.pool;
+        pool.advance();
+        pool.busy++;
+        pool.stats.peakBusy = Math.max(pool.stats.peakBusy, pool.busy);
+        run.startMs = nowMs;
+        state.stats.queueWaitMs.record(nowMs - run.acceptedMs);
+        state.stats.lagMs.record(nowMs - run.tick.dueMs);
+        state.stats.peakConcurrency = Math.max(state.stats.peakConcurrency,
+                ++state.stats.running);
+        if (state.stats.running > 1 && state.worker
+                .getCoordinationPolicy() == WorkerCoordinationPolicy.GLOBAL_SINGLETON) {
+            state.stats.overlaps++;
+        }
+        if (++executing > peakConcurrency) {
+            peakConcurrency = executing;
+            peakConcurrencyAtMs = nowMs;
+        }
+        if (state.worker.getNumPartitions() > 0) {
+            // helpers only run on threads free right now, a late helper finds nothing to claim
+            int helpers = Math.max(0, Math.min(state.worker.getParallelism() - 1,
+                    pool.threads - pool.busy));
+            pool.busy += helpers;
+            pool.stats.peakBusy = Math.max(pool.stats.peakBusy, pool.busy);
+            run.lanes = 1 + helpers;
+            for (int i = 0; i < run.lanes; i++) {
+                runPartition(run);
+            }
+        } else {
+            scheduleAt(nowMs + state.duration.sample(state.random), () -> end(run));
+        }
+    }
+
+    /**
+     * Claim and run the next partition of the run's tick on one of its lanes; once none is left,
+     * release the lane's thread, or end the run if it is the last lane.
+     */
+    private void runPartition(Run run) {
+        WorkerState state = run.worker;
+        int numPartitions = state.worker.getNumPartitions();
+        // {claimed, done}
+        int[] progress = state.partitionTicks.computeIfAbsent(run.tick.id, k -> new int[2]);
+        if (progress[0] >= numPartitions) {
+            if (--run.lanes > 0) {
+                release(run.pool);
+            } else {
+                end(run);
+            }
+            return;
+        }
+        progress[0]++;
+        state.stats.lockAttempts++;
+        state.stats.lockWaitMs.record(lockLatencyMs);
+        scheduleAt(nowMs + lockLatencyMs + state.duration.sample(state.random), () -> {
+            if (++progress[1] == numPartitions) {
+                completed(state, run.tick);
+            }
+            runPartition(run);
+        });
+    }
+
+    private void end(Run run) {
+        WorkerState state = run.worker;
+        Pool pool = run.pool;
+        int node = run.node;
+        state.stats.runTimeMs.record(nowMs - run.startMs);
+        state.stats.runs++;
+        state.stats.running--;
+        executing--;
+        release(pool);
+        if (state.groupRunning != null) {
+            state.groupRunning[node]--;
+        }
+        state.running[node]--;
+        unlock(state, run.lockToken);
+        if (state.worker.getNumPartitions() == 0) {
+            completed(state, run.tick);
+        }
+        Deque<Tick> backlog = state.backlogs.get(node);
+        if (!backlog.isEmpty() && (state.running[node] == 0 || state.worker.isOverlapping())) {
+            state.stats.replayed++;
+            onTick(state, node, backlog.poll());
+        }
+    }
+
+    /**
+     * Release a thread of the pool, to the next queued run if any.
+     */
+    private void release(Pool pool) {
+        pool.advance();
+        pool.busy--;
+        Run next = pool.queue.poll();
+        if (next != null) {
+            start(next);
+        }
+    }
+
+    /**
+     * A worker completed a tick: run its downstream workers whose upstream workers have all
+     * completed it.
+     */
+    private void completed(WorkerState state, Tick tick) {
+        for (WorkerState downstream : state.downstreams) {
+            if (downstream.firedTicks.containsKey(tick.id)) {
+                continue;
+            }
+            Set<String> done = downstream.pendingTicks.computeIfAbsent(tick.id,
+                    k -> new HashSet<>());
+            done.add(state.worker.getName());
+            if (done.containsAll(downstream.upstreams)) {
+                downstream.pendingTicks.remove(tick.id);
+                downstream.firedTicks.put(tick.id, Boolean.TRUE);
+                downstream.stats.ticks++;
+                // runs of chained workers keep the upstream tick id, without offset
+                deliver(downstream, new Tick(tick.id, nowMs));
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.github.btnguyen2k.akkascheduledjob.simulation;
+
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronSchedule;
+import com.github.btnguyen2k.akkascheduledjob.worker.MisfirePolicy;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A worker of a {@link ScheduleSimulation}: how it is scheduled and coordinated, where its jobs
+ * run and how long they take.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class SimulatedWorker {
+    private final String name;
+    private String dlockName;
+    private WorkerCoordinationPolicy coordinationPolicy = WorkerCoordinationPolicy.TAKE_ALL_TASKS;
+    private CronSchedule schedule;
+    private long tickOffsetMs = 0;
+    private boolean dlocked = false;
+    private MisfirePolicy misfirePolicy = MisfirePolicy.DROP;
+    private String pool = ScheduleSimulation.DEFAULT_POOL;
+    private String group;
+    private DurationModel duration;
+    private int numPartitions = 0;
+    private int parallelism = 0;
+    private final Set<String> upstreams = new LinkedHashSet<>();
+
+    public SimulatedWorker(String name) {
+        this.name = name;
+        this.dlockName = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDlockName() {
+        return dlockName;
+    }
+
+    public SimulatedWorker setDlockName(String dlockName) {
+        this.dlockName = dlockName;
+        return this;
+    }
+
+    public WorkerCoordinationPolicy getCoordinationPolicy() {
+        return coordinationPolicy;
+    }
+
+    public SimulatedWorker setCoordinationPolicy(WorkerCoordinationPolicy coordinationPolicy) {
+        this.coordinationPolicy = coordinationPolicy;
+        return this;
+    }
+
+    /**
+     * Schedule of the worker, {@code null} if it only runs after its upstream workers.
+     *
+     * @return
+     */
+    public CronSchedule getSchedule() {
+        return schedule;
+    }
+
+    public SimulatedWorker setSchedule(CronSchedule schedule) {
+        this.schedule = schedule;
+        return this;
+    }
+
+    /**
+     * Delay of the worker's runs after their fire time (jitter).
+     *
+     * @return
+     */
+    public long getTickOffsetMs() {
+        return tickOffsetMs;
+    }
+
+    public SimulatedWorker setTickOffsetMs(long tickOffsetMs) {
+        this.tickOffsetMs = Math.max(0, tickOffsetMs);
+        return this;
+    }
+
+    /**
+     * If {@code true}, each run is coordinated across nodes through the worker's dlock.
+     *
+     * @return
+     */
+    public boolean isDlocked() {
+        return dlocked;
+    }
+
+    public SimulatedWorker setDlocked(boolean dlocked) {
+        this.dlocked = dlocked;
+        return this;
+    }
+
+    /**
+     * If {@code true}, a tick arriving while the worker runs starts another run on the same node,
+     * instead of being a busy tick: runs of a take-all-tasks worker are not guarded, whether they
+     * run on the dispatcher or an executor.
+     *
+     * @return
+     */
+    public boolean isOverlapping() {
+        return coordinationPolicy == WorkerCoordinationPolicy.TAKE_ALL_TASKS;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    public SimulatedWorker setMisfirePolicy(MisfirePolicy misfirePolicy) {
+        this.misfirePolicy = misfirePolicy != null ? misfirePolicy : MisfirePolicy.DROP;
+        return this;
+    }
+
+    /**
+     * Name of the thread pool the worker's jobs run on (see
+     * {@link ScheduleSimulation#addPool(String, int, int, int)}).
+     *
+     * @return
+     */
+    public String getPool() {
+        return pool;
+    }
+
+    public SimulatedWorker setPool(String pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Worker group whose concurrency limit the worker shares, {@code null} if none.
+     *
+     * @return
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    public SimulatedWorker setGroup(String group) {
+        this.group = group;
+        return this;
+    }
+
+    /**
+     * Distribution of job durations (of each partition, for a partitioned worker), {@code null}
+     * to use the simulation's default.
+     *
+     * @return
+     */
+    public DurationModel getDuration() {
+        return duration;
+    }
+
+    public SimulatedWorker setDuration(DurationModel duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Number of partitions each tick's job is split into, {@code 0} if the worker is not
+     * partitioned.
+     *
+     * @return
+     */
+    public int getNumPartitions() {
+        return numPartitions;
+    }
+
+    public SimulatedWorker setNumPartitions(int numPartitions) {
+        this.numPartitions = Math.max(0, numPartitions);
+        return this;
+    }
+
+    /**
+     * Max partitions of a partitioned worker run at the same time on a node, as
+     * {@code BasePartitionedWorker.getParallelism()}: the number of partitions unless set.
+     *
+     * @return
+     */
+    public int getParallelism() {
+        return parallelism > 0 ? Math.min(parallelism, numPartitions) : numPartitions;
+    }
+
+    public SimulatedWorker setParallelism(int parallelism) {
+        this.parallelism = Math.max(0, parallelism);
+        return this;
+    }
+
+    /**
+     * Workers that must complete a tick before this worker runs it.
+     *
+     * @return
+     */
+    public Set<String> getUpstreams() {
+        return Collections.unmodifiableSet(upstreams);
+    }
+
+    public SimulatedWorker addUpstreams(Collection<String> upstreams) {
+        this.upstreams.addAll(upstreams);
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return name + "[policy=" + coordinationPolicy + ", schedule=" + schedule + ", pool="
+                + pool + ", duration=" + duration + "]";
+    }
+}
@@ -0,0 +1,408 @@
+package com.github.btnguyen2k.akkascheduledjob.simulation;
+
+import com.github.btnguyen2k.akkascheduledjob.metrics.Histogram;
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Capacity report of a {@link ScheduleSimulation}: peak concurrency, missed ticks and lock waits
+ * per worker, and saturation of thread pools.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class SimulationReport {
+    /**
+     * Counters of a simulated worker, across all nodes.
+     */
+    public static class WorkerStats {
+        private final String name;
+        private final String policy;
+        long ticks, runs, missed, replayed, discarded;
+        long lockAttempts, lockMisses, overlaps;
+        int running, peakConcurrency;
+        final Histogram lockWaitMs = new Histogram();
+        final Histogram queueWaitMs = new Histogram();
+        final Histogram lagMs = new Histogram();
+        final Histogram runTimeMs = new Histogram();
+
+        WorkerStats(String name, String policy) {
+            this.name = name;
+            this.policy = policy;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPolicy() {
+            return policy;
+        }
+
+        /**
+         * Ticks that fired for the worker (once per fire time, or per completed upstream tick
+         * for a chained worker), regardless of the number of nodes.
+         *
+         * @return
+         */
+        public long getTicks() {
+            return ticks;
+        }
+
+        /**
+         * Completed runs, on all nodes.
+         *
+         * @return
+         */
+        public long getRuns() {
+            return runs;
+        }
+
+        /**
+         * Ticks missed because the worker was busy on the node, its group was at its concurrency
+         * limit or its executor rejected the job (what {@code logBusy(tick, false)} reports).
+         *
+         * @return
+         */
+        public long getMissed() {
+            return missed;
+        }
+
+        public long getReplayed() {
+            return replayed;
+        }
+
+        /**
+         * Missed ticks discarded from a full misfire backlog.
+         *
+         * @return
+         */
+        public long getDiscarded() {
+            return discarded;
+        }
+
+        public long getLockAttempts() {
+            return lockAttempts;
+        }
+
+        /**
+         * Lock attempts that failed because another run held the dlock.
+         *
+         * @return
+         */
+        public long getLockMisses() {
+            return lockMisses;
+        }
+
+        /**
+         * Runs of a global-singleton worker started while another of its runs was still going
+         * (its dlock expired).
+         *
+         * @return
+         */
+        public long getOverlaps() {
+            return overlaps;
+        }
+
+        /**
+         * Max runs of the worker executing at the same time, across all nodes.
+         *
+         * @return
+         */
+        public int getPeakConcurrency() {
+            return peakConcurrency;
+        }
+
+        /**
+         * Time spent acquiring dlocks (and partition claims), per attempt.
+         *
+         * @return
+         */
+        public Histogram getLockWaitMs() {
+            return lockWaitMs;
+        }
+
+        /**
+         * Time accepted runs waited for a thread of their pool.
+         *
+         * @return
+         */
+        public Histogram getQueueWaitMs() {
+            return queueWaitMs;
+        }
+
+        /**
+         * Delay between a tick's due time and the start of its run.
+         *
+         * @return
+         */
+        public Histogram getLagMs() {
+            return lagMs;
+        }
+
+        public Histogram getRunTimeMs() {
+            return runTimeMs;
+        }
+
+        /**
+         * Ratio of missed ticks to delivered ticks.
+         *
+         * @return
+         */
+        public double getMissRate() {
+            long delivered = runs + missed;
+            return delivered > 0 ? (double) missed / delivered : 0;
+        }
+    }
+
+    /**
+     * Usage of a thread pool, across all nodes.
+     */
+    public static class PoolStats {
+        private final String name;
+        private final int threads, maxThreads;
+        long busyThreadMs, saturatedMs, rejected;
+        int peakBusy, peakQueued;
+
+        PoolStats(String name, int threads, int maxThreads) {
+            this.name = name;
+            this.threads = threads;
+            this.maxThreads = maxThreads;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Threads of the pool on each node.
+         *
+         * @return
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        /**
+         * Max busy threads on a node.
+         *
+         * @return
+         */
+        public int getPeakBusy() {
+            return peakBusy;
+        }
+
+        /**
+         * Max jobs waiting for a thread on a node.
+         *
+         * @return
+         */
+        public int getPeakQueued() {
+            return peakQueued;
+        }
+
+        /**
+         * Jobs rejected because the pool and its queue were full.
+         *
+         * @return
+         */
+        public long getRejected() {
+            return rejected;
+        }
+    }
+
+    private final long startMs, durationMs, seed;
+    private final int numNodes;
+    private final List<WorkerStats> workers = new ArrayList<>();
+    private final List<PoolStats> pools = new ArrayList<>();
+    private int peakConcurrency;
+    private long peakConcurrencyAtMs;
+    private long numEvents, elapsedMs;
+
+    SimulationReport(long startMs, long durationMs, int numNodes, long seed) {
+        this.startMs = startMs;
+        this.durationMs = durationMs;
+        this.numNodes = numNodes;
+        this.seed = seed;
+    }
+
+    void addWorker(WorkerStats stats) {
+        workers.add(stats);
+    }
+
+    void addPool(PoolStats stats) {
+        pools.add(stats);
+    }
+
+    void setPeakConcurrency(int peakConcurrency, long atMs) {
+        this.peakConcurrency = peakConcurrency;
+        this.peakConcurrencyAtMs = atMs;
+    }
+
+    void setRun(long numEvents, long elapsedMs) {
+        this.numEvents = numEvents;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public long getStartMs() {
+        return startMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    /**
+     * Workers, those missing the most ticks first.
+     *
+     * @return
+     */
+    public List<WorkerStats> getWorkers() {
+        List<WorkerStats> result = new ArrayList<>(workers);
+        result.sort(Comparator.comparingDouble(WorkerStats::getMissRate).reversed()
+                .thenComparing(Comparator.comparingLong(WorkerStats::getLockMisses).reversed())
+                .thenComparing(WorkerStats::getName));
+        return result;
+    }
+
+    public List<PoolStats> getPools() {
+        return Collections.unmodifiableList(pools);
+    }
+
+    /**
+     * Max jobs executing at the same time, across all nodes.
+     *
+     * @return
+     */
+    public int getPeakConcurrency() {
+        return peakConcurrency;
+    }
+
+    public long getPeakConcurrencyAtMs() {
+        return peakConcurrencyAtMs;
+    }
+
+    /**
+     * Wall-clock time the simulation took.
+     *
+     * @return
+     */
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    private double utilization(PoolStats pool) {
+        if (pool.threads == Integer.MAX_VALUE) {
+            return 0;
+        }
+        long capacity = (long) pool.threads * durationMs * numNodes;
+        return capacity > 0 ? 100.0 * pool.busyThreadMs / capacity : 0;
+    }
+
+    private double saturation(PoolStats pool) {
+        long total = durationMs * numNodes;
+        return total > 0 ? 100.0 * pool.saturatedMs / total : 0;
+    }
+
+    private static String histogramJson(Histogram h) {
+        return "{\"mean\":" + Math.round(h.getMean()) + ",\"p99\":" + h.getValueAtPercentile(99)
+                + ",\"max\":" + h.getMax() + "}";
+    }
+
+    /**
+     * Render the report as a human-readable table.
+     *
+     * @return
+     */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Simulated %s from %s on %d node(s), seed %d: %d events in %dms.%n",
+                formatDuration(durationMs), Instant.ofEpochMilli(startMs), numNodes, seed,
+                numEvents, elapsedMs));
+        sb.append(String.format("Peak concurrency: %d job(s) at %s.%n%n", peakConcurrency,
+                Instant.ofEpochMilli(peakConcurrencyAtMs)));
+        sb.append(String.format("%-32s %-17s %7s %7s %7s %6s %7s %7s %6s %6s %7s %7s %8s %8s%n",
+                "worker", "policy", "ticks", "runs", "missed", "miss%", "lockmis", "lockw99",
+                "peak", "overlp", "queue99", "lag99", "run-mean", "run-max"));
+        for (WorkerStats w : getWorkers()) {
+            sb.append(String.format(
+                    "%-32s %-17s %7d %7d %7d %6.2f %7d %7d %6d %6d %7d %7d %8d %8d%n",
+                    w.name, w.policy, w.ticks, w.runs, w.missed, 100.0 * w.getMissRate(),
+                    w.lockMisses, w.lockWaitMs.getValueAtPercentile(99), w.peakConcurrency,
+                    w.overlaps, w.queueWaitMs.getValueAtPercentile(99),
+                    w.lagMs.getValueAtPercentile(99), Math.round(w.runTimeMs.getMean()),
+                    w.runTimeMs.getMax()));
+        }
+        sb.append(String.format("%n%-32s %7s %7s %7s %7s %7s %7s%n", "pool", "threads", "peak",
+                "queued", "util%", "satur%", "reject"));
+        for (PoolStats p : pools) {
+            sb.append(String.format("%-32s %7s %7d %7d %7.2f %7.2f %7d%n", p.name,
+                    p.threads == Integer.MAX_VALUE ? "unbound" : p.maxThreads > p.threads
+                            ? p.threads + "-" + p.maxThreads : String.valueOf(p.threads),
+                    p.peakBusy, p.peakQueued, utilization(p), saturation(p), p.rejected));
+        }
+        return sb.toString();
+    }
+
+    private static String formatDuration(long ms) {
+        return ms % 3600000 == 0 ? (ms / 3600000) + "h" : ms + "ms";
+    }
+
+    /**
+     * Render the report as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"start\":").append(startMs)
+                .append(",\"durationMs\":").append(durationMs).append(",\"nodes\":")
+                .append(numNodes).append(",\"seed\":").append(seed).append(",\"events\":")
+                .append(numEvents).append(",\"elapsedMs\":").append(elapsedMs)
+                .append(",\"peakConcurrency\":").append(peakConcurrency)
+                .append(",\"peakConcurrencyAt\":").append(peakConcurrencyAtMs)
+                .append(",\"workers\":[");
+        int i = 0;
+        for (WorkerStats w : getWorkers()) {
+            sb.append(i++ > 0 ? "," : "").append("{\"name\":").append(JsonUtils.quote(w.name))
+                    .append(",\"policy\":").append(JsonUtils.quote(w.policy)).append(",\"ticks\":")
+                    .append(w.ticks).append(",\"runs\":").append(w.runs).append(",\"missed\":")
+                    .append(w.missed).append(",\"replayed\":").append(w.replayed)
+                    .append(",\"discarded\":").append(w.discarded).append(",\"lockAttempts\":")
+                    .append(w.lockAttempts).append(",\"lockMisses\":").append(w.lockMisses)
+                    .append(",\"overlaps\":").append(w.overlaps).append(",\"peakConcurrency\":")
+                    .append(w.peakConcurrency).append(",\"lockWaitMs\":")
+                    .append(histogramJson(w.lockWaitMs)).append(",\"queueWaitMs\":")
+                    .append(histogramJson(w.queueWaitMs)).append(",\"lagMs\":")
+                    .append(histogramJson(w.lagMs)).append(",\"runTimeMs\":")
+                    .append(histogramJson(w.runTimeMs)).append("}");
+        }
+        sb.append("],\"pools\":[");
+        i = 0;
+        for (PoolStats p : pools) {
+            sb.append(i++ > 0 ? "," : "").append("{\"name\":").append(JsonUtils.quote(p.name))
+                    .append(",\"threads\":").append(p.threads).append(",\"maxThreads\":")
+                    .append(p.maxThreads).append(",\"peakBusy\":").append(p.peakBusy)
+                    .append(",\"peakQueued\":").append(p.peakQueued)
+                    .append(",\"utilization\":")
+                    .append(String.format(Locale.ROOT, "%.2f", utilization(p)))
+                    .append(",\"saturation\":")
+                    .append(String.format(Locale.ROOT, "%.2f", saturation(p)))
+                    .append(",\"rejected\":").append(p.rejected).append("}");
+        }
+        return sb.append("]}").toString();
+    }
+}
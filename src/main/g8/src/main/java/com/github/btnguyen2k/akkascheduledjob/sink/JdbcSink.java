@@ -0,0 +1,424 @@
+package com.github.btnguyen2k.akkascheduledjob.sink;
+
+import com.github.btnguyen2k.akkascheduledjob.metrics.Histogram;
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batching JDBC writer.
+ *
+ * <ul>
+ * <li>Workers hand records over with {@link #offer(Object)}, which never blocks: records go to a
+ * bounded queue. When the queue is full the record is rejected ({@code false} is returned), which
+ * is the backpressure signal; callers that prefer to wait use
+ * {@link #offer(Object, long, TimeUnit)}.</li>
+ * <li>A single writer thread drains the queue into batches of up to {@code batchSize} records,
+ * waiting at most {@code flushIntervalMs} after a batch's first record, and writes each batch as
+ * one JDBC batch ({@code sql} is an insert or upsert statement) in one transaction. The sink thus
+ * holds at most one pooled connection at a time, however many workers produce records.</li>
+ * <li>A failed batch is retried up to {@code maxRetries} times, then counted as failed and
+ * dropped.</li>
+ * <li>Flush latency (batch write time) and end-to-end latency (oldest record of a batch, from
+ * offer to commit) are recorded in histograms, in microseconds.</li>
+ * </ul>
+ *
+ * @param <T> type of records
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JdbcSink<T> {
+    private final Logger LOGGER = LoggerFactory.getLogger(JdbcSink.class);
+
+    private final static class Entry<T> {
+        private final T record;
+        private final long offeredNs;
+
+        private Entry(T record, long offeredNs) {
+            this.record = record;
+            this.offeredNs = offeredNs;
+        }
+    }
+
+    private final static long POLL_NS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String name;
+    private DataSource dataSource;
+    private String sql;
+    private RowBinder<? super T> binder;
+    private int batchSize = 500;
+    private long flushIntervalMs = 200;
+    private int queueCapacity = 10000;
+    private int maxRetries = 3;
+    private long retryBackoffMs = 500;
+
+    private BlockingQueue<Entry<T>> queue;
+    private Thread writer;
+    private volatile boolean running = false;
+
+    private final AtomicLong numOffered = new AtomicLong(), numRejected = new AtomicLong();
+    private final AtomicLong numWritten = new AtomicLong(), numFailed = new AtomicLong();
+    private final AtomicLong numBatches = new AtomicLong(), numRetries = new AtomicLong();
+    private final Histogram flushLatency = new Histogram();
+    private final Histogram endToEndLatency = new Histogram();
+
+    public JdbcSink(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public JdbcSink<T> setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+        return this;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Insert or upsert statement, executed once per record in a JDBC batch.
+     *
+     * @param sql
+     * @return
+     */
+    public JdbcSink<T> setSql(String sql) {
+        this.sql = sql;
+        return this;
+    }
+
+    public RowBinder<? super T> getBinder() {
+        return binder;
+    }
+
+    public JdbcSink<T> setBinder(RowBinder<? super T> binder) {
+        this.binder = binder;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public JdbcSink<T> setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+        return this;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    /**
+     * Max time a record waits for its batch to fill up.
+     *
+     * @param flushIntervalMs
+     * @return
+     */
+    public JdbcSink<T> setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = Math.max(0, flushIntervalMs);
+        return this;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public JdbcSink<T> setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        return this;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public JdbcSink<T> setMaxRetries(int maxRetries) {
+        this.maxRetries = Math.max(0, maxRetries);
+        return this;
+    }
+
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+
+    /**
+     * Wait before the {@code n}-th retry of a failed batch is {@code n * retryBackoffMs}.
+     *
+     * @param retryBackoffMs
+     * @return
+     */
+    public JdbcSink<T> setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+        return this;
+    }
+
+    public JdbcSink<T> init() {
+        if (dataSource == null) {
+            throw new IllegalStateException("No data source specified for sink [" + name + "]!");
+        }
+        if (sql == null || binder == null) {
+            throw new IllegalStateException("No sql/binder specified for sink [" + name + "]!");
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "jdbc-sink-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        return this;
+    }
+
+    /**
+     * Stop accepting records and write the queued ones.
+     *
+     * @param timeoutMs max time to wait for queued records to be written
+     */
+    public void destroy(long timeoutMs) {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(timeoutMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                writer.interrupt();
+                LOGGER.warn("Sink [" + name + "]: " + queue.size()
+                        + " record(s) not written within " + timeoutMs + "ms!");
+            }
+            writer = null;
+        }
+        LOGGER.info("Sink [" + name + "] stopped: " + this);
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Queue a record, without blocking.
+     *
+     * @param record
+     * @return {@code false} if the queue is full (or the sink is stopped) and the record was
+     * rejected
+     */
+    public boolean offer(T record) {
+        if (running && queue.offer(new Entry<>(record, System.nanoTime()))) {
+            numOffered.incrementAndGet();
+            return true;
+        }
+        numRejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Queue a record, waiting up to {@code timeout} for space in the queue.
+     *
+     * @param record
+     * @param timeout
+     * @param unit
+     * @return {@code false} if the record was rejected
+     * @throws InterruptedException
+     */
+    public boolean offer(T record, long timeout, TimeUnit unit) throws InterruptedException {
+        if (running && queue.offer(new Entry<>(record, System.nanoTime()), timeout, unit)) {
+            numOffered.incrementAndGet();
+            return true;
+        }
+        numRejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Number of queued records.
+     *
+     * @return
+     */
+    public int getQueueSize() {
+        return queue != null ? queue.size() : 0;
+    }
+
+    /**
+     * Number of records that can be queued before the sink rejects records.
+     *
+     * @return
+     */
+    public int getRemainingCapacity() {
+        return queue != null ? queue.remainingCapacity() : 0;
+    }
+
+    public long getOfferedCount() {
+        return numOffered.get();
+    }
+
+    public long getRejectedCount() {
+        return numRejected.get();
+    }
+
+    public long getWrittenCount() {
+        return numWritten.get();
+    }
+
+    public long getFailedCount() {
+        return numFailed.get();
+    }
+
+    public long getBatchCount() {
+        return numBatches.get();
+    }
+
+    public long getRetryCount() {
+        return numRetries.get();
+    }
+
+    /**
+     * Time to write a batch (get connection, bind, execute, commit), in microseconds.
+     *
+     * @return
+     */
+    public Histogram getFlushLatencyHistogram() {
+        return flushLatency;
+    }
+
+    /**
+     * Time from offer to commit of the oldest record of each batch, in microseconds.
+     *
+     * @return
+     */
+    public Histogram getEndToEndLatencyHistogram() {
+        return endToEndLatency;
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    private void writeLoop() {
+        List<Entry<T>> batch = new ArrayList<>(batchSize);
+        long flushIntervalNs = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry<T> first = queue.poll(POLL_NS, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = first.offeredNs + flushIntervalNs;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    // wake up at least every 100ms to notice a stop, and write what is queued
+                    Entry<T> next = queue.poll(Math.min(remaining, POLL_NS),
+                            TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    numFailed.addAndGet(batch.size());
+                }
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Entry<T>> batch) throws InterruptedException {
+        Exception lastError = null;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                numRetries.incrementAndGet();
+                Thread.sleep(attempt * retryBackoffMs);
+            }
+            long start = System.nanoTime();
+            try {
+                write(batch);
+                long now = System.nanoTime();
+                flushLatency.record(TimeUnit.NANOSECONDS.toMicros(now - start));
+                endToEndLatency.record(TimeUnit.NANOSECONDS.toMicros(now - batch.get(0).offeredNs));
+                numBatches.incrementAndGet();
+                numWritten.addAndGet(batch.size());
+                return;
+            } catch (Exception e) {
+                lastError = e;
+                LOGGER.warn("Sink [" + name + "]: error writing batch of " + batch.size()
+                        + " record(s), attempt " + (attempt + 1) + ": " + e.getMessage());
+            }
+        }
+        numFailed.addAndGet(batch.size());
+        LOGGER.error("Sink [" + name + "]: batch of " + batch.size() + " record(s) dropped after "
+                + (maxRetries + 1) + " attempt(s)!", lastError);
+    }
+
+    private void write(List<Entry<T>> batch) throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Entry<T> entry : batch) {
+                    binder.bind(stmt, entry.record);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Render stats of this sink as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        return "{\"name\":" + JsonUtils.quote(name)
+                + ",\"queued\":" + getQueueSize() + ",\"offered\":" + getOfferedCount()
+                + ",\"rejected\":" + getRejectedCount() + ",\"written\":" + getWrittenCount()
+                + ",\"failed\":" + getFailedCount() + ",\"batches\":" + getBatchCount()
+                + ",\"retries\":" + getRetryCount() + ",\"flushLatencyMs\":"
+                + histogramJson(flushLatency) + ",\"endToEndLatencyMs\":"
+                + histogramJson(endToEndLatency) + "}";
+    }
+
+    private static String histogramJson(Histogram h) {
+        return "{\"count\":" + h.getCount() + ",\"mean\":" + JsonUtils.formatMs(h.getMean())
+                + ",\"p50\":" + JsonUtils.formatMs(h.getValueAtPercentile(50)) + ",\"p99\":"
+                + JsonUtils.formatMs(h.getValueAtPercentile(99)) + ",\"max\":"
+                + JsonUtils.formatMs(h.getMax()) + "}";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return toJson();
+    }
+}
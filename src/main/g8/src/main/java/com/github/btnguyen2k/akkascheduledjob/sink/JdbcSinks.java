@@ -0,0 +1,119 @@
+package com.github.btnguyen2k.akkascheduledjob.sink;
+
+import com.github.ddth.commons.utils.DPathUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Named {@link JdbcSink}s of {@code Object[]} records, built from the {@code jdbc-sinks} section
+ * of {@code application.conf} by {@code DataSourcesBootstrapper}, and registered in
+ * {@code RegistryGlobal} as key {@code jdbc-sinks}.
+ *
+ * <pre>
+ * jdbc-sinks {
+ *   # Name of the sink
+ *   job-results {
+ *     datasource        = "default"   #name of the data source (see "datasources")
+ *     sql               = "INSERT INTO job_results (worker, run_time, result) VALUES (?, ?, ?)"
+ *     batch-size        = 500         #optional, max records per JDBC batch, default value = 500
+ *     flush-interval-ms = 200         #optional, max time a record waits for its batch, default value = 200
+ *     queue-capacity    = 10000       #optional, max queued records before records are rejected, default value = 10000
+ *     max-retries       = 3           #optional, retries of a failed batch, default value = 3
+ *     retry-backoff-ms  = 500         #optional, default value = 500
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JdbcSinks {
+    private final Logger LOGGER = LoggerFactory.getLogger(JdbcSinks.class);
+
+    private final ConcurrentMap<String, JdbcSink<Object[]>> sinks = new ConcurrentHashMap<>();
+
+    /**
+     * Build and start a sink from its configuration.
+     *
+     * @param sinkName
+     * @param sinkConf
+     * @param dataSources available data sources, by name
+     * @return
+     * @throws IllegalArgumentException if the sink's data source or sql is missing
+     */
+    public JdbcSink<Object[]> createSink(String sinkName, Object sinkConf,
+            Map<String, DataSource> dataSources) {
+        String dsName = DPathUtils.getValue(sinkConf, "datasource", String.class);
+        DataSource ds = dsName != null ? dataSources.get(dsName) : null;
+        if (ds == null) {
+            throw new IllegalArgumentException(
+                    "Sink [" + sinkName + "]: datasource [" + dsName + "] not found!");
+        }
+        String sql = DPathUtils.getValue(sinkConf, "sql", String.class);
+        if (sql == null) {
+            throw new IllegalArgumentException("Sink [" + sinkName + "]: no sql defined!");
+        }
+        LOGGER.info("Building JDBC sink [" + sinkName + "] on datasource [" + dsName + "]...");
+        JdbcSink<Object[]> sink = new JdbcSink<Object[]>(sinkName).setDataSource(ds).setSql(sql)
+                .setBinder(RowBinder.PARAMS);
+        DPathUtils.getValueOptional(sinkConf, "batch-size", Integer.class)
+                .ifPresent(v -> sink.setBatchSize(v.intValue()));
+        DPathUtils.getValueOptional(sinkConf, "flush-interval-ms", Long.class)
+                .ifPresent(v -> sink.setFlushIntervalMs(v.longValue()));
+        DPathUtils.getValueOptional(sinkConf, "queue-capacity", Integer.class)
+                .ifPresent(v -> sink.setQueueCapacity(v.intValue()));
+        DPathUtils.getValueOptional(sinkConf, "max-retries", Integer.class)
+                .ifPresent(v -> sink.setMaxRetries(v.intValue()));
+        DPathUtils.getValueOptional(sinkConf, "retry-backoff-ms", Long.class)
+                .ifPresent(v -> sink.setRetryBackoffMs(v.longValue()));
+        sinks.put(sinkName, sink.init());
+        return sink;
+    }
+
+    /**
+     * Get a sink by name.
+     *
+     * @param sinkName
+     * @return {@code null} if not found
+     */
+    public JdbcSink<Object[]> getSink(String sinkName) {
+        return sinks.get(sinkName);
+    }
+
+    public Collection<JdbcSink<Object[]>> getAllSinks() {
+        return Collections.unmodifiableCollection(sinks.values());
+    }
+
+    /**
+     * Render stats of all sinks as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"timestamp\":").append(System.currentTimeMillis())
+                .append(",\"sinks\":[");
+        boolean first = true;
+        for (JdbcSink<Object[]> sink : sinks.values()) {
+            sb.append(first ? "" : ",").append(sink.toJson());
+            first = false;
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * Stop all sinks, writing queued records.
+     *
+     * @param timeoutMs max time to wait for each sink
+     */
+    public void destroy(long timeoutMs) {
+        sinks.values().forEach(sink -> sink.destroy(timeoutMs));
+        sinks.clear();
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.btnguyen2k.akkascheduledjob.sink;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds a record to the parameters of a {@link JdbcSink}'s statement.
+ *
+ * @param <T> type of records
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@FunctionalInterface
+public interface RowBinder<T> {
+    /**
+     * Binds an {@code Object[]} record: element {@code i} to parameter {@code i+1}.
+     */
+    RowBinder<Object[]> PARAMS = (stmt, params) -> {
+        for (int i = 0; i < params.length; i++) {
+            stmt.setObject(i + 1, params[i]);
+        }
+    };
+
+    /**
+     * Set the statement's parameters from a record.
+     *
+     * @param stmt
+     * @param record
+     * @throws SQLException
+     */
+    void bind(PreparedStatement stmt, T record) throws SQLException;
+}
@@ -0,0 +1,225 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.LockResult;
+import com.github.ddth.pubsub.IPubSubHub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.Duration;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drop-in replacement for {@code MultiNodePubSubBasedTickFanOutActor} that publishes ticks in the
+ * compact {@link TickCodec} encoding, coalescing ticks generated within a batch window into one
+ * pub/sub message.
+ *
+ * <ul>
+ * <li>Like {@code MultiNodePubSubBasedTickFanOutActor}, only the node holding the dlock publishes
+ * ticks; all nodes (including the publisher) subscribe to the channel and deliver received ticks
+ * to local workers via the actor system's event stream.</li>
+ * <li>With {@code batchWindowMs > 0}, the first tick of a batch starts a timer; ticks generated
+ * before it fires (or until {@code batchMaxTicks} is reached) are published as a single frame.
+ * Ticks are delivered up to {@code batchWindowMs} later, in exchange for far fewer publishes
+ * when the tick interval is short.</li>
+ * </ul>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class BatchingPubSubTickFanOutActor extends AbstractActor {
+    /**
+     * Settings of the batching fan-out.
+     */
+    public static class Settings {
+        private IDLock dlock;
+        private long dlockTimeMs = 5000;
+        private IPubSubHub<?, byte[]> pubSubHub;
+        private String channelName = "akka-scheduled-jobs";
+        private long tickIntervalMs = 1000;
+        private long batchWindowMs = 0;
+        private int batchMaxTicks = 64;
+
+        public IDLock getDlock() {
+            return dlock;
+        }
+
+        public Settings setDlock(IDLock dlock) {
+            this.dlock = dlock;
+            return this;
+        }
+
+        public long getDlockTimeMs() {
+            return dlockTimeMs;
+        }
+
+        public Settings setDlockTimeMs(long dlockTimeMs) {
+            this.dlockTimeMs = dlockTimeMs;
+            return this;
+        }
+
+        public IPubSubHub<?, byte[]> getPubSubHub() {
+            return pubSubHub;
+        }
+
+        public Settings setPubSubHub(IPubSubHub<?, byte[]> pubSubHub) {
+            this.pubSubHub = pubSubHub;
+            return this;
+        }
+
+        public String getChannelName() {
+            return channelName;
+        }
+
+        public Settings setChannelName(String channelName) {
+            this.channelName = channelName;
+            return this;
+        }
+
+        public long getTickIntervalMs() {
+            return tickIntervalMs;
+        }
+
+        /**
+         * Interval between generated ticks, ticks are aligned to multiples of this interval.
+         *
+         * @param tickIntervalMs
+         * @return
+         */
+        public Settings setTickIntervalMs(long tickIntervalMs) {
+            this.tickIntervalMs = Math.max(1, tickIntervalMs);
+            return this;
+        }
+
+        public long getBatchWindowMs() {
+            return batchWindowMs;
+        }
+
+        /**
+         * Max time a tick waits to be batched with following ticks, {@code 0} = no batching.
+         *
+         * @param batchWindowMs
+         * @return
+         */
+        public Settings setBatchWindowMs(long batchWindowMs) {
+            this.batchWindowMs = Math.max(0, batchWindowMs);
+            return this;
+        }
+
+        public int getBatchMaxTicks() {
+            return batchMaxTicks;
+        }
+
+        public Settings setBatchMaxTicks(int batchMaxTicks) {
+            this.batchMaxTicks = Math.max(1, batchMaxTicks);
+            return this;
+        }
+    }
+
+    /**
+     * Create a new {@link BatchingPubSubTickFanOutActor} instance.
+     *
+     * @param actorSystem
+     * @param settings
+     * @return
+     */
+    public static ActorRef newInstance(ActorSystem actorSystem, Settings settings) {
+        return actorSystem.actorOf(Props.create(BatchingPubSubTickFanOutActor.class, settings),
+                BatchingPubSubTickFanOutActor.class.getSimpleName());
+    }
+
+    private final static Object MSG_TICK = "tick";
+    private final static Object MSG_FLUSH = "flush";
+
+    private final Logger LOGGER = LoggerFactory.getLogger(BatchingPubSubTickFanOutActor.class);
+
+    private final Settings settings;
+    private final String clientId;
+    private final TickBatchPublisher publisher;
+    private Cancellable tickTimer, flushTimer;
+    private Runnable unsubscriber;
+    private boolean holdingLock = false;
+
+    public BatchingPubSubTickFanOutActor(Settings settings) {
+        this.settings = settings;
+        this.clientId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID()
+                .toString().substring(0, 8);
+        this.publisher = new TickBatchPublisher(settings.pubSubHub, settings.channelName,
+                settings.batchWindowMs > 0 ? settings.batchMaxTicks : 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+        ActorSystem system = getContext().getSystem();
+        unsubscriber = PubSubHelper.subscribe(settings.pubSubHub, settings.channelName,
+                new TickBatchSubscriber(tick -> system.eventStream().publish(tick)));
+        long interval = settings.tickIntervalMs;
+        long delayMs = interval - System.currentTimeMillis() % interval;
+        tickTimer = system.scheduler().schedule(Duration.create(delayMs, TimeUnit.MILLISECONDS),
+                Duration.create(interval, TimeUnit.MILLISECONDS), getSelf(), MSG_TICK,
+                getContext().dispatcher(), getSelf());
+        LOGGER.info("Batching tick fan-out started on node [" + clientId + "], tick interval: "
+                + interval + "ms, batch window: " + settings.batchWindowMs + "ms.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postStop() throws Exception {
+        if (tickTimer != null) {
+            tickTimer.cancel();
+        }
+        if (flushTimer != null) {
+            flushTimer.cancel();
+        }
+        if (holdingLock) {
+            publisher.flush();
+            settings.dlock.unlock(clientId);
+        }
+        if (unsubscriber != null) {
+            unsubscriber.run();
+        }
+        super.postStop();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder().matchEquals(MSG_TICK, msg -> onTick())
+                .matchEquals(MSG_FLUSH, msg -> onFlush()).build();
+    }
+
+    private void onTick() {
+        TickMessage tick = new TickMessage();
+        holdingLock = settings.dlock.lock(clientId, settings.dlockTimeMs) == LockResult.SUCCESSFUL;
+        if (!holdingLock) {
+            return;
+        }
+        if (!publisher.offer(tick) && publisher.getPending() == 1) {
+            // first tick of a new batch: publish it when the window closes
+            flushTimer = getContext().getSystem().scheduler().scheduleOnce(
+                    Duration.create(settings.batchWindowMs, TimeUnit.MILLISECONDS), getSelf(),
+                    MSG_FLUSH, getContext().dispatcher(), getSelf());
+        }
+    }
+
+    private void onFlush() {
+        flushTimer = null;
+        publisher.flush();
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Consistent-hash ring mapping keys to {@code numShards} shards.
+ *
+ * <p>
+ * Each shard is placed on the ring at {@code virtualNodes} points; a key belongs to the shard of
+ * the first point clockwise from the key's hash. Changing the number of shards from {@code N} to
+ * {@code N+1} moves only about {@code 1/(N+1)} of the keys. Hashes are stable across JVMs and
+ * restarts, so that all nodes agree on the mapping.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class ConsistentHashRing {
+    public final static int DEFAULT_VIRTUAL_NODES = 128;
+
+    /**
+     * Stable 64-bit hash of a string (FNV-1a over UTF-8 bytes, followed by MurmurHash3's
+     * finalizer to spread the bits).
+     *
+     * @param key
+     * @return
+     */
+    public static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Rendezvous (highest-random-weight) hashing: pick the candidate with the highest
+     * {@code hash(candidate + "#" + key)}. Removing a candidate only moves the keys it owned.
+     *
+     * @param key
+     * @param candidates
+     * @return {@code null} if there is no candidate
+     */
+    public static String rendezvous(String key, Collection<String> candidates) {
+        String winner = null;
+        long winnerWeight = Long.MIN_VALUE;
+        for (String candidate : candidates) {
+            long weight = hash(candidate + "#" + key);
+            if (winner == null || weight > winnerWeight
+                    || (weight == winnerWeight && candidate.compareTo(winner) < 0)) {
+                winner = candidate;
+                winnerWeight = weight;
+            }
+        }
+        return winner;
+    }
+
+    private final int numShards;
+    private final long[] points;
+    private final int[] shards;
+
+    public ConsistentHashRing(int numShards) {
+        this(numShards, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(int numShards, int virtualNodes) {
+        if (numShards < 1) {
+            throw new IllegalArgumentException("Number of shards must be positive!");
+        }
+        this.numShards = numShards;
+        int n = numShards * virtualNodes;
+        long[][] entries = new long[n][];
+        for (int shard = 0, i = 0; shard < numShards; shard++) {
+            for (int v = 0; v < virtualNodes; v++, i++) {
+                entries[i] = new long[] { hash("shard-" + shard + "-" + v), shard };
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        points = new long[n];
+        shards = new int[n];
+        for (int i = 0; i < n; i++) {
+            points[i] = entries[i][0];
+            shards[i] = (int) entries[i][1];
+        }
+    }
+
+    public int getNumShards() {
+        return numShards;
+    }
+
+    /**
+     * Shard a key belongs to.
+     *
+     * @param key
+     * @return
+     */
+    public int shardOf(String key) {
+        int pos = Arrays.binarySearch(points, hash(key));
+        if (pos < 0) {
+            pos = -pos - 1;
+        }
+        return shards[pos >= points.length ? 0 : pos];
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import com.github.ddth.pubsub.IPubSubHub;
+import com.github.ddth.pubsub.ISubscriber;
+
+import java.util.function.Consumer;
+
+/**
+ * Helpers to publish/subscribe raw payloads on an {@code IPubSubHub<?, byte[]>} (as built by
+ * {@code RegistryGlobal.buildPubSubHub}) without caring about the hub's message-id type.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class PubSubHelper {
+    /**
+     * Publish a payload to a channel.
+     *
+     * @param hub
+     * @param channel
+     * @param data
+     * @return
+     */
+    public static <ID> boolean publish(IPubSubHub<ID, byte[]> hub, String channel, byte[] data) {
+        return hub.publish(channel, hub.createMessage(data));
+    }
+
+    /**
+     * Subscribe to a channel.
+     *
+     * @param hub
+     * @param channel
+     * @param handler receives payloads of messages published to the channel
+     * @return call {@link Runnable#run()} to unsubscribe
+     */
+    public static <ID> Runnable subscribe(IPubSubHub<ID, byte[]> hub, String channel,
+            Consumer<byte[]> handler) {
+        ISubscriber<ID, byte[]> subscriber = (ch, msg) -> {
+            handler.accept(msg.getData());
+            return true;
+        };
+        hub.subscribe(channel, subscriber);
+        return () -> hub.unsubscribe(channel, subscriber);
+    }
+}
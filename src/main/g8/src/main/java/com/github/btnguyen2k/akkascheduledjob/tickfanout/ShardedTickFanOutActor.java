@@ -0,0 +1,337 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.actor.Props;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.IDLockFactory;
+import com.github.ddth.dlock.LockResult;
+import com.github.ddth.pubsub.IPubSubHub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.Duration;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Multi-node tick fan-out with leadership spread over all live nodes.
+ *
+ * <ul>
+ * <li>Workers are split into {@code N} shards by consistent hashing of their actor names
+ * ({@link ConsistentHashRing}).</li>
+ * <li>Each shard has its own dlock ({@code <lock-name>-<shard>}) and pub/sub channel
+ * ({@code <channel-name>-<shard>}).</li>
+ * <li>Nodes announce themselves on channel {@code <channel-name>-members}; each shard is owned
+ * by the live node selected by rendezvous hashing. Only the owner tries the shard's dlock and
+ * publishes the shard's ticks, so leadership and publishing load are spread across the fleet.
+ * When nodes join or leave, shard ownership is rebalanced: a node that is no longer the owner of
+ * a shard releases the shard's dlock right away.</li>
+ * <li>Each node delivers a shard's ticks directly to its local workers of that shard.</li>
+ * </ul>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class ShardedTickFanOutActor extends AbstractActor {
+    /**
+     * Settings of the sharded fan-out.
+     */
+    public static class Settings {
+        private IDLockFactory dlockFactory;
+        private String lockName = "tick-fan-out";
+        private long dlockTimeMs = 5000;
+        private IPubSubHub<?, byte[]> pubSubHub;
+        private String channelName = "akka-scheduled-jobs";
+        private int numShards = 4;
+        private long heartbeatIntervalMs = 1000;
+        private long nodeTimeoutMs = 5000;
+        private WorkerDirectory workerDirectory;
+
+        public IDLockFactory getDlockFactory() {
+            return dlockFactory;
+        }
+
+        public Settings setDlockFactory(IDLockFactory dlockFactory) {
+            this.dlockFactory = dlockFactory;
+            return this;
+        }
+
+        public String getLockName() {
+            return lockName;
+        }
+
+        public Settings setLockName(String lockName) {
+            this.lockName = lockName;
+            return this;
+        }
+
+        public long getDlockTimeMs() {
+            return dlockTimeMs;
+        }
+
+        public Settings setDlockTimeMs(long dlockTimeMs) {
+            this.dlockTimeMs = dlockTimeMs;
+            return this;
+        }
+
+        public IPubSubHub<?, byte[]> getPubSubHub() {
+            return pubSubHub;
+        }
+
+        public Settings setPubSubHub(IPubSubHub<?, byte[]> pubSubHub) {
+            this.pubSubHub = pubSubHub;
+            return this;
+        }
+
+        public String getChannelName() {
+            return channelName;
+        }
+
+        public Settings setChannelName(String channelName) {
+            this.channelName = channelName;
+            return this;
+        }
+
+        public int getNumShards() {
+            return numShards;
+        }
+
+        public Settings setNumShards(int numShards) {
+            this.numShards = numShards;
+            return this;
+        }
+
+        public long getHeartbeatIntervalMs() {
+            return heartbeatIntervalMs;
+        }
+
+        public Settings setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+            this.heartbeatIntervalMs = heartbeatIntervalMs;
+            return this;
+        }
+
+        public long getNodeTimeoutMs() {
+            return nodeTimeoutMs;
+        }
+
+        public Settings setNodeTimeoutMs(long nodeTimeoutMs) {
+            this.nodeTimeoutMs = nodeTimeoutMs;
+            return this;
+        }
+
+        public WorkerDirectory getWorkerDirectory() {
+            return workerDirectory;
+        }
+
+        public Settings setWorkerDirectory(WorkerDirectory workerDirectory) {
+            this.workerDirectory = workerDirectory;
+            return this;
+        }
+    }
+
+    /**
+     * Create a new {@link ShardedTickFanOutActor} instance.
+     *
+     * @param actorSystem
+     * @param settings
+     * @return
+     */
+    public static ActorRef newInstance(ActorSystem actorSystem, Settings settings) {
+        return actorSystem.actorOf(Props.create(ShardedTickFanOutActor.class, settings),
+                ShardedTickFanOutActor.class.getSimpleName());
+    }
+
+    private final static Object MSG_TICK = "tick";
+    private final static Object MSG_HEARTBEAT = "heartbeat";
+
+    /**
+     * Local workers of each shard, rebuilt when the worker directory changes.
+     */
+    private final static class Routes {
+        private final long version;
+        private final ActorRef[][] byShard;
+
+        private Routes(long version, ActorRef[][] byShard) {
+            this.version = version;
+            this.byShard = byShard;
+        }
+    }
+
+    private final Logger LOGGER = LoggerFactory.getLogger(ShardedTickFanOutActor.class);
+
+    private final Settings settings;
+    private final ConsistentHashRing ring;
+    private final String nodeId;
+    private final IDLock[] shardLocks;
+    private final String[] shardChannels;
+    private final String membersChannel;
+    private final ConcurrentMap<String, Long> liveNodes = new ConcurrentHashMap<>();
+    private final Set<Integer> ownedShards = new HashSet<>();
+    private final List<Cancellable> timers = new ArrayList<>();
+    private final List<Runnable> unsubscribers = new ArrayList<>();
+    private volatile Routes routes = new Routes(-1, new ActorRef[0][]);
+
+    public ShardedTickFanOutActor(Settings settings) {
+        this.settings = settings;
+        this.ring = new ConsistentHashRing(settings.numShards);
+        this.nodeId = ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID()
+                .toString().substring(0, 8);
+        this.shardLocks = new IDLock[settings.numShards];
+        this.shardChannels = new String[settings.numShards];
+        for (int i = 0; i < settings.numShards; i++) {
+            shardLocks[i] = settings.dlockFactory.createLock(settings.lockName + "-" + i);
+            shardChannels[i] = settings.channelName + "-" + i;
+        }
+        this.membersChannel = settings.channelName + "-members";
+    }
+
+    /**
+     * Id of this node, as announced to other nodes.
+     *
+     * @return
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+        unsubscribers.add(PubSubHelper.subscribe(settings.pubSubHub, membersChannel,
+                data -> liveNodes.put(new String(data, StandardCharsets.UTF_8),
+                        System.currentTimeMillis())));
+        for (int i = 0; i < shardChannels.length; i++) {
+            int shard = i;
+            unsubscribers.add(PubSubHelper.subscribe(settings.pubSubHub, shardChannels[i],
+                    new TickBatchSubscriber(tick -> deliver(shard, tick))));
+        }
+        liveNodes.put(nodeId, System.currentTimeMillis());
+
+        ActorSystem system = getContext().getSystem();
+        timers.add(system.scheduler()
+                .schedule(Duration.create(0, TimeUnit.MILLISECONDS),
+                        Duration.create(settings.heartbeatIntervalMs, TimeUnit.MILLISECONDS),
+                        getSelf(), MSG_HEARTBEAT, getContext().dispatcher(), getSelf()));
+        // align ticks to wall-clock seconds
+        long delayMs = 1000 - System.currentTimeMillis() % 1000;
+        timers.add(system.scheduler().schedule(Duration.create(delayMs, TimeUnit.MILLISECONDS),
+                Duration.create(1000, TimeUnit.MILLISECONDS), getSelf(), MSG_TICK,
+                getContext().dispatcher(), getSelf()));
+        LOGGER.info("Sharded tick fan-out started on node [" + nodeId + "] with "
+                + settings.numShards + " shards.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postStop() throws Exception {
+        timers.forEach(Cancellable::cancel);
+        unsubscribers.forEach(Runnable::run);
+        for (int shard : ownedShards) {
+            shardLocks[shard].unlock(nodeId);
+        }
+        ownedShards.clear();
+        super.postStop();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder().matchEquals(MSG_TICK, msg -> onTick())
+                .matchEquals(MSG_HEARTBEAT, msg -> onHeartbeat()).build();
+    }
+
+    private void onHeartbeat() {
+        long now = System.currentTimeMillis();
+        liveNodes.put(nodeId, now);
+        PubSubHelper.publish(settings.pubSubHub, membersChannel, nodeId.getBytes(StandardCharsets.UTF_8));
+        liveNodes.entrySet().removeIf(
+                e -> !nodeId.equals(e.getKey()) && now - e.getValue() > settings.nodeTimeoutMs);
+    }
+
+    private void onTick() {
+        TickMessage tick = new TickMessage();
+        byte[] data = null;
+        Set<String> nodes = liveNodes.keySet();
+        for (int shard = 0; shard < shardLocks.length; shard++) {
+            boolean isOwner = nodeId.equals(ConsistentHashRing.rendezvous("shard-" + shard, nodes));
+            if (!isOwner) {
+                if (ownedShards.remove(shard)) {
+                    // rebalanced to another node: hand over the shard right away
+                    shardLocks[shard].unlock(nodeId);
+                    LOGGER.info("Shard [" + shard + "] handed over from node [" + nodeId + "].");
+                }
+                continue;
+            }
+            if (shardLocks[shard].lock(nodeId, settings.dlockTimeMs) == LockResult.SUCCESSFUL) {
+                if (ownedShards.add(shard)) {
+                    LOGGER.info("Shard [" + shard + "] taken over by node [" + nodeId + "].");
+                }
+                if (data == null) {
+                    data = TickCodec.encode(tick);
+                }
+                PubSubHelper.publish(settings.pubSubHub, shardChannels[shard], data);
+            }
+        }
+    }
+
+    private Routes currentRoutes() {
+        WorkerDirectory directory = settings.workerDirectory;
+        Routes current = routes;
+        if (directory == null || current.version == directory.getVersion()) {
+            return current;
+        }
+        synchronized (this) {
+            long version = directory.getVersion();
+            if (routes.version != version) {
+                List<List<ActorRef>> byShard = new ArrayList<>();
+                for (int i = 0; i < settings.numShards; i++) {
+                    byShard.add(new ArrayList<>());
+                }
+                directory.getAll().forEach((name, entry) -> byShard.get(ring.shardOf(name))
+                        .add(entry.getActorRef()));
+                ActorRef[][] arr = new ActorRef[settings.numShards][];
+                for (int i = 0; i < arr.length; i++) {
+                    arr[i] = byShard.get(i).toArray(new ActorRef[0]);
+                }
+                routes = new Routes(version, arr);
+            }
+            return routes;
+        }
+    }
+
+    /**
+     * Deliver a shard's tick to local workers of the shard. Called from the pub/sub hub's
+     * thread; {@link ActorRef#tell(Object, ActorRef)} is thread-safe.
+     */
+    private void deliver(int shard, TickMessage tick) {
+        if (tick == null) {
+            return;
+        }
+        ActorRef[][] byShard = currentRoutes().byShard;
+        if (shard < byShard.length) {
+            for (ActorRef worker : byShard[shard]) {
+                worker.tell(tick, ActorRef.noSender());
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.pubsub.IPubSubHub;
+
+/**
+ * Coalesces ticks into {@link TickCodec} frames and publishes one frame per batch.
+ *
+ * <p>
+ * Caller decides when a batch window ends and calls {@link #flush()}; a batch is also flushed as
+ * soon as it reaches {@code maxBatchTicks}. Not thread-safe: meant to be owned by one actor.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TickBatchPublisher {
+    private final IPubSubHub<?, byte[]> pubSubHub;
+    private final String channelName;
+    private final int maxBatchTicks;
+    private final TickCodec codec = new TickCodec();
+    private long numFrames, numTicks;
+
+    public TickBatchPublisher(IPubSubHub<?, byte[]> pubSubHub, String channelName,
+            int maxBatchTicks) {
+        this.pubSubHub = pubSubHub;
+        this.channelName = channelName;
+        this.maxBatchTicks = Math.max(1, maxBatchTicks);
+    }
+
+    /**
+     * Add a tick to the current batch, flushing the batch if it is full.
+     *
+     * @param tick
+     * @return {@code true} if the batch was flushed
+     */
+    public boolean offer(TickMessage tick) {
+        codec.append(tick);
+        if (codec.getCount() >= maxBatchTicks) {
+            flush();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Number of ticks waiting in the current batch.
+     *
+     * @return
+     */
+    public int getPending() {
+        return codec.getCount();
+    }
+
+    /**
+     * Publish the current batch, if not empty.
+     *
+     * @return number of published ticks
+     */
+    public int flush() {
+        int count = codec.getCount();
+        if (count > 0) {
+            PubSubHelper.publish(pubSubHub, channelName, codec.finish());
+            numFrames++;
+            numTicks += count;
+        }
+        return count;
+    }
+
+    /**
+     * Number of published frames.
+     *
+     * @return
+     */
+    public long getNumFrames() {
+        return numFrames;
+    }
+
+    /**
+     * Number of published ticks.
+     *
+     * @return
+     */
+    public long getNumTicks() {
+        return numTicks;
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.commons.utils.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Decodes payloads received from the tick channel and hands every tick to a consumer.
+ *
+ * <p>
+ * Accepts {@link TickCodec} frames as well as ticks in Java serialization (as published by
+ * {@code MultiNodePubSubBasedTickFanOutActor}), so that nodes can be switched to the binary
+ * encoding one at a time.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TickBatchSubscriber implements Consumer<byte[]> {
+    private final Logger LOGGER = LoggerFactory.getLogger(TickBatchSubscriber.class);
+
+    private final Consumer<TickMessage> consumer;
+
+    public TickBatchSubscriber(Consumer<TickMessage> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void accept(byte[] data) {
+        try {
+            if (TickCodec.isFrame(data)) {
+                TickCodec.decode(data, consumer);
+            } else {
+                TickMessage tick = SerializationUtils.fromByteArray(data, TickMessage.class);
+                if (tick != null) {
+                    consumer.accept(tick);
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Cannot decode tick payload: " + e.getMessage(), e);
+        }
+    }
+}
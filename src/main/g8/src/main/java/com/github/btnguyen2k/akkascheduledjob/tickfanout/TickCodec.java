@@ -0,0 +1,230 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.function.Consumer;
+
+/**
+ * Compact binary encoding of {@link TickMessage}s, one or more ticks per frame.
+ *
+ * <p>
+ * Frame layout (all integers are unsigned LEB128 var-ints unless noted):
+ * </p>
+ *
+ * <pre>
+ * magic (1 byte, 0x54) | version (1 byte) | tick count | base timestamp (8 bytes, big-endian)
+ * then for each tick:
+ *   timestamp delta from previous tick (zig-zag) | id flags+length | id bytes
+ * </pre>
+ *
+ * <p>
+ * Ids that are pure ASCII (the usual case) are written one byte per char and decoded with the
+ * Latin-1 fast path; other ids are written as UTF-8. A single tick usually encodes to ~50 bytes,
+ * against several hundred bytes with Java serialization.
+ * </p>
+ *
+ * <p>
+ * Decoding walks the frame in place and hands ticks to a callback: no intermediate buffers,
+ * streams or collections are allocated, only the delivered {@link TickMessage}s themselves.
+ * </p>
+ *
+ * <p>
+ * Encoder instances reuse their internal buffer and are not thread-safe.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TickCodec {
+    public final static byte MAGIC = 0x54;
+    public final static byte VERSION = 1;
+
+    private final static int FLAG_UTF8 = 1;
+    private final static int HEADER_SIZE = 2 + 5 + 8;
+
+    /**
+     * Check if a payload is a frame encoded by this codec.
+     *
+     * @param data
+     * @return
+     */
+    public static boolean isFrame(byte[] data) {
+        return data != null && data.length >= HEADER_SIZE - 4 && data[0] == MAGIC
+                && data[1] == VERSION;
+    }
+
+    /**
+     * Encode a single tick.
+     *
+     * @param tick
+     * @return
+     */
+    public static byte[] encode(TickMessage tick) {
+        return new TickCodec().begin().append(tick).finish();
+    }
+
+    /**
+     * Decode a frame, handing each tick to {@code consumer}.
+     *
+     * @param data
+     * @param consumer
+     * @return number of decoded ticks
+     * @throws IllegalArgumentException if {@code data} is not a valid frame
+     */
+    public static int decode(byte[] data, Consumer<TickMessage> consumer) {
+        if (!isFrame(data)) {
+            throw new IllegalArgumentException("Not a tick frame!");
+        }
+        int[] pos = { 2 };
+        int count = readVarInt(data, pos);
+        long timestamp = 0;
+        for (int i = 0; i < 8; i++) {
+            timestamp = (timestamp << 8) | (data[pos[0]++] & 0xff);
+        }
+        for (int i = 0; i < count; i++) {
+            long delta = readVarLong(data, pos);
+            timestamp += (delta >>> 1) ^ -(delta & 1);
+            int header = readVarInt(data, pos);
+            int len = header >>> 1;
+            if (pos[0] + len > data.length) {
+                throw new IllegalArgumentException("Truncated tick frame!");
+            }
+            String id = len == 0 ? null
+                    : new String(data, pos[0], len, (header & FLAG_UTF8) != 0
+                            ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1);
+            pos[0] += len;
+            consumer.accept(new TickMessage(id, new Date(timestamp)));
+        }
+        return count;
+    }
+
+    private static int readVarInt(byte[] data, int[] pos) {
+        return (int) readVarLong(data, pos);
+    }
+
+    private static long readVarLong(byte[] data, int[] pos) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos[0] >= data.length) {
+                throw new IllegalArgumentException("Truncated tick frame!");
+            }
+            byte b = data[pos[0]++];
+            result |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed var-int in tick frame!");
+    }
+
+    private byte[] buf = new byte[256];
+    private int size = HEADER_SIZE;
+    private int count;
+    private long baseTimestamp;
+    private long lastTimestamp;
+
+    /**
+     * Start a new frame, discarding ticks appended since the last {@link #finish()}.
+     *
+     * @return
+     */
+    public TickCodec begin() {
+        size = HEADER_SIZE;
+        count = 0;
+        return this;
+    }
+
+    /**
+     * Number of ticks appended to the current frame.
+     *
+     * @return
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Append a tick to the current frame.
+     *
+     * @param tick
+     * @return
+     */
+    public TickCodec append(TickMessage tick) {
+        long timestamp = tick.getTimestamp() != null ? tick.getTimestamp().getTime() : 0;
+        if (count == 0) {
+            baseTimestamp = lastTimestamp = timestamp;
+        }
+        long delta = timestamp - lastTimestamp;
+        lastTimestamp = timestamp;
+        writeVarLong((delta << 1) ^ (delta >> 63));
+
+        String id = tick.getId();
+        int len = id != null ? id.length() : 0;
+        boolean ascii = true;
+        for (int i = 0; i < len && ascii; i++) {
+            ascii = id.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            writeVarLong((long) len << 1);
+            ensureCapacity(len);
+            for (int i = 0; i < len; i++) {
+                buf[size++] = (byte) id.charAt(i);
+            }
+        } else {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(((long) bytes.length << 1) | FLAG_UTF8);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+        count++;
+        return this;
+    }
+
+    /**
+     * Finish the current frame.
+     *
+     * @return the encoded frame
+     */
+    public byte[] finish() {
+        // header is written last, as the tick count (var-int) is only known now
+        byte[] countBytes = new byte[5];
+        int countLen = 0;
+        for (int v = count; ; v >>>= 7) {
+            if ((v & ~0x7f) == 0) {
+                countBytes[countLen++] = (byte) v;
+                break;
+            }
+            countBytes[countLen++] = (byte) ((v & 0x7f) | 0x80);
+        }
+        int headerLen = 2 + countLen + 8;
+        int start = HEADER_SIZE - headerLen;
+        buf[start] = MAGIC;
+        buf[start + 1] = VERSION;
+        System.arraycopy(countBytes, 0, buf, start + 2, countLen);
+        for (int i = 0; i < 8; i++) {
+            buf[start + 2 + countLen + i] = (byte) (baseTimestamp >>> (56 - 8 * i));
+        }
+        byte[] frame = Arrays.copyOfRange(buf, start, size);
+        begin();
+        return frame;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+        }
+    }
+
+    private void writeVarLong(long v) {
+        ensureCapacity(10);
+        while ((v & ~0x7fL) != 0) {
+            buf[size++] = (byte) ((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        buf[size++] = (byte) v;
+    }
+}
@@ -0,0 +1,193 @@
+package com.github.btnguyen2k.akkascheduledjob.trigger;
+
+import akka.actor.ActorRef;
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.PubSubHelper;
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import com.github.ddth.pubsub.IPubSubHub;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-demand runs of named workers, requested over a pub/sub channel.
+ *
+ * <p>
+ * {@link #trigger(String)} publishes a {@link TriggerRequest} to the channel; every node
+ * subscribed to it hands the request to its local worker of that name (see
+ * {@link WorkerDirectory}), which runs it through its usual coordination: a global-singleton
+ * worker runs on one node only. Requests are deduplicated by id on each node, and coalesced by
+ * the worker: a request is already satisfied by a run that started after it was received, and
+ * any number of requests received while the worker is running lead to at most one follow-up run
+ * (see {@link BaseScheduledWorker.Trigger}).
+ * </p>
+ *
+ * <p>
+ * Only named workers extending {@link BaseScheduledWorker} can be triggered.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JobTriggers {
+    private final Logger LOGGER = LoggerFactory.getLogger(JobTriggers.class);
+
+    /**
+     * Number of recent request ids remembered for deduplication.
+     */
+    public final static int MAX_RECENT_IDS = 4096;
+
+    private IPubSubHub<?, byte[]> pubSubHub;
+    private String channelName = "akka-scheduled-jobs-triggers";
+    private WorkerDirectory workerDirectory;
+    private Runnable unsubscriber;
+
+    private final Map<String, Boolean> recentIds = new LinkedHashMap<String, Boolean>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_RECENT_IDS;
+        }
+    };
+    private final ConcurrentMap<String, Boolean> triggerable = new ConcurrentHashMap<>();
+    private final AtomicLong published = new AtomicLong(), delivered = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong(), unknown = new AtomicLong();
+
+    public IPubSubHub<?, byte[]> getPubSubHub() {
+        return pubSubHub;
+    }
+
+    public JobTriggers setPubSubHub(IPubSubHub<?, byte[]> pubSubHub) {
+        this.pubSubHub = pubSubHub;
+        return this;
+    }
+
+    public String getChannelName() {
+        return channelName;
+    }
+
+    public JobTriggers setChannelName(String channelName) {
+        this.channelName = channelName;
+        return this;
+    }
+
+    public WorkerDirectory getWorkerDirectory() {
+        return workerDirectory;
+    }
+
+    public JobTriggers setWorkerDirectory(WorkerDirectory workerDirectory) {
+        this.workerDirectory = workerDirectory;
+        return this;
+    }
+
+    public JobTriggers init() {
+        unsubscriber = PubSubHelper.subscribe(pubSubHub, channelName, this::onMessage);
+        return this;
+    }
+
+    public void destroy() {
+        if (unsubscriber != null) {
+            unsubscriber.run();
+            unsubscriber = null;
+        }
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    /**
+     * Request a run of a worker, on all nodes subscribed to the channel.
+     *
+     * @param worker name of the worker (actor)
+     * @return {@code false} if the request could not be published
+     */
+    public boolean trigger(String worker) {
+        return trigger(worker, Long.toHexString(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Request a run of a worker, on all nodes subscribed to the channel.
+     *
+     * @param worker    name of the worker (actor)
+     * @param requestId requests with the same id (e.g. retries of a publisher) are run once
+     * @return {@code false} if the request could not be published
+     */
+    public boolean trigger(String worker, String requestId) {
+        TriggerRequest request = new TriggerRequest(worker, requestId,
+                System.currentTimeMillis());
+        boolean result = PubSubHelper.publish(pubSubHub, channelName, request.encode());
+        if (result) {
+            published.incrementAndGet();
+        } else {
+            LOGGER.warn("Cannot publish trigger " + request + " to channel [" + channelName
+                    + "]!");
+        }
+        return result;
+    }
+
+    private boolean isDuplicate(String id) {
+        if (id == null) {
+            return false;
+        }
+        synchronized (recentIds) {
+            return recentIds.put(id, Boolean.TRUE) != null;
+        }
+    }
+
+    private boolean isTriggerable(WorkerDirectory.Entry entry) {
+        return triggerable.computeIfAbsent(entry.getSpec().getClassName(), className -> {
+            try {
+                return BaseScheduledWorker.class.isAssignableFrom(Class.forName(className));
+            } catch (ClassNotFoundException e) {
+                return Boolean.FALSE;
+            }
+        });
+    }
+
+    private void onMessage(byte[] data) {
+        long receivedNanos = System.nanoTime();
+        TriggerRequest request = TriggerRequest.decode(data);
+        if (request == null) {
+            LOGGER.warn("Invalid trigger payload on channel [" + channelName + "].");
+            return;
+        }
+        WorkerDirectory.Entry entry = workerDirectory.get(request.getWorker());
+        if (entry == null) {
+            // the worker may run on other nodes only
+            unknown.incrementAndGet();
+            LOGGER.debug("Trigger " + request + ": no such worker on this node.");
+            return;
+        }
+        if (!isTriggerable(entry)) {
+            unknown.incrementAndGet();
+            LOGGER.warn("Trigger " + request + ": worker [" + entry.getName()
+                    + "] does not extend BaseScheduledWorker, ignored!");
+            return;
+        }
+        if (isDuplicate(request.getId())) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        delivered.incrementAndGet();
+        entry.getActorRef().tell(new BaseScheduledWorker.Trigger(request.getId(), receivedNanos),
+                ActorRef.noSender());
+    }
+
+    /**
+     * Render counters as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        return "{\"channel\":" + JsonUtils.quote(channelName) + ",\"published\":" + published.get()
+                + ",\"delivered\":" + delivered.get() + ",\"duplicates\":" + duplicates.get()
+                + ",\"unknownWorker\":" + unknown.get() + "}";
+    }
+}
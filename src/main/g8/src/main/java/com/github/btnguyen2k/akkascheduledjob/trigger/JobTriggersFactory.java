@@ -0,0 +1,92 @@
+package com.github.btnguyen2k.akkascheduledjob.trigger;
+
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import com.github.ddth.commons.utils.TypesafeConfigUtils;
+import com.github.ddth.pubsub.IPubSubHub;
+import com.typesafe.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * Builds the {@link JobTriggers} configured in {@code ddth-akka-scheduling.triggers}.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JobTriggersFactory {
+    private final static Logger LOGGER = LoggerFactory.getLogger(JobTriggersFactory.class);
+
+    /**
+     * Create a factory with settings from application's configuration. Services are set
+     * separately.
+     *
+     * @param config
+     * @return
+     */
+    public static JobTriggersFactory fromConfig(Config config) {
+        final String PREFIX = "ddth-akka-scheduling.triggers.";
+        JobTriggersFactory factory = new JobTriggersFactory();
+        TypesafeConfigUtils.getBooleanOptional(config, PREFIX + "enabled")
+                .ifPresent(v -> factory.setEnabled(v.booleanValue()));
+        TypesafeConfigUtils.getStringOptional(config, PREFIX + "channel-name")
+                .ifPresent(factory::setChannelName);
+        return factory;
+    }
+
+    private boolean enabled = false;
+    private String channelName = "akka-scheduled-jobs-triggers";
+
+    private Supplier<IPubSubHub<?, byte[]>> pubSubHub;
+    private WorkerDirectory workerDirectory;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public JobTriggersFactory setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public String getChannelName() {
+        return channelName;
+    }
+
+    public JobTriggersFactory setChannelName(String channelName) {
+        this.channelName = channelName;
+        return this;
+    }
+
+    /**
+     * Set the pub/sub backend, only obtained if triggers are enabled.
+     *
+     * @param pubSubHub
+     * @return
+     */
+    public JobTriggersFactory setPubSubHub(Supplier<IPubSubHub<?, byte[]>> pubSubHub) {
+        this.pubSubHub = pubSubHub;
+        return this;
+    }
+
+    public JobTriggersFactory setWorkerDirectory(WorkerDirectory workerDirectory) {
+        this.workerDirectory = workerDirectory;
+        return this;
+    }
+
+    /**
+     * Create the job triggers, subscribed to the triggers channel.
+     *
+     * @return {@code null} if triggers are disabled
+     */
+    public JobTriggers createJobTriggers() {
+        if (!enabled) {
+            return null;
+        }
+        JobTriggers triggers = new JobTriggers().setPubSubHub(pubSubHub.get())
+                .setChannelName(channelName).setWorkerDirectory(workerDirectory).init();
+        LOGGER.info("Listening for job triggers on channel [" + channelName + "].");
+        return triggers;
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.btnguyen2k.akkascheduledjob.trigger;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request to run a worker right away, as published on the triggers channel.
+ *
+ * <p>
+ * Payload is UTF-8 text {@code <worker-name>[\t<request-id>[\t<requested-at-ms>]]}: publishers
+ * other than {@link JobTriggers} may send just the worker name. Requests with the same id are
+ * run once.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TriggerRequest {
+    private final static char SEPARATOR = '\t';
+
+    private final String worker, id;
+    private final long requestedAtMs;
+
+    public TriggerRequest(String worker, String id, long requestedAtMs) {
+        this.worker = worker;
+        this.id = id;
+        this.requestedAtMs = requestedAtMs;
+    }
+
+    /**
+     * Name of the worker (actor) to run.
+     *
+     * @return
+     */
+    public String getWorker() {
+        return worker;
+    }
+
+    /**
+     * Id of the request, {@code null} if the publisher did not set one.
+     *
+     * @return
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Time the request was published, {@code 0} if unknown.
+     *
+     * @return
+     */
+    public long getRequestedAtMs() {
+        return requestedAtMs;
+    }
+
+    public byte[] encode() {
+        StringBuilder sb = new StringBuilder(worker);
+        if (id != null) {
+            sb.append(SEPARATOR).append(id).append(SEPARATOR).append(requestedAtMs);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decode a payload.
+     *
+     * @param data
+     * @return {@code null} if the payload does not name a worker
+     */
+    public static TriggerRequest decode(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        String[] tokens = new String(data, StandardCharsets.UTF_8).trim().split(String
+                .valueOf(SEPARATOR), 3);
+        if (tokens[0].isEmpty()) {
+            return null;
+        }
+        String id = tokens.length > 1 && !tokens[1].isEmpty() ? tokens[1] : null;
+        long requestedAtMs = 0;
+        if (tokens.length > 2) {
+            try {
+                requestedAtMs = Long.parseLong(tokens[2].trim());
+            } catch (NumberFormatException e) {
+                requestedAtMs = 0;
+            }
+        }
+        return new TriggerRequest(tokens[0], id, requestedAtMs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return worker + "[id=" + id + ", requestedAt=" + requestedAtMs + "]";
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.btnguyen2k.akkascheduledjob.util;
+
+import java.util.Locale;
+
+/**
+ * Helpers to render JSON by hand: the stats served by the metrics HTTP endpoint, journal records
+ * and reports.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public final class JsonUtils {
+    private JsonUtils() {
+    }
+
+    /**
+     * Escape a string to be embedded in a JSON string literal: quotes, backslashes and control
+     * characters.
+     *
+     * @param str
+     * @return empty string if {@code str} is {@code null}
+     */
+    public static String escape(String str) {
+        if (str == null) {
+            return "";
+        }
+        StringBuilder sb = null;
+        for (int i = 0, n = str.length(); i < n; i++) {
+            char c = str.charAt(i);
+            String replacement;
+            switch (c) {
+            case '"':
+                replacement = "\\\"";
+                break;
+            case '\\':
+                replacement = "\\\\";
+                break;
+            case '\n':
+                replacement = "\\n";
+                break;
+            case '\r':
+                replacement = "\\r";
+                break;
+            case '\t':
+                replacement = "\\t";
+                break;
+            default:
+                replacement = c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            }
+            if (replacement != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(n + 16).append(str, 0, i);
+                }
+                sb.append(replacement);
+            } else if (sb != null) {
+                sb.append(c);
+            }
+        }
+        return sb != null ? sb.toString() : str;
+    }
+
+    /**
+     * Render a string as a JSON string literal.
+     *
+     * @param str
+     * @return {@code null} (JSON null) if {@code str} is {@code null}
+     */
+    public static String quote(String str) {
+        return str != null ? "\"" + escape(str) + "\"" : "null";
+    }
+
+    /**
+     * Render a number with 3 decimals.
+     *
+     * @param value
+     * @return
+     */
+    public static String format(double value) {
+        return String.format(Locale.US, "%.3f", value);
+    }
+
+    /**
+     * Render a duration in microseconds as milliseconds, with 3 decimals.
+     *
+     * @param micros
+     * @return
+     */
+    public static String formatMs(double micros) {
+        return format(micros / 1000.0);
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import com.github.btnguyen2k.akkascheduledjob.chain.JobChains;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.concurrent.ExecutionContextExecutor;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base class for workers whose job is split into partitions, run in parallel across all nodes.
+ *
+ * <p>
+ * Sub-class implements {@link #executePartition(int, int, TickMessage)}, processing its share of
+ * the data (e.g. rows whose {@code id % numPartitions == partition}). On every tick, the worker
+ * on each node claims partitions through the dlock backend (see {@link PartitionClaims}) and runs
+ * the ones it claimed in parallel, up to {@link #getParallelism()} at a time, on the worker's job
+ * executor (or its dispatcher if it has none); each partition runs once per tick across the fleet.
+ * Claims of running partitions are renewed in the background, so a partition may run longer than
+ * the claims' hold time. A failed partition is released for another node to retry; the run on
+ * this node fails if any of its partitions failed.
+ * </p>
+ *
+ * <p>
+ * Once no partition is left to claim, the node keeps polling partitions held by other nodes until
+ * the tick's deadline ({@link PartitionClaims#getDeadlineMs(long)}), taking over those released
+ * by a failed node.
+ * </p>
+ *
+ * <p>
+ * Every node must receive the ticks: use {@link WorkerCoordinationPolicy#TAKE_ALL_TASKS} (or
+ * {@code LOCAL_SINGLETON}). Number of partitions is set by the worker option
+ * {@code partitions=<n>}. With {@link JobChains}, downstream workers run once all partitions have
+ * completed the tick.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public abstract class BasePartitionedWorker extends BaseScheduledWorker {
+    private final Logger LOGGER = LoggerFactory.getLogger(BasePartitionedWorker.class);
+
+    private PartitionClaims partitionClaims;
+    private ActorSystem system;
+    private ExecutionContextExecutor dispatcher;
+
+    /**
+     * Partitions of this worker, {@code null} if not set (the job then runs as a single
+     * partition on every node).
+     *
+     * @return
+     */
+    public PartitionClaims getPartitionClaims() {
+        return partitionClaims;
+    }
+
+    public BasePartitionedWorker setPartitionClaims(PartitionClaims partitionClaims) {
+        this.partitionClaims = partitionClaims;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+        system = getContext().getSystem();
+        dispatcher = getContext().dispatcher();
+        if (getWorkerCoordinationPolicy() == WorkerCoordinationPolicy.GLOBAL_SINGLETON) {
+            LOGGER.warn("Partitioned worker [" + getActorPath().name() + "] is global-singleton: "
+                    + "only one node at a time receives its ticks and runs partitions!");
+        }
+        if (partitionClaims == null) {
+            LOGGER.warn("Partitioned worker [" + getActorPath().name() + "] has no partition "
+                    + "claims, runs its job as a single partition on every node!");
+        }
+    }
+
+    /**
+     * Maximum number of partitions this node runs at a time for a tick, all partitions by default
+     * (the job executor's pool size bounds it as well). Sub-class may override.
+     *
+     * @return
+     */
+    protected int getParallelism() {
+        return partitionClaims != null ? partitionClaims.getNumPartitions() : 1;
+    }
+
+    private boolean isDraining() {
+        return getInFlightJobs() != null && getInFlightJobs().isDraining();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Runs are reported to downstream workers per partition instead.
+     * </p>
+     */
+    @Override
+    protected void runCompleted(TickMessage tick) {
+    }
+
+    /**
+     * Partitions of a tick run on this node: the worker's thread and helper tasks on the executor
+     * each claim and run partitions until none is left to claim. Helpers not started yet when the
+     * sweep closes do nothing, so that a saturated executor cannot block the sweep.
+     */
+    private final class Sweep {
+        private final TickMessage tick;
+        private final PartitionClaims.Progress progress;
+        private int activeHelpers = 0;
+        private boolean closed = false;
+        private Exception error;
+
+        private Sweep(TickMessage tick, PartitionClaims.Progress progress) {
+            this.tick = tick;
+            this.progress = progress;
+        }
+
+        private void help(int first) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                activeHelpers++;
+            }
+            try {
+                run(first);
+            } finally {
+                synchronized (this) {
+                    activeHelpers--;
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Claim and run partitions, starting from {@code first}, until none is left to claim.
+         *
+         * @param first
+         */
+        private void run(int first) {
+            int numPartitions = partitionClaims.getNumPartitions();
+            boolean claimed;
+            do {
+                claimed = false;
+                for (int i = 0; i < numPartitions && !isDraining(); i++) {
+                    int partition = (first + i) % numPartitions;
+                    if (progress.isSettled(partition)
+                            || !partitionClaims.claim(partition, progress)) {
+                        continue;
+                    }
+                    claimed = true;
+                    runPartition(partition, numPartitions);
+                }
+            } while (claimed && !isDraining());
+        }
+
+        private void runPartition(int partition, int numPartitions) {
+            try {
+                executePartition(partition, numPartitions, tick);
+                partitionClaims.completed(partition, progress);
+                JobChains jobChains = getJobChains();
+                if (jobChains != null) {
+                    jobChains.completed(JobChains.partitionName(getActorPath().name(), partition),
+                            tick);
+                }
+            } catch (Exception e) {
+                partitionClaims.failed(partition, progress);
+                LOGGER.error("Error executing partition " + partition + "/" + numPartitions
+                        + " of worker [" + getActorPath().name() + "], tick [" + tick.getId()
+                        + "]: " + e.getMessage(), e);
+                synchronized (this) {
+                    if (error == null) {
+                        error = e;
+                    } else {
+                        error.addSuppressed(e);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Stop helpers from starting, and wait for the running ones.
+         *
+         * @return first error of the sweep's partitions, {@code null} if none failed
+         */
+        private synchronized Exception close() {
+            closed = true;
+            boolean interrupted = false;
+            while (activeHelpers > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return error;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Claim and run partitions of the tick in parallel until none is left to claim, then poll
+     * partitions held elsewhere until the tick's deadline.
+     * </p>
+     */
+    @Override
+    protected final void execute(String dlockId, TickMessage tick) throws Exception {
+        if (partitionClaims == null) {
+            executePartition(0, 1, tick);
+            super.runCompleted(tick);
+            return;
+        }
+        int numPartitions = partitionClaims.getNumPartitions();
+        int first = partitionClaims.getStartPartition();
+        PartitionClaims.Progress progress = partitionClaims.startTick(tick.getId());
+        long deadlineMs = partitionClaims.getDeadlineMs(tick.getTimestamp().getTime());
+        long renewMs = partitionClaims.getRenewIntervalMs();
+        Cancellable renewal = system.scheduler().schedule(
+                Duration.create(renewMs, TimeUnit.MILLISECONDS),
+                Duration.create(renewMs, TimeUnit.MILLISECONDS),
+                () -> partitionClaims.renew(progress), dispatcher);
+        Sweep sweep = new Sweep(tick, progress);
+        Exception error;
+        try {
+            Executor executor = getJobExecutor() != null ? getJobExecutor() : dispatcher;
+            int parallelism = Math.max(1, Math.min(getParallelism(), numPartitions));
+            for (int i = 1; i < parallelism; i++) {
+                // spread helpers' starting points so they do not compete for the same partitions
+                int helperFirst = first + i * numPartitions / parallelism;
+                executor.execute(() -> sweep.help(helperFirst));
+            }
+            sweep.run(first);
+            // partitions held elsewhere are claimed again in case their node failed and
+            // released them
+            long now;
+            while (!isDraining() && progress.hasUnclaimed()
+                    && (now = System.currentTimeMillis()) < deadlineMs) {
+                Thread.sleep(Math.min(partitionClaims.getPollMs(), deadlineMs - now));
+                sweep.run(first);
+            }
+        } finally {
+            error = sweep.close();
+            renewal.cancel();
+            partitionClaims.finishTick(progress);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Worker [" + getActorPath().name() + "], tick [" + tick.getId()
+                    + "]: ran " + progress.count(PartitionClaims.State.DONE) + "/" + numPartitions
+                    + " partitions on this node.");
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Sub-class implements this method to process one partition of the tick's job.
+     *
+     * @param partition     index of the partition, from {@code 0} to {@code numPartitions - 1}
+     * @param numPartitions
+     * @param tick
+     * @throws Exception
+     */
+    protected abstract void executePartition(int partition, int numPartitions, TickMessage tick)
+            throws Exception;
+}
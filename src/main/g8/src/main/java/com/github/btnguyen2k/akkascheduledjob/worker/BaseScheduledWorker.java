@@ -0,0 +1,948 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import akka.actor.ActorRef;
+import com.github.btnguyen2k.akkascheduledjob.chain.JobChains;
+import com.github.btnguyen2k.akkascheduledjob.checkpoint.Checkpoint;
+import com.github.btnguyen2k.akkascheduledjob.checkpoint.CheckpointStore;
+import com.github.btnguyen2k.akkascheduledjob.checkpoint.WorkerCheckpoints;
+import com.github.btnguyen2k.akkascheduledjob.journal.ExecutionJournal;
+import com.github.btnguyen2k.akkascheduledjob.journal.ExecutionRecord;
+import com.github.btnguyen2k.akkascheduledjob.metrics.WorkerMetrics;
+import com.github.btnguyen2k.akkascheduledjob.placement.LoadAwarePlacement;
+import com.github.ddth.akka.scheduling.BaseWorker;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+import com.github.ddth.akka.scheduling.annotation.Scheduling;
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.LockResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.concurrent.duration.Duration;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base class for the application's workers, built on top of {@link BaseWorker}.
+ *
+ * <p>
+ * Sub-class implements {@link #execute(String, TickMessage)} instead of
+ * {@link #doJob(String, TickMessage)}. Every run is recorded into the worker's
+ * {@link WorkerMetrics} (injected by {@link WorkerFactory} via
+ * {@link #setMetrics(WorkerMetrics)}).
+ * </p>
+ *
+ * <p>
+ * If a job executor is set (see {@link WorkerOptions#executor()}), jobs are offloaded to that
+ * executor instead of blocking the {@code worker-dispatcher}; completion is piped back to the
+ * actor, which then releases the worker's busy state and dlock. Ticks arriving while an
+ * offloaded job of a local/global-singleton worker is still running, or rejected by a saturated
+ * executor, are treated as busy.
+ * </p>
+ *
+ * <p>
+ * Workers that do not need a distributed lock ({@code TAKE_ALL_TASKS}, {@code LOCAL_SINGLETON},
+ * or {@code GLOBAL_SINGLETON} without a dlock, e.g. in single-node mode) take a local fast path:
+ * no dlock id is generated and no lock is acquired. Jobs still run off the actor, on its dispatcher
+ * (or the job executor), as {@link BaseWorker} runs them: runs of a {@code TAKE_ALL_TASKS} worker
+ * may overlap, a singleton worker is guarded by a CAS flag and a tick arriving while it runs is
+ * busy (see {@link #logBusy(TickMessage, boolean)}), instead of waiting in the mailbox.
+ * </p>
+ *
+ * <p>
+ * Ticks missed while busy on this node (including ticks of a global-singleton worker whose dlock
+ * is held by its own run on this node) are handled according to the worker's
+ * {@link MisfirePolicy} (see {@link WorkerOptions#misfire()}): dropped, or kept in a bounded
+ * {@link TickRingBuffer} and run as soon as the current run finishes (one missed tick per
+ * completed run). Ticks run by another node are not missed.
+ * </p>
+ *
+ * <p>
+ * A cron-scheduled worker (see {@link #setCronScheduled(boolean)}) does not subscribe to ticks:
+ * it only receives the ticks its schedule is due for, from a
+ * {@link com.github.btnguyen2k.akkascheduledjob.scheduler.CronDispatcherActor}.
+ * </p>
+ *
+ * <p>
+ * With a {@link LoadAwarePlacement} (cluster mode, see {@link #setPlacement(LoadAwarePlacement)}),
+ * a {@code GLOBAL_SINGLETON} worker only competes for its dlock on the member the placement
+ * prefers for it; every job run is counted as in-flight on this member.
+ * </p>
+ *
+ * <p>
+ * With an {@link ExecutionJournal} (see {@link #setJournal(ExecutionJournal)}), every run and
+ * every tick missed while busy is appended to the journal.
+ * </p>
+ *
+ * <p>
+ * With a tick offset (see {@link #setTickOffsetMs(long)}), matched ticks are run that long after
+ * their timestamp instead of right away, spreading workers that share the same fire time.
+ * </p>
+ *
+ * <p>
+ * With a {@link WorkerGroup} (see {@link #setGroup(WorkerGroup)}), a job only runs if the group
+ * has a free slot, otherwise the tick is treated as busy; runs are also recorded into the group's
+ * metrics.
+ * </p>
+ *
+ * <p>
+ * With {@link InFlightJobs} (see {@link #setInFlightJobs(InFlightJobs)}), every job run is
+ * registered as in-flight, and ticks are ignored once the node is draining for shutdown.
+ * </p>
+ *
+ * <p>
+ * A {@link Trigger} (see {@link com.github.btnguyen2k.akkascheduledjob.trigger.JobTriggers}) runs
+ * the worker right away, regardless of its schedule, through the same coordination as a tick.
+ * </p>
+ *
+ * <p>
+ * With {@link JobChains} (see {@link #setJobChains(JobChains)}), successful runs are reported to
+ * downstream workers; a worker with upstream workers ignores its schedule and runs on
+ * {@link UpstreamsCompleted} instead, with the tick id of its upstream runs.
+ * </p>
+ *
+ * <p>
+ * With a {@link CheckpointStore} (see {@link #setCheckpointStore(CheckpointStore)}), the worker
+ * checkpoints every run (tick, completion and its own progress marker, see
+ * {@link #saveProgress(TickMessage, String)}); a global-singleton worker skips a tick another node
+ * already completed, and a worker whose last run was interrupted runs it again right after it
+ * starts, with the progress saved so far (see {@link #getCheckpoint()}).
+ * </p>
+ *
+ * <p>
+ * A global-singleton worker acts upon the shared checkpoint as read from the store, not from
+ * this node's write-behind buffer (see {@link WorkerCheckpoints}):
+ * </p>
+ * <ul>
+ * <li>its completions are written right away, and checked before each run;</li>
+ * <li>a run in progress refreshes its checkpoint every heartbeat; a node finding the worker's
+ * dlock held by a run that is gone (its checkpoint was taken on this node before a restart, or
+ * was not refreshed for {@link CheckpointStore#getStaleAfterMs()}) breaks the dlock with the id
+ * recorded in the checkpoint, and runs the tick;</li>
+ * <li>an interrupted run is resumed once it is gone, by the node that claims its checkpoint with
+ * a compare-and-set.</li>
+ * </ul>
+ * <p>
+ * Runs are still not exactly-once (e.g. a node paused for longer than the stale delay resumes
+ * its run while another node runs the tick): jobs should be idempotent for a tick, e.g. by
+ * continuing from the saved progress.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public abstract class BaseScheduledWorker extends BaseWorker {
+    private final Logger LOGGER = LoggerFactory.getLogger(BaseScheduledWorker.class);
+
+    /**
+     * Sent to self when a run finishes (offloaded or not).
+     */
+    private final static class JobCompleted {
+        private final String dlockId;
+        private final Throwable error;
+
+        private JobCompleted(String dlockId, Throwable error) {
+            this.dlockId = dlockId;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Sent to self to run a matched tick once the worker's tick offset has elapsed, or once the
+     * dlock of a run that is gone was broken.
+     */
+    private final static class DelayedTick {
+        private final TickMessage tick;
+
+        private DelayedTick(TickMessage tick) {
+            this.tick = tick;
+        }
+    }
+
+    /**
+     * Request to run the worker right away, regardless of its schedule.
+     *
+     * <p>
+     * Requests are coalesced: a request is dropped if a run started after it was received, and
+     * requests received while the worker is running are merged into one follow-up run after the
+     * current run(s) finish.
+     * </p>
+     */
+    public final static class Trigger {
+        private final String id;
+        private final long receivedNanos;
+
+        /**
+         * @param id            id of the request, may be {@code null}
+         * @param receivedNanos time ({@link System#nanoTime()}) the request was received
+         */
+        public Trigger(String id, long receivedNanos) {
+            this.id = id;
+            this.receivedNanos = receivedNanos;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getReceivedNanos() {
+            return receivedNanos;
+        }
+    }
+
+    /**
+     * All upstream workers of this worker have completed a logical tick (see {@link JobChains}).
+     */
+    public final static class UpstreamsCompleted {
+        private final String tickId;
+
+        /**
+         * @param tickId id of the logical tick, shared by the upstream runs
+         */
+        public UpstreamsCompleted(String tickId) {
+            this.tickId = tickId;
+        }
+
+        public String getTickId() {
+            return tickId;
+        }
+    }
+
+    /**
+     * Tick of a triggered or chained run: matches any schedule and is not delayed by the tick
+     * offset.
+     */
+    private final static class UnscheduledTick extends TickMessage {
+        private static final long serialVersionUID = 1L;
+
+        private UnscheduledTick(String id) {
+            super(id, new Date());
+        }
+    }
+
+    /**
+     * Sent to self to run the tick of an interrupted run again.
+     */
+    private final static Object MSG_RESUME = "resume-interrupted-run";
+
+    private WorkerMetrics metrics;
+    private Executor jobExecutor;
+    private MisfirePolicy misfirePolicy = MisfirePolicy.DROP;
+    private TickRingBuffer missedTicks;
+    private boolean cronScheduled = false;
+    private LoadAwarePlacement placement;
+    private ExecutionJournal journal;
+    private long tickOffsetMs = 0;
+    private WorkerGroup group;
+    private InFlightJobs inFlightJobs;
+    private JobChains jobChains;
+    private boolean chained = false;
+    private CheckpointStore checkpointStore;
+    private WorkerCheckpoints checkpoints;
+    private String workerName;
+    private final WorkerCoordinationPolicy coordinationPolicy;
+    /**
+     * A run of this singleton worker is in progress on this node.
+     */
+    private final AtomicBoolean jobRunning = new AtomicBoolean(false);
+    /**
+     * Runs of this worker accepted on this node and not finished yet: counted on the actor, when
+     * the dlock is acquired or the job is started on the local fast path.
+     */
+    private final AtomicInteger activeRuns = new AtomicInteger(0);
+    private Executor dispatcher;
+    private Trigger pendingTrigger;
+    private volatile long lastRunStartNanos = System.nanoTime();
+    /**
+     * Dlock ids handed to {@link #doJob(String, TickMessage)}: the worker releases the dlock when
+     * the run finishes, the release {@link BaseWorker} attempts right after the call is skipped.
+     */
+    private final Set<String> skippedUnlocks = ConcurrentHashMap.newKeySet();
+
+    public BaseScheduledWorker() {
+        coordinationPolicy = readCoordinationPolicy();
+    }
+
+    public BaseScheduledWorker(IDLock dlock) {
+        super(dlock);
+        coordinationPolicy = readCoordinationPolicy();
+    }
+
+    private WorkerCoordinationPolicy readCoordinationPolicy() {
+        Scheduling scheduling = getClass().getAnnotation(Scheduling.class);
+        return scheduling != null ? scheduling.workerCoordinationPolicy()
+                : WorkerCoordinationPolicy.TAKE_ALL_TASKS;
+    }
+
+    /**
+     * Metrics of this worker, {@code null} if metrics are disabled.
+     *
+     * @return
+     */
+    public WorkerMetrics getMetrics() {
+        return metrics;
+    }
+
+    public BaseScheduledWorker setMetrics(WorkerMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Executor jobs are offloaded to, {@code null} if jobs run on the actor's dispatcher.
+     *
+     * @return
+     */
+    public Executor getJobExecutor() {
+        return jobExecutor;
+    }
+
+    public BaseScheduledWorker setJobExecutor(Executor jobExecutor) {
+        this.jobExecutor = jobExecutor;
+        return this;
+    }
+
+    /**
+     * Policy for ticks missed while busy.
+     *
+     * @return
+     */
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    public BaseScheduledWorker setMisfirePolicy(MisfirePolicy misfirePolicy) {
+        this.misfirePolicy = misfirePolicy != null ? misfirePolicy : MisfirePolicy.DROP;
+        this.missedTicks = this.misfirePolicy.getType() != MisfirePolicy.Type.DROP
+                ? new TickRingBuffer(this.misfirePolicy.getMaxBacklog()) : null;
+        return this;
+    }
+
+    /**
+     * Check if ticks are pre-filtered by a cron dispatcher.
+     *
+     * @return
+     */
+    public boolean isCronScheduled() {
+        return cronScheduled;
+    }
+
+    /**
+     * Set to {@code true} if the worker is registered with a {@code CronDispatcherActor}: it then
+     * unsubscribes from the event stream's ticks and runs on every tick it receives without
+     * matching its schedule again.
+     *
+     * @param cronScheduled
+     * @return
+     */
+    public BaseScheduledWorker setCronScheduled(boolean cronScheduled) {
+        this.cronScheduled = cronScheduled;
+        return this;
+    }
+
+    /**
+     * Load-aware placement of global-singleton jobs, {@code null} if the first node to grab the
+     * dlock runs the job.
+     *
+     * @return
+     */
+    public LoadAwarePlacement getPlacement() {
+        return placement;
+    }
+
+    public BaseScheduledWorker setPlacement(LoadAwarePlacement placement) {
+        this.placement = placement;
+        return this;
+    }
+
+    /**
+     * Journal runs of this worker are appended to, {@code null} if runs are not journaled.
+     *
+     * @return
+     */
+    public ExecutionJournal getJournal() {
+        return journal;
+    }
+
+    public BaseScheduledWorker setJournal(ExecutionJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    /**
+     * Delay of matched ticks, {@code 0} if ticks run right away.
+     *
+     * @return
+     */
+    public long getTickOffsetMs() {
+        return tickOffsetMs;
+    }
+
+    /**
+     * Run matched ticks {@code tickOffsetMs} after their timestamp (see
+     * {@link com.github.btnguyen2k.akkascheduledjob.scheduler.TickJitter}).
+     *
+     * @param tickOffsetMs
+     * @return
+     */
+    public BaseScheduledWorker setTickOffsetMs(long tickOffsetMs) {
+        this.tickOffsetMs = Math.max(0, tickOffsetMs);
+        return this;
+    }
+
+    /**
+     * Group (bulkhead) of this worker, {@code null} if the worker is not in a group.
+     *
+     * @return
+     */
+    public WorkerGroup getGroup() {
+        return group;
+    }
+
+    public BaseScheduledWorker setGroup(WorkerGroup group) {
+        this.group = group;
+        return this;
+    }
+
+    /**
+     * Registry of in-flight jobs, {@code null} if jobs are not tracked for shutdown drain.
+     *
+     * @return
+     */
+    public InFlightJobs getInFlightJobs() {
+        return inFlightJobs;
+    }
+
+    public BaseScheduledWorker setInFlightJobs(InFlightJobs inFlightJobs) {
+        this.inFlightJobs = inFlightJobs;
+        return this;
+    }
+
+    /**
+     * Dependencies between workers, {@code null} if runs are not chained.
+     *
+     * @return
+     */
+    public JobChains getJobChains() {
+        return jobChains;
+    }
+
+    public BaseScheduledWorker setJobChains(JobChains jobChains) {
+        this.jobChains = jobChains;
+        return this;
+    }
+
+    /**
+     * Check if this worker runs when its upstream workers complete, instead of on its schedule.
+     *
+     * @return
+     */
+    public boolean isChained() {
+        return chained;
+    }
+
+    /**
+     * Store of this worker's checkpoints, {@code null} if runs are not checkpointed.
+     *
+     * @return
+     */
+    public CheckpointStore getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    public BaseScheduledWorker setCheckpointStore(CheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+        return this;
+    }
+
+    /**
+     * Last checkpoint of this worker: during a run, the checkpoint of the current tick with the
+     * progress saved so far (or the progress of the previous run).
+     *
+     * @return {@code null} if there is none, or runs are not checkpointed
+     */
+    protected Checkpoint getCheckpoint() {
+        return checkpoints != null ? checkpoints.getLast() : null;
+    }
+
+    /**
+     * Save the progress of the current run (e.g. the id of the last record processed), for the
+     * next run (or a resumed run, on this node or another) to continue from.
+     *
+     * @param tick     tick being run
+     * @param progress worker's progress marker
+     */
+    protected void saveProgress(TickMessage tick, String progress) {
+        if (checkpoints != null) {
+            checkpoints.saveProgress(tick, progress);
+        }
+    }
+
+    private void onResume() {
+        Checkpoint checkpoint = checkpoints.claimInterrupted();
+        if (checkpoint != null) {
+            LOGGER.info("Worker [" + workerName + "]: resuming interrupted run " + checkpoint
+                    + ".");
+            dispatchTick(new UnscheduledTick(checkpoint.getTickId()), true);
+        } else if (checkpoints.isResumePending()) {
+            // still running on another node: check again once it may be gone
+            getContext().getSystem().scheduler().scheduleOnce(
+                    Duration.create(checkpointStore.getStaleAfterMs(), TimeUnit.MILLISECONDS),
+                    getSelf(), MSG_RESUME, getContext().dispatcher(), getSelf());
+        }
+    }
+
+    /**
+     * Break the dlock held by a run of this worker that is gone (see
+     * {@link WorkerCheckpoints#findStaleRun()}).
+     *
+     * @return {@code true} if the dlock was released
+     */
+    private boolean breakStaleLock() {
+        Checkpoint stale = checkpoints != null && getLock() != null ? checkpoints.findStaleRun()
+                : null;
+        if (stale == null || getLock().unlock(stale.getDlockId()) != LockResult.SUCCESSFUL) {
+            return false;
+        }
+        LOGGER.warn("Worker [" + workerName + "]: run " + stale + " is gone (last checkpoint "
+                + (System.currentTimeMillis() - stale.getUpdatedAtMs()) + "ms ago), its dlock "
+                + "was released.");
+        return true;
+    }
+
+    private boolean isDraining() {
+        return inFlightJobs != null && inFlightJobs.isDraining();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void preStart() throws Exception {
+        super.preStart();
+        workerName = getActorPath().name();
+        dispatcher = getContext().dispatcher();
+        chained = jobChains != null && !jobChains.getUpstreams(workerName).isEmpty();
+        if (cronScheduled || chained) {
+            getContext().getSystem().eventStream().unsubscribe(getSelf(), TickMessage.class);
+        }
+        if (checkpointStore != null) {
+            checkpoints = new WorkerCheckpoints(checkpointStore, workerName, isLocalFastPath());
+            if (checkpoints.load() != null) {
+                getSelf().tell(MSG_RESUME, getSelf());
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder().match(JobCompleted.class, this::onJobCompleted)
+                .match(DelayedTick.class, msg -> dispatchTick(msg.tick, true))
+                .match(Trigger.class, this::onTrigger)
+                .match(UpstreamsCompleted.class, msg -> dispatchTick(
+                        new UnscheduledTick(msg.tickId), true))
+                .matchEquals(MSG_RESUME, msg -> onResume()).build()
+                .orElse(super.createReceive());
+    }
+
+    private void onJobCompleted(JobCompleted msg) {
+        if (msg.dlockId != null) {
+            super.unlock(msg.dlockId);
+        }
+        jobRunning.set(false);
+        activeRuns.decrementAndGet();
+        if (msg.error != null) {
+            LOGGER.error("Error executing job of worker [" + getActorPath().name() + "]: "
+                    + msg.error.getMessage(), msg.error);
+        }
+        if (pendingTrigger != null && activeRuns.get() == 0) {
+            Trigger trigger = pendingTrigger;
+            pendingTrigger = null;
+            onTrigger(trigger);
+        }
+        replayMissedTick();
+    }
+
+    private void onTrigger(Trigger trigger) {
+        if (isDraining()) {
+            return;
+        }
+        // satisfied by a run that started after the request was received, or merged into the
+        // follow-up run of the current run(s)
+        boolean satisfied = trigger.receivedNanos - lastRunStartNanos < 0;
+        if (satisfied || activeRuns.get() > 0 && pendingTrigger != null) {
+            if (metrics != null) {
+                metrics.recordTrigger(true);
+            }
+            return;
+        }
+        if (activeRuns.get() > 0) {
+            pendingTrigger = trigger;
+            return;
+        }
+        if (metrics != null) {
+            metrics.recordTrigger(false);
+        }
+        dispatchTick(new UnscheduledTick(
+                trigger.id != null ? "trigger-" + trigger.id : "trigger-" + System.nanoTime()),
+                true);
+    }
+
+    /**
+     * Run the oldest missed tick, through the same coordination as a regular tick.
+     *
+     * <p>
+     * Called on the actor when a run finishes, once its dlock is released: a singleton worker
+     * replays one missed tick per completed run, and only once no other run is in progress.
+     * </p>
+     */
+    private void replayMissedTick() {
+        if (missedTicks == null || isDraining()
+                || coordinationPolicy != WorkerCoordinationPolicy.TAKE_ALL_TASKS
+                && activeRuns.get() > 0) {
+            return;
+        }
+        TickMessage tick;
+        synchronized (missedTicks) {
+            tick = missedTicks.poll();
+        }
+        if (tick != null) {
+            if (metrics != null) {
+                metrics.recordMisfireReplayed();
+            }
+            dispatchTick(tick, true);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Ticks of triggered and chained runs always match.
+     * </p>
+     */
+    @Override
+    protected boolean isTickMatched(TickMessage tick) {
+        return tick instanceof UnscheduledTick || super.isTickMatched(tick);
+    }
+
+    /**
+     * Check if this worker coordinates runs locally, without a distributed lock.
+     *
+     * @return
+     */
+    public boolean isLocalFastPath() {
+        return coordinationPolicy != WorkerCoordinationPolicy.GLOBAL_SINGLETON || getLock() == null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Local fast path: matched ticks go straight to {@link #doJob(String, TickMessage)}, with no
+     * dlock involved (the job itself still runs off the actor). Ticks of a cron-scheduled worker
+     * are already matched. With a load-aware placement, a global-singleton worker ignores ticks
+     * on members other than its preferred one. With a tick offset, matched ticks are delayed
+     * first. A chained worker ignores ticks.
+     * </p>
+     */
+    @Override
+    protected void onTick(TickMessage tick) {
+        if (chained) {
+            return;
+        }
+        if (tickOffsetMs <= 0) {
+            dispatchTick(tick, false);
+        } else if (cronScheduled || isTickMatched(tick)) {
+            long delayMs = tick.getTimestamp().getTime() + tickOffsetMs
+                    - System.currentTimeMillis();
+            if (delayMs > 0) {
+                getContext().getSystem().scheduler().scheduleOnce(
+                        Duration.create(delayMs, TimeUnit.MILLISECONDS), getSelf(),
+                        new DelayedTick(tick), getContext().dispatcher(), getSelf());
+            } else {
+                dispatchTick(tick, true);
+            }
+        }
+    }
+
+    /**
+     * Run a tick through the worker's coordination.
+     *
+     * @param tick
+     * @param matched {@code true} if the tick is known to match the worker's schedule
+     */
+    private void dispatchTick(TickMessage tick, boolean matched) {
+        if (isDraining()) {
+            // shutting down: leave the tick to other nodes
+            return;
+        }
+        if (!isLocalFastPath()) {
+            if (activeRuns.get() > 0) {
+                // the dlock is held by this node's own run: a local misfire, not a tick run by
+                // another node
+                if (matched || isTickMatched(tick)) {
+                    logBusy(tick, false);
+                }
+            } else if (placement == null
+                    || placement.isPreferred(getActorPath().name(), System.currentTimeMillis())) {
+                super.onTick(tick);
+            }
+        } else if (matched || cronScheduled || isTickMatched(tick)) {
+            try {
+                doJob(null, tick);
+            } catch (Exception e) {
+                LOGGER.error("Error executing job of worker [" + getActorPath().name() + "]: "
+                        + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * A dlock acquired for a tick counts as a run in progress right away, before
+     * {@link #doJob(String, TickMessage)} is called off the actor.
+     * </p>
+     */
+    @Override
+    protected boolean lock(String dlockId, long lockTimeMs) {
+        boolean locked = super.lock(dlockId, lockTimeMs);
+        if (locked) {
+            activeRuns.incrementAndGet();
+        }
+        return locked;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * The dlock of a run is released on the actor when the run finishes (see
+     * {@link #doJob(String, TickMessage)}), before missed ticks are replayed.
+     * </p>
+     */
+    @Override
+    protected boolean unlock(String dlockId) {
+        if (dlockId != null && skippedUnlocks.remove(dlockId)) {
+            return true;
+        }
+        return super.unlock(dlockId);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * A tick missed because the dlock is held by a run that is gone is run again once the dlock is
+     * broken. Sub-class overrides {@link #onBusy(TickMessage, boolean)} instead.
+     * </p>
+     */
+    @Override
+    protected final void logBusy(TickMessage tick, boolean isGlobal) {
+        if (isGlobal && breakStaleLock()) {
+            // run the tick now the dlock is free
+            getSelf().tell(new DelayedTick(tick), getSelf());
+            return;
+        }
+        if (metrics != null) {
+            metrics.recordBusy(isGlobal);
+        }
+        if (journal != null) {
+            long now = System.currentTimeMillis();
+            journal.append(workerName, tick.getId(), tick.getTimestamp().getTime(), now, now,
+                    ExecutionRecord.Outcome.BUSY);
+        }
+        // ticks taken by another node (isGlobal) were not missed, only record local misfires
+        if (missedTicks != null && !isGlobal) {
+            TickMessage discarded;
+            synchronized (missedTicks) {
+                discarded = missedTicks.offer(tick);
+            }
+            if (discarded != null && metrics != null) {
+                metrics.recordMisfireDiscarded();
+            }
+        }
+        onBusy(tick, isGlobal);
+    }
+
+    /**
+     * Called when a tick is missed because the worker is busy (the tick may still be run later,
+     * depending on the worker's {@link MisfirePolicy}).
+     *
+     * @param tick
+     * @param isGlobal {@code true} if the worker is busy on another node (global-singleton), not
+     *                 if its dlock is held by a run on this node
+     */
+    protected void onBusy(TickMessage tick, boolean isGlobal) {
+        super.logBusy(tick, isGlobal);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Records the run into worker's metrics and delegates to
+     * {@link #execute(String, TickMessage)}, on the job executor if there is one. On the local
+     * fast path, jobs without a job executor run on the actor's dispatcher; on the dlock path,
+     * {@link BaseWorker} already calls this method off the actor. Either way, completion is sent
+     * back to the actor, which then releases the dlock and replays missed ticks.
+     * </p>
+     */
+    @Override
+    protected final void doJob(String dlockId, TickMessage tick) throws Exception {
+        // on the dlock path, the run was counted when the dlock was acquired
+        boolean counted = !isLocalFastPath();
+        if (dlockId != null) {
+            skippedUnlocks.add(dlockId);
+        }
+        if (group != null && !group.tryAcquire()) {
+            // the group is at its concurrency limit
+            group.getMetrics().recordBusy(false);
+            runRejected(dlockId, tick, counted);
+            return;
+        }
+        boolean singleton = coordinationPolicy != WorkerCoordinationPolicy.TAKE_ALL_TASKS;
+        if (singleton && !jobRunning.compareAndSet(false, true)) {
+            // a run of this worker is still going on this node
+            releaseGroupSlot();
+            runRejected(dlockId, tick, counted);
+            return;
+        }
+        if (!counted) {
+            activeRuns.incrementAndGet();
+        }
+        Executor executor = jobExecutor != null ? jobExecutor
+                : isLocalFastPath() ? dispatcher : Runnable::run;
+        offloadJob(executor, dlockId, tick, singleton);
+    }
+
+    /**
+     * A run was not started: release its dlock right away and report the tick as busy.
+     */
+    private void runRejected(String dlockId, TickMessage tick, boolean counted) {
+        if (counted) {
+            activeRuns.decrementAndGet();
+        }
+        if (dlockId != null) {
+            super.unlock(dlockId);
+        }
+        logBusy(tick, false);
+    }
+
+    private void releaseGroupSlot() {
+        if (group != null) {
+            group.release();
+        }
+    }
+
+    private void offloadJob(Executor executor, String dlockId, TickMessage tick,
+            boolean singleton) {
+        ActorRef self = getSelf();
+        try {
+            executor.execute(() -> {
+                Throwable error = null;
+                try {
+                    runJob(dlockId, tick);
+                } catch (Throwable t) {
+                    error = t;
+                } finally {
+                    releaseGroupSlot();
+                }
+                self.tell(new JobCompleted(dlockId, error), ActorRef.noSender());
+            });
+        } catch (RejectedExecutionException e) {
+            if (singleton) {
+                jobRunning.set(false);
+            }
+            releaseGroupSlot();
+            runRejected(dlockId, tick, true);
+        }
+    }
+
+    private void runJob(String dlockId, TickMessage tick) throws Exception {
+        if (checkpoints != null && !checkpoints.start(tick, dlockId)) {
+            LOGGER.info("Worker [" + workerName + "]: tick [" + tick.getId()
+                    + "] already completed by node [" + checkpoints.getLast().getNodeId()
+                    + "], skipped.");
+            if (metrics != null) {
+                metrics.recordBusy(true);
+            }
+            return;
+        }
+        if (placement != null) {
+            placement.jobStarted();
+        }
+        lastRunStartNanos = System.nanoTime();
+        long startMs = journal != null ? System.currentTimeMillis() : 0;
+        // the tick offset is intended delay, not lag
+        long dueMs = tick.getTimestamp().getTime()
+                + (tick instanceof UnscheduledTick ? 0 : tickOffsetMs);
+        WorkerMetrics groupMetrics = group != null ? group.getMetrics() : null;
+        InFlightJobs.Job inFlight = inFlightJobs != null
+                ? inFlightJobs.jobStarted(workerName, tick, dlockId, getLock()) : null;
+        long start = metrics != null ? metrics.recordRunStart(dueMs) : 0;
+        long groupStart = groupMetrics != null ? groupMetrics.recordRunStart(dueMs) : 0;
+        boolean successful = false;
+        try {
+            execute(dlockId, tick);
+            successful = true;
+            if (checkpoints != null) {
+                checkpoints.completed(tick);
+            }
+            runCompleted(tick);
+        } finally {
+            if (metrics != null) {
+                metrics.recordRunEnd(start, successful);
+            }
+            if (groupMetrics != null) {
+                groupMetrics.recordRunEnd(groupStart, successful);
+            }
+            if (journal != null) {
+                journal.append(workerName, tick.getId(), tick.getTimestamp().getTime(), startMs,
+                        System.currentTimeMillis(), successful ? ExecutionRecord.Outcome.SUCCESS
+                                : ExecutionRecord.Outcome.FAILED);
+            }
+            if (placement != null) {
+                placement.jobFinished();
+            }
+            if (inFlight != null) {
+                inFlightJobs.jobFinished(inFlight);
+            }
+            if (checkpoints != null) {
+                checkpoints.ended();
+            }
+        }
+    }
+
+    /**
+     * Called after a successful run: reports the run to downstream workers, if any.
+     *
+     * @param tick
+     */
+    protected void runCompleted(TickMessage tick) {
+        if (jobChains != null) {
+            jobChains.completed(workerName, tick);
+        }
+    }
+
+    /**
+     * Sub-class implements this method to perform the job.
+     *
+     * @param dlockId id used to acquire the dlock (global-singleton worker only), {@code null}
+     *                otherwise
+     * @param tick
+     * @throws Exception
+     */
+    protected abstract void execute(String dlockId, TickMessage tick) throws Exception;
+}
@@ -0,0 +1,220 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.btnguyen2k.akkascheduledjob.journal.ExecutionJournal;
+import com.github.btnguyen2k.akkascheduledjob.journal.ExecutionRecord;
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.dlock.IDLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jobs running on this node, and the drain phase of a graceful shutdown.
+ *
+ * <p>
+ * {@link BaseScheduledWorker}s register every job run here. {@link #drain(long)} makes workers
+ * ignore new ticks, waits (up to a deadline) for running jobs to finish, then releases the dlocks
+ * still held by the jobs that did not finish in time, so that another node can take over their
+ * global-singleton workers right away instead of waiting for the locks to expire. Jobs cut off
+ * are logged and, if there is an {@link ExecutionJournal}, journaled as
+ * {@link ExecutionRecord.Outcome#CUT_OFF}.
+ * </p>
+ *
+ * <p>
+ * Jobs of workers that do not extend {@link BaseScheduledWorker} are not tracked.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class InFlightJobs {
+    private final Logger LOGGER = LoggerFactory.getLogger(InFlightJobs.class);
+
+    /**
+     * A running job.
+     */
+    public static class Job {
+        private final String worker;
+        private final TickMessage tick;
+        private final String dlockId;
+        private final IDLock dlock;
+        private final long startMs = System.currentTimeMillis();
+
+        private Job(String worker, TickMessage tick, String dlockId, IDLock dlock) {
+            this.worker = worker;
+            this.tick = tick;
+            this.dlockId = dlockId;
+            this.dlock = dlock;
+        }
+
+        public String getWorker() {
+            return worker;
+        }
+
+        public TickMessage getTick() {
+            return tick;
+        }
+
+        public long getStartMs() {
+            return startMs;
+        }
+
+        /**
+         * Check if the job holds a dlock (global-singleton worker).
+         *
+         * @return
+         */
+        public boolean isHoldingDlock() {
+            return dlockId != null && dlock != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return worker + "[tick=" + tick.getId() + ", running "
+                    + (System.currentTimeMillis() - startMs) + "ms"
+                    + (isHoldingDlock() ? ", dlock=" + dlock.getName() : "") + "]";
+        }
+    }
+
+    private final Set<Job> jobs = ConcurrentHashMap.newKeySet();
+    private volatile boolean draining = false;
+    private ExecutionJournal journal;
+
+    public ExecutionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Journal jobs cut off by {@link #drain(long)} are appended to.
+     *
+     * @param journal
+     * @return
+     */
+    public InFlightJobs setJournal(ExecutionJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    /**
+     * Check if the node is draining: workers must not start new jobs.
+     *
+     * @return
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Register a job that starts running.
+     *
+     * @param worker
+     * @param tick
+     * @param dlockId id the job's dlock is held with, {@code null} if the job holds no dlock
+     * @param dlock
+     * @return
+     */
+    public Job jobStarted(String worker, TickMessage tick, String dlockId, IDLock dlock) {
+        Job job = new Job(worker, tick, dlockId, dlock);
+        jobs.add(job);
+        return job;
+    }
+
+    /**
+     * Unregister a job that finished.
+     *
+     * @param job
+     */
+    public void jobFinished(Job job) {
+        if (jobs.remove(job) && draining) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Number of jobs running now.
+     *
+     * @return
+     */
+    public int getRunning() {
+        return jobs.size();
+    }
+
+    /**
+     * Stop starting new jobs and wait up to {@code timeoutMs} for running jobs to finish. Jobs
+     * still running at the deadline are cut off: their dlocks are released, they are logged and
+     * journaled (the jobs themselves are not interrupted here).
+     *
+     * @param timeoutMs
+     * @return jobs cut off, empty if all jobs finished in time
+     */
+    public List<Job> drain(long timeoutMs) {
+        draining = true;
+        long start = System.currentTimeMillis();
+        long deadline = start + Math.max(0, timeoutMs);
+        LOGGER.info("Draining: waiting up to " + timeoutMs + "ms for " + jobs.size()
+                + " running job(s)...");
+        synchronized (this) {
+            long waitMs;
+            while (!jobs.isEmpty() && (waitMs = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    wait(waitMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        List<Job> cutOff = new ArrayList<>(jobs);
+        if (cutOff.isEmpty()) {
+            LOGGER.info("Drained in " + (System.currentTimeMillis() - start) + "ms.");
+            return cutOff;
+        }
+        long now = System.currentTimeMillis();
+        for (Job job : cutOff) {
+            if (job.isHoldingDlock()) {
+                try {
+                    job.dlock.unlock(job.dlockId);
+                } catch (Exception e) {
+                    LOGGER.warn("Cannot release dlock [" + job.dlock.getName() + "] of job "
+                            + job + ": " + e.getMessage(), e);
+                }
+            }
+            if (journal != null) {
+                journal.append(job.worker, job.tick.getId(), job.tick.getTimestamp().getTime(),
+                        job.startMs, now, ExecutionRecord.Outcome.CUT_OFF);
+            }
+        }
+        LOGGER.warn("Drain timed out after " + (now - start) + "ms, " + cutOff.size()
+                + " job(s) cut off: " + cutOff);
+        return cutOff;
+    }
+
+    /**
+     * Render running jobs as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"draining\":").append(draining)
+                .append(",\"jobs\":[");
+        long now = System.currentTimeMillis();
+        int i = 0;
+        for (Job job : jobs) {
+            sb.append(i++ > 0 ? "," : "").append("{\"worker\":").append(JsonUtils.quote(job.worker))
+                    .append(",\"tick\":").append(JsonUtils.quote(job.tick.getId()))
+                    .append(",\"runningMs\":").append(now - job.startMs)
+                    .append(",\"dlock\":").append(job.isHoldingDlock()).append("}");
+        }
+        return sb.append("]}").toString();
+    }
+}
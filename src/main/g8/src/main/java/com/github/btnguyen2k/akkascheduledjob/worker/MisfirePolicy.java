@@ -0,0 +1,89 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * What a worker does with ticks that arrive while it is busy.
+ *
+ * <ul>
+ * <li>{@code drop} (default): the tick is lost.</li>
+ * <li>{@code coalesce}: only the latest missed tick is kept and run once the current run
+ * finishes.</li>
+ * <li>{@code replay:<n>}: up to {@code n} missed ticks are kept (oldest are discarded when more
+ * are missed) and run one after another once the current run finishes.</li>
+ * </ul>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class MisfirePolicy {
+    public enum Type {
+        DROP, COALESCE, REPLAY
+    }
+
+    public final static MisfirePolicy DROP = new MisfirePolicy(Type.DROP, 0);
+    public final static MisfirePolicy COALESCE = new MisfirePolicy(Type.COALESCE, 1);
+
+    /**
+     * Default max backlog of {@code replay} when {@code n} is not specified.
+     */
+    public final static int DEFAULT_MAX_REPLAY = 16;
+
+    /**
+     * Parse a policy from its string form ({@code drop}, {@code coalesce}, {@code replay} or
+     * {@code replay:<n>}).
+     *
+     * @param str
+     * @return {@link #DROP} if {@code str} is blank
+     * @throws IllegalArgumentException if {@code str} is not a valid policy
+     */
+    public static MisfirePolicy parse(String str) {
+        if (StringUtils.isBlank(str)) {
+            return DROP;
+        }
+        String[] tokens = str.trim().toLowerCase().split(":", 2);
+        switch (tokens[0].trim()) {
+        case "drop":
+            return DROP;
+        case "coalesce":
+            return COALESCE;
+        case "replay":
+            int n = tokens.length > 1 ? Integer.parseInt(tokens[1].trim()) : DEFAULT_MAX_REPLAY;
+            if (n < 1) {
+                throw new IllegalArgumentException("Max replay must be positive: " + str);
+            }
+            return new MisfirePolicy(Type.REPLAY, n);
+        default:
+            throw new IllegalArgumentException("Invalid misfire policy: " + str);
+        }
+    }
+
+    private final Type type;
+    private final int maxBacklog;
+
+    private MisfirePolicy(Type type, int maxBacklog) {
+        this.type = type;
+        this.maxBacklog = maxBacklog;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Max number of missed ticks kept.
+     *
+     * @return
+     */
+    public int getMaxBacklog() {
+        return maxBacklog;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return type == Type.REPLAY ? "replay:" + maxBacklog : type.name().toLowerCase();
+    }
+}
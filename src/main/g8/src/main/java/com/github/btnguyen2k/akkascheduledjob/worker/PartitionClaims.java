@@ -0,0 +1,344 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.IDLockFactory;
+import com.github.ddth.dlock.LockResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Partitions of a {@link BasePartitionedWorker}, claimed per tick through the dlock backend.
+ *
+ * <p>
+ * Partition {@code i} is guarded by the dlock {@code <dlock-name>-p<i>}, taken with client id
+ * {@code <tick-id>@<node-id>}. A node runs a partition only if it takes the partition's dlock,
+ * and renews the dlock (see {@link #renew(Progress)}) while the partition runs; once the
+ * partition completes, the node keeps holding the dlock for {@code holdMs} as the partition's
+ * "done" marker for that tick, so that no other node runs it again. A failed partition is released
+ * right away, for another node to retry. On the next tick, a node replaces its own "done" markers
+ * of older ticks; markers of a node gone expire after {@code holdMs}.
+ * </p>
+ *
+ * <p>
+ * A partition held elsewhere may still be running on a node that fails and releases it: nodes
+ * poll such partitions every {@code pollMs} until {@code holdMs} after the tick's fire time
+ * (see {@link #getDeadlineMs(long)}).
+ * </p>
+ *
+ * <p>
+ * {@code holdMs} must be longer than a tick takes to process across the fleet, and shorter than
+ * the interval between two ticks of the worker.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class PartitionClaims {
+    /**
+     * Number of recent ticks whose progress is kept.
+     */
+    public final static int MAX_RECENT_TICKS = 16;
+
+    private final Logger LOGGER = LoggerFactory.getLogger(PartitionClaims.class);
+
+    /**
+     * State of a partition in a tick, as seen by this node.
+     */
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED, HELD_ELSEWHERE
+    }
+
+    /**
+     * Progress of a tick on this node.
+     */
+    public static class Progress {
+        private final String tickId;
+        private final long startMs = System.currentTimeMillis();
+        private volatile long endMs = 0;
+        private final State[] states;
+
+        private Progress(String tickId, int numPartitions) {
+            this.tickId = tickId;
+            this.states = new State[numPartitions];
+            for (int i = 0; i < numPartitions; i++) {
+                states[i] = State.PENDING;
+            }
+        }
+
+        public String getTickId() {
+            return tickId;
+        }
+
+        public synchronized State getState(int partition) {
+            return states[partition];
+        }
+
+        synchronized void setState(int partition, State state) {
+            states[partition] = state;
+        }
+
+        /**
+         * Check if this node is done with a partition for this tick (ran it, or failed it).
+         *
+         * @param partition
+         * @return
+         */
+        public synchronized boolean isSettled(int partition) {
+            return states[partition] == State.DONE || states[partition] == State.FAILED;
+        }
+
+        /**
+         * Check if a partition is left that this node has neither claimed nor settled (pending,
+         * or held elsewhere).
+         *
+         * @return
+         */
+        public synchronized boolean hasUnclaimed() {
+            for (State s : states) {
+                if (s == State.PENDING || s == State.HELD_ELSEWHERE) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public synchronized int count(State state) {
+            int count = 0;
+            for (State s : states) {
+                count += s == state ? 1 : 0;
+            }
+            return count;
+        }
+
+        void finish() {
+            endMs = System.currentTimeMillis();
+        }
+
+        synchronized String toJson() {
+            return "{\"tick\":" + JsonUtils.quote(tickId) + ",\"start\":" + startMs + ",\"end\":"
+                    + endMs + ",\"running\":" + count(State.RUNNING) + ",\"done\":"
+                    + count(State.DONE) + ",\"failed\":" + count(State.FAILED)
+                    + ",\"heldElsewhere\":" + count(State.HELD_ELSEWHERE) + ",\"pending\":"
+                    + count(State.PENDING) + "}";
+        }
+    }
+
+    private final String worker;
+    private final String nodeId;
+    private final long holdMs;
+    private long pollMs = 1000;
+    private final IDLock[] locks;
+    /**
+     * Client id this node holds each partition's dlock with, {@code null} if not held.
+     */
+    private final String[] heldBy;
+    private final LinkedList<Progress> recent = new LinkedList<>();
+
+    /**
+     * @param worker        name of the worker
+     * @param dlockFactory
+     * @param dlockName     base name of the partitions' dlocks
+     * @param numPartitions
+     * @param nodeId        id of this node, unique in the fleet
+     * @param holdMs        how long a partition stays claimed, while running and once done
+     */
+    public PartitionClaims(String worker, IDLockFactory dlockFactory, String dlockName,
+            int numPartitions, String nodeId, long holdMs) {
+        this.worker = worker;
+        this.nodeId = nodeId;
+        this.holdMs = holdMs;
+        this.locks = new IDLock[Math.max(1, numPartitions)];
+        this.heldBy = new String[locks.length];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = dlockFactory.createLock(dlockName + "-p" + i);
+        }
+    }
+
+    public String getWorker() {
+        return worker;
+    }
+
+    public int getNumPartitions() {
+        return locks.length;
+    }
+
+    public long getHoldMs() {
+        return holdMs;
+    }
+
+    /**
+     * How often partitions held elsewhere are claimed again, until the tick's deadline.
+     *
+     * @return
+     */
+    public long getPollMs() {
+        return pollMs;
+    }
+
+    public PartitionClaims setPollMs(long pollMs) {
+        this.pollMs = Math.max(1, pollMs);
+        return this;
+    }
+
+    /**
+     * How often the dlocks of running partitions are renewed: a third of {@code holdMs}, so that
+     * a renewal may fail twice before the claim expires.
+     *
+     * @return
+     */
+    public long getRenewIntervalMs() {
+        return Math.max(1, holdMs / 3);
+    }
+
+    /**
+     * Time until which this node polls partitions held elsewhere for a tick: {@code holdMs} after
+     * the tick's fire time, before which "done" markers of the tick cannot expire.
+     *
+     * @param tickTimeMs
+     * @return
+     */
+    public long getDeadlineMs(long tickTimeMs) {
+        return tickTimeMs + holdMs;
+    }
+
+    /**
+     * First partition this node tries, so that nodes do not all compete for the same partitions.
+     *
+     * @return
+     */
+    public int getStartPartition() {
+        return Math.abs(nodeId.hashCode() % locks.length);
+    }
+
+    private String clientId(String tickId) {
+        return tickId + "@" + nodeId;
+    }
+
+    /**
+     * Start tracking the progress of a tick.
+     *
+     * @param tickId
+     * @return
+     */
+    public Progress startTick(String tickId) {
+        Progress progress = new Progress(tickId, locks.length);
+        synchronized (recent) {
+            recent.addFirst(progress);
+            while (recent.size() > MAX_RECENT_TICKS) {
+                recent.removeLast();
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Claim a partition for a tick.
+     *
+     * @param partition
+     * @param progress
+     * @return {@code true} if this node should run the partition
+     */
+    public synchronized boolean claim(int partition, Progress progress) {
+        String clientId = clientId(progress.tickId);
+        String held = heldBy[partition];
+        if (clientId.equals(held)) {
+            // already claimed by this node for this tick
+            return false;
+        }
+        if (held != null) {
+            // "done" marker of an older tick
+            locks[partition].unlock(held);
+            heldBy[partition] = null;
+        }
+        if (locks[partition].tryLock(clientId, holdMs) == LockResult.SUCCESSFUL) {
+            heldBy[partition] = clientId;
+            progress.setState(partition, State.RUNNING);
+            return true;
+        }
+        progress.setState(partition, State.HELD_ELSEWHERE);
+        return false;
+    }
+
+    /**
+     * Renew the dlocks of the tick's partitions running on this node, for another {@code holdMs}.
+     *
+     * @param progress
+     */
+    public synchronized void renew(Progress progress) {
+        String clientId = clientId(progress.tickId);
+        for (int i = 0; i < locks.length; i++) {
+            if (progress.getState(i) == State.RUNNING && clientId.equals(heldBy[i])
+                    && locks[i].tryLock(clientId, holdMs) != LockResult.SUCCESSFUL) {
+                LOGGER.warn("Worker [" + worker + "], tick [" + progress.tickId + "]: could not "
+                        + "renew claim of running partition " + i + ", another node may run it!");
+            }
+        }
+    }
+
+    /**
+     * A claimed partition completed: keep its dlock for {@code holdMs} from now.
+     *
+     * @param partition
+     * @param progress
+     */
+    public synchronized void completed(int partition, Progress progress) {
+        locks[partition].tryLock(clientId(progress.tickId), holdMs);
+        progress.setState(partition, State.DONE);
+    }
+
+    /**
+     * A claimed partition failed: release its dlock, for another node to retry.
+     *
+     * @param partition
+     * @param progress
+     */
+    public synchronized void failed(int partition, Progress progress) {
+        String clientId = clientId(progress.tickId);
+        if (clientId.equals(heldBy[partition])) {
+            locks[partition].unlock(clientId);
+            heldBy[partition] = null;
+        }
+        progress.setState(partition, State.FAILED);
+    }
+
+    /**
+     * The tick's sweep on this node ended.
+     *
+     * @param progress
+     */
+    public void finishTick(Progress progress) {
+        progress.finish();
+    }
+
+    /**
+     * Progress of recent ticks, most recent first.
+     *
+     * @return
+     */
+    public List<Progress> getRecentTicks() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    /**
+     * Render settings and recent ticks as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"name\":").append(JsonUtils.quote(worker))
+                .append(",\"partitions\":").append(locks.length).append(",\"holdMs\":")
+                .append(holdMs).append(",\"ticks\":[");
+        int i = 0;
+        for (Progress progress : getRecentTicks()) {
+            sb.append(i++ > 0 ? "," : "").append(progress.toJson());
+        }
+        return sb.append("]}").toString();
+    }
+}
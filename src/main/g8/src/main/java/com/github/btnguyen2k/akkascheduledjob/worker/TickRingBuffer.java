@@ -0,0 +1,83 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+
+/**
+ * Fixed-capacity FIFO of ticks backed by a pre-allocated array: no allocation per offered tick.
+ * When full, offering a tick discards the oldest one.
+ *
+ * <p>
+ * Not thread-safe: owned by a worker actor.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TickRingBuffer {
+    private final TickMessage[] ticks;
+    private int head, size;
+
+    public TickRingBuffer(int capacity) {
+        ticks = new TickMessage[Math.max(1, capacity)];
+    }
+
+    public int getCapacity() {
+        return ticks.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Append a tick, discarding the oldest one if the buffer is full.
+     *
+     * @param tick
+     * @return the discarded tick, {@code null} if none
+     */
+    public TickMessage offer(TickMessage tick) {
+        int tail = (head + size) % ticks.length;
+        TickMessage discarded = null;
+        if (size == ticks.length) {
+            discarded = ticks[head];
+            head = (head + 1) % ticks.length;
+        } else {
+            size++;
+        }
+        ticks[tail] = tick;
+        return discarded;
+    }
+
+    /**
+     * Remove the oldest tick.
+     *
+     * @return {@code null} if the buffer is empty
+     */
+    public TickMessage poll() {
+        if (size == 0) {
+            return null;
+        }
+        TickMessage tick = ticks[head];
+        ticks[head] = null;
+        head = (head + 1) % ticks.length;
+        size--;
+        return tick;
+    }
+
+    /**
+     * Remove all ticks.
+     *
+     * @return number of removed ticks
+     */
+    public int clear() {
+        int removed = size;
+        while (size > 0) {
+            poll();
+        }
+        return removed;
+    }
+}
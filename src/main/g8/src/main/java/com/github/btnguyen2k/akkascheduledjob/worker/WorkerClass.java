@@ -0,0 +1,107 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import akka.actor.Actor;
+import com.github.btnguyen2k.akkascheduledjob.journal.ExecutionJournal;
+import com.github.btnguyen2k.akkascheduledjob.metrics.WorkerMetrics;
+import com.github.btnguyen2k.akkascheduledjob.placement.LoadAwarePlacement;
+import com.github.ddth.akka.scheduling.annotation.Scheduling;
+import com.github.ddth.commons.utils.ReflectionUtils;
+import com.github.ddth.dlock.IDLock;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Reflection lookups of a worker class, cached so that they are done once per class instead of
+ * once per worker instance.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public final class WorkerClass {
+    private final static ConcurrentMap<String, WorkerClass> workerClasses =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Look up a worker class by name.
+     *
+     * @param className
+     * @return
+     * @throws ClassNotFoundException
+     */
+    public static WorkerClass forName(String className) throws ClassNotFoundException {
+        WorkerClass workerClass = workerClasses.get(className);
+        if (workerClass == null) {
+            workerClass = new WorkerClass(Class.forName(className));
+            WorkerClass existing = workerClasses.putIfAbsent(className, workerClass);
+            if (existing != null) {
+                workerClass = existing;
+            }
+        }
+        return workerClass;
+    }
+
+    final Class<Actor> clazz;
+    final Constructor<?> dlockConstructor;
+    final Method setLock, setMetrics, setJobExecutor, setMisfirePolicy, setPlacement;
+    final Method setJournal;
+    private final Scheduling scheduling;
+    private final boolean scheduledWorker, partitionedWorker;
+
+    @SuppressWarnings("unchecked")
+    private WorkerClass(Class<?> clazz) {
+        this.clazz = (Class<Actor>) clazz;
+        dlockConstructor = ReflectionUtils.getConstructor(clazz, IDLock.class);
+        Method m = ReflectionUtils.getMethod("setLock", clazz, IDLock.class);
+        if (m == null) {
+            m = ReflectionUtils.getMethod("setDlock", clazz, IDLock.class);
+        }
+        if (m == null) {
+            m = ReflectionUtils.getMethod("setDLock", clazz, IDLock.class);
+        }
+        setLock = m;
+        setMetrics = ReflectionUtils.getMethod("setMetrics", clazz, WorkerMetrics.class);
+        setJobExecutor = ReflectionUtils.getMethod("setJobExecutor", clazz, Executor.class);
+        setMisfirePolicy = ReflectionUtils
+                .getMethod("setMisfirePolicy", clazz, MisfirePolicy.class);
+        setPlacement = ReflectionUtils.getMethod("setPlacement", clazz, LoadAwarePlacement.class);
+        setJournal = ReflectionUtils.getMethod("setJournal", clazz, ExecutionJournal.class);
+        scheduling = clazz.getAnnotation(Scheduling.class);
+        scheduledWorker = BaseScheduledWorker.class.isAssignableFrom(clazz);
+        partitionedWorker = BasePartitionedWorker.class.isAssignableFrom(clazz);
+    }
+
+    public Class<Actor> getClazz() {
+        return clazz;
+    }
+
+    /**
+     * Scheduling annotation of the class, {@code null} if none.
+     *
+     * @return
+     */
+    public Scheduling getScheduling() {
+        return scheduling;
+    }
+
+    /**
+     * Check if the class extends {@link BaseScheduledWorker}.
+     *
+     * @return
+     */
+    public boolean isScheduledWorker() {
+        return scheduledWorker;
+    }
+
+    /**
+     * Check if the class extends {@link BasePartitionedWorker}.
+     *
+     * @return
+     */
+    public boolean isPartitionedWorker() {
+        return partitionedWorker;
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import akka.actor.ActorRef;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directory of workers running on this node, keyed by actor name.
+ *
+ * <p>
+ * Populated by {@link WorkerFactory} and registered in global storage as key
+ * {@code worker-directory}. Components that deliver messages to specific workers (instead of
+ * broadcasting ticks) look workers up here.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerDirectory {
+    /**
+     * A registered worker.
+     */
+    public static class Entry {
+        private final String name;
+        private final ActorRef actorRef;
+        private final WorkerSpec spec;
+
+        public Entry(String name, ActorRef actorRef, WorkerSpec spec) {
+            this.name = name;
+            this.actorRef = actorRef;
+            this.spec = spec;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ActorRef getActorRef() {
+            return actorRef;
+        }
+
+        public WorkerSpec getSpec() {
+            return spec;
+        }
+    }
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Register a worker.
+     *
+     * @param name
+     * @param actorRef
+     * @param spec
+     */
+    public void register(String name, ActorRef actorRef, WorkerSpec spec) {
+        entries.put(name, new Entry(name, actorRef, spec));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Unregister a worker.
+     *
+     * @param name
+     */
+    public void unregister(String name) {
+        if (entries.remove(name) != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Look up a worker by name.
+     *
+     * @param name
+     * @return {@code null} if no such worker
+     */
+    public Entry get(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * All registered workers.
+     *
+     * @return
+     */
+    public Map<String, Entry> getAll() {
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * Incremented on every change, so that callers can cache views of the directory.
+     *
+     * @return
+     */
+    public long getVersion() {
+        return version.get();
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.ddth.commons.utils.DPathUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Named executors that blocking workers offload their jobs to.
+ *
+ * <p>
+ * Executors are defined in {@code ddth-akka-scheduling.executors} section in
+ * {@code application.conf}:
+ * </p>
+ *
+ * <pre>
+ * executors {
+ *   # bounded pool, tasks are rejected (and counted as busy ticks) when pool and queue are full
+ *   blocking {
+ *     type           = "thread-pool"
+ *     core-pool-size = 8     #optional, default value = number of cores
+ *     max-pool-size  = 128   #optional, default value = core-pool-size
+ *     queue-size     = 1024  #optional, default value = 1024
+ *     keep-alive-ms  = 60000 #optional, default value = 60000
+ *   }
+ *   # one virtual thread per job (JDK 21+), falls back to "thread-pool" on older JDKs
+ *   virtual {
+ *     type = "virtual"
+ *   }
+ * }
+ * </pre>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerExecutors {
+    private final Logger LOGGER = LoggerFactory.getLogger(WorkerExecutors.class);
+
+    private final ConcurrentMap<String, ExecutorService> executors = new ConcurrentHashMap<>();
+
+    private static ThreadFactory namedThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "worker-executor-" + name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Create a virtual-thread-per-task executor, via reflection as the application is compiled
+     * for Java 8.
+     *
+     * @return {@code null} if virtual threads are not supported by the running JVM
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private ExecutorService buildExecutor(String name, Object conf) {
+        String type = DPathUtils.getValueOptional(conf, "type", String.class).orElse("thread-pool");
+        if (StringUtils.equalsIgnoreCase("virtual", type)) {
+            ExecutorService executor = newVirtualThreadExecutor();
+            if (executor != null) {
+                LOGGER.info("Created virtual-thread executor [" + name + "].");
+                return executor;
+            }
+            LOGGER.warn("Virtual threads are not supported by this JVM, executor [" + name
+                    + "] falls back to a thread pool.");
+        }
+        int corePoolSize = DPathUtils.getValueOptional(conf, "core-pool-size", Integer.class)
+                .orElse(Runtime.getRuntime().availableProcessors());
+        int maxPoolSize = DPathUtils.getValueOptional(conf, "max-pool-size", Integer.class)
+                .orElse(corePoolSize);
+        int queueSize = DPathUtils.getValueOptional(conf, "queue-size", Integer.class)
+                .orElse(1024);
+        long keepAliveMs = DPathUtils.getValueOptional(conf, "keep-alive-ms", Long.class)
+                .orElse(60000L);
+        LOGGER.info("Creating thread-pool executor [" + name + "], core/max/queue: " + corePoolSize
+                + "/" + maxPoolSize + "/" + queueSize + "...");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(corePoolSize,
+                Math.max(corePoolSize, maxPoolSize), keepAliveMs, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueSize)), namedThreadFactory(name),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Build executors from configuration {executor-name:settings}.
+     *
+     * @param confExecutors
+     * @return
+     */
+    public WorkerExecutors init(Map<?, ?> confExecutors) {
+        if (confExecutors != null) {
+            confExecutors.forEach((k, v) -> executors
+                    .put(k.toString(), buildExecutor(k.toString(), v)));
+        }
+        return this;
+    }
+
+    /**
+     * Get an executor by name.
+     *
+     * @param name
+     * @return {@code null} if no such executor
+     */
+    public ExecutorService getExecutor(String name) {
+        return executors.get(name);
+    }
+
+    /**
+     * Shutdown all executors, waiting up to {@code timeoutMs} for running jobs to finish.
+     *
+     * @param timeoutMs
+     */
+    public void destroy(long timeoutMs) {
+        executors.values().forEach(ExecutorService::shutdown);
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (ExecutorService executor : executors.values()) {
+            try {
+                long waitMs = deadline - System.currentTimeMillis();
+                if (waitMs <= 0 || !executor.awaitTermination(waitMs, TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        executors.clear();
+    }
+}
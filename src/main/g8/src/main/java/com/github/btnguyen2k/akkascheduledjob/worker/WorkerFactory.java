@@ -0,0 +1,518 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import akka.actor.Actor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import com.github.btnguyen2k.akkascheduledjob.SchedulingMode;
+import com.github.btnguyen2k.akkascheduledjob.chain.JobChains;
+import com.github.btnguyen2k.akkascheduledjob.checkpoint.CheckpointStore;
+import com.github.btnguyen2k.akkascheduledjob.journal.ExecutionJournal;
+import com.github.btnguyen2k.akkascheduledjob.metrics.MeteredDLock;
+import com.github.btnguyen2k.akkascheduledjob.metrics.MetricsRegistry;
+import com.github.btnguyen2k.akkascheduledjob.metrics.WorkerMetrics;
+import com.github.btnguyen2k.akkascheduledjob.placement.LoadAwarePlacement;
+import com.github.btnguyen2k.akkascheduledjob.pool.PoolWarmer;
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronDispatcherActor;
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronSchedule;
+import com.github.btnguyen2k.akkascheduledjob.scheduler.TickJitter;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+import com.github.ddth.akka.scheduling.annotation.Scheduling;
+import com.github.ddth.commons.utils.TypesafeConfigUtils;
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.IDLockFactory;
+import com.typesafe.config.Config;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Turns entries of the worker list ({@link WorkerSpec}s) into configured worker actors.
+ *
+ * <p>
+ * {@link #plan(WorkerSpec, long)} resolves how a worker is set up (dlock, misfire policy,
+ * schedule, jitter, partitions, upstream workers) from its spec, worker class and the factory's
+ * settings; {@link #createWorker(ActorSystem, WorkerSpec)} then creates the worker actor and
+ * injects the application's services into it (metrics, executor, group, placement, journal,
+ * in-flight jobs, job chains, checkpoints, partition claims). Services not set are not used.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerFactory {
+    private final static Logger LOGGER = LoggerFactory.getLogger(WorkerFactory.class);
+
+    /**
+     * Create a factory with settings from application's configuration: scheduling mode,
+     * {@code ddth-akka-scheduling.jitter.window-ms} and
+     * {@code ddth-akka-scheduling.partitions.*}. Services are set separately.
+     *
+     * @param config
+     * @return
+     */
+    public static WorkerFactory fromConfig(Config config) {
+        final String PREFIX = "ddth-akka-scheduling.";
+        WorkerFactory factory = new WorkerFactory().setMode(SchedulingMode.fromConfig(config));
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "jitter.window-ms")
+                .ifPresent(v -> factory.setDefaultJitterMs(v.longValue()));
+        TypesafeConfigUtils.getIntegerOptional(config, PREFIX + "partitions.default-count")
+                .ifPresent(v -> factory.setDefaultNumPartitions(v.intValue()));
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "partitions.hold-ms")
+                .ifPresent(v -> factory.setPartitionHoldMs(v.longValue()));
+        TypesafeConfigUtils.getLongOptional(config, PREFIX + "partitions.poll-ms")
+                .ifPresent(v -> factory.setPartitionPollMs(v.longValue()));
+        return factory;
+    }
+
+    private SchedulingMode mode = SchedulingMode.SINGLE_NODE;
+    private ZoneId zoneId = ZoneId.systemDefault();
+    private long defaultJitterMs = 0;
+    private int defaultNumPartitions = 8;
+    private long partitionHoldMs = 600000;
+    private long partitionPollMs = 1000;
+    // unique per process: several nodes may run on the same host
+    private String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    private Supplier<IDLockFactory> dlockFactory;
+    private MetricsRegistry metricsRegistry;
+    private WorkerExecutors workerExecutors;
+    private WorkerGroups workerGroups;
+    private WorkerDirectory workerDirectory;
+    private ActorRef cronDispatcher;
+    private LoadAwarePlacement placement;
+    private ExecutionJournal journal;
+    private PoolWarmer poolWarmer;
+    private InFlightJobs inFlightJobs;
+    private JobChains jobChains;
+    private CheckpointStore checkpointStore;
+    private final Map<String, PartitionClaims> partitionClaims = new ConcurrentHashMap<>();
+
+    public SchedulingMode getMode() {
+        return mode;
+    }
+
+    public WorkerFactory setMode(SchedulingMode mode) {
+        this.mode = mode != null ? mode : SchedulingMode.SINGLE_NODE;
+        return this;
+    }
+
+    /**
+     * Time zone schedules are parsed in, default: system's.
+     *
+     * @return
+     */
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public WorkerFactory setZoneId(ZoneId zoneId) {
+        this.zoneId = zoneId;
+        return this;
+    }
+
+    /**
+     * Jitter window of workers without option {@code jitter}, {@code 0} for none.
+     *
+     * @return
+     */
+    public long getDefaultJitterMs() {
+        return defaultJitterMs;
+    }
+
+    public WorkerFactory setDefaultJitterMs(long defaultJitterMs) {
+        this.defaultJitterMs = defaultJitterMs;
+        return this;
+    }
+
+    /**
+     * Number of partitions of partitioned workers without option {@code partitions}.
+     *
+     * @return
+     */
+    public int getDefaultNumPartitions() {
+        return defaultNumPartitions;
+    }
+
+    public WorkerFactory setDefaultNumPartitions(int defaultNumPartitions) {
+        this.defaultNumPartitions = Math.max(1, defaultNumPartitions);
+        return this;
+    }
+
+    /**
+     * How long a partition stays claimed (see {@link PartitionClaims}).
+     *
+     * @return
+     */
+    public long getPartitionHoldMs() {
+        return partitionHoldMs;
+    }
+
+    public WorkerFactory setPartitionHoldMs(long partitionHoldMs) {
+        this.partitionHoldMs = partitionHoldMs;
+        return this;
+    }
+
+    /**
+     * How often partitions held elsewhere are polled (see {@link PartitionClaims}).
+     *
+     * @return
+     */
+    public long getPartitionPollMs() {
+        return partitionPollMs;
+    }
+
+    public WorkerFactory setPartitionPollMs(long partitionPollMs) {
+        this.partitionPollMs = partitionPollMs;
+        return this;
+    }
+
+    /**
+     * Id of this node, unique in the fleet (partition claims), default: {@code pid@hostname}.
+     *
+     * @return
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public WorkerFactory setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+        return this;
+    }
+
+    /**
+     * Set the dlock factory, only obtained when a worker needs a dlock.
+     *
+     * @param dlockFactory
+     * @return
+     */
+    public WorkerFactory setDlockFactory(Supplier<IDLockFactory> dlockFactory) {
+        this.dlockFactory = dlockFactory;
+        return this;
+    }
+
+    public WorkerFactory setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        return this;
+    }
+
+    public WorkerFactory setWorkerExecutors(WorkerExecutors workerExecutors) {
+        this.workerExecutors = workerExecutors;
+        return this;
+    }
+
+    public WorkerFactory setWorkerGroups(WorkerGroups workerGroups) {
+        this.workerGroups = workerGroups;
+        return this;
+    }
+
+    public WorkerFactory setWorkerDirectory(WorkerDirectory workerDirectory) {
+        this.workerDirectory = workerDirectory;
+        return this;
+    }
+
+    /**
+     * Set the cron dispatcher scheduled workers are registered with, {@code null} if workers
+     * match ticks themselves.
+     *
+     * @param cronDispatcher
+     * @return
+     */
+    public WorkerFactory setCronDispatcher(ActorRef cronDispatcher) {
+        this.cronDispatcher = cronDispatcher;
+        return this;
+    }
+
+    public WorkerFactory setPlacement(LoadAwarePlacement placement) {
+        this.placement = placement;
+        return this;
+    }
+
+    public WorkerFactory setJournal(ExecutionJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    public WorkerFactory setPoolWarmer(PoolWarmer poolWarmer) {
+        this.poolWarmer = poolWarmer;
+        return this;
+    }
+
+    public WorkerFactory setInFlightJobs(InFlightJobs inFlightJobs) {
+        this.inFlightJobs = inFlightJobs;
+        return this;
+    }
+
+    public WorkerFactory setJobChains(JobChains jobChains) {
+        this.jobChains = jobChains;
+        return this;
+    }
+
+    public WorkerFactory setCheckpointStore(CheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+        return this;
+    }
+
+    /**
+     * Partition claims of the partitioned workers created by this factory, by worker name.
+     *
+     * @return
+     */
+    public Map<String, PartitionClaims> getPartitionClaims() {
+        return Collections.unmodifiableMap(partitionClaims);
+    }
+
+    /**
+     * Number of partitions of a partitioned worker: option {@code partitions}, or the default.
+     *
+     * @param spec
+     * @return
+     */
+    public int getNumPartitions(WorkerSpec spec) {
+        String option = spec.getOption(WorkerSpec.OPT_PARTITIONS);
+        if (option != null) {
+            try {
+                int numPartitions = Integer.parseInt(option);
+                if (numPartitions > 0) {
+                    return numPartitions;
+                }
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+            LOGGER.warn("Invalid number of partitions [" + option + "], worker ["
+                    + spec.getActorName() + "] uses the default [" + defaultNumPartitions + "]!");
+        }
+        return defaultNumPartitions;
+    }
+
+    /**
+     * Resolve how a worker is set up. Options of the spec are defaulted from the worker class.
+     *
+     * <p>
+     * {@code BaseScheduledWorker}-based workers only need a dlock if they are global-singleton and
+     * running in multi-node/cluster mode, others coordinate locally; other workers get their dlock
+     * as before.
+     * </p>
+     *
+     * @param spec
+     * @param nowMs time the worker's jitter offset is computed at
+     * @return
+     * @throws ClassNotFoundException
+     */
+    public WorkerPlan plan(WorkerSpec spec, long nowMs) throws ClassNotFoundException {
+        WorkerClass workerClass = WorkerClass.forName(spec.getClassName());
+        spec.applyDefaults(workerClass.clazz);
+        String name = spec.getActorName();
+        boolean scheduledWorker = workerClass.isScheduledWorker();
+        boolean needsDlock = !StringUtils.isBlank(spec.getDlockName()) && (!scheduledWorker
+                || mode.isDistributed()
+                && spec.getCoordinationPolicy() == WorkerCoordinationPolicy.GLOBAL_SINGLETON);
+
+        MisfirePolicy misfirePolicy = MisfirePolicy.DROP;
+        try {
+            misfirePolicy = MisfirePolicy.parse(spec.getOption(WorkerSpec.OPT_MISFIRE));
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn(e.getMessage() + ", worker [" + name + "] drops missed ticks!");
+        }
+
+        Scheduling scheduling = workerClass.getScheduling();
+        CronSchedule schedule = null;
+        if (scheduling != null) {
+            try {
+                schedule = CronSchedule.parse(scheduling.value(), zoneId);
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn(e.getMessage() + ", worker [" + name + "] matches ticks itself, "
+                        + "without jitter or pool warming!");
+            }
+        }
+
+        long jitterMs = defaultJitterMs;
+        String jitterOption = spec.getOption(WorkerSpec.OPT_JITTER);
+        if (jitterOption != null) {
+            try {
+                jitterMs = Long.parseLong(jitterOption);
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid jitter window [" + jitterOption + "], worker [" + name
+                        + "] uses the default [" + defaultJitterMs + "ms]!");
+            }
+        }
+        long tickOffsetMs = 0;
+        if (jitterMs > 0 && schedule != null) {
+            if (scheduledWorker) {
+                tickOffsetMs = TickJitter.offsetMs(name, jitterMs, schedule, nowMs);
+            } else if (jitterOption != null) {
+                LOGGER.warn("Worker [" + spec.getClassName() + "] does not support jitter, runs "
+                        + "ticks at their fire time!");
+            }
+        }
+
+        int numPartitions = workerClass.isPartitionedWorker() ? getNumPartitions(spec) : 0;
+        Set<String> upstreams = scheduledWorker ? spec.getUpstreams() : Collections.emptySet();
+        return new WorkerPlan(spec, workerClass, needsDlock, misfirePolicy, schedule,
+                tickOffsetMs, numPartitions, upstreams);
+    }
+
+    private static void invoke(Method method, Actor actor, Object value) throws Exception {
+        if (method != null) {
+            method.invoke(actor, value);
+        }
+    }
+
+    /**
+     * Create a worker actor, register it with the worker directory (if named) and the cron
+     * dispatcher (if scheduled by it).
+     *
+     * @param actorSystem
+     * @param spec
+     * @return
+     * @throws ClassNotFoundException
+     */
+    public ActorRef createWorker(ActorSystem actorSystem, WorkerSpec spec)
+            throws ClassNotFoundException {
+        WorkerPlan plan = plan(spec, System.currentTimeMillis());
+        WorkerClass workerClass = plan.getWorkerClass();
+        Class<Actor> clazz = workerClass.clazz;
+        boolean scheduledWorker = workerClass.isScheduledWorker();
+        String actorName = spec.getActorName();
+        String dlockName = spec.getDlockName();
+        LOGGER.info("Creating worker [" + clazz.getName() + "] with name [" + actorName
+                + "] and dlock-name [" + dlockName + "], policy " + spec.getCoordinationPolicy()
+                + ", options " + spec.getOptions() + "...");
+
+        WorkerMetrics metrics = metricsRegistry != null
+                ? metricsRegistry.getOrCreateWorkerMetrics(actorName) : null;
+        IDLock dlock = plan.isDlockNeeded() ? dlockFactory.get().createLock(dlockName) : null;
+        if (dlock != null && metrics != null) {
+            dlock = new MeteredDLock(dlock, metrics);
+        }
+        IDLock workerDlock = dlock;
+
+        String executorName = plan.getExecutorName();
+        Executor jobExecutor = executorName != null && workerExecutors != null
+                ? workerExecutors.getExecutor(executorName) : null;
+        if (executorName != null && jobExecutor == null) {
+            LOGGER.warn("Executor [" + executorName + "] not found, worker [" + actorName
+                    + "] runs jobs on the worker dispatcher!");
+        }
+        MisfirePolicy misfirePolicy = plan.getMisfirePolicy();
+
+        CronSchedule schedule = plan.getSchedule();
+        long tickOffsetMs = plan.getTickOffsetMs();
+        if (jobChains != null && !jobChains.getUpstreams(actorName).isEmpty()) {
+            // chained: runs when its upstream workers complete, not on schedule
+            LOGGER.info("Worker [" + actorName + "] runs after upstream workers "
+                    + jobChains.getUpstreams(actorName) + ".");
+            schedule = null;
+            tickOffsetMs = 0;
+        } else if (tickOffsetMs > 0) {
+            LOGGER.info("Worker [" + actorName + "] runs ticks " + tickOffsetMs
+                    + "ms after their fire time.");
+        }
+        long workerTickOffsetMs = tickOffsetMs;
+        CronSchedule cronSchedule = cronDispatcher != null && scheduledWorker ? schedule : null;
+        boolean cronScheduled = cronSchedule != null;
+        String dsName = spec.getOption(WorkerSpec.OPT_DATASOURCE);
+        if (poolWarmer != null && dsName != null && schedule != null) {
+            poolWarmer.addSchedule(dsName, schedule);
+        }
+
+        String groupName = plan.getGroupName();
+        WorkerGroup group = groupName != null && workerGroups != null
+                ? workerGroups.getGroup(groupName) : null;
+        if (groupName != null && group == null) {
+            LOGGER.warn("Worker group [" + groupName + "] not found, worker [" + actorName
+                    + "] runs on the default dispatcher!");
+        } else if (group != null && !scheduledWorker) {
+            LOGGER.warn("Worker [" + clazz.getName() + "] runs on the dispatcher of group ["
+                    + groupName + "] but does not support the group's concurrency limit!");
+        }
+
+        PartitionClaims claims = null;
+        if (plan.getNumPartitions() > 0) {
+            claims = new PartitionClaims(actorName, dlockFactory.get(), dlockName,
+                    plan.getNumPartitions(), nodeId, partitionHoldMs)
+                    .setPollMs(partitionPollMs);
+            partitionClaims.put(actorName, claims);
+            LOGGER.info("Worker [" + actorName + "] runs " + plan.getNumPartitions()
+                    + " partitions per tick, claimed with dlocks [" + dlockName + "-p<n>].");
+        }
+        PartitionClaims workerClaims = claims;
+
+        LoadAwarePlacement placement = this.placement;
+        ExecutionJournal journal = this.journal;
+        InFlightJobs inFlightJobs = this.inFlightJobs;
+        JobChains jobChains = this.jobChains;
+        CheckpointStore checkpointStore = this.checkpointStore;
+        Props props = Props.create(clazz, () -> {
+            Actor actor;
+            if (workerClass.dlockConstructor != null) {
+                actor = (Actor) workerClass.dlockConstructor.newInstance(workerDlock);
+            } else {
+                actor = clazz.newInstance();
+                invoke(workerClass.setLock, actor, workerDlock);
+            }
+            if (metrics != null) {
+                invoke(workerClass.setMetrics, actor, metrics);
+            }
+            if (jobExecutor != null) {
+                if (workerClass.setJobExecutor != null) {
+                    workerClass.setJobExecutor.invoke(actor, jobExecutor);
+                } else {
+                    LOGGER.warn("Worker [" + clazz.getName() + "] does not support job "
+                            + "executor, runs jobs on the worker dispatcher!");
+                }
+            }
+            if (misfirePolicy.getType() != MisfirePolicy.Type.DROP) {
+                if (workerClass.setMisfirePolicy != null) {
+                    workerClass.setMisfirePolicy.invoke(actor, misfirePolicy);
+                } else {
+                    LOGGER.warn("Worker [" + clazz.getName() + "] does not support misfire "
+                            + "policy, drops missed ticks!");
+                }
+            }
+            if (placement != null) {
+                invoke(workerClass.setPlacement, actor, placement);
+            }
+            if (journal != null) {
+                invoke(workerClass.setJournal, actor, journal);
+            }
+            if (scheduledWorker) {
+                BaseScheduledWorker worker = (BaseScheduledWorker) actor;
+                worker.setCronScheduled(cronScheduled).setTickOffsetMs(workerTickOffsetMs)
+                        .setGroup(group).setInFlightJobs(inFlightJobs).setJobChains(jobChains)
+                        .setCheckpointStore(checkpointStore);
+            }
+            if (workerClaims != null) {
+                ((BasePartitionedWorker) actor).setPartitionClaims(workerClaims);
+            }
+            return actor;
+        });
+        if (group != null) {
+            props = props.withDispatcher(group.getDispatcherId());
+        }
+
+        ActorRef worker = actorSystem.actorOf(props, actorName);
+        if (workerDirectory != null) {
+            workerDirectory.register(actorName, worker, spec);
+        }
+        if (cronScheduled) {
+            boolean fireOnFirstTick = workerClass.getScheduling()
+                    .runFirstTimeRegardlessScheduling();
+            cronDispatcher.tell(new CronDispatcherActor.Register(worker, cronSchedule,
+                    fireOnFirstTick), ActorRef.noSender());
+        }
+        LOGGER.info("Created worker " + worker);
+        return worker;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.btnguyen2k.akkascheduledjob.metrics.WorkerMetrics;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A bulkhead: workers of a group run on the group's own dispatcher, and at most
+ * {@code concurrency} jobs of the group run at the same time (ticks beyond that are treated as
+ * busy). Runs of all the group's workers are also recorded into the group's metrics.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerGroup {
+    private final String name, dispatcherId;
+    private final int concurrency;
+    private final Semaphore permits;
+    private final WorkerMetrics metrics;
+
+    public WorkerGroup(String name, String dispatcherId, int concurrency) {
+        this.name = name;
+        this.dispatcherId = dispatcherId;
+        this.concurrency = Math.max(1, concurrency);
+        this.permits = new Semaphore(this.concurrency);
+        this.metrics = new WorkerMetrics(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Id of the Akka dispatcher the group's workers run on.
+     *
+     * @return
+     */
+    public String getDispatcherId() {
+        return dispatcherId;
+    }
+
+    /**
+     * Max number of the group's jobs running at the same time.
+     *
+     * @return
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Number of the group's jobs running now.
+     *
+     * @return
+     */
+    public int getRunning() {
+        return concurrency - permits.availablePermits();
+    }
+
+    /**
+     * Aggregated metrics of the group's workers.
+     *
+     * @return
+     */
+    public WorkerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Take a slot to run a job.
+     *
+     * @return {@code false} if the group already runs {@code concurrency} jobs
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    /**
+     * Give back a slot taken by {@link #tryAcquire()}.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return name + "[dispatcher=" + dispatcherId + ", concurrency=" + concurrency + "]";
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.btnguyen2k.akkascheduledjob.dispatch.TunableDispatcherConfigurator;
+import com.github.btnguyen2k.akkascheduledjob.metrics.MetricsRegistry;
+import com.github.btnguyen2k.akkascheduledjob.util.JsonUtils;
+import com.github.ddth.commons.utils.DPathUtils;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Worker groups (bulkheads, see {@link WorkerGroup}) and their dispatchers.
+ *
+ * <p>
+ * A group exists as soon as a worker refers to it (worker option {@code group=<name>} or
+ * {@link WorkerOptions#group()}); its settings are optional and defined in
+ * {@code ddth-akka-scheduling.worker-groups} section in {@code application.conf}:
+ * </p>
+ *
+ * <pre>
+ * worker-groups {
+ *   reports {
+ *     # max jobs of the group running at the same time, default value = number of cores
+ *     concurrency = 2
+ *     # threads of the group's dispatcher, default value = concurrency
+ *     parallelism = 2
+ *     throughput  = 1     #optional, default value = 1
+ *     # true: TunableDispatcher adjusted by ddth-akka-scheduling.dispatcher-tuning
+ *     tunable     = false #optional, default value = false
+ *   }
+ * }
+ * </pre>
+ *
+ * <p>
+ * Each group's dispatcher is generated at {@code akka.actor.worker-groups.<name>} before the actor
+ * system is created; a dispatcher defined at that path in {@code application.conf} takes
+ * precedence.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerGroups {
+    private final Logger LOGGER = LoggerFactory.getLogger(WorkerGroups.class);
+
+    /**
+     * Config path of group dispatchers.
+     */
+    public final static String DISPATCHER_PATH = "akka.actor.worker-groups";
+
+    private final static Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Map<String, WorkerGroup> groups = new LinkedHashMap<>();
+    private final Map<String, Object> dispatcherSettings = new HashMap<>();
+    private final List<String> tunableDispatcherIds = new ArrayList<>();
+
+    /**
+     * Create groups: those defined in configuration and those referred to by workers.
+     *
+     * @param confGroups {group-name:settings}, may be {@code null}
+     * @param groupNames names of groups workers refer to
+     * @return
+     */
+    public WorkerGroups init(Map<?, ?> confGroups, Collection<String> groupNames) {
+        Set<String> names = new LinkedHashSet<>();
+        if (confGroups != null) {
+            confGroups.keySet().forEach(k -> names.add(k.toString()));
+        }
+        names.addAll(groupNames);
+        for (String name : names) {
+            if (!VALID_NAME.matcher(name).matches()) {
+                LOGGER.warn("Invalid worker group name [" + name + "] (allowed: letters, digits,"
+                        + " '-' and '_'), its workers run on the default dispatcher!");
+                continue;
+            }
+            Object conf = confGroups != null ? confGroups.get(name) : null;
+            int concurrency = DPathUtils.getValueOptional(conf, "concurrency", Integer.class)
+                    .orElse(Runtime.getRuntime().availableProcessors());
+            concurrency = Math.max(1, concurrency);
+            int parallelism = Math.max(1, DPathUtils
+                    .getValueOptional(conf, "parallelism", Integer.class).orElse(concurrency));
+            int throughput = Math.max(1, DPathUtils
+                    .getValueOptional(conf, "throughput", Integer.class).orElse(1));
+            boolean tunable = DPathUtils.getValueOptional(conf, "tunable", Boolean.class)
+                    .orElse(Boolean.FALSE).booleanValue();
+            String dispatcherId = DISPATCHER_PATH + "." + name;
+            String prefix = dispatcherId + ".";
+            dispatcherSettings.put(prefix + "throughput", throughput);
+            if (tunable) {
+                dispatcherSettings.put(prefix + "type",
+                        TunableDispatcherConfigurator.class.getName());
+                dispatcherSettings.put(prefix + "tunable.parallelism", parallelism);
+                dispatcherSettings.put(prefix + "tunable.parallelism-min", 1);
+                dispatcherSettings.put(prefix + "tunable.parallelism-max",
+                        Math.max(parallelism, concurrency));
+                tunableDispatcherIds.add(dispatcherId);
+            } else {
+                dispatcherSettings.put(prefix + "type", "Dispatcher");
+                dispatcherSettings.put(prefix + "executor", "thread-pool-executor");
+                dispatcherSettings
+                        .put(prefix + "thread-pool-executor.fixed-pool-size", parallelism);
+            }
+            groups.put(name, new WorkerGroup(name, dispatcherId, concurrency));
+            LOGGER.info("Worker group [" + name + "]: concurrency " + concurrency + ", "
+                    + (tunable ? "tunable " : "") + "dispatcher [" + dispatcherId + "] with "
+                    + parallelism + " thread(s).");
+        }
+        return this;
+    }
+
+    /**
+     * Add the groups' dispatchers to an actor system configuration (settings already in
+     * {@code config} take precedence).
+     *
+     * @param config
+     * @return
+     */
+    public Config withDispatchers(Config config) {
+        return dispatcherSettings.isEmpty() ? config
+                : config.withFallback(ConfigFactory.parseMap(dispatcherSettings));
+    }
+
+    /**
+     * Get a group by name.
+     *
+     * @param name
+     * @return {@code null} if no such group
+     */
+    public WorkerGroup getGroup(String name) {
+        return groups.get(name);
+    }
+
+    public Collection<WorkerGroup> getGroups() {
+        return Collections.unmodifiableCollection(groups.values());
+    }
+
+    /**
+     * Ids of group dispatchers that are {@code TunableDispatcher}s.
+     *
+     * @return
+     */
+    public List<String> getTunableDispatcherIds() {
+        return Collections.unmodifiableList(tunableDispatcherIds);
+    }
+
+    /**
+     * Render groups and their metrics as JSON.
+     *
+     * @return
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"groups\":[");
+        int i = 0;
+        for (WorkerGroup group : groups.values()) {
+            sb.append(i++ > 0 ? "," : "").append("{\"dispatcher\":")
+                    .append(JsonUtils.quote(group.getDispatcherId())).append(",\"concurrency\":")
+                    .append(group.getConcurrency()).append(",\"running\":")
+                    .append(group.getRunning()).append(",");
+            MetricsRegistry.appendJsonFields(sb, group.getMetrics());
+            sb.append("}");
+        }
+        return sb.append("]}").toString();
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Per-worker options, complementing {@code @Scheduling}.
+ *
+ * <p>
+ * Each attribute can be overridden by the corresponding {@code key=value} option in the worker's
+ * entry of {@code ddth-akka-scheduling.workers} (see {@link WorkerSpec}).
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface WorkerOptions {
+    /**
+     * Name of the executor (defined at {@code ddth-akka-scheduling.executors}) to run the job
+     * on. Empty means the job runs on {@code akka.actor.worker-dispatcher}.
+     *
+     * <p>
+     * Worker list option: {@code executor=<name>}
+     * </p>
+     *
+     * @return
+     */
+    String executor() default "";
+
+    /**
+     * What to do with ticks missed while the worker is busy: {@code drop}, {@code coalesce} or
+     * {@code replay:<n>} (see {@link MisfirePolicy}). Empty means {@code drop}.
+     *
+     * <p>
+     * Worker list option: {@code misfire=<policy>}
+     * </p>
+     *
+     * @return
+     */
+    String misfire() default "";
+
+    /**
+     * Name of the data source (defined at {@code datasources}) the worker's jobs use. With
+     * {@code ddth-akka-scheduling.pool-warming.enabled = true}, the data source's connection pool
+     * is warmed ahead of the worker's scheduled runs.
+     *
+     * <p>
+     * Worker list option: {@code datasource=<name>}
+     * </p>
+     *
+     * @return
+     */
+    String datasource() default "";
+
+    /**
+     * Jitter window in milliseconds: the worker runs its matched ticks at a fixed offset within
+     * this window, derived from a hash of the worker's name, to spread workers sharing the same
+     * fire time (see {@link com.github.btnguyen2k.akkascheduledjob.scheduler.TickJitter}).
+     * {@code 0} disables jitter, empty means {@code ddth-akka-scheduling.jitter.window-ms}.
+     *
+     * <p>
+     * Worker list option: {@code jitter=<window-ms>}
+     * </p>
+     *
+     * @return
+     */
+    String jitter() default "";
+
+    /**
+     * Name of the worker group (bulkhead, see {@link WorkerGroup}): the worker runs on the group's
+     * own dispatcher and shares the group's concurrency limit. Empty means the worker runs on the
+     * default dispatcher, with no limit.
+     *
+     * <p>
+     * Worker list option: {@code group=<name>}
+     * </p>
+     *
+     * @return
+     */
+    String group() default "";
+
+    /**
+     * Names (actor names) of upstream workers, separated by {@code +}: the worker ignores its
+     * schedule and runs as soon as all upstream workers have completed the same logical tick (see
+     * {@link com.github.btnguyen2k.akkascheduledjob.chain.JobChains}). Empty means the worker runs
+     * on its schedule.
+     *
+     * <p>
+     * Worker list option: {@code upstream=<name>[+<name>...]}
+     * </p>
+     *
+     * @return
+     */
+    String upstream() default "";
+
+    /**
+     * Number of partitions the job of a {@link BasePartitionedWorker} is split into, claimed and
+     * run across all nodes on every tick. Empty means
+     * {@code ddth-akka-scheduling.partitions.default-count}.
+     *
+     * <p>
+     * Worker list option: {@code partitions=<n>}
+     * </p>
+     *
+     * @return
+     */
+    String partitions() default "";
+}
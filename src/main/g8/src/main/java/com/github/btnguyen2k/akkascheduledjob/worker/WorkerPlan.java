@@ -0,0 +1,145 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.btnguyen2k.akkascheduledjob.scheduler.CronSchedule;
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * How a worker of the worker list is set up, resolved from its {@link WorkerSpec} and worker class
+ * by {@link WorkerFactory#plan(WorkerSpec, long)}: the same rules apply to workers created at
+ * startup and to simulated ones.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerPlan {
+    private final WorkerSpec spec;
+    private final WorkerClass workerClass;
+    private final boolean needsDlock;
+    private final MisfirePolicy misfirePolicy;
+    private final CronSchedule schedule;
+    private final long tickOffsetMs;
+    private final int numPartitions;
+    private final Set<String> upstreams;
+
+    WorkerPlan(WorkerSpec spec, WorkerClass workerClass, boolean needsDlock,
+            MisfirePolicy misfirePolicy, CronSchedule schedule, long tickOffsetMs,
+            int numPartitions, Set<String> upstreams) {
+        this.spec = spec;
+        this.workerClass = workerClass;
+        this.needsDlock = needsDlock;
+        this.misfirePolicy = misfirePolicy;
+        this.schedule = schedule;
+        this.tickOffsetMs = tickOffsetMs;
+        this.numPartitions = numPartitions;
+        this.upstreams = Collections.unmodifiableSet(upstreams);
+    }
+
+    public WorkerSpec getSpec() {
+        return spec;
+    }
+
+    public WorkerClass getWorkerClass() {
+        return workerClass;
+    }
+
+    public String getName() {
+        return spec.getActorName();
+    }
+
+    public WorkerCoordinationPolicy getCoordinationPolicy() {
+        return spec.getCoordinationPolicy();
+    }
+
+    /**
+     * Check if the worker gets a dlock: workers not extending {@link BaseScheduledWorker} always
+     * do (as before), others only if they are global-singleton in a distributed mode.
+     *
+     * @return
+     */
+    public boolean isDlockNeeded() {
+        return needsDlock;
+    }
+
+    /**
+     * Check if each run of the worker is coordinated across nodes through its dlock.
+     *
+     * @return
+     */
+    public boolean isDlocked() {
+        return needsDlock && getCoordinationPolicy() == WorkerCoordinationPolicy.GLOBAL_SINGLETON;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    /**
+     * Parsed schedule of the worker, {@code null} if it has none or it cannot be parsed (the
+     * worker then matches ticks itself).
+     *
+     * @return
+     */
+    public CronSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Delay of the worker's runs after their fire time (jitter), {@code 0} if none.
+     *
+     * @return
+     */
+    public long getTickOffsetMs() {
+        return tickOffsetMs;
+    }
+
+    /**
+     * Number of partitions of a partitioned worker, {@code 0} if the worker is not partitioned.
+     *
+     * @return
+     */
+    public int getNumPartitions() {
+        return numPartitions;
+    }
+
+    /**
+     * Upstream workers declared by the worker (empty if the worker does not extend
+     * {@link BaseScheduledWorker}), before dependency cycles are removed.
+     *
+     * @return
+     */
+    public Set<String> getUpstreams() {
+        return upstreams;
+    }
+
+    /**
+     * Name of the worker's job executor, {@code null} if none (only used by
+     * {@link BaseScheduledWorker}s).
+     *
+     * @return
+     */
+    public String getExecutorName() {
+        return spec.getOption(WorkerSpec.OPT_EXECUTOR);
+    }
+
+    /**
+     * Name of the worker's group, {@code null} if none.
+     *
+     * @return
+     */
+    public String getGroupName() {
+        return spec.getOption(WorkerSpec.OPT_GROUP);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return getName() + "[policy=" + getCoordinationPolicy() + ", dlock=" + needsDlock
+                + ", schedule=" + schedule + ", tick-offset=" + tickOffsetMs + "ms, options="
+                + spec.getOptions() + "]";
+    }
+}
@@ -0,0 +1,181 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.ddth.akka.scheduling.WorkerCoordinationPolicy;
+import com.github.ddth.akka.scheduling.annotation.Scheduling;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A worker definition, parsed from an entry of {@code ddth-akka-scheduling.workers}.
+ *
+ * <p>
+ * Format: {@code <fully-qualified-class-name>[;actor-name;dlock-name][;key=value...]}. Tokens
+ * containing {@code =} are options and can be placed anywhere after the class name; other tokens
+ * are, in order, actor-name and dlock-name. If actor-name or dlock-name is not supplied, class'
+ * simple-name is used.
+ * </p>
+ *
+ * <p>
+ * Options not specified in the worker list fall back to the worker class' {@link WorkerOptions}
+ * annotation.
+ * </p>
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerSpec {
+    public final static String OPT_EXECUTOR = "executor";
+    public final static String OPT_MISFIRE = "misfire";
+    public final static String OPT_DATASOURCE = "datasource";
+    public final static String OPT_JITTER = "jitter";
+    public final static String OPT_GROUP = "group";
+    public final static String OPT_UPSTREAM = "upstream";
+    public final static String OPT_PARTITIONS = "partitions";
+
+    /**
+     * Parse a worker definition.
+     *
+     * @param definition
+     * @return
+     */
+    public static WorkerSpec parse(String definition) {
+        String[] tokens = definition.trim().split("[,; ]+");
+        WorkerSpec spec = new WorkerSpec(tokens[0]);
+        int positional = 0;
+        for (int i = 1; i < tokens.length; i++) {
+            String token = tokens[i];
+            int pos = token.indexOf('=');
+            if (pos > 0) {
+                spec.options.put(token.substring(0, pos).trim().toLowerCase(),
+                        token.substring(pos + 1).trim());
+            } else if (positional == 0) {
+                spec.actorName = token;
+                positional++;
+            } else if (positional == 1) {
+                spec.dlockName = token;
+                positional++;
+            }
+        }
+        return spec;
+    }
+
+    private final String className;
+    private String actorName, dlockName;
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private WorkerCoordinationPolicy coordinationPolicy = WorkerCoordinationPolicy.TAKE_ALL_TASKS;
+
+    public WorkerSpec(String className) {
+        this.className = className;
+    }
+
+    /**
+     * Fill in defaults from the worker class: actor-name, dlock-name, coordination policy from
+     * {@link Scheduling} and options from {@link WorkerOptions}.
+     *
+     * @param clazz
+     * @return
+     */
+    public WorkerSpec applyDefaults(Class<?> clazz) {
+        if (actorName == null) {
+            actorName = clazz.getSimpleName();
+        }
+        if (dlockName == null) {
+            dlockName = clazz.getSimpleName();
+        }
+        Scheduling scheduling = clazz.getAnnotation(Scheduling.class);
+        if (scheduling != null) {
+            coordinationPolicy = scheduling.workerCoordinationPolicy();
+        }
+        WorkerOptions workerOptions = clazz.getAnnotation(WorkerOptions.class);
+        if (workerOptions != null) {
+            putOptionIfAbsent(OPT_EXECUTOR, workerOptions.executor());
+            putOptionIfAbsent(OPT_MISFIRE, workerOptions.misfire());
+            putOptionIfAbsent(OPT_DATASOURCE, workerOptions.datasource());
+            putOptionIfAbsent(OPT_JITTER, workerOptions.jitter());
+            putOptionIfAbsent(OPT_GROUP, workerOptions.group());
+            putOptionIfAbsent(OPT_UPSTREAM, workerOptions.upstream());
+            putOptionIfAbsent(OPT_PARTITIONS, workerOptions.partitions());
+        }
+        return this;
+    }
+
+    private void putOptionIfAbsent(String key, String value) {
+        if (!StringUtils.isBlank(value) && !options.containsKey(key)) {
+            options.put(key, value.trim());
+        }
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getActorName() {
+        return actorName;
+    }
+
+    public String getDlockName() {
+        return dlockName;
+    }
+
+    public WorkerCoordinationPolicy getCoordinationPolicy() {
+        return coordinationPolicy;
+    }
+
+    /**
+     * Get an option's value.
+     *
+     * @param key
+     * @return {@code null} if not specified
+     */
+    public String getOption(String key) {
+        return options.get(key);
+    }
+
+    /**
+     * Get an option's value.
+     *
+     * @param key
+     * @param defaultValue
+     * @return
+     */
+    public String getOption(String key, String defaultValue) {
+        String value = options.get(key);
+        return StringUtils.isBlank(value) ? defaultValue : value;
+    }
+
+    /**
+     * Upstream workers of option {@code upstream} ({@code +}-separated names).
+     *
+     * @return empty if none
+     */
+    public Set<String> getUpstreams() {
+        Set<String> upstreams = new LinkedHashSet<>();
+        String upstream = options.get(OPT_UPSTREAM);
+        if (!StringUtils.isBlank(upstream)) {
+            for (String name : upstream.split("\\+")) {
+                if (!StringUtils.isBlank(name)) {
+                    upstreams.add(name.trim());
+                }
+            }
+        }
+        return upstreams;
+    }
+
+    public Map<String, String> getOptions() {
+        return Collections.unmodifiableMap(options);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return className + "[actor-name=" + actorName + ", dlock-name=" + dlockName + ", options="
+                + options + "]";
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.btnguyen2k.akkascheduledjob;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of {@link SchedulingMode} parsing.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class SchedulingModeTest {
+    @Test
+    public void testParse() {
+        assertEquals(SchedulingMode.SINGLE_NODE, SchedulingMode.parse("single-node"));
+        assertEquals(SchedulingMode.MULTI_NODE, SchedulingMode.parse("multi-node"));
+        assertEquals(SchedulingMode.MULTI_NODE, SchedulingMode.parse(" Multiple-Nodes "));
+        assertEquals(SchedulingMode.MULTI_NODE, SchedulingMode.parse("MULTI-NODES"));
+        assertEquals(SchedulingMode.CLUSTER, SchedulingMode.parse("cluster"));
+    }
+
+    @Test
+    public void testUnknownFallsBackToSingleNode() {
+        assertEquals(SchedulingMode.SINGLE_NODE, SchedulingMode.parse("multinode"));
+        assertEquals(SchedulingMode.SINGLE_NODE, SchedulingMode.parse(""));
+        assertEquals(SchedulingMode.SINGLE_NODE, SchedulingMode.parse(null));
+    }
+
+    @Test
+    public void testFromConfig() {
+        assertEquals(SchedulingMode.SINGLE_NODE, SchedulingMode.fromConfig(ConfigFactory.empty()));
+        assertEquals(SchedulingMode.CLUSTER, SchedulingMode.fromConfig(
+                ConfigFactory.parseString("ddth-akka-scheduling.mode = cluster")));
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.btnguyen2k.akkascheduledjob.chain;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import com.github.btnguyen2k.akkascheduledjob.worker.BasePartitionedWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerFactory;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerSpec;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.pubsub.impl.universal.idint.UniversalInmemPubSubHub;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link JobChains}, {@link JobChainActor} and {@link JobChainsFactory}: a downstream
+ * worker fires once all its upstream workers have completed the same logical tick.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JobChainsTest {
+    private final static long TIMEOUT_MS = 5000;
+    private final static long NO_MESSAGE_MS = 300;
+
+    /**
+     * Scheduled worker class: only looked up by name, never instantiated.
+     */
+    public static class ScheduledWorker extends BaseScheduledWorker {
+        @Override
+        protected void execute(String dlockId, TickMessage tick) {
+        }
+    }
+
+    /**
+     * Partitioned worker class: only looked up by name, never instantiated.
+     */
+    public static class PartitionedWorker extends BasePartitionedWorker {
+        @Override
+        protected void executePartition(int partition, int numPartitions, TickMessage tick) {
+        }
+    }
+
+    /**
+     * Stands in for a worker actor: records the messages it receives.
+     */
+    public static class Recorder extends AbstractActor {
+        private final BlockingQueue<Object> received;
+
+        public Recorder(BlockingQueue<Object> received) {
+            this.received = received;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder().matchAny(received::add).build();
+        }
+    }
+
+    private ActorSystem actorSystem;
+
+    @Before
+    public void setUp() {
+        actorSystem = ActorSystem.create("JobChainsTest",
+                ConfigFactory.parseString("akka.loglevel = \"WARNING\""));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        actorSystem.terminate();
+        actorSystem.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    private BlockingQueue<Object> register(WorkerDirectory directory, String name) {
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        ActorRef actor = actorSystem.actorOf(Props.create(Recorder.class, received));
+        directory.register(name, actor, new WorkerSpec(ScheduledWorker.class.getName()));
+        return received;
+    }
+
+    private static TickMessage tick(String id) {
+        return new TickMessage(id, new Date());
+    }
+
+    private static String nextFired(BlockingQueue<Object> received)
+            throws InterruptedException {
+        Object msg = received.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull("Downstream worker not fired", msg);
+        assertTrue("Not an upstream completion: " + msg,
+                msg instanceof BaseScheduledWorker.UpstreamsCompleted);
+        return ((BaseScheduledWorker.UpstreamsCompleted) msg).getTickId();
+    }
+
+    private static void assertNotFired(BlockingQueue<Object> received)
+            throws InterruptedException {
+        assertNull(received.poll(NO_MESSAGE_MS, TimeUnit.MILLISECONDS));
+    }
+
+    private static Set<String> setOf(String... values) {
+        return new LinkedHashSet<>(Arrays.asList(values));
+    }
+
+    /*----------------------------------------------------------------------*/
+
+    @Test
+    public void testCompletionCodec() {
+        JobChains.Completion c = JobChains.Completion
+                .decode(new JobChains.Completion("extract", "tick-1").encode());
+        assertNotNull(c);
+        assertEquals("extract", c.getWorker());
+        assertEquals("tick-1", c.getTickId());
+        assertNull(JobChains.Completion.decode(null));
+        assertNull(JobChains.Completion.decode("extract".getBytes()));
+        assertNull(JobChains.Completion.decode("\ttick-1".getBytes()));
+    }
+
+    @Test
+    public void testFindCycles() {
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        dependencies.put("load", setOf("transform"));
+        dependencies.put("transform", setOf("extract"));
+        assertTrue(JobChains.findCycles(dependencies).isEmpty());
+
+        dependencies.put("extract", setOf("load"));
+        dependencies.put("report", setOf("load"));
+        dependencies.put("self", setOf("self"));
+        assertEquals(setOf("load", "transform", "extract", "self"),
+                new HashSet<>(JobChains.findCycles(dependencies)));
+    }
+
+    @Test
+    public void testOnlyUpstreamCompletionsPublished() {
+        List<JobChains.Completion> published = new ArrayList<>();
+        JobChains chains = new JobChains().addDependencies("load", setOf("extract", "transform"))
+                .setPublisher(published::add);
+        chains.completed("extract", tick("tick-1"));
+        chains.completed("load", tick("tick-1"));
+        assertEquals(1, published.size());
+        assertEquals("extract", published.get(0).getWorker());
+        assertEquals("tick-1", published.get(0).getTickId());
+        assertEquals(setOf("extract", "transform"), chains.getUpstreams("load"));
+        assertTrue(chains.getUpstreams("extract").isEmpty());
+    }
+
+    @Test
+    public void testDownstreamFiredOnceAllUpstreamsCompleted() throws InterruptedException {
+        WorkerDirectory directory = new WorkerDirectory();
+        BlockingQueue<Object> load = register(directory, "load");
+        BlockingQueue<Object> report = register(directory, "report");
+        JobChains chains = new JobChains().addDependencies("load", setOf("extract", "transform"))
+                .addDependencies("report", setOf("load"))
+                .addDependencies("archive", setOf("extract"));
+        ActorRef chainActor = JobChainActor.newInstance(actorSystem, chains, directory);
+        chains.setPublisher(c -> chainActor.tell(c, ActorRef.noSender()));
+
+        chains.completed("extract", tick("tick-1"));
+        chains.completed("extract", tick("tick-2"));
+        assertNotFired(load);
+        chains.completed("transform", tick("tick-2"));
+        // fired with the tick id of the upstream runs
+        assertEquals("tick-2", nextFired(load));
+        chains.completed("transform", tick("tick-1"));
+        assertEquals("tick-1", nextFired(load));
+
+        // completions of a tick already fired, e.g. from other nodes, are ignored
+        chains.completed("extract", tick("tick-1"));
+        chains.completed("transform", tick("tick-1"));
+        assertNotFired(load);
+
+        // the next step of the pipeline ("archive" runs on other nodes only)
+        chains.completed("load", tick("tick-1"));
+        assertEquals("tick-1", nextFired(report));
+        assertTrue(chains.toJson(), chains.toJson().startsWith(
+                "{\"published\":7,\"received\":7,\"fired\":3,\"expired\":0,\"pending\":0,"));
+    }
+
+    @Test
+    public void testBuildDependencies() {
+        String scheduled = ScheduledWorker.class.getName();
+        String partitioned = PartitionedWorker.class.getName();
+        String notScheduled = Recorder.class.getName();
+        JobChainsFactory factory = new JobChainsFactory()
+                .setWorkerFactory(new WorkerFactory().setDefaultNumPartitions(2))
+                .setWorkerSpecs(Arrays.asList(WorkerSpec.parse(scheduled + " extract"),
+                        WorkerSpec.parse(partitioned + " transform partitions=3 upstream=extract"),
+                        WorkerSpec.parse(partitioned + " enrich"),
+                        WorkerSpec.parse(scheduled + " load upstream=transform+enrich+remote"),
+                        WorkerSpec.parse(notScheduled + " audit upstream=load"),
+                        WorkerSpec.parse(scheduled + " ping upstream=pong"),
+                        WorkerSpec.parse(scheduled + " pong upstream=ping"),
+                        WorkerSpec.parse("no.such.Worker missing upstream=extract")));
+        Map<String, Set<String>> dependencies = factory.buildDependencies();
+        assertEquals(setOf("transform", "load"), dependencies.keySet());
+        assertEquals(setOf("extract"), dependencies.get("transform"));
+        // partitioned upstream workers are expanded, unknown upstream workers kept
+        assertEquals(setOf(JobChains.partitionName("transform", 0),
+                JobChains.partitionName("transform", 1), JobChains.partitionName("transform", 2),
+                JobChains.partitionName("enrich", 0), JobChains.partitionName("enrich", 1),
+                "remote"), dependencies.get("load"));
+    }
+
+    @Test
+    public void testNoDependencies() {
+        JobChainsFactory factory = new JobChainsFactory().setWorkerSpecs(
+                Collections.singletonList(WorkerSpec.parse(ScheduledWorker.class.getName())));
+        assertNull(factory.createJobChains(actorSystem));
+    }
+
+    @Test
+    public void testCompletionsOverPubSub() throws InterruptedException {
+        UniversalInmemPubSubHub hub = new UniversalInmemPubSubHub().init();
+        String scheduled = ScheduledWorker.class.getName();
+        List<WorkerSpec> specs = Arrays.asList(WorkerSpec.parse(scheduled + " extract"),
+                WorkerSpec.parse(scheduled + " transform"),
+                WorkerSpec.parse(scheduled + " load upstream=extract+transform"));
+        WorkerDirectory directory = new WorkerDirectory();
+        BlockingQueue<Object> load = register(directory, "load");
+        JobChains chains = new JobChainsFactory().setWorkerSpecs(specs)
+                .setWorkerDirectory(directory).setPubSubHub(() -> hub)
+                .createJobChains(actorSystem);
+        try {
+            assertNotNull(chains);
+            chains.completed("extract", tick("tick-1"));
+            chains.completed("transform", tick("tick-1"));
+            assertEquals("tick-1", nextFired(load));
+
+            // completions are no longer received once destroyed
+            chains.destroy();
+            chains.completed("extract", tick("tick-2"));
+            chains.completed("transform", tick("tick-2"));
+            assertNotFired(load);
+        } finally {
+            chains.destroy();
+            hub.destroy();
+        }
+    }
+}
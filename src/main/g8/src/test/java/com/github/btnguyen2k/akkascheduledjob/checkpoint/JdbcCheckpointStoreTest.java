@@ -0,0 +1,172 @@
+package com.github.btnguyen2k.akkascheduledjob.checkpoint;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link JdbcCheckpointStore} against an in-memory H2 database; two stores on the same
+ * table act as two nodes.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JdbcCheckpointStoreTest {
+    private final static String TABLE = "worker_checkpoints";
+    private final static AtomicInteger DB_COUNTER = new AtomicInteger();
+
+    private JdbcDataSource dataSource;
+    private JdbcCheckpointStore node1, node2;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:jdbc-checkpoints-" + DB_COUNTER.incrementAndGet()
+                + ";DB_CLOSE_DELAY=-1");
+        try (Connection conn = dataSource.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE " + TABLE + " (ckey VARCHAR(255) NOT NULL PRIMARY KEY, "
+                    + "tick_id VARCHAR(255), tick_time BIGINT, updated_at BIGINT, completed INT, "
+                    + "progress VARCHAR(4000), node_id VARCHAR(255), dlock_id VARCHAR(255))");
+        }
+        node1 = newStore("node1");
+        node2 = newStore("node2");
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        node1.destroy(1000);
+        node2.destroy(1000);
+        try (Connection conn = dataSource.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+    }
+
+    private JdbcCheckpointStore newStore(String nodeId) {
+        JdbcCheckpointStore store = new JdbcCheckpointStore(dataSource, TABLE);
+        store.setNodeId(nodeId).setFlushIntervalMs(20).setHeartbeatIntervalMs(50).init();
+        return store;
+    }
+
+    private static Checkpoint checkpoint(String tickId, long updatedAtMs, boolean completed,
+            String nodeId, String dlockId) {
+        return new Checkpoint("job", tickId, 1000, updatedAtMs, completed, "progress-" + tickId,
+                nodeId, dlockId);
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMs)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Condition not met within " + timeoutMs + "ms", condition.getAsBoolean());
+    }
+
+    @Test
+    public void testWriteBehind() throws InterruptedException {
+        Checkpoint saved = checkpoint("tick-1", 2000, false, "node1", "dlock-1");
+        node1.save(saved);
+        // pending checkpoints are seen by this node only
+        assertEquals("tick-1", node1.get("job").getTickId());
+        assertNull(node2.read("job"));
+        await(() -> node2.read("job") != null, 2000);
+
+        Checkpoint read = node2.read("job");
+        assertNotNull(read);
+        assertEquals("tick-1", read.getTickId());
+        assertEquals(1000, read.getTickTimestampMs());
+        assertEquals(2000, read.getUpdatedAtMs());
+        assertFalse(read.isCompleted());
+        assertEquals("progress-tick-1", read.getProgress());
+        assertEquals("node1", read.getNodeId());
+        assertEquals("dlock-1", read.getDlockId());
+
+        node1.save(checkpoint("tick-2", 3000, true, "node1", null));
+        await(() -> node2.read("job").isCompleted(), 2000);
+        assertNull(node2.read("job").getDlockId());
+        assertNull(node2.read("other"));
+    }
+
+    @Test
+    public void testSaveNow() {
+        node1.save(checkpoint("tick-1", 2000, false, "node1", "dlock-1"));
+        assertTrue(node1.saveNow(checkpoint("tick-1", 2500, true, "node1", "dlock-1")));
+        // visible to other nodes right away, superseding the pending checkpoint
+        assertTrue(node2.read("job").isCompleted());
+        assertEquals(0, node1.getPendingCount());
+        assertTrue(node1.get("job").isCompleted());
+    }
+
+    @Test
+    public void testCompareAndSet() {
+        Checkpoint interrupted = checkpoint("tick-1", 2000, false, "node0", "dlock-0");
+        assertTrue(node1.saveNow(interrupted));
+
+        // both nodes read the interrupted run, only one takes it over
+        Checkpoint read1 = node1.read("job"), read2 = node2.read("job");
+        assertTrue(node1.compareAndSet(read1, read1.updated(5000, "node1")));
+        assertFalse(node2.compareAndSet(read2, read2.updated(5001, "node2")));
+        Checkpoint claimed = node2.read("job");
+        assertEquals("node1", claimed.getNodeId());
+        assertEquals(5000, claimed.getUpdatedAtMs());
+        // the dlock id of the interrupted run is kept
+        assertEquals("dlock-0", claimed.getDlockId());
+
+        // completed checkpoints are not taken over
+        assertTrue(node1.saveNow(checkpoint("tick-1", 6000, true, "node1", "dlock-0")));
+        Checkpoint completed = node2.read("job");
+        assertFalse(node2.compareAndSet(completed, completed.updated(7000, "node2")));
+        assertTrue(node2.toJson(), node2.toJson().endsWith(",\"claimed\":0,\"claimsLost\":2}"));
+    }
+
+    @Test
+    public void testHeartbeat() throws InterruptedException {
+        long startedAt = System.currentTimeMillis();
+        Checkpoint running = checkpoint("tick-1", startedAt, false, "node1", "dlock-1");
+        node1.save(running);
+        node1.startHeartbeat(running);
+        await(() -> {
+            Checkpoint read = node2.read("job");
+            return read != null && read.getUpdatedAtMs() >= startedAt + 100;
+        }, 2000);
+        Checkpoint refreshed = node2.read("job");
+        assertEquals("tick-1", refreshed.getTickId());
+        assertEquals("progress-tick-1", refreshed.getProgress());
+        assertEquals("dlock-1", refreshed.getDlockId());
+
+        // progress saved meanwhile is refreshed from then on
+        long savedAt = System.currentTimeMillis();
+        node1.save(new Checkpoint("job", "tick-1", 1000, savedAt, false, "progress-2", "node1",
+                "dlock-1"));
+        await(() -> {
+            Checkpoint read = node2.read("job");
+            return "progress-2".equals(read.getProgress())
+                    && read.getUpdatedAtMs() >= savedAt + 100;
+        }, 2000);
+
+        // the run ended: no more refresh
+        node1.stopHeartbeat("job");
+        await(() -> node1.getPendingCount() == 0, 2000);
+        // let a batch being written land
+        Thread.sleep(100);
+        long lastUpdate = node2.read("job").getUpdatedAtMs();
+        Thread.sleep(node1.getHeartbeatIntervalMs() * 3);
+        assertEquals(lastUpdate, node2.read("job").getUpdatedAtMs());
+        assertTrue(node1.getStaleAfterMs() > 3 * node1.getHeartbeatIntervalMs());
+    }
+}
@@ -0,0 +1,219 @@
+package com.github.btnguyen2k.akkascheduledjob.checkpoint;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link WorkerCheckpoints} of a global-singleton worker, on a {@link JdbcCheckpointStore}
+ * shared by several nodes: completed ticks, runs gone and interrupted runs are seen through the
+ * store.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class WorkerCheckpointsTest {
+    private final static String TABLE = "worker_checkpoints";
+    private final static AtomicInteger DB_COUNTER = new AtomicInteger();
+
+    private JdbcDataSource dataSource;
+    private final List<CheckpointStore> stores = new ArrayList<>();
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:worker-checkpoints-" + DB_COUNTER.incrementAndGet()
+                + ";DB_CLOSE_DELAY=-1");
+        try (Connection conn = dataSource.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE " + TABLE + " (ckey VARCHAR(255) NOT NULL PRIMARY KEY, "
+                    + "tick_id VARCHAR(255), tick_time BIGINT, updated_at BIGINT, completed INT, "
+                    + "progress VARCHAR(4000), node_id VARCHAR(255), dlock_id VARCHAR(255))");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        stores.forEach(store -> store.destroy(1000));
+        try (Connection conn = dataSource.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+    }
+
+    private CheckpointStore newStore(String nodeId) {
+        CheckpointStore store = new JdbcCheckpointStore(dataSource, TABLE).setNodeId(nodeId)
+                .setFlushIntervalMs(20).setHeartbeatIntervalMs(50).init();
+        stores.add(store);
+        return store;
+    }
+
+    private static TickMessage tick(String id) {
+        return new TickMessage(id, new Date());
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMs)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Condition not met within " + timeoutMs + "ms", condition.getAsBoolean());
+    }
+
+    @Test
+    public void testCompletedTickSkippedByOtherNodes() {
+        CheckpointStore store1 = newStore("node1"), store2 = newStore("node2");
+        WorkerCheckpoints node1 = new WorkerCheckpoints(store1, "job", false);
+        WorkerCheckpoints node2 = new WorkerCheckpoints(store2, "job", false);
+        assertEquals("job", node1.getKey());
+
+        TickMessage tick1 = tick("tick-1");
+        assertTrue(node1.start(tick1, "dlock-1"));
+        node1.saveProgress(tick1, "record-42");
+        node1.completed(tick1);
+        // the completion is written right away, no flush to wait for
+        assertEquals(0, store1.getPendingCount());
+        assertFalse(node2.start(tick1, "dlock-2"));
+        assertEquals("node1", node2.getLast().getNodeId());
+
+        // the next tick continues from the progress saved on the other node
+        TickMessage tick2 = tick("tick-2");
+        assertTrue(node2.start(tick2, "dlock-2"));
+        assertEquals("record-42", node2.getLast().getProgress());
+        assertEquals("dlock-2", node2.getLast().getDlockId());
+        assertFalse(node2.getLast().isCompleted());
+    }
+
+    @Test
+    public void testPerNodeCheckpoints() {
+        CheckpointStore store1 = newStore("node1");
+        WorkerCheckpoints node1 = new WorkerCheckpoints(store1, "job", true);
+        assertEquals("job@node1", node1.getKey());
+        TickMessage tick1 = tick("tick-1");
+        assertTrue(node1.start(tick1, null));
+        node1.completed(tick1);
+        assertTrue(store1.get("job@node1").isCompleted());
+        assertFalse(node1.start(tick1, null));
+    }
+
+    @Test
+    public void testRunOfNodeGoneIsStale() throws InterruptedException {
+        CheckpointStore store1 = newStore("node1"), store2 = newStore("node2");
+        WorkerCheckpoints node1 = new WorkerCheckpoints(store1, "job", false);
+        WorkerCheckpoints node2 = new WorkerCheckpoints(store2, "job", false);
+        assertTrue(node1.start(tick("tick-1"), "dlock-1"));
+        await(() -> store2.read("job") != null, 2000);
+
+        // the run is alive as long as its heartbeat goes on
+        assertNull(node2.findStaleRun());
+        Thread.sleep(store1.getStaleAfterMs() + 100);
+        assertNull(node2.findStaleRun());
+        assertNull(node1.findStaleRun());
+
+        // node1 crashes
+        store1.destroy(1000);
+        await(() -> node2.findStaleRun() != null, store1.getStaleAfterMs() * 3);
+        Checkpoint stale = node2.findStaleRun();
+        assertEquals("node1", stale.getNodeId());
+        assertEquals("dlock-1", stale.getDlockId());
+    }
+
+    @Test
+    public void testRunOfPreviousIncarnationIsStale() throws InterruptedException {
+        CheckpointStore store1 = newStore("node1");
+        WorkerCheckpoints node1 = new WorkerCheckpoints(store1, "job", false);
+        assertTrue(node1.start(tick("tick-1"), "dlock-1"));
+        store1.destroy(1000);
+
+        // node1 restarts: its own run is gone right away
+        CheckpointStore store1b = newStore("node1");
+        WorkerCheckpoints restarted = new WorkerCheckpoints(store1b, "job", false);
+        Checkpoint stale = restarted.findStaleRun();
+        assertNotNull(stale);
+        assertEquals("dlock-1", stale.getDlockId());
+        // but not while it runs the worker again
+        assertTrue(restarted.start(tick("tick-2"), "dlock-2"));
+        assertNull(restarted.findStaleRun());
+        restarted.ended();
+        await(() -> "dlock-2".equals(store1b.read("job").getDlockId()), 2000);
+        assertEquals("dlock-2", restarted.findStaleRun().getDlockId());
+    }
+
+    @Test
+    public void testInterruptedRunClaimedByOneNode() {
+        CheckpointStore store1 = newStore("node1"), store2 = newStore("node2");
+        // a run of node0, gone for a while
+        assertTrue(store1.saveNow(new Checkpoint("job", "tick-1", 1000,
+                System.currentTimeMillis() - 60000, false, "record-42", "node0", "dlock-0")));
+
+        WorkerCheckpoints node1 = new WorkerCheckpoints(store1, "job", false);
+        WorkerCheckpoints node2 = new WorkerCheckpoints(store2, "job", false);
+        assertNotNull(node1.load());
+        assertNotNull(node2.load());
+        assertTrue(node1.isResumePending());
+
+        Checkpoint claimed = node1.claimInterrupted();
+        assertNotNull(claimed);
+        assertEquals("tick-1", claimed.getTickId());
+        assertEquals("node1", claimed.getNodeId());
+        assertEquals("record-42", claimed.getProgress());
+        assertFalse(node1.isResumePending());
+        // the other node sees the run claimed, i.e. running on node1: not resumed there unless
+        // node1 is gone too
+        assertNull(node2.claimInterrupted());
+        assertTrue(node2.isResumePending());
+        assertNull(node2.findStaleRun());
+
+        // node1 breaks the dlock of node0's run before resuming it
+        assertEquals("dlock-0", node1.findStaleRun().getDlockId());
+    }
+
+    @Test
+    public void testInterruptedRunStillRunningElsewhere() {
+        CheckpointStore store0 = newStore("node0"), store1 = newStore("node1");
+        WorkerCheckpoints node0 = new WorkerCheckpoints(store0, "job", false);
+        TickMessage tick1 = tick("tick-1");
+        assertTrue(node0.start(tick1, "dlock-0"));
+        store0.saveNow(node0.getLast());
+
+        // node1 starts while node0 runs the tick: not resumed yet
+        WorkerCheckpoints node1 = new WorkerCheckpoints(store1, "job", false);
+        assertNotNull(node1.load());
+        assertNull(node1.claimInterrupted());
+        assertTrue(node1.isResumePending());
+
+        // the run completes: nothing to resume
+        node0.completed(tick1);
+        assertNull(node1.claimInterrupted());
+        assertFalse(node1.isResumePending());
+        assertTrue(node1.getLast().isCompleted());
+    }
+
+    @Test
+    public void testResumeOnStartDisabled() {
+        CheckpointStore store1 = newStore("node1").setResumeOnStart(false);
+        store1.saveNow(new Checkpoint("job", "tick-1", 1000, 0, false, null, "node0", "dlock-0"));
+        WorkerCheckpoints node1 = new WorkerCheckpoints(store1, "job", false);
+        assertNull(node1.load());
+        assertEquals("tick-1", node1.getLast().getTickId());
+        assertFalse(node1.isResumePending());
+    }
+}
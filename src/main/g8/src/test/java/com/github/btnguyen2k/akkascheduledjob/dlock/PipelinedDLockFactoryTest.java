@@ -0,0 +1,183 @@
+package com.github.btnguyen2k.akkascheduledjob.dlock;
+
+import com.github.ddth.dlock.IDLock;
+import com.github.ddth.dlock.LockResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link PipelinedDLockFactory} on an {@link InmemLockStore}; two factories sharing the
+ * store act as two nodes sharing one Redis.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class PipelinedDLockFactoryTest {
+    private final static String PREFIX = "test:";
+
+    private InmemLockStore lockStore;
+    private PipelinedDLockFactory node1, node2;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        lockStore = new InmemLockStore();
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        if (node1 != null) {
+            node1.destroy();
+        }
+        if (node2 != null) {
+            node2.destroy();
+        }
+    }
+
+    private PipelinedDLockFactory newFactory(long leaseMs, long pipelineWindowMs) {
+        return new PipelinedDLockFactory().setLockStore(lockStore).setLockNamePrefix(PREFIX)
+                .setLeaseMs(leaseMs).setPipelineThreads(1).setPipelineWindowMs(pipelineWindowMs)
+                .init();
+    }
+
+    /**
+     * Run {@code task(i)} for {@code i} in {@code [0, n)} on {@code n} threads released at the
+     * same time.
+     */
+    private List<LockResult> runConcurrently(int n, IntTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LockResult>> futures = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int index = i;
+            Callable<LockResult> callable = () -> {
+                start.await();
+                return task.run(index);
+            };
+            futures.add(executor.submit(callable));
+        }
+        start.countDown();
+        List<LockResult> results = new ArrayList<>();
+        for (Future<LockResult> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        LockResult run(int i) throws Exception;
+    }
+
+    @Test
+    public void testPipelinedAcquireRelease() throws Exception {
+        final int numLocks = 50;
+        node1 = newFactory(10000, 200);
+        List<IDLock> locks = new ArrayList<>();
+        for (int i = 0; i < numLocks; i++) {
+            locks.add(node1.createLock("lock-" + i));
+        }
+
+        // concurrent calls within the pipeline window share one round trip
+        for (LockResult result : runConcurrently(numLocks,
+                i -> locks.get(i).lock("client-" + i, 10000))) {
+            assertEquals(LockResult.SUCCESSFUL, result);
+        }
+        long acquireBatches = lockStore.getNumBatches();
+        assertEquals(numLocks, lockStore.getNumCommands());
+        assertTrue("Acquires took " + acquireBatches + " batches", acquireBatches <= 2);
+        for (int i = 0; i < numLocks; i++) {
+            assertEquals("client-" + i, lockStore.getOwner(PREFIX + "lock-" + i));
+            assertTrue(locks.get(i).isLocked());
+        }
+
+        for (LockResult result : runConcurrently(numLocks,
+                i -> locks.get(i).unlock("client-" + i))) {
+            assertEquals(LockResult.SUCCESSFUL, result);
+        }
+        long releaseBatches = lockStore.getNumBatches() - acquireBatches;
+        assertEquals(2 * numLocks, lockStore.getNumCommands());
+        assertTrue("Releases took " + releaseBatches + " batches", releaseBatches <= 2);
+        for (int i = 0; i < numLocks; i++) {
+            assertNull(lockStore.getOwner(PREFIX + "lock-" + i));
+            assertFalse(locks.get(i).isLocked());
+        }
+        assertEquals(lockStore.getNumBatches(), node1.getNumBatches());
+    }
+
+    @Test
+    public void testMutualExclusionAcrossNodes() {
+        node1 = newFactory(10000, 0);
+        node2 = newFactory(10000, 0);
+        assertEquals(LockResult.SUCCESSFUL, node1.createLock("job").lock("node1", 10000));
+        assertEquals(LockResult.HOLD_BY_ANOTHER_CLIENT,
+                node2.createLock("job").lock("node2", 10000));
+        assertEquals(LockResult.HOLD_BY_ANOTHER_CLIENT, node2.createLock("job").unlock("node2"));
+        assertEquals("node1", lockStore.getOwner(PREFIX + "job"));
+    }
+
+    @Test
+    public void testLeaseRenewedPastTtl() throws Exception {
+        node1 = newFactory(200, 0);
+        node2 = newFactory(200, 0);
+        IDLock lock = node1.createLock("job");
+        assertEquals(LockResult.SUCCESSFUL, lock.lock("node1", 10000));
+
+        // the lock is stored with a 200ms TTL, renewed in the background while held
+        Thread.sleep(1000);
+        assertEquals("node1", lockStore.getOwner(PREFIX + "job"));
+        assertTrue(lock.isLocked());
+        assertEquals(LockResult.HOLD_BY_ANOTHER_CLIENT,
+                node2.createLock("job").lock("node2", 10000));
+    }
+
+    @Test
+    public void testLeaseExpiresAfterLockDuration() throws Exception {
+        node1 = newFactory(200, 0);
+        node2 = newFactory(200, 0);
+        IDLock lock = node1.createLock("job");
+        assertEquals(LockResult.SUCCESSFUL, lock.lock("node1", 300));
+
+        // renewals stop once the requested lock duration is over
+        Thread.sleep(800);
+        assertNull(lockStore.getOwner(PREFIX + "job"));
+        assertFalse(lock.isLocked());
+        assertEquals(LockResult.SUCCESSFUL, node2.createLock("job").lock("node2", 10000));
+    }
+
+    @Test
+    public void testReleaseOnDestroy() {
+        node1 = newFactory(10000, 0);
+        node2 = newFactory(10000, 0);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(LockResult.SUCCESSFUL,
+                    node1.createLock("job-" + i).lock("node1", 60000));
+        }
+        assertEquals(LockResult.HOLD_BY_ANOTHER_CLIENT,
+                node2.createLock("job-0").lock("node2", 60000));
+
+        // locks are released right away, not when their lease expires
+        node1.destroy();
+        node1 = null;
+        for (int i = 0; i < 3; i++) {
+            assertNull(lockStore.getOwner(PREFIX + "job-" + i));
+            assertEquals(LockResult.SUCCESSFUL,
+                    node2.createLock("job-" + i).lock("node2", 60000));
+        }
+    }
+}
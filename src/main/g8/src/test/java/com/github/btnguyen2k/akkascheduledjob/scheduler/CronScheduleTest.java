@@ -0,0 +1,173 @@
+package com.github.btnguyen2k.akkascheduledjob.scheduler;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link CronSchedule}: field syntax, and next fire times across DST transitions
+ * ({@code America/New_York}: 2018-03-11 02:00 skipped, 2018-11-04 01:00-02:00 repeated).
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class CronScheduleTest {
+    private final static ZoneId UTC = ZoneOffset.UTC;
+    private final static ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static long utc(String isoInstant) {
+        return Instant.parse(isoInstant).toEpochMilli();
+    }
+
+    private static long local(String isoLocal, ZoneId zoneId) {
+        return LocalDateTime.parse(isoLocal).atZone(zoneId).toInstant().toEpochMilli();
+    }
+
+    private static long next(String expression, ZoneId zoneId, long afterMs) {
+        return CronSchedule.parse(expression, zoneId).nextFireTime(afterMs);
+    }
+
+    @Test
+    public void testNextFireTime() {
+        long after = utc("2018-06-15T10:07:30.250Z");
+        assertEquals(utc("2018-06-15T10:07:31Z"), next("* * *", UTC, after));
+        assertEquals(utc("2018-06-15T10:08:00Z"), next("0 * *", UTC, after));
+        assertEquals(utc("2018-06-15T11:00:00Z"), next("0 0 *", UTC, after));
+        assertEquals(utc("2018-06-16T00:00:00Z"), next("0 0 0", UTC, after));
+        // strictly after the second of afterMs
+        assertEquals(utc("2018-06-15T10:08:00Z"), next("0 * *", UTC, utc("2018-06-15T10:07:00Z")));
+        assertEquals(utc("2018-06-15T10:08:00Z"),
+                next("0 * *", UTC, utc("2018-06-15T10:07:00.999Z")));
+    }
+
+    @Test
+    public void testSteps() {
+        long after = utc("2018-06-15T10:07:30Z");
+        assertEquals(utc("2018-06-15T10:07:35Z"), next("*/5 * *", UTC, after));
+        assertEquals(utc("2018-06-15T10:15:00Z"), next("0 */15 *", UTC, after));
+        // n/step: from n to the end of the range
+        assertEquals(utc("2018-06-15T10:07:37Z"), next("7/10 * *", UTC, after));
+        assertEquals(utc("2018-06-15T10:08:07Z"),
+                next("7/10 * *", UTC, utc("2018-06-15T10:07:57Z")));
+        // a-b/step
+        assertEquals(utc("2018-06-15T10:10:00Z"), next("0 0-30/10 *", UTC, after));
+        assertEquals(utc("2018-06-15T11:00:00Z"),
+                next("0 0-30/10 *", UTC, utc("2018-06-15T10:30:00Z")));
+    }
+
+    @Test
+    public void testRangesAndLists() {
+        CronSchedule schedule = CronSchedule.parse("0 0,30 9-17", UTC);
+        assertEquals(utc("2018-06-15T09:00:00Z"),
+                schedule.nextFireTime(utc("2018-06-15T03:00:00Z")));
+        assertEquals(utc("2018-06-15T17:30:00Z"),
+                schedule.nextFireTime(utc("2018-06-15T17:00:00Z")));
+        assertEquals(utc("2018-06-16T09:00:00Z"),
+                schedule.nextFireTime(utc("2018-06-15T17:30:00Z")));
+
+        // 1st and 15th of January, April, July and October
+        schedule = CronSchedule.parse("0 0 0 1,15 1-12/3", UTC);
+        assertEquals(utc("2018-07-01T00:00:00Z"),
+                schedule.nextFireTime(utc("2018-04-15T00:00:00Z")));
+        assertEquals(utc("2019-01-01T00:00:00Z"),
+                schedule.nextFireTime(utc("2018-10-15T00:00:00Z")));
+    }
+
+    @Test
+    public void testDayOfWeek() {
+        // 2018-06-15 is a Friday
+        long after = utc("2018-06-15T12:00:00Z");
+        long sunday = utc("2018-06-17T00:00:00Z");
+        assertEquals(sunday, next("0 0 0 * * 0", UTC, after));
+        assertEquals(sunday, next("0 0 0 * * 7", UTC, after));
+        assertEquals(utc("2018-06-18T00:00:00Z"), next("0 0 0 * * 1-5", UTC, after));
+        assertEquals(utc("2018-06-16T00:00:00Z"), next("0 0 0 * * 6,0", UTC, after));
+        assertTrue(CronSchedule.parse("0 0 0 * * 0", UTC).matches(sunday));
+        assertTrue(CronSchedule.parse("0 0 0 * * 7", UTC).matches(sunday));
+        assertFalse(CronSchedule.parse("0 0 0 * * 1-6", UTC).matches(sunday));
+
+        // day-of-month and day-of-week are AND-ed: Friday 13th
+        assertEquals(utc("2018-07-13T00:00:00Z"), next("0 0 0 13 * 5", UTC, after));
+    }
+
+    @Test
+    public void testNever() {
+        assertEquals(CronSchedule.NEVER, next("0 0 0 31 2", UTC, utc("2018-01-01T00:00:00Z")));
+    }
+
+    @Test
+    public void testMatches() {
+        CronSchedule schedule = CronSchedule.parse("*/10 30 2", UTC);
+        assertTrue(schedule.matches(utc("2018-06-15T02:30:20.500Z")));
+        assertFalse(schedule.matches(utc("2018-06-15T02:30:21Z")));
+        assertFalse(schedule.matches(utc("2018-06-15T03:30:20Z")));
+    }
+
+    @Test
+    public void testInvalid() {
+        for (String expression : Arrays.asList("", " ", "0 0", "0 0 0 0 0 0 0", "60 * *",
+                "0 0 24", "0 0 0 0", "0 0 0 * 13", "0 0 0 * * 8", "*/0 * *", "5-1 * *", "a * *",
+                "0 1-x *")) {
+            try {
+                CronSchedule.parse(expression, UTC);
+                fail("Parsed invalid expression [" + expression + "]");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testDstGap() {
+        // 02:30 does not exist on 2018-03-11: skipped
+        assertEquals(local("2018-03-12T02:30:00", NEW_YORK),
+                next("0 30 2", NEW_YORK, local("2018-03-10T03:00:00", NEW_YORK)));
+        // 01:45 EST -> 03:00 EDT, 15 minutes later
+        assertEquals(utc("2018-03-11T07:00:00Z"),
+                next("0 */30 *", NEW_YORK, utc("2018-03-11T06:45:00Z")));
+        assertEquals(utc("2018-03-11T07:00:00Z"),
+                next("* * *", NEW_YORK, utc("2018-03-11T06:59:59Z")));
+    }
+
+    @Test(timeout = 10000)
+    public void testDstOverlap() {
+        // 01:30 fires once, in its first occurrence (EDT)
+        CronSchedule schedule = CronSchedule.parse("0 30 1", NEW_YORK);
+        assertEquals(utc("2018-11-04T05:30:00Z"),
+                schedule.nextFireTime(utc("2018-11-04T04:00:00Z")));
+        assertEquals(utc("2018-11-05T06:30:00Z"),
+                schedule.nextFireTime(utc("2018-11-04T05:30:00Z")));
+
+        // afterMs in the second occurrence: the next fire time is after it, not in the past
+        assertEquals(utc("2018-11-04T07:00:00Z"),
+                next("0 */30 *", NEW_YORK, utc("2018-11-04T06:15:00Z")));
+        assertEquals(utc("2018-11-04T07:00:00Z"),
+                next("* * *", NEW_YORK, utc("2018-11-04T06:00:00Z")));
+        assertEquals(utc("2018-11-04T05:59:59Z"),
+                next("* * *", NEW_YORK, utc("2018-11-04T05:59:58Z")));
+
+        schedule = CronSchedule.parse("0 */30 *", NEW_YORK);
+        List<Long> fireTimes = new ArrayList<>();
+        for (long t = utc("2018-11-04T03:00:00Z"); fireTimes.size() < 8; ) {
+            long next = schedule.nextFireTime(t);
+            assertTrue(next > t);
+            fireTimes.add(next);
+            t = next;
+        }
+        assertEquals(Arrays.asList(utc("2018-11-04T03:30:00Z"), utc("2018-11-04T04:00:00Z"),
+                utc("2018-11-04T04:30:00Z"), utc("2018-11-04T05:00:00Z"),
+                utc("2018-11-04T05:30:00Z"), utc("2018-11-04T07:00:00Z"),
+                utc("2018-11-04T07:30:00Z"), utc("2018-11-04T08:00:00Z")), fireTimes);
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.btnguyen2k.akkascheduledjob.scheduler;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link CronScheduler}: targets fire on the ticks their schedules are due for, once,
+ * including across DST transitions.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class CronSchedulerTest {
+    private final static ZoneId UTC = ZoneOffset.UTC;
+    private final static ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static long utc(String isoInstant) {
+        return Instant.parse(isoInstant).toEpochMilli();
+    }
+
+    /**
+     * Send one tick per second in {@code [fromMs, toMs)} (ticks arrive a little after the second),
+     * return the fired targets.
+     */
+    private static <T> List<T> tickEverySecond(CronScheduler<T> scheduler, long fromMs,
+            long toMs) {
+        List<T> fired = new ArrayList<>();
+        for (long t = fromMs; t < toMs; t += 1000) {
+            scheduler.fire(t + 7, fired::add);
+        }
+        return fired;
+    }
+
+    @Test
+    public void testFire() {
+        CronScheduler<String> scheduler = new CronScheduler<>();
+        long start = utc("2018-06-15T10:00:00Z");
+        scheduler.add("every-10s", CronSchedule.parse("*/10 * *", UTC), start, false);
+        scheduler.add("every-minute", CronSchedule.parse("0 * *", UTC), start, false);
+        scheduler.add("every-hour", CronSchedule.parse("0 0 *", UTC), start, false);
+        scheduler.add("never", CronSchedule.parse("0 0 0 31 2", UTC), start, false);
+        assertEquals(4, scheduler.size());
+        assertEquals(start, scheduler.peekNextFireTime());
+
+        List<String> fired = tickEverySecond(scheduler, start, start + 120000);
+        assertEquals(12, Collections.frequency(fired, "every-10s"));
+        assertEquals(2, Collections.frequency(fired, "every-minute"));
+        assertEquals(1, Collections.frequency(fired, "every-hour"));
+        assertFalse(fired.contains("never"));
+        assertEquals(start + 120000, scheduler.peekNextFireTime());
+    }
+
+    @Test
+    public void testRemove() {
+        CronScheduler<String> scheduler = new CronScheduler<>();
+        long start = utc("2018-06-15T10:00:00Z");
+        List<CronScheduler.Entry<String>> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entries.add(scheduler.add("target-" + i,
+                    CronSchedule.parse((i % 60) + " * *", UTC), start, false));
+        }
+        assertTrue(scheduler.remove(entries.get(0)));
+        assertFalse(scheduler.remove(entries.get(0)));
+        for (int i = 2; i < 100; i += 2) {
+            assertTrue(scheduler.remove(entries.get(i)));
+        }
+        assertEquals(50, scheduler.size());
+
+        List<String> fired = tickEverySecond(scheduler, start, start + 60000);
+        assertEquals(50, fired.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 1, fired.contains("target-" + i));
+        }
+    }
+
+    @Test
+    public void testFireOnFirstTick() {
+        CronScheduler<String> scheduler = new CronScheduler<>();
+        long start = utc("2018-06-15T10:00:30Z");
+        scheduler.add("target", CronSchedule.parse("0 0 *", UTC), start, true);
+        assertEquals(Collections.singletonList("target"),
+                tickEverySecond(scheduler, start, start + 1000));
+        assertEquals(utc("2018-06-15T11:00:00Z"), scheduler.peekNextFireTime());
+    }
+
+    @Test
+    public void testMissedFireTimesAreSkipped() {
+        CronScheduler<String> scheduler = new CronScheduler<>();
+        long start = utc("2018-06-15T10:00:00Z");
+        scheduler.add("target", CronSchedule.parse("0 * *", UTC), start, false);
+        // no tick for 10 minutes: the missed fire times are not fired late
+        assertEquals(0, scheduler.fire(start + 630500, t -> {
+        }));
+        assertEquals(start + 660000, scheduler.peekNextFireTime());
+        assertEquals(1, scheduler.fire(start + 660000, t -> {
+        }));
+    }
+
+    @Test(timeout = 10000)
+    public void testDstGap() {
+        CronScheduler<String> scheduler = new CronScheduler<>();
+        long start = utc("2018-03-11T06:30:00Z");
+        scheduler.add("every-minute", CronSchedule.parse("0 * *", NEW_YORK), start, false);
+        scheduler.add("at-0230", CronSchedule.parse("0 30 2", NEW_YORK), start, false);
+        // 01:30 EST to 03:30 EDT: no minute is missing in real time, 02:30 does not exist
+        List<String> fired = tickEverySecond(scheduler, start, start + 3600000);
+        assertEquals(60, Collections.frequency(fired, "every-minute"));
+        assertFalse(fired.contains("at-0230"));
+    }
+
+    @Test(timeout = 10000)
+    public void testDstOverlap() {
+        CronScheduler<String> scheduler = new CronScheduler<>();
+        long start = utc("2018-11-04T05:00:00Z");
+        scheduler.add("every-minute", CronSchedule.parse("0 * *", NEW_YORK), start, false);
+        scheduler.add("at-0130", CronSchedule.parse("0 30 1", NEW_YORK), start, false);
+        // 01:00 EDT, then 01:00-01:59 again in EST: repeated local times fire once
+        List<String> fired = tickEverySecond(scheduler, start, start + 3 * 3600000);
+        assertEquals(120, Collections.frequency(fired, "every-minute"));
+        assertEquals(1, Collections.frequency(fired, "at-0130"));
+        assertEquals(utc("2018-11-04T08:00:00Z"), scheduler.peekNextFireTime());
+    }
+
+    @Test(timeout = 10000)
+    public void testDstOverlapStartingInSecondOccurrence() {
+        CronScheduler<String> scheduler = new CronScheduler<>();
+        // 01:15 EST, the repeated hour
+        long start = utc("2018-11-04T06:15:00Z");
+        scheduler.add("every-minute", CronSchedule.parse("0 * *", NEW_YORK), start, false);
+        // the repeated local times already fired in their first occurrence (EDT)
+        List<String> fired = tickEverySecond(scheduler, start, utc("2018-11-04T07:10:00Z"));
+        assertEquals(Collections.nCopies(10, "every-minute"), fired);
+        assertEquals(utc("2018-11-04T07:10:00Z"), scheduler.peekNextFireTime());
+    }
+}
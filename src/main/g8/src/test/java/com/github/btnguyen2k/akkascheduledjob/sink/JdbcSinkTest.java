@@ -0,0 +1,205 @@
+package com.github.btnguyen2k.akkascheduledjob.sink;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link JdbcSink} against an in-memory H2 database.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JdbcSinkTest {
+    private final static String SQL_INSERT = "INSERT INTO sink_records (id, payload) VALUES (?, ?)";
+    private final static AtomicInteger DB_COUNTER = new AtomicInteger();
+
+    private JdbcDataSource dataSource;
+    private JdbcSink<Object[]> sink;
+
+    @Before
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:jdbc-sink-" + DB_COUNTER.incrementAndGet()
+                + ";DB_CLOSE_DELAY=-1");
+        try (Connection conn = dataSource.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE sink_records (id INT PRIMARY KEY, payload VARCHAR(64))");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        if (sink != null) {
+            sink.destroy(1000);
+        }
+        try (Connection conn = dataSource.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        }
+    }
+
+    private JdbcSink<Object[]> newSink(DataSource ds) {
+        return new JdbcSink<Object[]>("test").setDataSource(ds).setSql(SQL_INSERT)
+                .setBinder(RowBinder.PARAMS);
+    }
+
+    private static Object[] record(int id) {
+        return new Object[] { id, "record-" + id };
+    }
+
+    private int countRows() throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sink_records")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void await(BooleanSupplier condition, long timeoutMs)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("Condition not met within " + timeoutMs + "ms", condition.getAsBoolean());
+    }
+
+    /**
+     * Data source whose {@code getConnection()} waits for {@code release} once it has signaled
+     * {@code entered}.
+     */
+    private DataSource blockingDataSource(CountDownLatch entered, CountDownLatch release) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        entered.countDown();
+                        release.await();
+                    }
+                    try {
+                        return method.invoke(dataSource, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Test
+    public void testBatchBySize() throws Exception {
+        sink = newSink(dataSource).setBatchSize(10).setFlushIntervalMs(60000).init();
+        for (int i = 0; i < 25; i++) {
+            assertTrue(sink.offer(record(i)));
+        }
+        // two full batches are written right away, the last 5 records wait for the interval
+        await(() -> sink.getWrittenCount() == 20, 5000);
+        assertEquals(2, sink.getBatchCount());
+        assertEquals(20, countRows());
+        Thread.sleep(300);
+        assertEquals(20, sink.getWrittenCount());
+        assertEquals(2, sink.getBatchCount());
+    }
+
+    @Test
+    public void testBatchByFlushInterval() throws Exception {
+        sink = newSink(dataSource).setBatchSize(1000).setFlushIntervalMs(200).init();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sink.offer(record(i)));
+        }
+        await(() -> sink.getWrittenCount() == 5, 5000);
+        assertEquals(1, sink.getBatchCount());
+        assertEquals(5, countRows());
+        // the batch was held until flushIntervalMs after its first record
+        assertTrue(sink.getEndToEndLatencyHistogram().getMax() >= 200000);
+    }
+
+    @Test
+    public void testRejectWhenQueueFull() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1), release = new CountDownLatch(1);
+        sink = newSink(blockingDataSource(entered, release)).setBatchSize(1)
+                .setQueueCapacity(2).init();
+        assertTrue(sink.offer(record(0)));
+        // the writer holds record 0 and waits for a connection: 2 more records fill the queue
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertTrue(sink.offer(record(1)));
+        assertTrue(sink.offer(record(2)));
+        assertFalse(sink.offer(record(3)));
+        assertFalse(sink.offer(record(4), 50, TimeUnit.MILLISECONDS));
+        assertEquals(3, sink.getOfferedCount());
+        assertEquals(2, sink.getRejectedCount());
+        assertEquals(0, sink.getRemainingCapacity());
+
+        release.countDown();
+        await(() -> sink.getWrittenCount() == 3, 5000);
+        assertEquals(3, countRows());
+    }
+
+    @Test
+    public void testRetryThenFail() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        sink = new JdbcSink<Object[]>("test").setDataSource(dataSource).setSql(SQL_INSERT)
+                .setBinder((stmt, record) -> {
+                    attempts.incrementAndGet();
+                    throw new SQLException("bind failed");
+                }).setBatchSize(1).setMaxRetries(2).setRetryBackoffMs(10).init();
+        assertTrue(sink.offer(record(0)));
+        await(() -> sink.getFailedCount() == 1, 5000);
+        assertEquals(3, attempts.get());
+        assertEquals(2, sink.getRetryCount());
+        assertEquals(0, sink.getWrittenCount());
+        assertEquals(0, sink.getBatchCount());
+        assertEquals(0, countRows());
+    }
+
+    @Test
+    public void testRetryThenSucceed() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        sink = new JdbcSink<Object[]>("test").setDataSource(dataSource).setSql(SQL_INSERT)
+                .setBinder((stmt, record) -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        throw new SQLException("bind failed");
+                    }
+                    RowBinder.PARAMS.bind(stmt, record);
+                }).setBatchSize(1).setMaxRetries(2).setRetryBackoffMs(10).init();
+        assertTrue(sink.offer(record(0)));
+        await(() -> sink.getWrittenCount() == 1, 5000);
+        assertEquals(1, sink.getRetryCount());
+        assertEquals(0, sink.getFailedCount());
+        assertEquals(1, countRows());
+    }
+
+    @Test
+    public void testDrainOnDestroy() throws Exception {
+        sink = newSink(dataSource).setBatchSize(1000).setFlushIntervalMs(60000).init();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(sink.offer(record(i)));
+        }
+        long start = System.currentTimeMillis();
+        sink.destroy(5000);
+        // queued records are written right away, without waiting for the flush interval
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals(50, sink.getWrittenCount());
+        assertEquals(0, sink.getFailedCount());
+        assertEquals(0, sink.getQueueSize());
+        assertEquals(50, countRows());
+        assertFalse(sink.offer(record(50)));
+        sink = null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link ConsistentHashRing}: shard mapping and rendezvous ownership must be stable and
+ * the same on every node, and move as few keys as possible when shards or nodes change.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class ConsistentHashRingTest {
+    private final static int NUM_KEYS = 10000;
+
+    private static List<String> keys() {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < NUM_KEYS; i++) {
+            keys.add("worker-" + i);
+        }
+        return keys;
+    }
+
+    @Test
+    public void testHashIsStable() {
+        // all nodes (any JVM, any run) must compute the same hashes
+        assertEquals(-1166397803181037274L, ConsistentHashRing.hash(""));
+        assertEquals(5181176534009671284L, ConsistentHashRing.hash("worker-1"));
+    }
+
+    @Test
+    public void testShardOfIsStable() {
+        ConsistentHashRing ring1 = new ConsistentHashRing(8), ring2 = new ConsistentHashRing(8);
+        for (String key : keys()) {
+            int shard = ring1.shardOf(key);
+            assertTrue(shard >= 0 && shard < 8);
+            assertEquals(shard, ring1.shardOf(key));
+            assertEquals(shard, ring2.shardOf(key));
+        }
+        assertEquals(1, ring1.shardOf("worker-1"));
+        assertEquals(3, ring1.shardOf("worker-2"));
+    }
+
+    @Test
+    public void testShardsAreBalanced() {
+        ConsistentHashRing ring = new ConsistentHashRing(8);
+        int[] counts = new int[8];
+        for (String key : keys()) {
+            counts[ring.shardOf(key)]++;
+        }
+        for (int count : counts) {
+            // 1250 keys per shard on average
+            assertTrue("Unbalanced shards: " + Arrays.toString(counts),
+                    count > 750 && count < 1750);
+        }
+    }
+
+    @Test
+    public void testAddingShardMovesFewKeys() {
+        ConsistentHashRing before = new ConsistentHashRing(8), after = new ConsistentHashRing(9);
+        int moved = 0;
+        for (String key : keys()) {
+            int oldShard = before.shardOf(key), newShard = after.shardOf(key);
+            if (oldShard != newShard) {
+                moved++;
+                // keys only move to the new shard
+                assertEquals(8, newShard);
+            }
+        }
+        // about 1/9 of the keys
+        assertTrue("Moved " + moved + " keys", moved > NUM_KEYS / 18 && moved < NUM_KEYS / 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoShard() {
+        new ConsistentHashRing(0);
+    }
+
+    @Test
+    public void testRendezvousNoCandidate() {
+        assertNull(ConsistentHashRing.rendezvous("shard-0", Collections.emptyList()));
+    }
+
+    @Test
+    public void testRendezvousIgnoresCandidateOrder() {
+        List<String> nodes = new ArrayList<>(Arrays.asList("node-a", "node-b", "node-c", "node-d"));
+        Random random = new Random(1);
+        for (int shard = 0; shard < 64; shard++) {
+            String key = "shard-" + shard;
+            String owner = ConsistentHashRing.rendezvous(key, nodes);
+            for (int i = 0; i < 10; i++) {
+                Collections.shuffle(nodes, random);
+                assertEquals(owner, ConsistentHashRing.rendezvous(key, nodes));
+            }
+        }
+    }
+
+    @Test
+    public void testRendezvousTieBreak() {
+        // duplicates weigh the same: the winner does not depend on how many times it is listed
+        List<String> nodes = Arrays.asList("node-b", "node-a", "node-b", "node-a");
+        for (int shard = 0; shard < 64; shard++) {
+            String key = "shard-" + shard;
+            assertEquals(ConsistentHashRing.rendezvous(key, Arrays.asList("node-a", "node-b")),
+                    ConsistentHashRing.rendezvous(key, nodes));
+        }
+    }
+
+    @Test
+    public void testRendezvousRemapping() {
+        List<String> nodes = Arrays.asList("node-a", "node-b", "node-c", "node-d");
+        List<String> withoutC = Arrays.asList("node-a", "node-b", "node-d");
+        Map<String, Integer> owned = new HashMap<>();
+        for (String key : keys()) {
+            String owner = ConsistentHashRing.rendezvous(key, nodes);
+            owned.merge(owner, 1, Integer::sum);
+            String newOwner = ConsistentHashRing.rendezvous(key, withoutC);
+            if (!owner.equals("node-c")) {
+                // a node leaving only moves the keys it owned
+                assertEquals(owner, newOwner);
+            }
+        }
+        assertEquals(4, owned.size());
+        for (int count : owned.values()) {
+            assertTrue("Unbalanced owners: " + owned, count > NUM_KEYS / 8 && count < NUM_KEYS / 2);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.btnguyen2k.akkascheduledjob.tickfanout;
+
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.commons.utils.SerializationUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link TickCodec} and {@link TickBatchSubscriber}: frames must round-trip ids and
+ * timestamps, and subscribers must still accept ticks in Java serialization from nodes not yet
+ * switched to the binary encoding.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class TickCodecTest {
+    private static void assertTick(TickMessage expected, TickMessage actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+
+    private static List<TickMessage> decode(byte[] frame) {
+        List<TickMessage> ticks = new ArrayList<>();
+        assertEquals(TickCodec.decode(frame, ticks::add), ticks.size());
+        return ticks;
+    }
+
+    @Test
+    public void testSingleTick() {
+        TickMessage tick = new TickMessage("tick-1", new Date(1546300800123L));
+        byte[] frame = TickCodec.encode(tick);
+        assertTrue(TickCodec.isFrame(frame));
+        assertTrue("Frame of " + frame.length + " bytes", frame.length < 50);
+
+        List<TickMessage> ticks = decode(frame);
+        assertEquals(1, ticks.size());
+        assertTick(tick, ticks.get(0));
+    }
+
+    @Test
+    public void testBatch() {
+        long now = 1546300800000L;
+        List<TickMessage> sent = Arrays.asList(new TickMessage("a", new Date(now)),
+                new TickMessage("b", new Date(now + 1000)),
+                new TickMessage("c", new Date(now - 60000)), // out of order: negative delta
+                new TickMessage("d", new Date(now + 86400000L)),
+                new TickMessage("e", new Date(0)));
+        TickCodec codec = new TickCodec().begin();
+        for (TickMessage tick : sent) {
+            codec.append(tick);
+        }
+        assertEquals(sent.size(), codec.getCount());
+
+        List<TickMessage> ticks = decode(codec.finish());
+        assertEquals(sent.size(), ticks.size());
+        for (int i = 0; i < sent.size(); i++) {
+            assertTick(sent.get(i), ticks.get(i));
+        }
+    }
+
+    @Test
+    public void testLargeBatch() {
+        // enough ticks to grow the buffer and need a multi-byte tick count
+        TickCodec codec = new TickCodec().begin();
+        for (int i = 0; i < 1000; i++) {
+            codec.append(new TickMessage("tick-" + i, new Date(1000L * i)));
+        }
+        List<TickMessage> ticks = decode(codec.finish());
+        assertEquals(1000, ticks.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("tick-" + i, ticks.get(i).getId());
+            assertEquals(1000L * i, ticks.get(i).getTimestamp().getTime());
+        }
+    }
+
+    @Test
+    public void testNonAsciiId() {
+        TickMessage tick = new TickMessage("tick-\u00e9\u4e2d\ud83d\ude00", new Date(123456789L));
+        assertTick(tick, decode(TickCodec.encode(tick)).get(0));
+    }
+
+    @Test
+    public void testNullId() {
+        TickMessage tick = new TickMessage(null, new Date(123456789L));
+        TickMessage decoded = decode(TickCodec.encode(tick)).get(0);
+        assertNull(decoded.getId());
+        assertEquals(tick.getTimestamp(), decoded.getTimestamp());
+    }
+
+    @Test
+    public void testEncoderReuse() {
+        TickCodec codec = new TickCodec();
+        TickMessage tick1 = new TickMessage("tick-1", new Date(1000));
+        TickMessage tick2 = new TickMessage("tick-2", new Date(5000));
+        byte[] frame1 = codec.begin().append(tick1).finish();
+        assertEquals(0, codec.getCount());
+        byte[] frame2 = codec.append(tick2).finish();
+        assertTick(tick1, decode(frame1).get(0));
+        assertTick(tick2, decode(frame2).get(0));
+        assertEquals(1, decode(frame2).size());
+
+        // begin() discards ticks appended so far
+        codec.append(tick1).begin();
+        assertArrayEquals(frame2, codec.append(tick2).finish());
+    }
+
+    @Test
+    public void testIsFrame() {
+        assertFalse(TickCodec.isFrame(null));
+        assertFalse(TickCodec.isFrame(new byte[0]));
+        assertFalse(TickCodec.isFrame(new byte[] { TickCodec.MAGIC, TickCodec.VERSION }));
+        byte[] frame = TickCodec.encode(new TickMessage("tick", new Date()));
+        frame[1] = (byte) (TickCodec.VERSION + 1);
+        assertFalse(TickCodec.isFrame(frame));
+        assertFalse(TickCodec.isFrame(
+                SerializationUtils.toByteArray(new TickMessage("tick", new Date()))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeNotFrame() {
+        TickCodec.decode(new byte[16], tick -> fail());
+    }
+
+    @Test
+    public void testDecodeTruncated() {
+        byte[] frame = TickCodec.encode(new TickMessage("tick-1", new Date(1000)));
+        for (int len = frame.length - 1; len >= 11; len--) {
+            try {
+                TickCodec.decode(Arrays.copyOf(frame, len), tick -> fail());
+                fail("Decoded a frame truncated to " + len + " bytes");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testSubscriberAcceptsFrame() {
+        List<TickMessage> ticks = new ArrayList<>();
+        TickBatchSubscriber subscriber = new TickBatchSubscriber(ticks::add);
+        TickMessage tick1 = new TickMessage("tick-1", new Date(1000));
+        TickMessage tick2 = new TickMessage("tick-2", new Date(2000));
+        subscriber.accept(new TickCodec().begin().append(tick1).append(tick2).finish());
+        assertEquals(2, ticks.size());
+        assertTick(tick1, ticks.get(0));
+        assertTick(tick2, ticks.get(1));
+    }
+
+    @Test
+    public void testSubscriberAcceptsJavaSerialization() {
+        List<TickMessage> ticks = new ArrayList<>();
+        TickBatchSubscriber subscriber = new TickBatchSubscriber(ticks::add);
+        TickMessage tick = new TickMessage("tick-legacy", new Date(1000));
+        subscriber.accept(SerializationUtils.toByteArray(tick));
+        assertEquals(1, ticks.size());
+        assertTick(tick, ticks.get(0));
+    }
+
+    @Test
+    public void testSubscriberSkipsGarbage() {
+        List<TickMessage> ticks = new ArrayList<>();
+        TickBatchSubscriber subscriber = new TickBatchSubscriber(ticks::add);
+        subscriber.accept(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 });
+        subscriber.accept(Arrays.copyOf(TickCodec.encode(new TickMessage("t", new Date())), 12));
+        assertTrue(ticks.isEmpty());
+    }
+}
@@ -0,0 +1,224 @@
+package com.github.btnguyen2k.akkascheduledjob.trigger;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import com.github.btnguyen2k.akkascheduledjob.tickfanout.PubSubHelper;
+import com.github.btnguyen2k.akkascheduledjob.worker.BaseScheduledWorker;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerDirectory;
+import com.github.btnguyen2k.akkascheduledjob.worker.WorkerSpec;
+import com.github.ddth.akka.scheduling.TickMessage;
+import com.github.ddth.pubsub.impl.universal.idint.UniversalInmemPubSubHub;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link JobTriggers} on an in-memory pub/sub hub: requests reach the named worker on
+ * every subscribed node, once per request id.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class JobTriggersTest {
+    private final static String CHANNEL = "test-triggers";
+    private final static long TIMEOUT_MS = 5000;
+    private final static long NO_MESSAGE_MS = 300;
+
+    /**
+     * Triggerable worker class: only looked up by name, never instantiated.
+     */
+    public static class TriggerableWorker extends BaseScheduledWorker {
+        @Override
+        protected void execute(String dlockId, TickMessage tick) {
+        }
+    }
+
+    /**
+     * Stands in for a worker actor: records the messages it receives.
+     */
+    public static class Recorder extends AbstractActor {
+        private final BlockingQueue<Object> received;
+
+        public Recorder(BlockingQueue<Object> received) {
+            this.received = received;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder().matchAny(received::add).build();
+        }
+    }
+
+    private ActorSystem actorSystem;
+    private UniversalInmemPubSubHub hub;
+
+    @Before
+    public void setUp() {
+        actorSystem = ActorSystem.create("JobTriggersTest",
+                ConfigFactory.parseString("akka.loglevel = \"WARNING\""));
+        hub = new UniversalInmemPubSubHub().init();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        hub.destroy();
+        actorSystem.terminate();
+        actorSystem.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    private BlockingQueue<Object> register(WorkerDirectory directory, String name,
+            Class<?> clazz) {
+        BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        ActorRef actor = actorSystem.actorOf(Props.create(Recorder.class, received));
+        directory.register(name, actor, WorkerSpec.parse(clazz.getName()));
+        return received;
+    }
+
+    private JobTriggers newTriggers(WorkerDirectory directory) {
+        return new JobTriggers().setPubSubHub(hub).setChannelName(CHANNEL)
+                .setWorkerDirectory(directory).init();
+    }
+
+    private static BaseScheduledWorker.Trigger nextTrigger(BlockingQueue<Object> received)
+            throws InterruptedException {
+        Object msg = received.poll(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertNotNull("No trigger received", msg);
+        assertTrue("Not a trigger: " + msg, msg instanceof BaseScheduledWorker.Trigger);
+        return (BaseScheduledWorker.Trigger) msg;
+    }
+
+    private static void assertNoMessage(BlockingQueue<Object> received)
+            throws InterruptedException {
+        assertNull(received.poll(NO_MESSAGE_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testTriggerDelivered() throws InterruptedException {
+        WorkerDirectory directory = new WorkerDirectory();
+        BlockingQueue<Object> workerA = register(directory, "worker-a", TriggerableWorker.class);
+        BlockingQueue<Object> workerB = register(directory, "worker-b", TriggerableWorker.class);
+        JobTriggers triggers = newTriggers(directory);
+        try {
+            long before = System.nanoTime();
+            assertTrue(triggers.trigger("worker-a", "req-1"));
+            BaseScheduledWorker.Trigger trigger = nextTrigger(workerA);
+            assertEquals("req-1", trigger.getId());
+            assertTrue(trigger.getReceivedNanos() >= before);
+            // only the named worker is run
+            assertNoMessage(workerB);
+            assertEquals("{\"channel\":\"" + CHANNEL + "\",\"published\":1,\"delivered\":1,"
+                    + "\"duplicates\":0,\"unknownWorker\":0}", triggers.toJson());
+        } finally {
+            triggers.destroy();
+        }
+    }
+
+    @Test
+    public void testDuplicateRequestRunOnce() throws InterruptedException {
+        WorkerDirectory directory = new WorkerDirectory();
+        BlockingQueue<Object> worker = register(directory, "worker-a", TriggerableWorker.class);
+        JobTriggers triggers = newTriggers(directory);
+        try {
+            triggers.trigger("worker-a", "req-1");
+            triggers.trigger("worker-a", "req-1");
+            triggers.trigger("worker-a", "req-2");
+            assertEquals("req-1", nextTrigger(worker).getId());
+            assertEquals("req-2", nextTrigger(worker).getId());
+            assertNoMessage(worker);
+            assertTrue(triggers.toJson(),
+                    triggers.toJson().contains("\"delivered\":2,\"duplicates\":1"));
+        } finally {
+            triggers.destroy();
+        }
+    }
+
+    @Test
+    public void testRequestsWithoutIdNotDeduplicated() throws InterruptedException {
+        WorkerDirectory directory = new WorkerDirectory();
+        BlockingQueue<Object> worker = register(directory, "worker-a", TriggerableWorker.class);
+        JobTriggers triggers = newTriggers(directory);
+        try {
+            // publishers other than JobTriggers may send just the worker name
+            byte[] payload = "worker-a".getBytes(StandardCharsets.UTF_8);
+            PubSubHelper.publish(hub, CHANNEL, payload);
+            PubSubHelper.publish(hub, CHANNEL, payload);
+            assertNull(nextTrigger(worker).getId());
+            assertNull(nextTrigger(worker).getId());
+        } finally {
+            triggers.destroy();
+        }
+    }
+
+    @Test
+    public void testUnknownAndNonTriggerableWorkers() throws InterruptedException {
+        WorkerDirectory directory = new WorkerDirectory();
+        BlockingQueue<Object> plain = register(directory, "plain", JobTriggersTest.class);
+        JobTriggers triggers = newTriggers(directory);
+        try {
+            assertTrue(triggers.trigger("no-such-worker"));
+            assertTrue(triggers.trigger("plain"));
+            assertNoMessage(plain);
+            assertTrue(triggers.toJson(),
+                    triggers.toJson().contains("\"delivered\":0,\"duplicates\":0,"
+                            + "\"unknownWorker\":2"));
+        } finally {
+            triggers.destroy();
+        }
+    }
+
+    @Test
+    public void testInvalidPayloadIgnored() throws InterruptedException {
+        WorkerDirectory directory = new WorkerDirectory();
+        BlockingQueue<Object> worker = register(directory, "worker-a", TriggerableWorker.class);
+        JobTriggers triggers = newTriggers(directory);
+        try {
+            PubSubHelper.publish(hub, CHANNEL, new byte[0]);
+            assertNoMessage(worker);
+            triggers.trigger("worker-a", "req-1");
+            assertEquals("req-1", nextTrigger(worker).getId());
+        } finally {
+            triggers.destroy();
+        }
+    }
+
+    @Test
+    public void testEveryNodeRunsItsWorker() throws InterruptedException {
+        WorkerDirectory directory1 = new WorkerDirectory(), directory2 = new WorkerDirectory();
+        BlockingQueue<Object> worker1 = register(directory1, "worker-a", TriggerableWorker.class);
+        BlockingQueue<Object> worker2 = register(directory2, "worker-a", TriggerableWorker.class);
+        JobTriggers node1 = newTriggers(directory1), node2 = newTriggers(directory2);
+        try {
+            node1.trigger("worker-a", "req-1");
+            // a global-singleton worker then runs on one node only, through its dlock
+            assertEquals("req-1", nextTrigger(worker1).getId());
+            assertEquals("req-1", nextTrigger(worker2).getId());
+            assertNoMessage(worker1);
+        } finally {
+            node1.destroy();
+            node2.destroy();
+        }
+    }
+
+    @Test
+    public void testDestroyUnsubscribes() throws InterruptedException {
+        WorkerDirectory directory = new WorkerDirectory();
+        BlockingQueue<Object> worker = register(directory, "worker-a", TriggerableWorker.class);
+        JobTriggers triggers = newTriggers(directory);
+        triggers.destroy();
+        assertTrue(triggers.trigger("worker-a", "req-1"));
+        assertNoMessage(worker);
+    }
+}
@@ -0,0 +1,176 @@
+package com.github.btnguyen2k.akkascheduledjob.worker;
+
+import com.github.btnguyen2k.akkascheduledjob.dlock.InmemLockStore;
+import com.github.btnguyen2k.akkascheduledjob.dlock.PipelinedDLockFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link PartitionClaims} on an {@link InmemLockStore}; two dlock factories sharing the
+ * store act as two nodes sharing one Redis.
+ *
+ * @author Thanh Nguyen <btnguyen2k@gmail.com>
+ * @since template-0.3.0
+ */
+public class PartitionClaimsTest {
+    private final static String PREFIX = "test:";
+    private final static int NUM_PARTITIONS = 4;
+
+    private InmemLockStore lockStore;
+    private PipelinedDLockFactory dlockFactory1, dlockFactory2;
+
+    @Before
+    public void setUp() {
+        lockStore = new InmemLockStore();
+        dlockFactory1 = newDLockFactory();
+        dlockFactory2 = newDLockFactory();
+    }
+
+    @After
+    public void tearDown() {
+        dlockFactory1.destroy();
+        dlockFactory2.destroy();
+    }
+
+    private PipelinedDLockFactory newDLockFactory() {
+        return new PipelinedDLockFactory().setLockStore(lockStore).setLockNamePrefix(PREFIX)
+                .setLeaseMs(10000).setPipelineThreads(1).setPipelineWindowMs(0).init();
+    }
+
+    private static PartitionClaims newClaims(PipelinedDLockFactory dlockFactory, String nodeId,
+            long holdMs) {
+        return new PartitionClaims("job", dlockFactory, "job", NUM_PARTITIONS, nodeId, holdMs);
+    }
+
+    private String owner(int partition) {
+        return lockStore.getOwner(PREFIX + "job-p" + partition);
+    }
+
+    @Test
+    public void testClaimOncePerTick() {
+        PartitionClaims node1 = newClaims(dlockFactory1, "node1", 10000);
+        PartitionClaims node2 = newClaims(dlockFactory2, "node2", 10000);
+        PartitionClaims.Progress progress1 = node1.startTick("tick-1");
+        PartitionClaims.Progress progress2 = node2.startTick("tick-1");
+
+        assertTrue(node1.claim(0, progress1));
+        assertEquals("tick-1@node1", owner(0));
+        assertEquals(PartitionClaims.State.RUNNING, progress1.getState(0));
+        // already claimed, by this node or another one
+        assertFalse(node1.claim(0, progress1));
+        assertFalse(node2.claim(0, progress2));
+        assertEquals(PartitionClaims.State.HELD_ELSEWHERE, progress2.getState(0));
+
+        for (int i = 1; i < NUM_PARTITIONS; i++) {
+            assertTrue(node2.claim(i, progress2));
+        }
+        assertEquals(NUM_PARTITIONS - 1, progress2.count(PartitionClaims.State.RUNNING));
+        assertTrue(progress2.hasUnclaimed());
+        assertEquals(PartitionClaims.State.PENDING, progress1.getState(1));
+    }
+
+    @Test
+    public void testCompletedPartitionNotRunAgain() {
+        PartitionClaims node1 = newClaims(dlockFactory1, "node1", 10000);
+        PartitionClaims node2 = newClaims(dlockFactory2, "node2", 10000);
+        PartitionClaims.Progress progress1 = node1.startTick("tick-1");
+        assertTrue(node1.claim(0, progress1));
+        node1.completed(0, progress1);
+        assertEquals(PartitionClaims.State.DONE, progress1.getState(0));
+        assertTrue(progress1.isSettled(0));
+
+        // the "done" marker keeps other nodes off the partition for this tick
+        assertFalse(node2.claim(0, node2.startTick("tick-1")));
+        assertEquals("tick-1@node1", owner(0));
+
+        // on the next tick, the node replaces its own marker
+        PartitionClaims.Progress next1 = node1.startTick("tick-2");
+        assertTrue(node1.claim(0, next1));
+        assertEquals("tick-2@node1", owner(0));
+        assertFalse(node2.claim(0, node2.startTick("tick-2")));
+    }
+
+    @Test
+    public void testFailedPartitionReleased() {
+        PartitionClaims node1 = newClaims(dlockFactory1, "node1", 10000);
+        PartitionClaims node2 = newClaims(dlockFactory2, "node2", 10000);
+        PartitionClaims.Progress progress1 = node1.startTick("tick-1");
+        PartitionClaims.Progress progress2 = node2.startTick("tick-1");
+        assertTrue(node1.claim(1, progress1));
+        assertFalse(node2.claim(1, progress2));
+
+        node1.failed(1, progress1);
+        assertEquals(PartitionClaims.State.FAILED, progress1.getState(1));
+        assertTrue(progress1.isSettled(1));
+        assertNull(owner(1));
+        // another node retries it
+        assertTrue(node2.claim(1, progress2));
+        assertEquals("tick-1@node2", owner(1));
+        // failing a partition this node does not hold leaves the holder's claim alone
+        node1.failed(1, progress1);
+        assertEquals("tick-1@node2", owner(1));
+    }
+
+    @Test
+    public void testRenewKeepsRunningPartition() throws InterruptedException {
+        final long holdMs = 600;
+        PartitionClaims node1 = newClaims(dlockFactory1, "node1", holdMs);
+        PartitionClaims node2 = newClaims(dlockFactory2, "node2", holdMs);
+        assertEquals(holdMs / 3, node1.getRenewIntervalMs());
+        PartitionClaims.Progress progress1 = node1.startTick("tick-1");
+        PartitionClaims.Progress progress2 = node2.startTick("tick-1");
+        assertTrue(node1.claim(2, progress1));
+        assertFalse(node2.claim(2, progress2));
+
+        // renewing a partition held elsewhere does not take it over
+        node2.renew(progress2);
+        assertEquals("tick-1@node1", owner(2));
+
+        Thread.sleep(holdMs * 2 / 3);
+        node1.renew(progress1);
+        Thread.sleep(holdMs * 2 / 3);
+        // past the first holdMs, still claimed thanks to the renewal
+        assertEquals("tick-1@node1", owner(2));
+        assertFalse(node2.claim(2, progress2));
+
+        // a claim not renewed (e.g. the node is gone) expires after holdMs
+        Thread.sleep(holdMs + 100);
+        assertNull(owner(2));
+        assertTrue(node2.claim(2, progress2));
+        assertEquals("tick-1@node2", owner(2));
+    }
+
+    @Test
+    public void testProgressAndJson() {
+        PartitionClaims node1 = newClaims(dlockFactory1, "node1", 10000);
+        assertEquals(11000, node1.getDeadlineMs(1000));
+        int start = node1.getStartPartition();
+        assertTrue(start >= 0 && start < NUM_PARTITIONS);
+
+        PartitionClaims.Progress progress = node1.startTick("tick-1");
+        assertTrue(node1.claim(0, progress));
+        node1.completed(0, progress);
+        assertTrue(node1.claim(1, progress));
+        node1.failed(1, progress);
+        assertTrue(node1.claim(2, progress));
+        node1.finishTick(progress);
+        String json = node1.toJson();
+        assertTrue(json, json.startsWith("{\"name\":\"job\",\"partitions\":4,\"holdMs\":10000,"
+                + "\"ticks\":[{\"tick\":\"tick-1\","));
+        assertTrue(json, json.endsWith(",\"running\":1,\"done\":1,\"failed\":1,"
+                + "\"heldElsewhere\":0,\"pending\":1}]}"));
+
+        for (int i = 0; i < PartitionClaims.MAX_RECENT_TICKS + 2; i++) {
+            node1.startTick("tick-" + (i + 2));
+        }
+        assertEquals(PartitionClaims.MAX_RECENT_TICKS, node1.getRecentTicks().size());
+        assertEquals("tick-" + (PartitionClaims.MAX_RECENT_TICKS + 3),
+                node1.getRecentTicks().get(0).getTickId());
+    }
+}